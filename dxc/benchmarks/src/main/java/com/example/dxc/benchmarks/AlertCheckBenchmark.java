@@ -0,0 +1,76 @@
+package com.example.dxc.benchmarks;
+
+import com.example.dxc.model.Alert;
+import com.example.dxc.model.Settings;
+import com.example.dxc.service.MetricReading;
+import com.example.dxc.service.SettingsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code SettingsServiceImpl.checkAndTriggerAlert} alone, for a traffic density rule "Above 400":
+ * a metric without a rule, a value within the threshold, and values alternately breaching and
+ * recovering, so every call opens or resolves an alert and mails its subscribers. The batched
+ * {@code checkAndTriggerAlerts} is measured per 100 uniformly random readings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AlertCheckBenchmark {
+
+    private static final String METRIC = "trafficDensity";
+    private static final int BATCH = 100;
+
+    @Param({"0", "10", "100"})
+    public int subscribers;
+
+    private ConfigurableApplicationContext context;
+    private SettingsService settingsService;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private boolean breach;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PipelineContext.start("alerts-" + subscribers);
+        PipelineContext.seedAlerts(context, Settings.SettingType.Traffic, subscribers);
+        settingsService = context.getBean(SettingsService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Alert noRule() {
+        return settingsService.checkAndTriggerAlert(Settings.SettingType.Traffic, "unknownMetric", 450, "Street 1");
+    }
+
+    @Benchmark
+    public Alert withinThreshold() {
+        return settingsService.checkAndTriggerAlert(Settings.SettingType.Traffic, METRIC, 120, "Street 1");
+    }
+
+    @Benchmark
+    public Alert breachAndRecover() {
+        breach = !breach;
+        return settingsService.checkAndTriggerAlert(Settings.SettingType.Traffic, METRIC, breach ? 450 : 100, "Street 1");
+    }
+
+    @Benchmark
+    public List<Alert> batchOf100() {
+        List<MetricReading> readings = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            readings.add(new MetricReading(METRIC, random.nextInt(501), "Street " + (random.nextInt(100) + 1)));
+        }
+        return settingsService.checkAndTriggerAlerts(Settings.SettingType.Traffic, readings);
+    }
+}
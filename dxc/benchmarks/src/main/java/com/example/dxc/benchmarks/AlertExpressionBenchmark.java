@@ -0,0 +1,82 @@
+package com.example.dxc.benchmarks;
+
+import com.example.dxc.model.AirPollutionSensorData;
+import com.example.dxc.model.Settings;
+import com.example.dxc.service.CompoundRuleIndex;
+import com.example.dxc.service.SettingsRuleIndex;
+import com.example.dxc.service.expression.CompiledAlertExpression;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled compound rule {@code pm2_5 > 55 AND pm10 > 150} versus looking up and
+ * evaluating the two equivalent single-metric rules one by one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AlertExpressionBenchmark {
+
+    private CompiledAlertExpression<AirPollutionSensorData> compound;
+    private SettingsRuleIndex singleMetricRules;
+    private AirPollutionSensorData[] readings;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        compound = CompoundRuleIndex.compile(Settings.SettingType.Air_Pollution, "pm2_5 > 55 AND pm10 > 150");
+
+        singleMetricRules = new SettingsRuleIndex(null);
+        singleMetricRules.replaceAll(List.of(
+                rule("pm2_5", 55f),
+                rule("pm10", 150f)));
+
+        // Mix of matching and non-matching readings so neither branch is predicted perfectly
+        readings = new AirPollutionSensorData[1024];
+        Random random = new Random(42);
+        for (int i = 0; i < readings.length; i++) {
+            AirPollutionSensorData data = new AirPollutionSensorData();
+            data.setPm2_5(random.nextFloat() * 100);
+            data.setPm10(random.nextFloat() * 300);
+            readings[i] = data;
+        }
+    }
+
+    @Benchmark
+    public boolean compiledCompoundRule() {
+        return compound.matches(nextReading());
+    }
+
+    @Benchmark
+    public boolean singleMetricRulesOneByOne() {
+        AirPollutionSensorData data = nextReading();
+        return breaches(singleMetricRules.find(Settings.SettingType.Air_Pollution, "pm2_5"), data.getPm2_5())
+                && breaches(singleMetricRules.find(Settings.SettingType.Air_Pollution, "pm10"), data.getPm10());
+    }
+
+    private AirPollutionSensorData nextReading() {
+        return readings[next++ & (readings.length - 1)];
+    }
+
+    private static boolean breaches(Settings setting, float value) {
+        return switch (setting.getAlertType()) {
+            case Above -> value > setting.getThresholdValue();
+            case Below -> value < setting.getThresholdValue();
+        };
+    }
+
+    private static Settings rule(String metric, float threshold) {
+        return Settings.builder()
+                .type(Settings.SettingType.Air_Pollution)
+                .metric(metric)
+                .thresholdValue(threshold)
+                .alertType(Settings.AlertType.Above)
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.dxc.benchmarks;
+
+import com.example.dxc.jwt.AuthTokenFilter;
+import com.example.dxc.jwt.AuthenticationCache;
+import com.example.dxc.jwt.JwtConfig;
+import com.example.dxc.jwt.JwtUtils;
+import com.example.dxc.model.User;
+import com.example.dxc.model.UserDetailsImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of authenticating one request in {@link AuthTokenFilter}: the previous behaviour
+ * (secret decoded and key built for each of two parses, then a users-table query), the filter
+ * with its cache disabled (cached key, one parse, the query), and the filter with its cache.
+ * The users table is an in-memory H2 table, so a real database round trip only widens the gap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AuthTokenFilterBenchmark {
+
+    private static final String SECRET = "c21hcnQtY2l0eS1zZWNyZXQta2V5LWZvci10ZXN0aW5nLW9ubHktMzItYnl0ZXM=";
+    private static final String EMAIL = "jane@example.com";
+
+    private Connection connection;
+    private UserDetailsService userDetailsService;
+    private String token;
+    private AuthTokenFilter uncachedFilter;
+    private AuthTokenFilter cachedFilter;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:auth-benchmark;DB_CLOSE_DELAY=-1");
+        connection.createStatement().execute("CREATE TABLE IF NOT EXISTS users (email VARCHAR(255) PRIMARY KEY, password VARCHAR(255))");
+        connection.createStatement().execute("MERGE INTO users KEY (email) VALUES ('" + EMAIL + "', 'hash')");
+        userDetailsService = this::loadUser;
+
+        token = Jwts.builder()
+                .setSubject(EMAIL)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        uncachedFilter = filter(Duration.ZERO);
+        cachedFilter = filter(Duration.ofSeconds(60));
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public UserDetails previousKeyPerParseAndDoubleParse() {
+        // What AuthTokenFilter did before: validateJwtToken, getUserNameFromJwtToken, loadUserByUsername
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build().parse(token);
+        String email = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build()
+                .parseClaimsJws(token).getBody().getSubject();
+        return userDetailsService.loadUserByUsername(email);
+    }
+
+    @Benchmark
+    public Authentication filterWithoutCache() throws Exception {
+        return authenticate(uncachedFilter);
+    }
+
+    @Benchmark
+    public Authentication filterWithCache() throws Exception {
+        return authenticate(cachedFilter);
+    }
+
+    private Authentication authenticate(AuthTokenFilter filter) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sensors/traffic");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private AuthTokenFilter filter(Duration cacheTtl) {
+        JwtConfig config = new JwtConfig();
+        config.setSecretKey(SECRET);
+        config.setExpirationMs(3_600_000);
+        config.setCacheTtl(cacheTtl);
+        return new AuthTokenFilter(new JwtUtils(config), userDetailsService, new AuthenticationCache(config));
+    }
+
+    private UserDetails loadUser(String email) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT email, password FROM users WHERE email = ?")) {
+            statement.setString(1, email);
+            try (ResultSet rows = statement.executeQuery()) {
+                if (!rows.next()) {
+                    throw new UsernameNotFoundException("User not found with email: " + email);
+                }
+                return new UserDetailsImpl(User.builder().email(rows.getString(1)).password(rows.getString(2)).build());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
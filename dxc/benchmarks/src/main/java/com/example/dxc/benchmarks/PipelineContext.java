@@ -0,0 +1,157 @@
+package com.example.dxc.benchmarks;
+
+import com.example.dxc.config.AlertProperties;
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.config.JpaBatchConfig;
+import com.example.dxc.config.LiveFeedProperties;
+import com.example.dxc.config.RollupProperties;
+import com.example.dxc.config.SensorQueryProperties;
+import com.example.dxc.dto.SettingsRequest;
+import com.example.dxc.model.AlertSubscription;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.User;
+import com.example.dxc.service.AlertStateTracker;
+import com.example.dxc.service.AlertStreamBroadcaster;
+import com.example.dxc.service.AlertSubscriptionIndex;
+import com.example.dxc.service.CompoundRuleIndex;
+import com.example.dxc.service.EmailServiceImpl;
+import com.example.dxc.service.LatestReadingCache;
+import com.example.dxc.service.LiveSensorFeed;
+import com.example.dxc.service.SensorCountEstimator;
+import com.example.dxc.service.SensorDataServiceImpl;
+import com.example.dxc.service.SensorDataValidator;
+import com.example.dxc.service.SensorRollupStore;
+import com.example.dxc.service.SettingsRuleIndex;
+import com.example.dxc.service.SettingsService;
+import com.example.dxc.service.SettingsServiceImpl;
+import com.example.dxc.service.WriteBehindIngestor;
+import com.example.dxc.service.observer.EmailAlertObserver;
+import com.example.dxc.service.strategy.AirPollutionSensorStrategy;
+import com.example.dxc.service.strategy.SensorDataStrategy;
+import com.example.dxc.service.strategy.StreetLightSensorStrategy;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.mail.MailSenderAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The sensor pipeline and alerting wired as in the application, on an in-memory H2 database.
+ * Mails are fully composed but never sent, and {@code @Async}/{@code @Scheduled} are not enabled,
+ * so every benchmark measures its own thread's work only. Logging goes to target/benchmark.log.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {SecurityAutoConfiguration.class, SecurityFilterAutoConfiguration.class,
+        UserDetailsServiceAutoConfiguration.class, OAuth2ClientAutoConfiguration.class,
+        MailSenderAutoConfiguration.class})
+@EntityScan("com.example.dxc.model")
+@EnableJpaRepositories("com.example.dxc.repository")
+@Import({TrafficSensorStrategy.class, AirPollutionSensorStrategy.class, StreetLightSensorStrategy.class,
+        SensorDataValidator.class, SensorDataServiceImpl.class, WriteBehindIngestor.class, SensorCountEstimator.class,
+        SensorQueryProperties.class, SensorRollupStore.class, RollupProperties.class, LatestReadingCache.class,
+        LiveSensorFeed.class, LiveFeedProperties.class, IngestProperties.class, JpaBatchConfig.class,
+        SettingsServiceImpl.class, SettingsRuleIndex.class, AlertSubscriptionIndex.class, AlertStateTracker.class,
+        CompoundRuleIndex.class, AlertStreamBroadcaster.class, AlertProperties.class,
+        EmailAlertObserver.class, EmailServiceImpl.class})
+public class PipelineContext {
+
+    // One rule per metric, each breached by roughly a fifth of the generated readings
+    private static final Map<String, Float> THRESHOLDS = Map.of(
+            "trafficDensity", 400f, "avgSpeed", 96f,
+            "co", 40f, "ozone", 240f,
+            "brightnessLevel", 80f, "powerConsumption", 4000f);
+
+    @Bean
+    public CountingMailSender mailSender() {
+        return new CountingMailSender();
+    }
+
+    public static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(PipelineContext.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                // The entities are mapped for MySQL, where "user" and "value" are plain identifiers
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.open-in-view=false",
+                        "--logging.file.name=target/benchmark.log",
+                        "--logging.pattern.console=");
+    }
+
+    /**
+     * Adds an {@link Settings.AlertType#Above} rule for every metric of {@code type}, and
+     * {@code subscribers} users subscribed to all of its alerts.
+     */
+    public static void seedAlerts(ConfigurableApplicationContext context, Settings.SettingType type, int subscribers) {
+        SettingsService settingsService = context.getBean(SettingsService.class);
+        for (String metric : strategy(context, type).getMetricNames()) {
+            Float threshold = THRESHOLDS.get(metric);
+            if (threshold == null) {
+                continue;
+            }
+            SettingsRequest request = new SettingsRequest();
+            request.setType(type);
+            request.setMetric(metric);
+            request.setThresholdValue(threshold);
+            request.setAlertType(Settings.AlertType.Above);
+            settingsService.saveSettings(request);
+        }
+
+        AlertSubscriptionIndex subscriptions = context.getBean(AlertSubscriptionIndex.class);
+        for (long i = 1; i <= subscribers; i++) {
+            User user = User.builder().id(i).email("user" + i + "@example.com").firstName("User").lastName("" + i).build();
+            subscriptions.add(AlertSubscription.builder()
+                    .id(UUID.randomUUID())
+                    .user(user)
+                    .type(type)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static SensorDataStrategy<Object> strategy(ConfigurableApplicationContext context, Settings.SettingType type) {
+        for (SensorDataStrategy<?> strategy : context.getBeansOfType(SensorDataStrategy.class).values()) {
+            if (strategy.getSettingType() == type) {
+                return (SensorDataStrategy<Object>) strategy;
+            }
+        }
+        throw new IllegalArgumentException("No strategy for " + type);
+    }
+
+    /**
+     * Builds every message as the real sender would and then drops it.
+     */
+    public static class CountingMailSender extends JavaMailSenderImpl {
+
+        private final LongAdder sent = new LongAdder();
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            sent.add(mimeMessages.length);
+        }
+
+        public long getSent() {
+            return sent.sum();
+        }
+    }
+}
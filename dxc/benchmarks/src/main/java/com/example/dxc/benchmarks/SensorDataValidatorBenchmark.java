@@ -0,0 +1,80 @@
+package com.example.dxc.benchmarks;
+
+import com.example.dxc.model.AirPollutionSensorData;
+import com.example.dxc.model.StreetLightSensorData;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.service.SensorDataValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SensorDataValidator} alone, for a valid reading of each type and for a rejected one,
+ * whose cost is mostly building the exception.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SensorDataValidatorBenchmark {
+
+    private final SensorDataValidator validator = new SensorDataValidator();
+    private TrafficSensorData traffic;
+    private TrafficSensorData invalidTraffic;
+    private AirPollutionSensorData airPollution;
+    private StreetLightSensorData streetLight;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime timestamp = LocalDateTime.now().minusMinutes(1);
+        traffic = TrafficSensorData.builder()
+                .id(UUID.randomUUID()).location("Street 1").timestamp(timestamp)
+                .trafficDensity(250).avgSpeed(48).congestionLevel(TrafficSensorData.CongestionLevel.Moderate)
+                .build();
+        invalidTraffic = TrafficSensorData.builder()
+                .id(UUID.randomUUID()).location("Street 1").timestamp(timestamp)
+                .trafficDensity(900).avgSpeed(48).congestionLevel(TrafficSensorData.CongestionLevel.Moderate)
+                .build();
+        airPollution = AirPollutionSensorData.builder()
+                .id(UUID.randomUUID()).location("Zone 1").timestamp(timestamp)
+                .pm2_5(35).pm10(60).co(4).no2(20).so2(5).ozone(90)
+                .pollutionLevel(AirPollutionSensorData.PollutionLevel.Moderate)
+                .build();
+        streetLight = StreetLightSensorData.builder()
+                .id(UUID.randomUUID()).location("LightPole-1").timestamp(timestamp)
+                .brightnessLevel(70).powerConsumption(1200).status(StreetLightSensorData.LightStatus.ON)
+                .build();
+    }
+
+    @Benchmark
+    public TrafficSensorData traffic() {
+        validator.validateTrafficData(traffic);
+        return traffic;
+    }
+
+    @Benchmark
+    public AirPollutionSensorData airPollution() {
+        validator.validateAirPollutionData(airPollution);
+        return airPollution;
+    }
+
+    @Benchmark
+    public StreetLightSensorData streetLight() {
+        validator.validateStreetLightData(streetLight);
+        return streetLight;
+    }
+
+    @Benchmark
+    public Exception rejectedTraffic() {
+        try {
+            validator.validateTrafficData(invalidTraffic);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
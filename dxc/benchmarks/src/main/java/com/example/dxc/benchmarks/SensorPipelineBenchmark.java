@@ -0,0 +1,101 @@
+package com.example.dxc.benchmarks;
+
+import com.example.dxc.model.Settings;
+import com.example.dxc.service.SensorDataService;
+import com.example.dxc.service.strategy.SensorDataStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one reading in each stage of {@code SensorDataServiceImpl.executeStrategy}, per sensor
+ * type: generateData, validate, save (repository insert plus the write listeners), checkAlerts,
+ * log, and the whole pipeline as the scheduler runs it. Every metric has an alert rule breached by
+ * about a fifth of the readings, with {@link #SUBSCRIBERS} subscribers mailed for each alert.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SensorPipelineBenchmark {
+
+    private static final int SUBSCRIBERS = 5;
+    // Readings the single-stage benchmarks cycle through, so alert checks see breaches and recoveries
+    private static final int READINGS = 1024;
+
+    @Param({"Traffic", "Air_Pollution", "Street_Light"})
+    public Settings.SettingType type;
+
+    private ConfigurableApplicationContext context;
+    private SensorDataStrategy<Object> strategy;
+    private SensorDataService sensorDataService;
+    private Object[] readings;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PipelineContext.start("pipeline-" + type);
+        PipelineContext.seedAlerts(context, type, SUBSCRIBERS);
+        strategy = PipelineContext.strategy(context, type);
+        sensorDataService = context.getBean(SensorDataService.class);
+        readings = new Object[READINGS];
+        for (int i = 0; i < READINGS; i++) {
+            readings[i] = strategy.save(strategy.generateData());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object generateData() {
+        return strategy.generateData();
+    }
+
+    @Benchmark
+    public Object validate() {
+        Object reading = nextReading();
+        strategy.validate(reading);
+        return reading;
+    }
+
+    // Includes generating the reading: a saved one cannot be inserted again
+    @Benchmark
+    public Object save() {
+        return strategy.save(strategy.generateData());
+    }
+
+    @Benchmark
+    public Object checkAlerts() {
+        Object reading = nextReading();
+        strategy.checkAlerts(reading);
+        return reading;
+    }
+
+    @Benchmark
+    public Object log() {
+        Object reading = nextReading();
+        strategy.log(reading, "BENCHMARK DATA INSERTED");
+        return reading;
+    }
+
+    @Benchmark
+    public void pipeline() {
+        switch (type) {
+            case Traffic -> sensorDataService.generateTrafficData();
+            case Air_Pollution -> sensorDataService.generateAirPollutionData();
+            case Street_Light -> sensorDataService.generateStreetLightData();
+        }
+    }
+
+    private Object nextReading() {
+        Object reading = readings[next];
+        next = (next + 1) % READINGS;
+        return reading;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.loadtest;
+
+import com.example.dxc.DxcApplication;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The whole backend, started in this JVM on an in-memory H2 database with a random port.
+ * Mails are composed but not sent. It shares the machine with the load generator, so the
+ * numbers are a lower bound for a pod running on its own.
+ */
+final class EmbeddedBackend implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedBackend(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    static EmbeddedBackend start(Path reportDir) {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DxcApplication.class, StubMail.class)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--server.port=0",
+                        // The entities are mapped for MySQL, where "user" and "value" are plain identifiers
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--jwt.secretKey=" + Base64.getEncoder().encodeToString(secret),
+                        "--jwt.expirationMs=3600000",
+                        "--spring.security.oauth2.client.registration.google.client-id=load-test",
+                        "--spring.security.oauth2.client.registration.google.client-secret=load-test",
+                        "--logging.file.name=" + reportDir.resolve("backend.log"),
+                        "--logging.pattern.console=");
+        return new EmbeddedBackend(context);
+    }
+
+    String url() {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    long mailsComposed() {
+        return context.getBean(StubMailSender.class).composed.sum();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class StubMail {
+
+        @Bean
+        StubMailSender mailSender() {
+            return new StubMailSender();
+        }
+    }
+
+    static class StubMailSender extends JavaMailSenderImpl {
+
+        private final LongAdder composed = new LongAdder();
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            composed.add(mimeMessages.length);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpRequest;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * One request type of the scenario, sent at a fixed rate, with the latency histogram and status
+ * counts of the requests it sent during the measurement window.
+ * <p>
+ * Latency is taken from the moment a request was due, not from when it was actually sent, so a
+ * backend that stalls the generator is charged for the requests it held up (no coordinated omission).
+ */
+final class Endpoint {
+
+    // Microseconds; anything slower than a minute is clamped
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    final String name;
+    final double rate;
+    private final Supplier<HttpRequest> requests;
+    private final Recorder recorder = new Recorder(HIGHEST_LATENCY, 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private volatile long measureFrom = Long.MAX_VALUE;
+
+    Endpoint(String name, double rate, Supplier<HttpRequest> requests) {
+        this.name = name;
+        this.rate = rate;
+        this.requests = requests;
+    }
+
+    HttpRequest nextRequest() {
+        return requests.get();
+    }
+
+    /**
+     * Only requests due from {@code nanoTime} on are counted; earlier ones are the warm-up.
+     */
+    void measureFrom(long nanoTime) {
+        measureFrom = nanoTime;
+    }
+
+    void recordResponse(long dueNanos, int status) {
+        if (dueNanos >= measureFrom) {
+            recorder.recordValue(Math.min(HIGHEST_LATENCY, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueNanos)));
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+    }
+
+    void recordError(long dueNanos) {
+        if (dueNanos >= measureFrom) {
+            recorder.recordValue(Math.min(HIGHEST_LATENCY, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueNanos)));
+            errors.increment();
+        }
+    }
+
+    /**
+     * Everything recorded since the previous call.
+     */
+    Histogram takeLatencies() {
+        return recorder.getIntervalHistogram();
+    }
+
+    Map<Integer, Long> statuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+}
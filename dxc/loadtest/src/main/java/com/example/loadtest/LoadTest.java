@@ -0,0 +1,341 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Open-loop HTTP load test of the backend: users sign up and log in for a JWT, a traffic alert
+ * rule is created, and then single-reading POSTs, paged dashboard GETs, {@code /api/alerts/recent}
+ * and further logins are each sent at a fixed rate. After the warm-up, every request's latency is
+ * recorded per endpoint; the report gives throughput, status counts and the HDR latency
+ * distribution of each, and writes the distributions as .hgrm files to {@code load.report-dir}.
+ * <p>
+ * All settings are {@code load.*} system properties, see the module's pom.xml.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String PASSWORD = "load-test-password";
+    private static final String[] SENSOR_PATHS = {"traffic", "air-pollution", "street-light"};
+
+    private final Config config;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final Semaphore inFlight;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private AtomicReferenceArray<String> tokens;
+
+    private LoadTest(Config config, String baseUrl, ExecutorService clientThreads) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientThreads)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.inFlight = new Semaphore(config.maxInFlight());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.fromSystemProperties();
+        Files.createDirectories(config.reportDir());
+
+        EmbeddedBackend backend = null;
+        String baseUrl = config.url();
+        if (baseUrl.isBlank()) {
+            System.out.println("Starting the backend on H2...");
+            backend = EmbeddedBackend.start(config.reportDir());
+            baseUrl = backend.url();
+        }
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            LoadTest test = new LoadTest(config, baseUrl, clientThreads);
+            test.setUp();
+            List<Endpoint> endpoints = test.endpoints();
+            test.run(endpoints);
+            test.report(endpoints, System.out);
+            if (backend != null) {
+                System.out.printf("Alert mails composed by the backend: %d%n", backend.mailsComposed());
+            }
+        } finally {
+            if (backend != null) {
+                backend.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Signs up and logs in every user, and adds the alert rule that readings will breach.
+     */
+    private void setUp() throws IOException, InterruptedException {
+        System.out.printf("Signing up and logging in %d users against %s%n", config.users(), baseUrl);
+        tokens = new AtomicReferenceArray<>(config.users());
+        for (int i = 0; i < config.users(); i++) {
+            String body = JSON.createObjectNode()
+                    .put("firstName", "Load")
+                    .put("lastName", "Tester " + i)
+                    .put("email", email(i))
+                    .put("password", PASSWORD)
+                    .toString();
+            HttpResponse<String> signup = client.send(post("/api/auth/signup", body, null), HttpResponse.BodyHandlers.ofString());
+            if (signup.statusCode() != 200) {
+                throw new IllegalStateException("Signup failed with " + signup.statusCode() + ": " + signup.body());
+            }
+            HttpResponse<String> login = client.send(loginRequest(i), HttpResponse.BodyHandlers.ofString());
+            tokens.set(i, tokenOf(login));
+        }
+
+        // About one traffic reading in ten breaches it, so alerts are opened, mailed and listed
+        String rule = JSON.createObjectNode()
+                .put("type", "Traffic")
+                .put("metric", "trafficDensity")
+                .put("thresholdValue", 450)
+                .put("alertType", "Above")
+                .toString();
+        HttpResponse<String> created = client.send(post("/api/settings", rule, tokens.get(0)), HttpResponse.BodyHandlers.ofString());
+        if (created.statusCode() != 200) {
+            throw new IllegalStateException("Creating the alert rule failed with " + created.statusCode() + ": " + created.body());
+        }
+    }
+
+    private List<Endpoint> endpoints() {
+        List<Endpoint> endpoints = new ArrayList<>();
+        AtomicInteger loginUser = new AtomicInteger();
+        endpoints.add(new Endpoint("POST /api/auth/signin", config.loginRate(),
+                () -> loginRequest(Math.floorMod(loginUser.getAndIncrement(), config.users()))));
+        for (String path : SENSOR_PATHS) {
+            endpoints.add(new Endpoint("POST /api/sensors/" + path, config.ingestRate() / SENSOR_PATHS.length,
+                    () -> post("/api/sensors/" + path, reading(path), anyToken())));
+        }
+        for (String path : SENSOR_PATHS) {
+            endpoints.add(new Endpoint("GET /api/sensors/" + path, config.queryRate() / SENSOR_PATHS.length,
+                    () -> get("/api/sensors/" + path + "?page=" + ThreadLocalRandom.current().nextInt(5) + "&size=20", anyToken())));
+        }
+        endpoints.add(new Endpoint("GET /api/alerts/recent", config.alertsRate(),
+                () -> get("/api/alerts/recent", anyToken())));
+        endpoints.removeIf(endpoint -> endpoint.rate <= 0);
+        return endpoints;
+    }
+
+    private void run(List<Endpoint> endpoints) throws InterruptedException {
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        endpoints.forEach(endpoint -> endpoint.measureFrom(measureFrom));
+
+        System.out.printf("Warming up for %ds, then measuring for %ds%n", config.warmup().toSeconds(), config.duration().toSeconds());
+        List<Thread> generators = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            generators.add(Thread.ofVirtual().name("load-" + endpoint.name).start(() -> generate(endpoint, start, end)));
+        }
+        while (System.nanoTime() < end) {
+            Thread.sleep(Math.min(10_000, Math.max(1, TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()))));
+            long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+            System.out.printf("  %3ds  %d requests in flight%n", elapsed, pending.get());
+        }
+        for (Thread generator : generators) {
+            generator.join();
+        }
+        // Responses still outstanding are recorded as they arrive; give up on them after a while
+        inFlight.tryAcquire(config.maxInFlight(), 60, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Sends {@code endpoint}'s requests at its rate between {@code start} and {@code end}. When
+     * {@code load.max-in-flight} requests are outstanding the next one waits, and is charged for it.
+     */
+    private void generate(Endpoint endpoint, long start, long end) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / endpoint.rate);
+        for (long due = start; due < end; due += interval) {
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquireUninterruptibly();
+            pending.incrementAndGet();
+            long dueNanos = due;
+            client.sendAsync(endpoint.nextRequest(), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            endpoint.recordError(dueNanos);
+                        } else {
+                            endpoint.recordResponse(dueNanos, response.statusCode());
+                            if (endpoint.name.equals("POST /api/auth/signin") && response.statusCode() == 200) {
+                                refreshToken(response);
+                            }
+                        }
+                        pending.decrementAndGet();
+                        inFlight.release();
+                    });
+        }
+    }
+
+    private void report(List<Endpoint> endpoints, PrintStream out) throws IOException {
+        double seconds = config.duration().toNanos() / 1e9;
+        out.println();
+        out.printf("%-32s %9s %8s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        Map<Endpoint, Histogram> latencies = new LinkedHashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            Histogram histogram = endpoint.takeLatencies();
+            latencies.put(endpoint, histogram);
+            String statuses = endpoint.statuses().toString() + (endpoint.errors() > 0 ? " errors=" + endpoint.errors() : "");
+            out.printf(Locale.ROOT, "%-32s %9d %8.1f %9.1f %9.1f %9.1f %9.1f %9.1f  %s%n",
+                    endpoint.name, histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0, statuses);
+        }
+
+        for (Map.Entry<Endpoint, Histogram> entry : latencies.entrySet()) {
+            out.println();
+            out.printf("Latency distribution of %s (ms)%n", entry.getKey().name);
+            entry.getValue().outputPercentileDistribution(out, 5, 1000.0);
+
+            Path file = config.reportDir().resolve(entry.getKey().name.replaceAll("[^A-Za-z0-9]+", "-") + ".hgrm");
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().outputPercentileDistribution(hgrm, 5, 1000.0);
+            }
+        }
+        out.println();
+        out.printf("Histograms written to %s%n", config.reportDir());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private HttpRequest loginRequest(int user) {
+        String body = JSON.createObjectNode().put("email", email(user)).put("password", PASSWORD).toString();
+        return post("/api/auth/signin", body, null);
+    }
+
+    private void refreshToken(HttpResponse<String> login) {
+        try {
+            JsonNode body = JSON.readTree(login.body());
+            String email = body.path("email").asText();
+            int user = Integer.parseInt(email.substring(email.indexOf('+') + 1, email.indexOf('@')));
+            tokens.set(user, body.path("token").asText());
+        } catch (IOException | RuntimeException e) {
+            // Keep using the previous token
+        }
+    }
+
+    private static String tokenOf(HttpResponse<String> login) throws IOException {
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with " + login.statusCode() + ": " + login.body());
+        }
+        return JSON.readTree(login.body()).path("token").asText();
+    }
+
+    private String anyToken() {
+        return tokens.get(ThreadLocalRandom.current().nextInt(tokens.length()));
+    }
+
+    private String email(int user) {
+        return "load-" + runId + "+" + user + "@example.com";
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String body, String token) {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    /**
+     * A valid reading of the sensor type behind {@code path}; the backend fills in id and timestamp.
+     */
+    private static String reading(String path) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (path) {
+            case "traffic" -> JSON.createObjectNode()
+                    .put("location", "Street " + (random.nextInt(100) + 1))
+                    .put("trafficDensity", random.nextInt(501))
+                    .put("avgSpeed", random.nextFloat() * 120)
+                    .put("congestionLevel", pick(random, "Low", "Moderate", "High", "Severe"))
+                    .toString();
+            case "air-pollution" -> JSON.createObjectNode()
+                    .put("location", "Zone " + (random.nextInt(30) + 1))
+                    .put("pm2_5", random.nextFloat() * 100)
+                    .put("pm10", random.nextFloat() * 150)
+                    .put("co", random.nextFloat() * 50)
+                    .put("no2", random.nextFloat() * 40)
+                    .put("so2", random.nextFloat() * 20)
+                    .put("ozone", random.nextFloat() * 300)
+                    .put("pollutionLevel", pick(random, "Good", "Moderate", "Unhealthy", "Very_Unhealthy", "Hazardous"))
+                    .toString();
+            case "street-light" -> JSON.createObjectNode()
+                    .put("location", "LightPole-" + random.nextInt(100))
+                    .put("brightnessLevel", random.nextInt(101))
+                    .put("powerConsumption", random.nextFloat() * 5000)
+                    .put("status", pick(random, "ON", "OFF"))
+                    .toString();
+            default -> throw new IllegalArgumentException(path);
+        };
+    }
+
+    private static String pick(ThreadLocalRandom random, String... values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    record Config(String url, int users, Duration warmup, Duration duration, double ingestRate, double queryRate,
+                  double alertsRate, double loginRate, int maxInFlight, Path reportDir) {
+
+        static Config fromSystemProperties() {
+            return new Config(
+                    property("load.url", "", s -> s.replaceAll("/+$", "")),
+                    property("load.users", "20", Integer::parseInt),
+                    property("load.warmup", "PT10S", Duration::parse),
+                    property("load.duration", "PT60S", Duration::parse),
+                    property("load.ingest-rate", "300", Double::parseDouble),
+                    property("load.query-rate", "60", Double::parseDouble),
+                    property("load.alerts-rate", "10", Double::parseDouble),
+                    property("load.login-rate", "1", Double::parseDouble),
+                    property("load.max-in-flight", "2000", Integer::parseInt),
+                    property("load.report-dir", "target/loadtest", Path::of));
+        }
+
+        private static <T> T property(String name, String defaultValue, Function<String, T> parser) {
+            String value = System.getProperty(name);
+            return parser.apply(value == null ? defaultValue : value.trim());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.dxc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Coalescing of threshold alerts ({@code alerts.*}).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "alerts")
+public class AlertProperties {
+
+    // Fraction of the threshold a value must move back past before an open alert resolves,
+    // e.g. 0.05 resolves an "Above 100" alert only once a reading drops to 95 or less.
+    // Compound alerts resolve as soon as their expression stops matching
+    private float hysteresis = 0.05f;
+
+    // A breach within this window after an alert resolved reopens it instead of raising a new one
+    private Duration cooldown = Duration.ofMinutes(10);
+
+    private Stream stream = new Stream();
+
+    /**
+     * Server-sent event push of opened alerts ({@code alerts.stream.*}).
+     */
+    @Data
+    public static class Stream {
+
+        // Recent alerts kept for clients catching up with Last-Event-ID after a reconnect
+        private int bufferSize = 1024;
+
+        // Open connections are async requests, not threads; this only bounds memory and sockets
+        private int maxClients = 10_000;
+
+        // Connections are closed after this long and the browser reconnects with Last-Event-ID
+        private Duration timeout = Duration.ofMinutes(30);
+
+        // Comment lines keeping idle connections open through proxies and detecting gone clients
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        // Threads writing queued alerts to the clients
+        private int deliveryThreads = 2;
+
+        // A client whose write has been blocked this long, because it stopped reading, is dropped and
+        // its delivery thread replaced until the container's write timeout frees it
+        private Duration sendTimeout = Duration.ofSeconds(5);
+    }
+}
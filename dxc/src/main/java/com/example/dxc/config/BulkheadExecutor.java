@@ -0,0 +1,77 @@
+package com.example.dxc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded thread pool of one workload, counting the tasks its {@link ExecutorProperties.Rejection} policy turned away.
+ */
+public class BulkheadExecutor extends ThreadPoolTaskExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadExecutor.class);
+
+    private final String name;
+    private final LongAdder rejected = new LongAdder();
+
+    public BulkheadExecutor(String name, ExecutorProperties.Pool pool, boolean virtualThreads) {
+        this.name = name;
+        setThreadNamePrefix(name + "-");
+        if (virtualThreads) {
+            // Still at most maxSize tasks at once: the pool, not the thread kind, is the bulkhead
+            setThreadFactory(Thread.ofVirtual().name(name + "-", 1).factory());
+        }
+        setCorePoolSize(Math.max(1, pool.getCoreSize()));
+        setMaxPoolSize(Math.max(Math.max(1, pool.getCoreSize()), pool.getMaxSize()));
+        setQueueCapacity(Math.max(0, pool.getQueueCapacity()));
+        setKeepAliveSeconds((int) pool.getKeepAlive().toSeconds());
+        setRejectedExecutionHandler(counting(handler(pool.getRejection())));
+        setWaitForTasksToCompleteOnShutdown(true);
+        setAwaitTerminationSeconds(10);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public Stats stats() {
+        ThreadPoolExecutor executor = getThreadPoolExecutor();
+        return new Stats(name, executor.getActiveCount(), executor.getPoolSize(), executor.getMaximumPoolSize(),
+                executor.getQueue().size(), executor.getQueue().size() + executor.getQueue().remainingCapacity(),
+                executor.getCompletedTaskCount(), rejected.sum());
+    }
+
+    private RejectedExecutionHandler counting(RejectedExecutionHandler policy) {
+        return (task, executor) -> {
+            rejected.increment();
+            long count = rejected.sum();
+            // Once at the start of a burst and then every thousand, not once per task
+            if (count == 1 || count % 1000 == 0) {
+                logger.warn("Executor {} is saturated ({} active, {} queued): {} tasks rejected so far",
+                        name, executor.getActiveCount(), executor.getQueue().size(), count);
+            }
+            policy.rejectedExecution(task, executor);
+        };
+    }
+
+    private static RejectedExecutionHandler handler(ExecutorProperties.Rejection rejection) {
+        return switch (rejection) {
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case DISCARD -> new ThreadPoolExecutor.DiscardPolicy();
+            case DISCARD_OLDEST -> new ThreadPoolExecutor.DiscardOldestPolicy();
+        };
+    }
+
+    public record Stats(String name, int active, int poolSize, int maxPoolSize, int queued, int queueCapacity,
+                        long completed, long rejected) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.dxc.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * One {@link BulkheadExecutor} per background workload. {@code @Async} methods name the one they
+ * run on; unqualified {@code @Async} methods use the maintenance executor.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ExecutorConfig implements AsyncConfigurer {
+
+    public static final String ALERTS = "alertExecutor";
+    public static final String ACCOUNT = "accountExecutor";
+    public static final String INGEST = "ingestExecutor";
+    public static final String MAINTENANCE = "maintenanceExecutor";
+
+    private final ExecutorProperties properties;
+    private final Environment environment;
+
+    @Bean(ALERTS)
+    public BulkheadExecutor alertExecutor() {
+        return executor("alerts", properties.getAlerts());
+    }
+
+    @Bean(ACCOUNT)
+    public BulkheadExecutor accountExecutor() {
+        return executor("account", properties.getAccount());
+    }
+
+    @Bean(INGEST)
+    public BulkheadExecutor ingestExecutor() {
+        return executor("ingest", properties.getIngest());
+    }
+
+    @Bean(MAINTENANCE)
+    public BulkheadExecutor maintenanceExecutor() {
+        return executor("maintenance", properties.getMaintenance());
+    }
+
+    // Boot publishes pool and queue sizes as executor.* tagged with the bean name; rejections are added alongside
+    @Bean
+    public MeterBinder executorRejectionMetrics(Map<String, BulkheadExecutor> executors) {
+        return registry -> executors.forEach((beanName, executor) ->
+                FunctionCounter.builder("executor.rejected", executor, BulkheadExecutor::getRejectedCount)
+                        .description("Tasks turned away because the pool and its queue were full")
+                        .tag("name", beanName)
+                        .register(registry));
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return maintenanceExecutor();
+    }
+
+    private BulkheadExecutor executor(String name, ExecutorProperties.Pool pool) {
+        return new BulkheadExecutor(name, pool, Threading.VIRTUAL.isActive(environment));
+    }
+}
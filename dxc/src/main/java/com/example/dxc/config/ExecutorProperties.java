@@ -0,0 +1,66 @@
+package com.example.dxc.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Bounded executors per background workload ({@code executors.*}), so a burst in one of them
+ * queues or sheds its own work instead of delaying the others.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "executors")
+public class ExecutorProperties {
+
+    // Alert e-mails; a fan-out to every subscriber is the largest burst, so excess mails are dropped and counted
+    private Pool alerts = new Pool(4, 4, 10_000, Rejection.DISCARD);
+
+    // Welcome and other account e-mails; when full the signing-up request sends its own mail
+    private Pool account = new Pool(1, 2, 500, Rejection.CALLER_RUNS);
+
+    // Alert checks of stored batches, stream chunks and write-behind flushes; when full the submitting
+    // request (or writer) does the work itself, which slows its client down
+    private Pool ingest = new Pool(2, 4, 1_000, Rejection.CALLER_RUNS);
+
+    // Scheduled jobs; a run is skipped while the previous one is still running and another is already waiting
+    private Pool maintenance = new Pool(1, 1, 1, Rejection.DISCARD);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+
+        private int coreSize;
+
+        // Threads beyond coreSize are only started once the queue is full
+        private int maxSize;
+
+        private int queueCapacity;
+
+        // What happens to a task arriving while the queue is full and maxSize threads are busy
+        private Rejection rejection;
+
+        // Idle time after which threads beyond coreSize stop
+        private Duration keepAlive = Duration.ofSeconds(60);
+
+        public Pool(int coreSize, int maxSize, int queueCapacity, Rejection rejection) {
+            this(coreSize, maxSize, queueCapacity, rejection, Duration.ofSeconds(60));
+        }
+    }
+
+    public enum Rejection {
+        // Throw TaskRejectedException to the caller
+        ABORT,
+        // Run the task on the calling thread
+        CALLER_RUNS,
+        // Drop the new task
+        DISCARD,
+        // Drop the oldest queued task and queue the new one
+        DISCARD_OLDEST
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.dxc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for sensor-data ingestion ({@code sensors.ingest.*}).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sensors.ingest")
+public class IngestProperties {
+
+    // Rows per JDBC batch; also the flush/clear interval of BatchInsertRepository
+    private int jdbcBatchSize = 50;
+
+    // Upper bound on the number of readings accepted by one /batch request
+    private int maxBatchSize = 5000;
+
+    // Readings validated, inserted and committed together by the NDJSON stream endpoints
+    private int streamChunkSize = 1000;
+
+    // Item errors echoed back by the stream endpoints; further errors are only counted
+    private int maxReportedErrors = 100;
+
+    // Single-reading POSTs are queued and answered with 202; a writer thread inserts them in batches
+    private boolean writeBehind = false;
+
+    // Readings waiting in the write-behind queue of one sensor type; beyond this POSTs get 503
+    private int queueCapacity = 10_000;
+
+    // The writer commits a sensor type's queue once this many readings are waiting...
+    private int flushSize = 500;
+
+    // ...or once the oldest of them has waited this long
+    private Duration flushInterval = Duration.ofMillis(250);
+
+    // Further attempts for a batch that failed to commit, each after twice the previous pause
+    // (starting at 2 x flush-interval); then its readings are dropped and their ids logged
+    private int flushRetries = 3;
+}
@@ -0,0 +1,38 @@
+package com.example.dxc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Filtered live feeds of newly saved sensor readings ({@code sensors.live.*}).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sensors.live")
+public class LiveFeedProperties {
+
+    // Readings waiting to be written to one client; when full the oldest are dropped and the client is told
+    private int bufferSize = 256;
+
+    // Open feeds across all sensor types; beyond this new feeds get 503
+    private int maxClients = 10_000;
+
+    // Locations one feed may filter on
+    private int maxLocations = 100;
+
+    // Threads writing buffered readings to the clients
+    private int deliveryThreads = 2;
+
+    // A client whose write has been blocked this long, because it stopped reading, is dropped and
+    // its delivery thread replaced until the container's write timeout frees it
+    private Duration sendTimeout = Duration.ofSeconds(5);
+
+    // Connections are closed after this long and the browser reconnects
+    private Duration timeout = Duration.ofMinutes(30);
+
+    // Comment lines keeping idle connections open through proxies and detecting gone clients
+    private Duration heartbeat = Duration.ofSeconds(15);
+}
@@ -0,0 +1,71 @@
+package com.example.dxc.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-client request rate limits on the write endpoints ({@code rate-limit.*}).
+ * <p>
+ * Each group is a token bucket per client: up to {@code capacity} requests in a burst, refilled at
+ * {@code refill-per-second}. A request is counted against the first group whose paths and methods
+ * match it; requests matching no group are not limited.
+ * <p>
+ * A client is the signed-in user, or else the request's remote address. Behind a reverse proxy that
+ * address is the proxy's, so every anonymous caller would share one bucket: the kubernetes and
+ * openshift profiles set {@code server.forward-headers-strategy=native}, which makes it the
+ * X-Forwarded-For address when the request came through a trusted (private-range) proxy.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Clients tracked per group; beyond this, clients without a bucket share one overflow bucket
+    private int maxClients = 100_000;
+
+    // How often buckets that have refilled completely are forgotten
+    private Duration evictionInterval = Duration.ofMinutes(1);
+
+    // Checked in order, so the narrower "generate" paths come before the ingest ones
+    private Map<String, Group> groups = defaultGroups();
+
+    private static Map<String, Group> defaultGroups() {
+        Map<String, Group> groups = new LinkedHashMap<>();
+        groups.put("generate", new Group(new ArrayList<>(List.of("/api/sensors/generate/**")),
+                new ArrayList<>(List.of("POST")), 20, 2));
+        groups.put("ingest", new Group(new ArrayList<>(List.of(
+                "/api/sensors/traffic", "/api/sensors/air-pollution", "/api/sensors/street-light",
+                "/api/sensors/*/batch", "/api/sensors/*/stream")),
+                new ArrayList<>(List.of("POST")), 200, 100));
+        return groups;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+
+        // Path patterns, e.g. /api/sensors/*/batch
+        private List<String> paths = new ArrayList<>();
+
+        // HTTP methods counted; empty counts every method
+        private List<String> methods = new ArrayList<>();
+
+        // Requests a client may send in a burst
+        private long capacity = 100;
+
+        // Sustained requests per second per client
+        private double refillPerSecond = 10;
+    }
+}
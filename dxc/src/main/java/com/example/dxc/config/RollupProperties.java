@@ -0,0 +1,28 @@
+package com.example.dxc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Minute and hour rollups of the sensor metrics ({@code sensors.rollup.*}).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sensors.rollup")
+public class RollupProperties {
+
+    // Maintain the rollups on ingest and answer aggregates from them where they fit
+    private boolean enabled = true;
+
+    // Deltas from saved readings are merged in memory and upserted together this often
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    // On startup, rebuild the rollups of any sensor type that has raw readings but no rollup rows
+    private boolean backfillOnStartup = true;
+
+    // Raw time range recomputed per rebuild transaction, in whole hours
+    private Duration rebuildChunk = Duration.ofHours(6);
+}
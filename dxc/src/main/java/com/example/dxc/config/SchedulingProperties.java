@@ -0,0 +1,42 @@
+package com.example.dxc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coordination of cluster-wide scheduled jobs between replicas ({@code scheduling.coordination.*}),
+ * through leases in the {@code scheduler_leases} table.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "scheduling.coordination")
+public class SchedulingProperties {
+
+    public enum Mode {
+        // Every replica runs every job; right for a single replica
+        NONE,
+        // One replica holds the leader lease and runs all jobs
+        LEADER,
+        // Each shard (sensor type) has its own lease, spread evenly over the live replicas
+        SHARDED
+    }
+
+    private Mode mode = Mode.NONE;
+
+    // A lease not renewed for this long is free for another replica: the failover time after a crash
+    private Duration leaseTtl = Duration.ofSeconds(15);
+
+    // Leases are renewed (and free ones claimed) this often; well below lease-ttl
+    private Duration renewInterval = Duration.ofSeconds(3);
+
+    // Identity of this replica in the lease table; empty means HOSTNAME (the pod name) and the process id
+    private String nodeId;
+
+    // Units of work in SHARDED mode
+    private List<String> shards = new ArrayList<>(List.of("Traffic", "Air_Pollution", "Street_Light"));
+}
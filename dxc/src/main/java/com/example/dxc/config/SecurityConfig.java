@@ -2,12 +2,16 @@
 package com.example.dxc.config;
 
 import com.example.dxc.jwt.AuthTokenFilter;
+import com.example.dxc.jwt.AuthenticationCache;
 import com.example.dxc.jwt.JwtUtils;
 import com.example.dxc.jwt.OAuth2LoginSuccessHandler;
 import com.example.dxc.service.CustomOAuth2UserService;
+import com.example.dxc.service.RateLimiter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -31,6 +35,8 @@ public class SecurityConfig {
     private final UserDetailsService userDetailsService;
     private final CustomOAuth2UserService customOAuth2UserService;
     private final OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler;
+    private final AuthenticationCache authenticationCache;
+    private final RateLimiter rateLimiter;
 
     // Get environment variables for dynamic configuration
     @Value("${FRONTEND_URL:http://localhost:4200}")
@@ -42,16 +48,25 @@ public class SecurityConfig {
     public SecurityConfig(JwtUtils jwtUtils,
                           UserDetailsService userDetailsService,
                           CustomOAuth2UserService customOAuth2UserService,
-                          OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler) {
+                          OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler,
+                          AuthenticationCache authenticationCache,
+                          RateLimiter rateLimiter) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
         this.customOAuth2UserService = customOAuth2UserService;
         this.oAuth2LoginSuccessHandler = oAuth2LoginSuccessHandler;
+        this.authenticationCache = authenticationCache;
+        this.rateLimiter = rateLimiter;
     }
 
     @Bean
     public AuthTokenFilter authTokenFilter() {
-        return new AuthTokenFilter(jwtUtils, userDetailsService);
+        return new AuthTokenFilter(jwtUtils, userDetailsService, authenticationCache);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter() {
+        return new RateLimitFilter(rateLimiter);
     }
 
     @Bean
@@ -62,6 +77,8 @@ public class SecurityConfig {
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches only complete requests already authorized, e.g. a timed out alert stream
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/api/auth/signup",
                                 "/api/auth/signin",
@@ -70,7 +87,11 @@ public class SecurityConfig {
                                 "/api/auth/verify-password-change",
                                 "/api/sensors/generate/**"
                         ).permitAll()
+                        // Scraped by Prometheus and probed by the cluster; see management.server.port
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                         .requestMatchers("/api/profile/**").authenticated()
+                        // Starting the simulator or raising its rate loads the whole pipeline
+                        .requestMatchers(HttpMethod.PUT, "/api/simulator").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .oauth2Login(oauth2 -> oauth2
@@ -79,6 +100,7 @@ public class SecurityConfig {
                         .successHandler(oAuth2LoginSuccessHandler)
                 )
                 .addFilterBefore(authTokenFilter(), UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter(), AuthTokenFilter.class)
                 .httpBasic(withDefaults())
                 .formLogin(form -> form.disable());
 
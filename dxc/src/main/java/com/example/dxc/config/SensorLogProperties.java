@@ -0,0 +1,35 @@
+package com.example.dxc.config;
+
+import com.example.dxc.model.Settings;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sampling of the per-reading events on the {@code sensor.readings} logger ({@code sensor-log.*}).
+ * <p>
+ * Each reading is one INFO event with its fields as key-value pairs; JSON when structured console
+ * logging is on. Setting {@code logging.level.sensor.readings=WARN} turns the events off entirely.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sensor-log")
+public class SensorLogProperties {
+
+    // Log one reading in this many; 1 logs every reading, 0 none
+    private int sampleEvery = 1000;
+
+    // Per-type overrides of sample-every, e.g. sensor-log.types.Street_Light=1
+    private Map<Settings.SettingType, Integer> types = new HashMap<>();
+
+    // Also log every reading that opened or reopened an alert, whatever the sampling;
+    // further readings on an already open alert are sampled like the rest
+    private boolean alerts = true;
+
+    public int sampleEvery(Settings.SettingType type) {
+        return types.getOrDefault(type, sampleEvery);
+    }
+}
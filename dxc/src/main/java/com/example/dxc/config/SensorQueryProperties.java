@@ -0,0 +1,28 @@
+package com.example.dxc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for the sensor dashboard reads ({@code sensors.query.*}).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sensors.query")
+public class SensorQueryProperties {
+
+    // How long an unfiltered total from the table statistics is reused in count=estimate mode
+    private Duration totalRefreshInterval = Duration.ofSeconds(60);
+
+    // How long a filtered row count is reused in count=estimate mode
+    private Duration countCacheTtl = Duration.ofSeconds(30);
+
+    // Distinct filter combinations whose counts are cached; the cache is reset when full
+    private int countCacheSize = 1000;
+
+    // Most rows one aggregate call may return; wider requests must narrow the range or widen the bucket
+    private int aggregateMaxRows = 10_000;
+}
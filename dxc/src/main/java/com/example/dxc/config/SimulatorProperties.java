@@ -0,0 +1,44 @@
+package com.example.dxc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalTime;
+
+/**
+ * Sensor fleet simulator ({@code simulator.*}), a load source for the ingestion pipeline.
+ * Sensor count, rate and running state can be changed at runtime through {@code /api/simulator}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "simulator")
+public class SimulatorProperties {
+
+    // Off by default; when off neither the simulator nor its endpoint exist
+    private boolean enabled = false;
+
+    // Start emitting as soon as the application is up, rather than on the first PUT /api/simulator
+    private boolean autoStart = false;
+
+    // Sensors of each type, each with a fixed location (Street 1..N, Zone 1..N, LightPole-1..N)
+    private int sensorsPerType = 1000;
+
+    // Readings per second sent by each sensor
+    private double rateHz = 0.1;
+
+    // Emitting threads per sensor type, each serving every n-th sensor with its own random source
+    private int threadsPerType = 2;
+
+    // Same seed, sensor count, threads and rate give the same stream of values (ids are always new)
+    private long seed = 42;
+
+    // Shape values by the time of day: rush-hour traffic, exhaust and ozone, street lights at night
+    private boolean diurnal = true;
+
+    // Time of day the simulated clock starts at; empty means the current time
+    private LocalTime startTime;
+
+    // Simulated seconds per real second, e.g. 1440 plays a whole day in a minute
+    private double timeScale = 1;
+}
@@ -2,9 +2,13 @@ package com.example.dxc.controller;
 
 import com.example.dxc.dto.AlertResponse;
 import com.example.dxc.model.Alert;
+import com.example.dxc.config.AlertProperties;
 import com.example.dxc.repository.AlertRepository;
+import com.example.dxc.service.AlertStreamBroadcaster;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,6 +19,8 @@ import java.util.List;
 public class AlertController {
 
     private final AlertRepository alertRepository;
+    private final AlertStreamBroadcaster alertStream;
+    private final AlertProperties alertProperties;
 
     @GetMapping("/recent")
     public AlertResponse getRecentAlerts() {
@@ -27,4 +33,16 @@ public class AlertController {
 
         return new AlertResponse(message, alerts.size(), alerts);
     }
+
+    /**
+     * Server-sent events of newly opened alerts. Browsers resend the last received id in the
+     * {@code Last-Event-ID} header when they reconnect; the query parameter serves clients that
+     * reconnect by hand.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                                   @RequestParam(required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(alertProperties.getStream().getTimeout().toMillis());
+        return alertStream.register(emitter, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
 }
@@ -0,0 +1,50 @@
+package com.example.dxc.controller;
+
+import com.example.dxc.dto.AlertSubscriptionRequest;
+import com.example.dxc.dto.AlertSubscriptionResponse;
+import com.example.dxc.model.UserDetailsImpl;
+import com.example.dxc.service.AlertSubscriptionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/alerts/subscriptions")
+@RequiredArgsConstructor
+public class AlertSubscriptionController {
+
+    private final AlertSubscriptionService subscriptionService;
+
+    @GetMapping
+    public ResponseEntity<List<AlertSubscriptionResponse>> getSubscriptions(Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        return ResponseEntity.ok(subscriptionService.getSubscriptions(userDetails.getUser().getId()));
+    }
+
+    @PostMapping
+    public ResponseEntity<?> subscribe(Authentication authentication,
+                                       @RequestBody AlertSubscriptionRequest request) {
+        try {
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+            return ResponseEntity.ok(subscriptionService.subscribe(userDetails.getUser(), request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> unsubscribe(Authentication authentication, @PathVariable UUID id) {
+        try {
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+            subscriptionService.unsubscribe(userDetails.getUser().getId(), id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
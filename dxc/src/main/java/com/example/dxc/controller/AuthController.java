@@ -87,4 +87,13 @@ public class AuthController {
             return ResponseEntity.status(500).body("Internal server error");
         }
     }
+
+    /**
+     * A ticket for opening an event stream ({@code ?ticket=}), issued to a signed-in user. It expires
+     * within {@code jwt.stream-ticket-ttl}; a client whose stream was closed fetches a new one.
+     */
+    @PostMapping("/stream-ticket")
+    public Map<String, String> issueStreamTicket(Authentication authentication) {
+        return Map.of("ticket", jwtUtils.generateStreamTicket(authentication.getName()));
+    }
 }
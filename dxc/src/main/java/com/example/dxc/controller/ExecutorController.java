@@ -0,0 +1,23 @@
+package com.example.dxc.controller;
+
+import com.example.dxc.config.BulkheadExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/executors")
+@RequiredArgsConstructor
+public class ExecutorController {
+    private final List<BulkheadExecutor> executors;
+
+    // Active, queued, completed and rejected tasks of each background workload
+    @GetMapping
+    public ResponseEntity<List<BulkheadExecutor.Stats>> getExecutorStats() {
+        return ResponseEntity.ok(executors.stream().map(BulkheadExecutor::stats).toList());
+    }
+}
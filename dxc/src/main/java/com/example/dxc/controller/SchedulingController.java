@@ -0,0 +1,21 @@
+package com.example.dxc.controller;
+
+import com.example.dxc.scheduler.ScheduledJobCoordinator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/scheduling")
+@RequiredArgsConstructor
+public class SchedulingController {
+    private final ScheduledJobCoordinator coordinator;
+
+    // Coordination mode, the leases this replica holds, and who holds every lease in the cluster
+    @GetMapping
+    public ResponseEntity<ScheduledJobCoordinator.Status> getStatus() {
+        return ResponseEntity.ok(coordinator.getStatus());
+    }
+}
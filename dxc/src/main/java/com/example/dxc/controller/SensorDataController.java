@@ -1,14 +1,28 @@
 package com.example.dxc.controller;
 
+import com.example.dxc.dto.BatchIngestResponse;
+import com.example.dxc.dto.RollupRebuildResponse;
+import com.example.dxc.dto.SensorAggregateResponse;
+import com.example.dxc.dto.StreamIngestResponse;
+import com.example.dxc.dto.WriteBehindStats;
 import com.example.dxc.model.*;
+import com.example.dxc.config.LiveFeedProperties;
+import com.example.dxc.service.CountMode;
+import com.example.dxc.service.LiveSensorFeed;
 import com.example.dxc.service.SensorDataService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.*;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -17,6 +31,8 @@ import java.util.UUID;
 public class SensorDataController {
 
     private final SensorDataService sensorDataService;
+    private final LiveSensorFeed liveFeed;
+    private final LiveFeedProperties liveFeedProperties;
 
     /* ================================================================
        RANDOM-DATA GENERATION ENDPOINTS
@@ -53,19 +69,84 @@ public class SensorDataController {
     @PostMapping("/traffic")
     public ResponseEntity<TrafficSensorData> addTrafficData(@RequestBody TrafficSensorData data) {
         if (data.getId() == null) data.setId(UUID.randomUUID());
-        return ResponseEntity.ok(sensorDataService.saveTrafficData(data));
+        return saved(sensorDataService.saveTrafficData(data));
     }
 
     @PostMapping("/air-pollution")
     public ResponseEntity<AirPollutionSensorData> addAirPollutionData(@RequestBody AirPollutionSensorData data) {
         if (data.getId() == null) data.setId(UUID.randomUUID());
-        return ResponseEntity.ok(sensorDataService.saveAirPollutionData(data));
+        return saved(sensorDataService.saveAirPollutionData(data));
     }
 
     @PostMapping("/street-light")
     public ResponseEntity<StreetLightSensorData> addStreetLightData(@RequestBody StreetLightSensorData data) {
         if (data.getId() == null) data.setId(UUID.randomUUID());
-        return ResponseEntity.ok(sensorDataService.saveStreetLightData(data));
+        return saved(sensorDataService.saveStreetLightData(data));
+    }
+
+    // 202 when write-behind is on: the reading is queued, not yet stored. It shows up in reads at once, but
+    // a batch that still fails to commit after its retries is dropped (counted as failed in /ingest/stats)
+    private <T> ResponseEntity<T> saved(T data) {
+        return sensorDataService.isWriteBehindEnabled()
+                ? ResponseEntity.status(HttpStatus.ACCEPTED).body(data)
+                : ResponseEntity.ok(data);
+    }
+
+    @GetMapping("/ingest/stats")
+    public ResponseEntity<WriteBehindStats> getIngestStats() {
+        return ResponseEntity.ok(sensorDataService.getWriteBehindStats());
+    }
+
+    /* ================================================================
+       BATCH DATA-INSERT ENDPOINTS
+       ================================================================ */
+    @PostMapping("/traffic/batch")
+    public ResponseEntity<BatchIngestResponse> addTrafficDataBatch(@RequestBody List<TrafficSensorData> data) {
+        for (TrafficSensorData item : data) {
+            if (item != null && item.getId() == null) item.setId(UUID.randomUUID());
+        }
+        return ResponseEntity.ok(sensorDataService.saveTrafficDataBatch(data));
+    }
+
+    @PostMapping("/air-pollution/batch")
+    public ResponseEntity<BatchIngestResponse> addAirPollutionDataBatch(@RequestBody List<AirPollutionSensorData> data) {
+        for (AirPollutionSensorData item : data) {
+            if (item != null && item.getId() == null) item.setId(UUID.randomUUID());
+        }
+        return ResponseEntity.ok(sensorDataService.saveAirPollutionDataBatch(data));
+    }
+
+    @PostMapping("/street-light/batch")
+    public ResponseEntity<BatchIngestResponse> addStreetLightDataBatch(@RequestBody List<StreetLightSensorData> data) {
+        for (StreetLightSensorData item : data) {
+            if (item != null && item.getId() == null) item.setId(UUID.randomUUID());
+        }
+        return ResponseEntity.ok(sensorDataService.saveStreetLightDataBatch(data));
+    }
+
+    /* ================================================================
+       STREAMING (NDJSON) INGEST ENDPOINTS  —  one JSON reading per line
+       ================================================================ */
+    @PostMapping("/traffic/stream")
+    public ResponseEntity<StreamIngestResponse> streamTrafficData(InputStream body) {
+        return streamed(sensorDataService.ingestTrafficDataStream(body));
+    }
+
+    @PostMapping("/air-pollution/stream")
+    public ResponseEntity<StreamIngestResponse> streamAirPollutionData(InputStream body) {
+        return streamed(sensorDataService.ingestAirPollutionDataStream(body));
+    }
+
+    @PostMapping("/street-light/stream")
+    public ResponseEntity<StreamIngestResponse> streamStreetLightData(InputStream body) {
+        return streamed(sensorDataService.ingestStreetLightDataStream(body));
+    }
+
+    // Counts are returned in every case; a stream that stopped early carries its failure's status
+    private ResponseEntity<StreamIngestResponse> streamed(StreamIngestResponse response) {
+        return response.getFailure() == null
+                ? ResponseEntity.ok(response)
+                : ResponseEntity.status(response.getFailureStatus()).body(response);
     }
 
     /* ================================================================
@@ -73,10 +154,10 @@ public class SensorDataController {
        ================================================================ */
 
     @GetMapping("/traffic")
-    public ResponseEntity<Page<TrafficSensorData>> getTraffic(
+    public ResponseEntity<?> getTraffic(
             @RequestParam(defaultValue = "0")  int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "timestamp") String sortBy,
+            @RequestParam(required = false)     String sortBy,
             @RequestParam(defaultValue = "desc")      String order,
             /* ---- optional filters ---- */
             @RequestParam(required = false) String location,
@@ -84,22 +165,31 @@ public class SensorDataController {
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam(required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            /* ---- keyset paging: "after" switches to cursor mode (empty for the first page) ---- */
+            @RequestParam(required = false) String after,
+            /* ---- total count: none | estimate | exact ---- */
+            @RequestParam(defaultValue = "exact") String count) {
+
+        if (after != null) {
+            requireCursorOrder(sortBy);
+            return ResponseEntity.ok(
+                    sensorDataService.getTrafficDataAfter(location, congestionLevel, start, end, after, size, order.equalsIgnoreCase("desc"))
+            );
+        }
 
-        Pageable pageable = PageRequest.of(page, size,
-                order.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending()
-                        : Sort.by(sortBy).ascending());
+        Pageable pageable = pageable(page, size, sortBy, order);
 
         return ResponseEntity.ok(
-                sensorDataService.getTrafficData(location, congestionLevel, start, end, pageable)
+                sensorDataService.getTrafficData(location, congestionLevel, start, end, pageable, CountMode.from(count))
         );
     }
 
     @GetMapping("/air-pollution")
-    public ResponseEntity<Page<AirPollutionSensorData>> getAirPollution(
+    public ResponseEntity<?> getAirPollution(
             @RequestParam(defaultValue = "0")  int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "timestamp") String sortBy,
+            @RequestParam(required = false)     String sortBy,
             @RequestParam(defaultValue = "desc")      String order,
             /* ---- optional filters ---- */
             @RequestParam(required = false) String location,
@@ -107,22 +197,31 @@ public class SensorDataController {
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam(required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            /* ---- keyset paging: "after" switches to cursor mode (empty for the first page) ---- */
+            @RequestParam(required = false) String after,
+            /* ---- total count: none | estimate | exact ---- */
+            @RequestParam(defaultValue = "exact") String count) {
+
+        if (after != null) {
+            requireCursorOrder(sortBy);
+            return ResponseEntity.ok(
+                    sensorDataService.getAirPollutionDataAfter(location, pollutionLevel, start, end, after, size, order.equalsIgnoreCase("desc"))
+            );
+        }
 
-        Pageable pageable = PageRequest.of(page, size,
-                order.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending()
-                        : Sort.by(sortBy).ascending());
+        Pageable pageable = pageable(page, size, sortBy, order);
 
         return ResponseEntity.ok(
-                sensorDataService.getAirPollutionData(location, pollutionLevel, start, end, pageable)
+                sensorDataService.getAirPollutionData(location, pollutionLevel, start, end, pageable, CountMode.from(count))
         );
     }
 
     @GetMapping("/street-light")
-    public ResponseEntity<Page<StreetLightSensorData>> getStreetLight(
+    public ResponseEntity<?> getStreetLight(
             @RequestParam(defaultValue = "0")  int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "timestamp") String sortBy,
+            @RequestParam(required = false)     String sortBy,
             @RequestParam(defaultValue = "desc")      String order,
             /* ---- optional filters ---- */
             @RequestParam(required = false) String location,
@@ -130,14 +229,108 @@ public class SensorDataController {
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam(required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            /* ---- keyset paging: "after" switches to cursor mode (empty for the first page) ---- */
+            @RequestParam(required = false) String after,
+            /* ---- total count: none | estimate | exact ---- */
+            @RequestParam(defaultValue = "exact") String count) {
+
+        if (after != null) {
+            requireCursorOrder(sortBy);
+            return ResponseEntity.ok(
+                    sensorDataService.getStreetLightDataAfter(location, status, start, end, after, size, order.equalsIgnoreCase("desc"))
+            );
+        }
 
-        Pageable pageable = PageRequest.of(page, size,
-                order.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending()
-                        : Sort.by(sortBy).ascending());
+        Pageable pageable = pageable(page, size, sortBy, order);
 
         return ResponseEntity.ok(
-                sensorDataService.getStreetLightData(location, status, start, end, pageable)
+                sensorDataService.getStreetLightData(location, status, start, end, pageable, CountMode.from(count))
         );
     }
+
+    private static Pageable pageable(int page, int size, String sortBy, String order) {
+        Sort sort = Sort.by(sortBy == null ? "timestamp" : sortBy);
+        return PageRequest.of(page, size, order.equalsIgnoreCase("desc") ? sort.descending() : sort.ascending());
+    }
+
+    // A cursor only marks a position in (timestamp, id) order, so it can't page any other sort
+    private static void requireCursorOrder(String sortBy) {
+        if (sortBy != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "sortBy can't be combined with after: cursor pages are ordered by timestamp");
+        }
+    }
+
+    /* ================================================================
+       DASHBOARD  —  TIME-BUCKETED AGGREGATES  (min / max / avg / count)
+       ================================================================ */
+
+    @GetMapping("/{type}/aggregate")
+    public ResponseEntity<SensorAggregateResponse> getAggregate(
+            @PathVariable String type,
+            @RequestParam String metric,
+            @RequestParam(defaultValue = "5m")   String bucket,
+            /* ---- location: one series per location | city: all locations rolled up ---- */
+            @RequestParam(defaultValue = "city") String groupBy,
+            /* ---- optional filters, as on the paged reads ---- */
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+
+        return ResponseEntity.ok(
+                sensorDataService.getAggregate(settingType(type), metric, bucket, groupBy, location, status, start, end)
+        );
+    }
+
+    // Recomputes the minute/hour rollups of a range from the raw readings (whole history when unbounded)
+    @PostMapping("/{type}/rollups/rebuild")
+    public ResponseEntity<RollupRebuildResponse> rebuildRollups(
+            @PathVariable String type,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+
+        return ResponseEntity.ok(sensorDataService.rebuildRollups(settingType(type), start, end));
+    }
+
+    /* ================================================================
+       DASHBOARD  —  CURRENT STATE  (newest reading per location, in memory)
+       ================================================================ */
+
+    @GetMapping("/{type}/latest")
+    public ResponseEntity<List<SensorReading>> getLatest(
+            @PathVariable String type,
+            @RequestParam(required = false) String location) {
+
+        return ResponseEntity.ok(sensorDataService.getLatest(settingType(type), location));
+    }
+
+    /**
+     * Server-sent events carrying the newly saved readings that match the filter, in batches.
+     * Repeat {@code location} and {@code status} to match any of several values.
+     */
+    @GetMapping(path = "/{type}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getLiveFeed(
+            @PathVariable String type,
+            @RequestParam(required = false) List<String> location,
+            @RequestParam(required = false) List<String> status) {
+
+        SseEmitter emitter = new SseEmitter(liveFeedProperties.getTimeout().toMillis());
+        return liveFeed.subscribe(emitter, settingType(type),
+                location != null ? location : List.of(), status != null ? status : List.of());
+    }
+
+    private static Settings.SettingType settingType(String type) {
+        return switch (type) {
+            case "traffic" -> Settings.SettingType.Traffic;
+            case "air-pollution" -> Settings.SettingType.Air_Pollution;
+            case "street-light" -> Settings.SettingType.Street_Light;
+            default -> throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown sensor type: " + type);
+        };
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.dxc.controller;
 
+import com.example.dxc.dto.CompoundRuleRequest;
 import com.example.dxc.dto.SettingsRequest;
 import com.example.dxc.model.Settings;
 import com.example.dxc.service.SettingsService;
@@ -7,6 +8,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/settings")
 @RequiredArgsConstructor
@@ -18,4 +21,13 @@ public class SettingsController {
         Settings setting = settingsService.saveSettings(dto);
         return ResponseEntity.ok(setting);
     }
+
+    @PostMapping("/compound")
+    public ResponseEntity<?> addCompoundRule(@RequestBody CompoundRuleRequest dto) {
+        try {
+            return ResponseEntity.ok(settingsService.saveCompoundRule(dto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 }
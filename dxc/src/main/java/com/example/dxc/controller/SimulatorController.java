@@ -0,0 +1,34 @@
+package com.example.dxc.controller;
+
+import com.example.dxc.dto.SimulatorSettingsRequest;
+import com.example.dxc.dto.SimulatorStatus;
+import com.example.dxc.service.SensorFleetSimulator;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Only mapped in simulator mode (simulator.enabled=true)
+@RestController
+@RequestMapping("/api/simulator")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "simulator", name = "enabled", havingValue = "true")
+public class SimulatorController {
+    private final SensorFleetSimulator simulator;
+
+    @GetMapping
+    public ResponseEntity<SimulatorStatus> getStatus() {
+        return ResponseEntity.ok(simulator.getStatus());
+    }
+
+    // Start, stop, or change the fleet size and rate of a running simulator
+    @PutMapping
+    public ResponseEntity<SimulatorStatus> update(@Valid @RequestBody SimulatorSettingsRequest request) {
+        return ResponseEntity.ok(simulator.update(request));
+    }
+}
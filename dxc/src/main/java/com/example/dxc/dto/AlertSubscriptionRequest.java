@@ -0,0 +1,12 @@
+package com.example.dxc.dto;
+
+import com.example.dxc.model.Settings.SettingType;
+import lombok.Data;
+
+@Data
+public class AlertSubscriptionRequest {
+    private SettingType type;
+    // Optional: leave empty to receive alerts for every metric / location of the type
+    private String metric;
+    private String location;
+}
@@ -0,0 +1,30 @@
+package com.example.dxc.dto;
+
+import com.example.dxc.model.AlertSubscription;
+import com.example.dxc.model.Settings.SettingType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertSubscriptionResponse {
+    private UUID id;
+    private SettingType type;
+    private String metric;
+    private String location;
+    private LocalDateTime createdAt;
+
+    public static AlertSubscriptionResponse from(AlertSubscription subscription) {
+        return new AlertSubscriptionResponse(
+                subscription.getId(),
+                subscription.getType(),
+                subscription.getMetric(),
+                subscription.getLocation(),
+                subscription.getCreatedAt());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.dxc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchIngestResponse {
+    private int received;
+    private int saved;
+    private int rejected;
+    private List<ItemError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemError {
+        private long index;
+        private String message;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.dxc.dto;
+
+import com.example.dxc.model.Settings.SettingType;
+import lombok.Data;
+
+@Data
+public class CompoundRuleRequest {
+    private SettingType type;
+    private String expression;
+}
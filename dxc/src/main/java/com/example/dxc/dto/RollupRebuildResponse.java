@@ -0,0 +1,21 @@
+package com.example.dxc.dto;
+
+import com.example.dxc.model.Settings;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupRebuildResponse {
+    private Settings.SettingType type;
+    // Recomputed range, widened to whole hours
+    private LocalDateTime start;
+    private LocalDateTime end;
+    // Minute and hour rows written
+    private long rows;
+    private long durationMs;
+}
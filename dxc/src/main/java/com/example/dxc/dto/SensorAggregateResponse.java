@@ -0,0 +1,34 @@
+package com.example.dxc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Min/max/avg/count of one metric per time bucket, ordered by bucket start and location.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensorAggregateResponse {
+    private String metric;
+    private String bucket;
+    private String groupBy;
+    private List<Bucket> buckets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private LocalDateTime start;
+        // null when the buckets are rolled up city-wide
+        private String location;
+        private double min;
+        private double max;
+        private double avg;
+        private long count;
+    }
+}
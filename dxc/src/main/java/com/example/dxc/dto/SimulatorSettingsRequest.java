@@ -0,0 +1,22 @@
+package com.example.dxc.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@Data
+public class SimulatorSettingsRequest {
+    // Each field is optional; omitted ones keep their current value
+    private Boolean running;
+
+    @Min(0)
+    @Max(1_000_000)
+    private Integer sensorsPerType;
+
+    // Readings per second of each sensor
+    @DecimalMin("0")
+    @DecimalMax("1000")
+    private Double rateHz;
+}
@@ -0,0 +1,37 @@
+package com.example.dxc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+import java.util.Map;
+
+@Data
+public class SimulatorStatus {
+    private boolean running;
+    private int sensorsPerType;
+    private double rateHz;
+    private int threadsPerType;
+    private long seed;
+    // Readings per second asked for across all sensor types
+    private double targetPerSecond;
+    // Clock driving the daily patterns; null while stopped
+    private LocalTime simulatedTime;
+    private Map<String, TypeStats> types;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TypeStats {
+        // Readings accepted by the pipeline
+        private long emitted;
+        // Readings the pipeline refused, e.g. with a full write-behind queue
+        private long failed;
+        // Readings dropped because the simulator fell more than a second behind
+        private long skipped;
+        // Accepted readings per second since the last start
+        private double achievedPerSecond;
+        private double lagMs;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.dxc.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.http.HttpStatusCode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class StreamIngestResponse {
+    private long received;
+    private long saved;
+    private long rejected;
+    private int chunks;
+    private long durationMs;
+    // Only the first errors are kept so a bad upload can't grow the response without bound
+    private boolean errorsTruncated;
+    private List<BatchIngestResponse.ItemError> errors = new ArrayList<>();
+    // Set when ingestion stopped early: chunks committed before stay stored, nothing after is
+    private String failure;
+    @JsonIgnore
+    private HttpStatusCode failureStatus;
+}
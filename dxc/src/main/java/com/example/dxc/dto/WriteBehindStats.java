@@ -0,0 +1,29 @@
+package com.example.dxc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteBehindStats {
+    private boolean enabled;
+    private int queueCapacity;
+    // Readings waiting per sensor type, including a batch being committed
+    private Map<String, Integer> queueDepth;
+    private long accepted;
+    // Readings refused because their queue was full
+    private long rejected;
+    private long flushed;
+    // Readings lost because their batch failed to commit, after its retries
+    private long failed;
+    // Readings of batches whose commit failed and was retried, counted per attempt
+    private long retried;
+    private long flushes;
+    private double avgFlushMs;
+    private double maxFlushMs;
+    private double lastFlushMs;
+}
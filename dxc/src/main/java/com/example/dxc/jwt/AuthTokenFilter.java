@@ -1,5 +1,6 @@
 package com.example.dxc.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,26 +21,30 @@ import java.io.IOException;
 @Component
 public class AuthTokenFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
+    private static final String ALERT_STREAM_PATH = "/api/alerts/stream";
+    private static final String LIVE_FEED_SUFFIX = "/live";
 
     @Autowired
     private JwtUtils jwtUtils;
     @Autowired
     private UserDetailsService userDetailsService;
+    @Autowired
+    private AuthenticationCache authenticationCache;
 
-    public AuthTokenFilter(JwtUtils jwtUtils, UserDetailsService userDetailsService) {
+    public AuthTokenFilter(JwtUtils jwtUtils, UserDetailsService userDetailsService,
+                           AuthenticationCache authenticationCache) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
+        this.authenticationCache = authenticationCache;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
-            String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String email = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            String email = authenticatedEmail(request);
+            if (email != null) {
+                UserDetails userDetails = authenticationCache.getPrincipal(email, userDetailsService::loadUserByUsername);
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -53,13 +58,45 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String parseJwt(HttpServletRequest request) {
+    private String authenticatedEmail(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
-            return headerAuth.substring(7);
+            return verifiedSubject(headerAuth.substring(7));
+        }
+
+        // EventSource cannot set headers, so the event streams take a stream ticket as a parameter.
+        // Never the JWT itself: the URL ends up in proxy access logs and the browser history.
+        if (isEventStream(request.getRequestURI())) {
+            String ticket = request.getParameter("ticket");
+            return StringUtils.hasText(ticket) ? ticketSubject(ticket) : null;
         }
 
         return null;
     }
+
+    // One parse per token until the cache entry expires
+    private String verifiedSubject(String jwt) {
+        String email = authenticationCache.getSubject(jwt);
+        if (email == null) {
+            Claims claims = jwtUtils.parseValidClaims(jwt);
+            if (claims == null || JwtUtils.isStreamTicket(claims)) {
+                return null;
+            }
+            email = claims.getSubject();
+            authenticationCache.putSubject(jwt, email, claims.getExpiration());
+        }
+        return email;
+    }
+
+    // Checked once per stream connect, so tickets aren't cached
+    private String ticketSubject(String ticket) {
+        Claims claims = jwtUtils.parseValidClaims(ticket);
+        return claims != null && JwtUtils.isStreamTicket(claims) ? claims.getSubject() : null;
+    }
+
+    private static boolean isEventStream(String uri) {
+        return ALERT_STREAM_PATH.equals(uri)
+                || (uri.startsWith("/api/sensors/") && uri.endsWith(LIVE_FEED_SUFFIX));
+    }
 }
@@ -0,0 +1,122 @@
+package com.example.dxc.jwt;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Verified tokens and loaded principals of {@link AuthTokenFilter}, each kept for {@code jwt.cache-ttl}.
+ * <p>
+ * A token is only reused until the earlier of its own expiry and the TTL. Principals are evicted
+ * by {@link #invalidate(String)} when a user's profile or password changes; on other instances
+ * the change shows once their entry expires. Both maps are bounded: when one is full and has no
+ * expired entries left to purge, new entries are simply not cached.
+ */
+@Component
+public class AuthenticationCache {
+
+    private final JwtConfig config;
+    private final LongSupplier clock;
+
+    private final Map<String, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final Map<String, CachedPrincipal> principals = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, so a principal loaded before it is never cached after it
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public AuthenticationCache(JwtConfig config) {
+        this(config, System::currentTimeMillis);
+    }
+
+    AuthenticationCache(JwtConfig config, LongSupplier clock) {
+        this.config = config;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the subject of a token verified earlier, or {@code null} if it has to be verified
+     */
+    public String getSubject(String token) {
+        CachedToken cached = tokens.get(token);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt() <= clock.getAsLong()) {
+            tokens.remove(token, cached);
+            return null;
+        }
+        return cached.subject();
+    }
+
+    public void putSubject(String token, String subject, Date expiration) {
+        long now = clock.getAsLong();
+        long expiresAt = now + config.getCacheTtl().toMillis();
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.getTime());
+        }
+        if (expiresAt > now && hasRoom(tokens, now)) {
+            tokens.put(token, new CachedToken(subject, expiresAt));
+        }
+    }
+
+    /**
+     * Returns the cached principal of {@code email}, loading and caching it on a miss.
+     */
+    public UserDetails getPrincipal(String email, Function<String, UserDetails> loader) {
+        long now = clock.getAsLong();
+        CachedPrincipal cached = principals.get(email);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.principal();
+        }
+
+        long stamp = invalidations.get();
+        UserDetails loaded = loader.apply(email);
+        long ttl = config.getCacheTtl().toMillis();
+        if (ttl > 0 && hasRoom(principals, now)) {
+            CachedPrincipal entry = new CachedPrincipal(loaded, now + ttl);
+            principals.put(email, entry);
+            // An invalidation that ran while loading may have missed this entry
+            if (invalidations.get() != stamp) {
+                principals.remove(email, entry);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the cached principal of a user whose profile or password changed.
+     */
+    public void invalidate(String email) {
+        invalidations.incrementAndGet();
+        principals.remove(email);
+    }
+
+    public int size() {
+        return tokens.size() + principals.size();
+    }
+
+    private boolean hasRoom(Map<String, ? extends Expiring> entries, long now) {
+        if (entries.size() < config.getCacheMaxEntries()) {
+            return true;
+        }
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        return entries.size() < config.getCacheMaxEntries();
+    }
+
+    private interface Expiring {
+        long expiresAt();
+    }
+
+    private record CachedToken(String subject, long expiresAt) implements Expiring {
+    }
+
+    private record CachedPrincipal(UserDetails principal, long expiresAt) implements Expiring {
+    }
+}
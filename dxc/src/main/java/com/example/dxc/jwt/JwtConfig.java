@@ -4,10 +4,22 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "jwt")
 public class JwtConfig {
     private String secretKey;
     private long expirationMs;
+
+    // How long AuthTokenFilter reuses a verified token and a loaded principal; zero disables the cache
+    private Duration cacheTtl = Duration.ofSeconds(60);
+
+    // Upper bound on cached tokens, and separately on cached principals
+    private int cacheMaxEntries = 10_000;
+
+    // Lifetime of the tickets that event streams take in the URL instead of the JWT. A ticket is only
+    // checked when a stream opens, so it just has to outlive the EventSource's first connect
+    private Duration streamTicketTtl = Duration.ofSeconds(60);
 }
@@ -17,8 +17,16 @@ import java.util.Date;
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    // Claim marking a stream ticket, which opens event streams and nothing else
+    public static final String SCOPE_CLAIM = "scope";
+    public static final String STREAM_SCOPE = "stream";
+
     private final JwtConfig jwtConfig;
 
+    // Built on first use from the configured secret, then shared: both are immutable and thread-safe
+    private volatile Key key;
+    private volatile JwtParser parser;
+
     public JwtUtils(JwtConfig jwtConfig) {
         this.jwtConfig = jwtConfig;
     }
@@ -37,17 +45,52 @@ public class JwtUtils {
     }
 
     private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtConfig.getSecretKey()));
+        Key current = key;
+        if (current == null) {
+            current = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtConfig.getSecretKey()));
+            key = current;
+        }
+        return current;
+    }
+
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder().setSigningKey(key()).build();
+            parser = current;
+        }
+        return current;
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parser().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    /**
+     * Verifies the token and returns its claims in a single parse.
+     *
+     * @return the claims, or {@code null} if the token is invalid, expired or not signed with our key
+     */
+    public Claims parseValidClaims(String token) {
+        try {
+            return parser().parseClaimsJws(token).getBody();
+        } catch (MalformedJwtException e) {
+            logger.error("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            logger.error("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            logger.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT signature is invalid: {}", e.getMessage());
+        }
+        return null;
     }
 
     public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
+            parser().parse(authToken);
             return true;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
@@ -61,6 +104,25 @@ public class JwtUtils {
         return false;
     }
 
+    /**
+     * A short-lived token for the event streams, which EventSource can only authenticate through the
+     * URL. Unlike the JWT it ends up in access logs and browser history, so it expires within
+     * {@code jwt.stream-ticket-ttl} and is refused everywhere but the streams.
+     */
+    public String generateStreamTicket(String email) {
+        return Jwts.builder()
+                .setSubject(email)
+                .claim(SCOPE_CLAIM, STREAM_SCOPE)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtConfig.getStreamTicketTtl().toMillis()))
+                .signWith(key(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public static boolean isStreamTicket(Claims claims) {
+        return STREAM_SCOPE.equals(claims.get(SCOPE_CLAIM, String.class));
+    }
+
     public String generateJwtTokenWithEmail(String email) {
         return Jwts.builder()
                 .setSubject(email)
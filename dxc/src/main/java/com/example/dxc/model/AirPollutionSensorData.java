@@ -14,8 +14,13 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "air_pollution_sensors_data")
-public class AirPollutionSensorData {
+// Indexes follow the dashboard reads: newest first, optionally narrowed by location or status
+@Table(name = "air_pollution_sensors_data", indexes = {
+        @Index(name = "idx_air_pollution_timestamp", columnList = "timestamp, id"),
+        @Index(name = "idx_air_pollution_location_timestamp", columnList = "location, timestamp"),
+        @Index(name = "idx_air_pollution_pollution_timestamp", columnList = "pollutionLevel, timestamp")
+})
+public class AirPollutionSensorData implements SensorReading {
 
     @Id
     @Column(nullable = false, updatable = false)
@@ -9,12 +9,12 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Table(name = "alerts")
 public class Alert {
 
+    // Assigned when the alert opens, so later updates never need to read the row back
     @Id
-    @GeneratedValue
     private UUID id;
 
     @Column(nullable = false)
@@ -34,6 +34,31 @@ public class Alert {
     @Column(nullable = false)
     private Settings.SettingType type;
 
+    // Location of the reading that raised the alert
+    private String location;
+
     @Column(nullable = false, name = "triggered_at")
     private LocalDateTime triggeredAt = LocalDateTime.now();
+
+    // null for alerts raised before coalescing was introduced
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    // Breaching readings folded into this alert while it was open
+    @Column(nullable = false)
+    private int occurrences;
+
+    // Most extreme value seen: the maximum for Above alerts, the minimum for Below alerts
+    @Column(nullable = false, name = "peak_value")
+    private float peakValue;
+
+    @Column(name = "last_triggered_at")
+    private LocalDateTime lastTriggeredAt;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    public enum Status {
+        OPEN, RESOLVED
+    }
 }
@@ -0,0 +1,42 @@
+package com.example.dxc.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A user's interest in alerts of one sensor type, optionally narrowed to a
+ * metric and/or a location ({@code null} matches any).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "alert_subscriptions")
+public class AlertSubscription {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Settings.SettingType type;
+
+    private String metric;
+
+    private String location;
+
+    @Column(nullable = false, name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,38 @@
+package com.example.dxc.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Alert rule over several metrics of one sensor type,
+ * e.g. {@code pm2_5 > 55 AND pm10 > 150}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "compound_alert_rules")
+public class CompoundAlertRule {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Settings.SettingType type;
+
+    // Also stored as Alert.metric when the rule fires, hence the same 255 limit
+    @Column(nullable = false)
+    private String expression;
+
+    @Column(nullable = false, name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.example.dxc.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Entity
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+// City-wide and per-location reads of one metric over a time range
+@Table(name = "sensor_rollup_hour", indexes = {
+        @Index(name = "idx_rollup_hour_metric_bucket", columnList = "sensorType, metric, bucketStart"),
+        @Index(name = "idx_rollup_hour_metric_location_bucket", columnList = "sensorType, metric, location, bucketStart")
+})
+public class HourSensorRollup extends SensorRollup {
+}
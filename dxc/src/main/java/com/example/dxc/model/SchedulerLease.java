@@ -0,0 +1,40 @@
+package com.example.dxc.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A lease on a scheduled job (or one shard of it), or a replica's membership row. Maintained with plain SQL
+ * by {@link com.example.dxc.repository.SchedulerLeaseRepository}; mapped so the schema is created with the rest.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "scheduler_leases")
+public class SchedulerLease {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(length = 100, nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime acquiredAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Incremented whenever the lease changes hands
+    @Column(nullable = false)
+    private long token;
+}
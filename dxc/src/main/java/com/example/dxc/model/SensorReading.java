@@ -0,0 +1,16 @@
+package com.example.dxc.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fields shared by every sensor reading entity.
+ */
+public interface SensorReading {
+    UUID getId();
+    void setId(UUID id);
+    String getLocation();
+    void setLocation(String location);
+    LocalDateTime getTimestamp();
+    void setTimestamp(LocalDateTime timestamp);
+}
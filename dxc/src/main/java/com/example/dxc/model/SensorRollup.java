@@ -0,0 +1,59 @@
+package com.example.dxc.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated statistics of one metric at one location over one time bucket.
+ * Kept in one table per granularity; see {@link MinuteSensorRollup} and {@link HourSensorRollup}.
+ */
+@MappedSuperclass
+@IdClass(SensorRollup.Key.class)
+@Data
+@NoArgsConstructor
+public abstract class SensorRollup {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Settings.SettingType sensorType;
+
+    @Id
+    @Column(nullable = false, length = 32)
+    private String metric;
+
+    @Id
+    @Column(nullable = false)
+    private String location;
+
+    @Id
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private long sampleCount;
+
+    @Column(nullable = false)
+    private double valueSum;
+
+    @Column(nullable = false)
+    private double valueMin;
+
+    @Column(nullable = false)
+    private double valueMax;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Settings.SettingType sensorType;
+        private String metric;
+        private String location;
+        private LocalDateTime bucketStart;
+    }
+}
@@ -14,8 +14,13 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "street_light_sensors_data")
-public class StreetLightSensorData {
+// Indexes follow the dashboard reads: newest first, optionally narrowed by location or status
+@Table(name = "street_light_sensors_data", indexes = {
+        @Index(name = "idx_street_light_timestamp", columnList = "timestamp, id"),
+        @Index(name = "idx_street_light_location_timestamp", columnList = "location, timestamp"),
+        @Index(name = "idx_street_light_status_timestamp", columnList = "status, timestamp")
+})
+public class StreetLightSensorData implements SensorReading {
 
     @Id
     @Column(nullable = false, updatable = false)
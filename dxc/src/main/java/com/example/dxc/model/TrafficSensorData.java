@@ -14,8 +14,13 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "traffic_sensors_data")
-public class TrafficSensorData {
+// Indexes follow the dashboard reads: newest first, optionally narrowed by location or status
+@Table(name = "traffic_sensors_data", indexes = {
+        @Index(name = "idx_traffic_timestamp", columnList = "timestamp, id"),
+        @Index(name = "idx_traffic_location_timestamp", columnList = "location, timestamp"),
+        @Index(name = "idx_traffic_congestion_timestamp", columnList = "congestionLevel, timestamp")
+})
+public class TrafficSensorData implements SensorReading {
 
     @Id
     @Column(nullable = false, updatable = false)
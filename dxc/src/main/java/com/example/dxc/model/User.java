@@ -44,4 +44,8 @@ public class User {
     @Column(nullable = true)
     private String authProvider;
 
+    // Extra role on top of USER, e.g. ADMIN; granted directly in the database
+    @Column(nullable = true)
+    private String role;
+
 }
@@ -13,5 +13,6 @@ import java.util.UUID;
 @Repository
 public interface AirPollutionSensorDataRepository
         extends JpaRepository<AirPollutionSensorData, UUID>,
-        JpaSpecificationExecutor<AirPollutionSensorData> {
+        JpaSpecificationExecutor<AirPollutionSensorData>,
+        BatchInsertRepository<AirPollutionSensorData> {
 }
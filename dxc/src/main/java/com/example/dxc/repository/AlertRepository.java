@@ -1,12 +1,34 @@
 package com.example.dxc.repository;
 
 import com.example.dxc.model.Alert;
+import com.example.dxc.model.Settings;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface AlertRepository extends JpaRepository<Alert, UUID> {
+public interface AlertRepository extends JpaRepository<Alert, UUID>, BatchInsertRepository<Alert> {
     List<Alert> findByTriggeredAtAfter(LocalDateTime time);
+
+    List<Alert> findByStatus(Alert.Status status);
+
+    Optional<Alert> findFirstByTypeAndMetricAndLocationAndStatusOrderByTriggeredAtDesc(
+            Settings.SettingType type, String metric, String location, Alert.Status status);
+
+    /**
+     * Writes the coalesced state of an existing alert in a single UPDATE, without loading it first.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Alert a set a.value = :#{#alert.value}, a.occurrences = :#{#alert.occurrences}, " +
+            "a.peakValue = :#{#alert.peakValue}, a.status = :#{#alert.status}, " +
+            "a.lastTriggeredAt = :#{#alert.lastTriggeredAt}, a.resolvedAt = :#{#alert.resolvedAt} " +
+            "where a.id = :#{#alert.id}")
+    int updateState(@Param("alert") Alert alert);
 }
@@ -0,0 +1,19 @@
+package com.example.dxc.repository;
+
+import com.example.dxc.model.AlertSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface AlertSubscriptionRepository extends JpaRepository<AlertSubscription, UUID> {
+
+    @Query("select s from AlertSubscription s join fetch s.user")
+    List<AlertSubscription> findAllWithUser();
+
+    List<AlertSubscription> findByUserId(Long userId);
+
+    Optional<AlertSubscription> findByIdAndUserId(UUID id, Long userId);
+}
@@ -0,0 +1,12 @@
+package com.example.dxc.repository;
+
+import java.util.List;
+
+/**
+ * Repository fragment for inserting many new rows at once.
+ * Unlike {@code saveAll}, it never issues a SELECT for entities with an
+ * assigned id, so the inserts can be grouped into JDBC batches.
+ */
+public interface BatchInsertRepository<T> {
+    List<T> persistAll(List<T> entities);
+}
@@ -0,0 +1,37 @@
+package com.example.dxc.repository;
+
+import com.example.dxc.config.IngestProperties;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public class BatchInsertRepositoryImpl<T> implements BatchInsertRepository<T> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final IngestProperties ingestProperties;
+
+    public BatchInsertRepositoryImpl(IngestProperties ingestProperties) {
+        this.ingestProperties = ingestProperties;
+    }
+
+    @Override
+    @Transactional
+    public List<T> persistAll(List<T> entities) {
+        int batchSize = ingestProperties.getJdbcBatchSize();
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            // Flush every full JDBC batch and detach, so the persistence context stays small
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return entities;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.dxc.repository;
+
+import com.example.dxc.model.CompoundAlertRule;
+import com.example.dxc.model.Settings;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface CompoundAlertRuleRepository extends JpaRepository<CompoundAlertRule, UUID> {
+
+    boolean existsByTypeAndExpression(Settings.SettingType type, String expression);
+}
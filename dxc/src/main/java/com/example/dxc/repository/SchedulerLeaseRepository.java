@@ -0,0 +1,85 @@
+package com.example.dxc.repository;
+
+import com.example.dxc.model.SchedulerLease;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Leases in {@code scheduler_leases}. Every check and change is one statement timed by the database
+ * clock, so replicas with skewed clocks still agree on when a lease has expired. Works on MySQL and H2.
+ */
+@Repository
+public class SchedulerLeaseRepository {
+
+    // Assignments that read owner come before the one that sets it: MySQL applies them left to right
+    private static final String CLAIM_SQL =
+            "UPDATE scheduler_leases SET " +
+            "token = CASE WHEN owner = ? THEN token ELSE token + 1 END, " +
+            "acquired_at = CASE WHEN owner = ? THEN acquired_at ELSE LOCALTIMESTAMP(6) END, " +
+            "owner = ?, " +
+            "expires_at = TIMESTAMPADD(MICROSECOND, ?, LOCALTIMESTAMP(6)) " +
+            "WHERE name = ? AND (owner = ? OR expires_at < LOCALTIMESTAMP(6))";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO scheduler_leases (name, owner, acquired_at, expires_at, token) " +
+            "VALUES (?, ?, LOCALTIMESTAMP(6), TIMESTAMPADD(MICROSECOND, ?, LOCALTIMESTAMP(6)), 1)";
+
+    private static final String RELEASE_SQL =
+            "UPDATE scheduler_leases SET expires_at = TIMESTAMPADD(MICROSECOND, -1, LOCALTIMESTAMP(6)) " +
+            "WHERE name = ? AND owner = ?";
+
+    private static final String COUNT_LIVE_SQL =
+            "SELECT COUNT(*) FROM scheduler_leases WHERE name LIKE ? AND expires_at >= LOCALTIMESTAMP(6)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchedulerLeaseRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes the lease if it is free or expired, or extends it if {@code owner} already holds it.
+     *
+     * @return {@code true} if {@code owner} holds the lease for another {@code ttl}
+     */
+    public boolean tryAcquire(String name, String owner, Duration ttl) {
+        long micros = ttl.toNanos() / 1000;
+        if (jdbcTemplate.update(CLAIM_SQL, owner, owner, owner, micros, name, owner) == 1) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update(INSERT_SQL, name, owner, micros) == 1;
+        } catch (DuplicateKeyException e) {
+            // The lease exists and someone else holds it, or another replica inserted it first
+            return false;
+        }
+    }
+
+    /**
+     * Expires the lease at once if {@code owner} holds it, so another replica can take over without waiting.
+     */
+    public void release(String name, String owner) {
+        jdbcTemplate.update(RELEASE_SQL, name, owner);
+    }
+
+    public int countLive(String namePrefix) {
+        Integer count = jdbcTemplate.queryForObject(COUNT_LIVE_SQL, Integer.class, namePrefix + "%");
+        return count == null ? 0 : count;
+    }
+
+    public List<SchedulerLease> findAll() {
+        return jdbcTemplate.query("SELECT name, owner, acquired_at, expires_at, token FROM scheduler_leases ORDER BY name",
+                (row, i) -> new SchedulerLease(row.getString(1), row.getString(2),
+                        toLocalDateTime(row.getTimestamp(3)), toLocalDateTime(row.getTimestamp(4)), row.getLong(5)));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -13,5 +13,6 @@ import java.util.UUID;
 @Repository
 public interface StreetLightSensorDataRepository
         extends JpaRepository<StreetLightSensorData, UUID>,
-        JpaSpecificationExecutor<StreetLightSensorData> {
+        JpaSpecificationExecutor<StreetLightSensorData>,
+        BatchInsertRepository<StreetLightSensorData> {
 }
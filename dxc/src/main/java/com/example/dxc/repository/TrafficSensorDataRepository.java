@@ -14,5 +14,6 @@ import java.util.UUID;
 @Repository
 public interface TrafficSensorDataRepository
         extends JpaRepository<TrafficSensorData, UUID>,
-        JpaSpecificationExecutor<TrafficSensorData> {
+        JpaSpecificationExecutor<TrafficSensorData>,
+        BatchInsertRepository<TrafficSensorData> {
 }
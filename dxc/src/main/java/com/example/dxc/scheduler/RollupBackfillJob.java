@@ -0,0 +1,32 @@
+package com.example.dxc.scheduler;
+
+import com.example.dxc.config.RollupProperties;
+import com.example.dxc.model.Settings;
+import com.example.dxc.service.SensorDataService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class RollupBackfillJob {
+
+    private final SensorDataService sensorDataService;
+    private final RollupProperties rollupProperties;
+    private final ScheduledJobCoordinator coordinator;
+
+    // Readings stored before the rollups existed are folded in once, on the first start.
+    // With several replicas, each sensor type is backfilled only by the replica owning it.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRollups() {
+        if (!rollupProperties.isBackfillOnStartup()) {
+            return;
+        }
+        for (Settings.SettingType type : Settings.SettingType.values()) {
+            if (coordinator.owns(type.name())) {
+                sensorDataService.backfillRollups(type);
+            }
+        }
+    }
+}
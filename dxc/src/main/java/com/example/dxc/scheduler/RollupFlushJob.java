@@ -0,0 +1,23 @@
+package com.example.dxc.scheduler;
+
+import com.example.dxc.config.ExecutorConfig;
+import com.example.dxc.service.SensorRollupStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class RollupFlushJob {
+
+    private final SensorRollupStore rollupStore;
+
+    // Off the scheduler thread: a flush waits for the write lock while a range is being rebuilt,
+    // and the heartbeat and eviction jobs must not wait with it
+    @Async(ExecutorConfig.MAINTENANCE)
+    @Scheduled(fixedDelayString = "${sensors.rollup.flush-interval:PT1S}")
+    public void flushRollups() {
+        rollupStore.flush();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.dxc.scheduler;
+
+import com.example.dxc.config.SchedulingProperties;
+import com.example.dxc.model.SchedulerLease;
+import com.example.dxc.repository.SchedulerLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which replica runs the cluster-wide scheduled jobs ({@code scheduling.coordination.mode}).
+ * <p>
+ * In LEADER mode the replica holding the {@code leader} lease runs every job. In SHARDED mode each
+ * shard has a {@code shard:<name>} lease. Every replica also keeps a {@code node:<id>} membership
+ * lease, so it can count the live replicas and hold no more than its fair share of shards. It hands
+ * extra shards back when replicas join.
+ * <p>
+ * Leases are renewed every {@code renew-interval}. This replica trusts a lease until {@code lease-ttl}
+ * after the renewal that granted it started, which is never later than the database lets another
+ * replica take the lease over. A crashed replica's work moves after at most {@code lease-ttl} plus
+ * {@code renew-interval}. A replica that shuts down cleanly releases its leases at once.
+ * <p>
+ * Renewal runs on a thread of its own rather than the shared {@code @Scheduled} one, so a slow
+ * rollup flush or rebuild can't hold it past {@code lease-ttl} and make leadership flap.
+ */
+@Component
+public class ScheduledJobCoordinator implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledJobCoordinator.class);
+
+    static final String LEADER_LEASE = "leader";
+    static final String SHARD_PREFIX = "shard:";
+    static final String NODE_PREFIX = "node:";
+
+    private final SchedulerLeaseRepository leases;
+    private final SchedulingProperties properties;
+    private final String nodeId;
+    // Held lease -> System.nanoTime() until which it may be acted on
+    private final Map<String, Long> held = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private ScheduledExecutorService renewer;
+
+    public ScheduledJobCoordinator(SchedulerLeaseRepository leases, SchedulingProperties properties) {
+        this.leases = leases;
+        this.properties = properties;
+        this.nodeId = properties.getNodeId() != null && !properties.getNodeId().isBlank()
+                ? properties.getNodeId()
+                : defaultNodeId();
+    }
+
+    private static String defaultNodeId() {
+        String host = System.getenv("HOSTNAME");
+        if (host == null || host.isBlank()) {
+            // "pid@host" on HotSpot
+            return ManagementFactory.getRuntimeMXBean().getName();
+        }
+        return host + "@" + ProcessHandle.current().pid();
+    }
+
+    /**
+     * Whether this replica should run the work of {@code shard} now. Always true in NONE mode.
+     */
+    public boolean owns(String shard) {
+        return switch (properties.getMode()) {
+            case NONE -> true;
+            case LEADER -> holds(LEADER_LEASE);
+            case SHARDED -> holds(SHARD_PREFIX + shard);
+        };
+    }
+
+    private boolean holds(String lease) {
+        Long validUntil = held.get(lease);
+        return validUntil != null && validUntil - System.nanoTime() > 0;
+    }
+
+    public void renew() {
+        if (properties.getMode() == SchedulingProperties.Mode.NONE || !running) {
+            return;
+        }
+        try {
+            if (properties.getMode() == SchedulingProperties.Mode.LEADER) {
+                claim(LEADER_LEASE);
+            } else {
+                renewShards();
+            }
+        } catch (DataAccessException e) {
+            // Leases this replica holds lapse on their own once their time is up
+            logger.warn("Could not renew scheduler leases of {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void renewShards() {
+        claim(NODE_PREFIX + nodeId);
+        List<String> shards = properties.getShards();
+        int live = Math.max(1, leases.countLive(NODE_PREFIX));
+        int fairShare = (shards.size() + live - 1) / live;
+
+        // Renew held shards up to the fair share and hand back the rest, then claim free ones.
+        // Each replica starts looking at a different shard, so they rarely contend for the same one.
+        int owned = 0;
+        for (String shard : shards) {
+            String lease = SHARD_PREFIX + shard;
+            if (held.containsKey(lease)) {
+                if (owned < fairShare && claim(lease)) {
+                    owned++;
+                } else if (held.remove(lease) != null) {
+                    leases.release(lease, nodeId);
+                    logger.info("{} handed shard {} back: {} replicas share {} shards", nodeId, shard, live, shards.size());
+                }
+            }
+        }
+        int offset = Math.floorMod(nodeId.hashCode(), shards.size());
+        for (int i = 0; i < shards.size() && owned < fairShare; i++) {
+            String lease = SHARD_PREFIX + shards.get((offset + i) % shards.size());
+            if (!held.containsKey(lease) && claim(lease)) {
+                owned++;
+            }
+        }
+    }
+
+    private boolean claim(String lease) {
+        Duration ttl = properties.getLeaseTtl();
+        long start = System.nanoTime();
+        if (leases.tryAcquire(lease, nodeId, ttl)) {
+            if (held.put(lease, start + ttl.toNanos()) == null && !lease.startsWith(NODE_PREFIX)) {
+                logger.info("{} acquired scheduler lease {}", nodeId, lease);
+            }
+            return true;
+        }
+        if (held.remove(lease) != null) {
+            logger.warn("{} lost scheduler lease {}", nodeId, lease);
+        }
+        return false;
+    }
+
+    public Status getStatus() {
+        List<String> owned = held.keySet().stream().filter(this::holds).sorted().toList();
+        return new Status(properties.getMode(), nodeId, owned,
+                properties.getMode() == SchedulingProperties.Mode.NONE ? List.of() : leases.findAll());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        // Claim right away rather than one renew-interval after startup
+        renew();
+        if (properties.getMode() != SchedulingProperties.Mode.NONE) {
+            long interval = properties.getRenewInterval().toMillis();
+            renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "scheduler-leases");
+                thread.setDaemon(true);
+                return thread;
+            });
+            renewer.scheduleWithFixedDelay(this::renew, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (renewer != null) {
+            renewer.shutdown();
+            try {
+                // Let a renewal in flight finish so it can't re-take a lease released below
+                renewer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            renewer = null;
+        }
+        for (String lease : held.keySet()) {
+            try {
+                leases.release(lease, nodeId);
+            } catch (DataAccessException e) {
+                logger.warn("Could not release scheduler lease {}: {}", lease, e.getMessage());
+            }
+        }
+        held.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public record Status(SchedulingProperties.Mode mode, String nodeId, List<String> held, List<SchedulerLease> leases) {
+    }
+}
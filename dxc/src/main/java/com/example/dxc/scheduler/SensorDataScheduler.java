@@ -1,7 +1,10 @@
 package com.example.dxc.scheduler;
 
+import com.example.dxc.config.ExecutorConfig;
+import com.example.dxc.model.Settings;
 import com.example.dxc.service.SensorDataService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -10,11 +13,21 @@ import org.springframework.stereotype.Component;
 public class SensorDataScheduler {
 
     private final SensorDataService sensorDataService;
+    private final ScheduledJobCoordinator coordinator;
 
+    // Off the scheduler thread, which the heartbeat and eviction jobs share.
+    // With several replicas, each sensor type is generated only by the replica owning it.
+    @Async(ExecutorConfig.MAINTENANCE)
     @Scheduled(fixedRate = 60000)
     public void generateAllSensorData() {
-        sensorDataService.generateTrafficData();
-        sensorDataService.generateAirPollutionData();
-        sensorDataService.generateStreetLightData();
+        if (coordinator.owns(Settings.SettingType.Traffic.name())) {
+            sensorDataService.generateTrafficData();
+        }
+        if (coordinator.owns(Settings.SettingType.Air_Pollution.name())) {
+            sensorDataService.generateAirPollutionData();
+        }
+        if (coordinator.owns(Settings.SettingType.Street_Light.name())) {
+            sensorDataService.generateStreetLightData();
+        }
     }
 }
@@ -0,0 +1,25 @@
+package com.example.dxc.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/**
+ * How the buckets of a sensor aggregate are split across locations.
+ */
+public enum AggregateGrouping {
+    // One series per sensor location (zone, street or pole)
+    LOCATION,
+    // All locations rolled up into one city-wide series
+    CITY;
+
+    public static AggregateGrouping from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "groupBy must be one of location, city");
+        }
+    }
+}
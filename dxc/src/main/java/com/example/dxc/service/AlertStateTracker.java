@@ -0,0 +1,170 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.AlertProperties;
+import com.example.dxc.model.Alert;
+import com.example.dxc.model.Settings;
+import com.example.dxc.repository.AlertRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Open/resolved state of alerts per (type, metric, location), kept in memory so that
+ * alert checks never read the alerts table.
+ * <p>
+ * While a metric stays in breach, its open alert absorbs the readings (occurrence count,
+ * latest and peak value). It resolves once a reading moves back past the threshold by the
+ * hysteresis band, and a breach within the cooldown after that reopens the same alert.
+ * Every transition returns a detached copy of the alert for the caller to persist; if persisting
+ * fails, the caller hands the alert to {@link #resync} so the state matches the table again.
+ * <p>
+ * The state is per application instance. With several replicas receiving readings for the same
+ * (type, metric, location), each replica opens, coalesces and resolves its own alert and notifies
+ * subscribers on its own. Route a location's readings to one replica, or run a single replica for
+ * ingestion, where duplicate alerts matter.
+ */
+@Component
+@RequiredArgsConstructor
+public class AlertStateTracker {
+
+    public record AlertKey(Settings.SettingType type, String metric, String location) {
+    }
+
+    public enum Transition {
+        // A new alert row to insert; the only transition that notifies users
+        OPENED,
+        // A resolved alert breached again within the cooldown
+        REOPENED,
+        // Another breaching reading on an open alert
+        UPDATED,
+        RESOLVED
+    }
+
+    public record Change(Transition transition, Alert alert) {
+    }
+
+    private final AlertRepository alertRepository;
+    private final AlertProperties properties;
+
+    // Values are only mutated inside compute(), which serializes changes per key
+    private final Map<AlertKey, Alert> states = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        states.clear();
+        for (Alert alert : alertRepository.findByStatus(Alert.Status.OPEN)) {
+            states.put(keyOf(alert), alert);
+        }
+    }
+
+    /**
+     * Records a breaching reading described by {@code candidate} (an unsaved alert carrying
+     * the reading's value, the rule's threshold and the trigger time).
+     */
+    public Change onBreach(Alert candidate) {
+        Change[] change = new Change[1];
+        states.compute(keyOf(candidate), (key, current) -> {
+            LocalDateTime at = candidate.getTriggeredAt();
+            if (current == null || cooledDown(current, at)) {
+                Alert opened = candidate.toBuilder()
+                        .id(UUID.randomUUID())
+                        .status(Alert.Status.OPEN)
+                        .occurrences(1)
+                        .peakValue(candidate.getValue())
+                        .lastTriggeredAt(at)
+                        .build();
+                change[0] = new Change(Transition.OPENED, opened.toBuilder().build());
+                return opened;
+            }
+
+            Transition transition = current.getStatus() == Alert.Status.OPEN ? Transition.UPDATED : Transition.REOPENED;
+            current.setStatus(Alert.Status.OPEN);
+            current.setResolvedAt(null);
+            current.setOccurrences(current.getOccurrences() + 1);
+            current.setValue(candidate.getValue());
+            current.setPeakValue(current.getAlertType() == Settings.AlertType.Below
+                    ? Math.min(current.getPeakValue(), candidate.getValue())
+                    : Math.max(current.getPeakValue(), candidate.getValue()));
+            current.setLastTriggeredAt(at);
+            change[0] = new Change(transition, current.toBuilder().build());
+            return current;
+        });
+        return change[0];
+    }
+
+    /**
+     * Records a reading that is within its threshold.
+     *
+     * @return the resolution of the open alert, or {@code null} if nothing changed
+     */
+    public Change onClear(Settings.SettingType type, String metric, String location, float value, LocalDateTime at) {
+        return clear(new AlertKey(type, metric, location), at, current -> clearedHysteresis(current, value));
+    }
+
+    /**
+     * Records a reading on which a compound rule no longer holds. A compound alert has no single
+     * value to apply the hysteresis band to, so it resolves as soon as its expression stops matching;
+     * the cooldown still folds a quick relapse into the same alert.
+     *
+     * @return the resolution of the open alert, or {@code null} if nothing changed
+     */
+    public Change onNoLongerMatching(Settings.SettingType type, String expression, String location, LocalDateTime at) {
+        return clear(new AlertKey(type, expression, location), at, current -> true);
+    }
+
+    private Change clear(AlertKey alertKey, LocalDateTime at, Predicate<Alert> cleared) {
+        Change[] change = new Change[1];
+        states.computeIfPresent(alertKey, (key, current) -> {
+            if (current.getStatus() != Alert.Status.OPEN) {
+                // Resolved and out of its cooldown: nothing left to coalesce into
+                return cooledDown(current, at) ? null : current;
+            }
+            if (!cleared.test(current)) {
+                return current;
+            }
+            current.setStatus(Alert.Status.RESOLVED);
+            current.setResolvedAt(at);
+            change[0] = new Change(Transition.RESOLVED, current.toBuilder().build());
+            return current;
+        });
+        return change[0];
+    }
+
+    /**
+     * Replaces the state kept for the alert's (type, metric, location) with the open alert stored
+     * for it, or forgets the key if none is stored. Used when persisting a transition failed.
+     * <p>
+     * The lookup runs outside the map, so readings for the key aren't held up by the query. If a
+     * transition replaced the state meanwhile, that one wins and resyncs itself should it fail too.
+     */
+    public void resync(Alert alert) {
+        AlertKey key = keyOf(alert);
+        Alert before = states.get(key);
+        Alert stored = alertRepository.findFirstByTypeAndMetricAndLocationAndStatusOrderByTriggeredAtDesc(
+                key.type(), key.metric(), key.location(), Alert.Status.OPEN).orElse(null);
+        states.compute(key, (k, current) -> current == before ? stored : current);
+    }
+
+    private boolean cooledDown(Alert alert, LocalDateTime at) {
+        return alert.getStatus() == Alert.Status.RESOLVED
+                && !at.isBefore(alert.getResolvedAt().plus(properties.getCooldown()));
+    }
+
+    private boolean clearedHysteresis(Alert alert, float value) {
+        float band = Math.abs(alert.getThresholdValue()) * properties.getHysteresis();
+        return switch (alert.getAlertType()) {
+            case Above -> value <= alert.getThresholdValue() - band;
+            case Below -> value >= alert.getThresholdValue() + band;
+        };
+    }
+
+    private static AlertKey keyOf(Alert alert) {
+        return new AlertKey(alert.getType(), alert.getMetric(), alert.getLocation());
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.AlertProperties;
+import com.example.dxc.model.Alert;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Pushes newly opened alerts to connected dashboards as server-sent events.
+ * <p>
+ * Every alert gets the next event id and is kept in a fixed-size ring buffer, so a client that
+ * reconnects with {@code Last-Event-ID} receives the alerts it missed. Connections are async
+ * servlet requests parked in {@link SseEmitter}s, so an open stream costs a socket and a few
+ * objects but no thread.
+ * <p>
+ * Each client has its own outbox, written in id order by {@link SseDelivery}. A client that falls a
+ * whole buffer behind is disconnected; it reconnects with {@code Last-Event-ID} and catches up from
+ * the buffer.
+ */
+@Component
+public class AlertStreamBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertStreamBroadcaster.class);
+
+    static final String EVENT_NAME = "alert";
+
+    private final AlertProperties.Stream properties;
+    private final SseDelivery<Client> delivery;
+
+    // Guarded by this, together with the ring
+    private final Event[] ring;
+    private long lastId;
+
+    @Autowired
+    public AlertStreamBroadcaster(AlertProperties alertProperties) {
+        this(alertProperties, SseDelivery.pool("alert-stream-", alertProperties.getStream().getDeliveryThreads()));
+    }
+
+    AlertStreamBroadcaster(AlertProperties alertProperties, Executor delivery) {
+        this.properties = alertProperties.getStream();
+        this.delivery = new SseDelivery<>("alert stream", delivery, properties::getSendTimeout);
+        this.ring = new Event[Math.max(1, properties.getBufferSize())];
+    }
+
+    /**
+     * Buffers the alerts and sends them to every connected client.
+     */
+    public void publish(List<Alert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            List<Event> events = new ArrayList<>(alerts.size());
+            for (Alert alert : alerts) {
+                Event event = new Event(++lastId, alert);
+                ring[(int) (event.id() % ring.length)] = event;
+                events.add(event);
+            }
+            // Queued under the lock, so a client registering concurrently gets these events either
+            // from its replay or from here, never both, and every outbox stays in id order
+            for (Client client : delivery.clients()) {
+                client.offer(events);
+            }
+        }
+    }
+
+    /**
+     * Connects a client. With a {@code lastEventId}, the buffered alerts after it are replayed first;
+     * if it is unknown, e.g. issued before a restart, the whole buffer is replayed.
+     *
+     * @throws ResponseStatusException 503 when the maximum number of clients is connected
+     */
+    public SseEmitter register(SseEmitter emitter, Long lastEventId) {
+        if (delivery.size() >= properties.getMaxClients()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many alert stream clients");
+        }
+        Client client = new Client(emitter);
+
+        synchronized (this) {
+            delivery.add(client);
+            if (lastEventId != null) {
+                List<Event> missed = since(lastEventId);
+                if (!missed.isEmpty()) {
+                    client.offer(missed);
+                }
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends a comment line to every client so idle connections stay open and closed ones are dropped.
+     */
+    @Scheduled(fixedDelayString = "${alerts.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        delivery.heartbeat();
+    }
+
+    /**
+     * Drops the clients whose write has been blocked for longer than {@code send-timeout}.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void dropStalledClients() {
+        delivery.dropStalled();
+    }
+
+    public int clientCount() {
+        return delivery.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delivery.shutdown();
+    }
+
+    // Caller holds the lock
+    private List<Event> since(long lastEventId) {
+        long oldest = Math.max(1, lastId - ring.length + 1);
+        long from = lastEventId < oldest - 1 || lastEventId > lastId ? oldest : lastEventId + 1;
+        List<Event> events = new ArrayList<>((int) Math.max(0, lastId - from + 1));
+        for (long id = from; id <= lastId; id++) {
+            events.add(ring[(int) (id % ring.length)]);
+        }
+        return events;
+    }
+
+    record Event(long id, Alert alert) {
+    }
+
+    private final class Client extends SseDelivery.Client {
+
+        // Guarded by this
+        private final ArrayDeque<Event> outbox = new ArrayDeque<>();
+
+        private Client(SseEmitter emitter) {
+            super(delivery, emitter);
+        }
+
+        void offer(List<Event> events) {
+            synchronized (this) {
+                if (isClosed()) {
+                    return;
+                }
+                if (outbox.size() + events.size() > ring.length) {
+                    // Too far behind to ever catch up here; a reconnect replays what the buffer still holds
+                    logger.debug("Disconnecting alert stream client that fell {} events behind", outbox.size() + events.size());
+                    disconnect();
+                    return;
+                }
+                outbox.addAll(events);
+            }
+            deliver();
+        }
+
+        @Override
+        List<SseEmitter.SseEventBuilder> takePending() {
+            List<SseEmitter.SseEventBuilder> events = new ArrayList<>(outbox.size());
+            for (Event event : outbox) {
+                events.add(SseEmitter.event()
+                        .id(Long.toString(event.id()))
+                        .name(EVENT_NAME)
+                        .data(event.alert()));
+            }
+            outbox.clear();
+            return events;
+        }
+
+        @Override
+        boolean hasPending() {
+            return !outbox.isEmpty();
+        }
+
+        @Override
+        void discardPending() {
+            outbox.clear();
+        }
+    }
+}
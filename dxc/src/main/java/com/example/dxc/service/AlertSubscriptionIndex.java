@@ -0,0 +1,94 @@
+package com.example.dxc.service;
+
+import com.example.dxc.model.AlertSubscription;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.User;
+import com.example.dxc.repository.AlertSubscriptionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index of alert subscriptions: sensor type → metric → location → subscribers.
+ * <p>
+ * A subscription without metric or location is filed under the {@code *} wildcard, so finding
+ * the recipients of an alert touches at most four buckets and only the users that asked for it.
+ */
+@Component
+@RequiredArgsConstructor
+public class AlertSubscriptionIndex {
+
+    static final String ANY = "*";
+
+    private final AlertSubscriptionRepository repo;
+
+    private final Map<Settings.SettingType, Map<String, Map<String, Map<UUID, User>>>> index = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        index.clear();
+        repo.findAllWithUser().forEach(this::add);
+    }
+
+    public void add(AlertSubscription subscription) {
+        // Only what the alert observers need; no password hashes kept in memory
+        User recipient = User.builder()
+                .id(subscription.getUser().getId())
+                .email(subscription.getUser().getEmail())
+                .firstName(subscription.getUser().getFirstName())
+                .lastName(subscription.getUser().getLastName())
+                .build();
+
+        index.computeIfAbsent(subscription.getType(), t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(keyOf(subscription.getMetric()), m -> new ConcurrentHashMap<>())
+                .computeIfAbsent(keyOf(subscription.getLocation()), l -> new ConcurrentHashMap<>())
+                .put(subscription.getId(), recipient);
+    }
+
+    public void remove(AlertSubscription subscription) {
+        Map<String, Map<String, Map<UUID, User>>> byMetric = index.get(subscription.getType());
+        if (byMetric == null) return;
+        Map<String, Map<UUID, User>> byLocation = byMetric.get(keyOf(subscription.getMetric()));
+        if (byLocation == null) return;
+        Map<UUID, User> subscribers = byLocation.get(keyOf(subscription.getLocation()));
+        if (subscribers != null) {
+            subscribers.remove(subscription.getId());
+        }
+    }
+
+    /**
+     * @return the distinct users subscribed to alerts of this type, metric and location
+     */
+    public Collection<User> subscribersFor(Settings.SettingType type, String metric, String location) {
+        Map<String, Map<String, Map<UUID, User>>> byMetric = index.get(type);
+        if (byMetric == null) {
+            return List.of();
+        }
+        Map<Long, User> recipients = new HashMap<>();
+        collect(byMetric.get(metric), location, recipients);
+        collect(byMetric.get(ANY), location, recipients);
+        return recipients.values();
+    }
+
+    private void collect(Map<String, Map<UUID, User>> byLocation, String location, Map<Long, User> recipients) {
+        if (byLocation == null) return;
+        if (location != null) {
+            putAll(byLocation.get(location), recipients);
+        }
+        putAll(byLocation.get(ANY), recipients);
+    }
+
+    private void putAll(Map<UUID, User> subscribers, Map<Long, User> recipients) {
+        if (subscribers == null) return;
+        for (User user : subscribers.values()) {
+            recipients.putIfAbsent(user.getId(), user);
+        }
+    }
+
+    private static String keyOf(String value) {
+        return value == null || value.isBlank() ? ANY : value;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.dxc.service;
+
+import com.example.dxc.dto.AlertSubscriptionRequest;
+import com.example.dxc.dto.AlertSubscriptionResponse;
+import com.example.dxc.model.User;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface AlertSubscriptionService {
+    AlertSubscriptionResponse subscribe(User user, AlertSubscriptionRequest request);
+    List<AlertSubscriptionResponse> getSubscriptions(Long userId);
+    void unsubscribe(Long userId, UUID subscriptionId);
+}
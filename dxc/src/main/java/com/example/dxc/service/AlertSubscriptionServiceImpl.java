@@ -0,0 +1,57 @@
+package com.example.dxc.service;
+
+import com.example.dxc.dto.AlertSubscriptionRequest;
+import com.example.dxc.dto.AlertSubscriptionResponse;
+import com.example.dxc.model.AlertSubscription;
+import com.example.dxc.model.User;
+import com.example.dxc.repository.AlertSubscriptionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class AlertSubscriptionServiceImpl implements AlertSubscriptionService {
+
+    private final AlertSubscriptionRepository repo;
+    private final AlertSubscriptionIndex index;
+
+    @Override
+    public AlertSubscriptionResponse subscribe(User user, AlertSubscriptionRequest request) {
+        if (request.getType() == null) {
+            throw new IllegalArgumentException("Sensor type is required");
+        }
+
+        AlertSubscription subscription = repo.save(AlertSubscription.builder()
+                .user(user)
+                .type(request.getType())
+                .metric(blankToNull(request.getMetric()))
+                .location(blankToNull(request.getLocation()))
+                .createdAt(LocalDateTime.now())
+                .build());
+        index.add(subscription);
+        return AlertSubscriptionResponse.from(subscription);
+    }
+
+    @Override
+    public List<AlertSubscriptionResponse> getSubscriptions(Long userId) {
+        return repo.findByUserId(userId).stream()
+                .map(AlertSubscriptionResponse::from)
+                .toList();
+    }
+
+    @Override
+    public void unsubscribe(Long userId, UUID subscriptionId) {
+        AlertSubscription subscription = repo.findByIdAndUserId(subscriptionId, userId)
+                .orElseThrow(() -> new IllegalArgumentException("Subscription not found"));
+        repo.delete(subscription);
+        index.remove(subscription);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
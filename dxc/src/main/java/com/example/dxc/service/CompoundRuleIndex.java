@@ -0,0 +1,81 @@
+package com.example.dxc.service;
+
+import com.example.dxc.model.CompoundAlertRule;
+import com.example.dxc.model.Settings;
+import com.example.dxc.repository.CompoundAlertRuleRepository;
+import com.example.dxc.service.expression.AlertExpressionCompiler;
+import com.example.dxc.service.expression.CompiledAlertExpression;
+import com.example.dxc.service.expression.SensorMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled compound alert rules per sensor type.
+ * Expressions are compiled when loaded or saved, never per reading; the lists are
+ * replaced copy-on-write so evaluation needs no locking.
+ */
+@Component
+@RequiredArgsConstructor
+public class CompoundRuleIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompoundRuleIndex.class);
+
+    private final CompoundAlertRuleRepository repo;
+
+    private volatile Map<Settings.SettingType, List<CompiledAlertExpression<?>>> rules = new EnumMap<>(Settings.SettingType.class);
+
+    @PostConstruct
+    public void load() {
+        Map<Settings.SettingType, List<CompiledAlertExpression<?>>> next = new EnumMap<>(Settings.SettingType.class);
+        for (CompoundAlertRule rule : repo.findAll()) {
+            try {
+                CompiledAlertExpression<?> compiled = compile(rule.getType(), rule.getExpression());
+                List<CompiledAlertExpression<?>> forType = next.computeIfAbsent(rule.getType(), t -> new ArrayList<>());
+                if (contains(forType, compiled)) {
+                    // Stored before duplicates were rejected, or by two replicas at once
+                    logger.warn("Skipping compound alert rule {}: same as another {} rule ({})",
+                            rule.getId(), rule.getType(), compiled.text());
+                } else {
+                    forType.add(compiled);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping compound alert rule {} ({}): {}", rule.getId(), rule.getExpression(), e.getMessage());
+            }
+        }
+        rules = next;
+    }
+
+    public static <T> CompiledAlertExpression<T> compile(Settings.SettingType type, String expression) {
+        return AlertExpressionCompiler.compile(expression, SensorMetrics.forType(type));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<CompiledAlertExpression<T>> rulesFor(Settings.SettingType type) {
+        List<CompiledAlertExpression<?>> forType = rules.get(type);
+        return forType == null ? List.of() : (List<CompiledAlertExpression<T>>) (List<?>) forType;
+    }
+
+    public synchronized void add(Settings.SettingType type, CompiledAlertExpression<?> compiled) {
+        Map<Settings.SettingType, List<CompiledAlertExpression<?>>> next = new EnumMap<>(rules);
+        List<CompiledAlertExpression<?>> forType = new ArrayList<>(next.getOrDefault(type, List.of()));
+        if (contains(forType, compiled)) {
+            return;
+        }
+        forType.add(compiled);
+        next.put(type, List.copyOf(forType));
+        rules = next;
+    }
+
+    // Identical rules would share one alert state, so each is evaluated once
+    private static boolean contains(List<CompiledAlertExpression<?>> rules, CompiledAlertExpression<?> compiled) {
+        return rules.stream().anyMatch(rule -> rule.text().equals(compiled.text()));
+    }
+}
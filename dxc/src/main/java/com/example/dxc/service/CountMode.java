@@ -0,0 +1,27 @@
+package com.example.dxc.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/**
+ * How the paged sensor reads work out the total number of matching rows.
+ */
+public enum CountMode {
+    // No count query: a Slice that only knows whether a next page exists
+    NONE,
+    // Maintained row counter for unfiltered reads, short-lived cached counts for filtered ones
+    ESTIMATE,
+    // SELECT COUNT(*) with the same filters on every call
+    EXACT;
+
+    public static CountMode from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "count must be one of none, estimate, exact");
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package com.example.dxc.service;
 
+import com.example.dxc.config.ExecutorConfig;
 import com.example.dxc.model.Alert;
 import org.springframework.scheduling.annotation.Async;
 
 public interface EmailService {
     void sendOtpEmail(String to, String otp);
 
-    @Async
+    @Async(ExecutorConfig.ACCOUNT)
     void sendWelcomeEmail(String to, String name);
 
-    @Async
+    // Called from EmailAlertObserver, which already runs on the alerts executor
     void sendAlertEmail(Alert alert, String emails);
 }
@@ -1,6 +1,10 @@
 package com.example.dxc.service;
 
+import com.example.dxc.config.ExecutorConfig;
 import com.example.dxc.model.Alert;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +21,7 @@ import org.slf4j.LoggerFactory;
 public class EmailServiceImpl implements EmailService {
 
     private final JavaMailSender mailSender;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
     private static final Logger logger = LoggerFactory.getLogger(EmailServiceImpl.class);
 
     @Override
@@ -51,7 +56,7 @@ public class EmailServiceImpl implements EmailService {
 
             helper.setText(htmlContent, true);
 
-            mailSender.send(message);
+            send("otp", () -> mailSender.send(message));
         } catch (MessagingException e) {
             throw new RuntimeException("Failed to send OTP email: " + e.getMessage());
         }
@@ -62,7 +67,24 @@ public class EmailServiceImpl implements EmailService {
     public EmailServiceImpl(JavaMailSender mailSender) {
         this.mailSender = mailSender;
     }
-    @Async
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Times the SMTP round trip, tagged with the kind of e-mail and whether the server accepted it
+    private void send(String kind, Runnable send) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            send.run();
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer("email.send", "kind", kind, "outcome", outcome));
+        }
+    }
+    @Async(ExecutorConfig.ACCOUNT)
     @Override
     public void sendWelcomeEmail(String to, String name) {
         String subject = "🎉 Welcome to Smart Iot Platform !";
@@ -94,13 +116,12 @@ public class EmailServiceImpl implements EmailService {
             helper.setSubject(subject);
             helper.setText(htmlContent, true); // true = is HTML
 
-            mailSender.send(message);
+            send("welcome", () -> mailSender.send(message));
         } catch (MessagingException e) {
             // Optionally log or rethrow
             logger.error("Failed to send welcome email to {}: {}", to, e.getMessage(), e);
         }
     }
-    @Async
     @Override
     public void sendAlertEmail(Alert alert, String toEmail) {
         SimpleMailMessage message = new SimpleMailMessage();
@@ -113,6 +134,6 @@ public class EmailServiceImpl implements EmailService {
                 + "Condition: " + alert.getAlertType() + "\n"
                 + "Triggered At: " + alert.getTriggeredAt());
 
-        mailSender.send(message);
+        send("alert", () -> mailSender.send(message));
     }
 }
@@ -0,0 +1,57 @@
+package com.example.dxc.service;
+
+import com.example.dxc.model.SensorReading;
+import com.example.dxc.model.Settings;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The newest stored reading of every sensor location, per sensor type.
+ * <p>
+ * Warmed once from the database at start-up and advanced by every save afterwards, so the
+ * "current state" dashboard reads never touch the raw tables. A reading only replaces the
+ * cached one if it is newer, so late or replayed readings cannot move a location back in time.
+ */
+@Component
+public class LatestReadingCache implements SensorWriteListener {
+
+    private final Map<Settings.SettingType, ConcurrentSkipListMap<String, SensorReading>> latest =
+            new EnumMap<>(Settings.SettingType.class);
+
+    public LatestReadingCache() {
+        for (Settings.SettingType type : Settings.SettingType.values()) {
+            latest.put(type, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    @Override
+    public void onSaved(Settings.SettingType type, List<? extends SensorReading> saved) {
+        ConcurrentSkipListMap<String, SensorReading> byLocation = latest.get(type);
+        for (SensorReading reading : saved) {
+            byLocation.merge(reading.getLocation(), reading,
+                    (cached, candidate) -> candidate.getTimestamp().isBefore(cached.getTimestamp()) ? cached : candidate);
+        }
+    }
+
+    /**
+     * @return the newest reading of every location, ordered by location
+     */
+    public List<SensorReading> getLatest(Settings.SettingType type) {
+        return List.copyOf(latest.get(type).values());
+    }
+
+    /**
+     * @return the newest reading at this location, or {@code null} if it has none
+     */
+    public SensorReading getLatest(Settings.SettingType type, String location) {
+        return latest.get(type).get(location);
+    }
+
+    public int size(Settings.SettingType type) {
+        return latest.get(type).size();
+    }
+}
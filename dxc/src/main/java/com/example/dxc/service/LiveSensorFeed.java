@@ -0,0 +1,261 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.LiveFeedProperties;
+import com.example.dxc.model.AirPollutionSensorData;
+import com.example.dxc.model.SensorReading;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.StreetLightSensorData;
+import com.example.dxc.model.TrafficSensorData;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Streams newly saved readings to clients that subscribed with a filter on locations and statuses.
+ * <p>
+ * Subscriptions are held in an inverted index per sensor type, keyed by (location, status) with
+ * {@code null} standing for "any". A subscription is filed under every combination of its filter
+ * values, so each reading looks up at most four keys and only touches the subscriptions it
+ * matches, however many others are open.
+ * <p>
+ * Matching readings are appended to a bounded buffer per client and written out by
+ * {@link SseDelivery}, so the ingest path never waits for a client. When a slow client's buffer is
+ * full its oldest readings are dropped, and the client receives a {@code dropped} event with their
+ * number so it can re-read the page instead.
+ */
+@Component
+public class LiveSensorFeed implements SensorWriteListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveSensorFeed.class);
+
+    static final String READINGS_EVENT = "readings";
+    static final String DROPPED_EVENT = "dropped";
+
+    private static final Map<Settings.SettingType, Class<? extends Enum<?>>> STATUS_TYPES = Map.of(
+            Settings.SettingType.Traffic, TrafficSensorData.CongestionLevel.class,
+            Settings.SettingType.Air_Pollution, AirPollutionSensorData.PollutionLevel.class,
+            Settings.SettingType.Street_Light, StreetLightSensorData.LightStatus.class);
+
+    private final LiveFeedProperties properties;
+    private final SseDelivery<Subscriber> delivery;
+    private final Map<Settings.SettingType, Map<FeedKey, Set<Subscriber>>> index = new EnumMap<>(Settings.SettingType.class);
+
+    @Autowired
+    public LiveSensorFeed(LiveFeedProperties properties) {
+        this(properties, SseDelivery.pool("live-feed-", properties.getDeliveryThreads()));
+    }
+
+    LiveSensorFeed(LiveFeedProperties properties, Executor delivery) {
+        this.properties = properties;
+        this.delivery = new SseDelivery<>("live feed", delivery, properties::getSendTimeout);
+        for (Settings.SettingType type : Settings.SettingType.values()) {
+            index.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Opens a feed of the readings of {@code type} at any of {@code locations} with any of
+     * {@code statuses}; an empty set matches everything.
+     *
+     * @throws ResponseStatusException 400 for an unknown status or too many locations,
+     *                                 503 when the maximum number of feeds is open
+     */
+    public SseEmitter subscribe(SseEmitter emitter, Settings.SettingType type,
+                                Collection<String> locations, Collection<String> statuses) {
+        Set<String> locationFilter = new HashSet<>(locations);
+        Set<String> statusFilter = new HashSet<>(statuses);
+        if (locationFilter.size() > properties.getMaxLocations()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A live feed may filter on at most " + properties.getMaxLocations() + " locations");
+        }
+        for (String status : statusFilter) {
+            validateStatus(type, status);
+        }
+        if (delivery.size() >= properties.getMaxClients()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live feed clients");
+        }
+
+        List<FeedKey> keys = new ArrayList<>();
+        for (String location : locationFilter.isEmpty() ? Collections.<String>singleton(null) : locationFilter) {
+            for (String status : statusFilter.isEmpty() ? Collections.<String>singleton(null) : statusFilter) {
+                keys.add(new FeedKey(location, status));
+            }
+        }
+        Subscriber subscriber = new Subscriber(emitter, type, keys);
+
+        delivery.add(subscriber);
+        Map<FeedKey, Set<Subscriber>> byKey = index.get(type);
+        for (FeedKey key : keys) {
+            byKey.compute(key, (k, set) -> {
+                Set<Subscriber> matching = set != null ? set : ConcurrentHashMap.newKeySet();
+                matching.add(subscriber);
+                return matching;
+            });
+        }
+        return emitter;
+    }
+
+    @Override
+    public void onSaved(Settings.SettingType type, List<? extends SensorReading> saved) {
+        Map<FeedKey, Set<Subscriber>> byKey = index.get(type);
+        if (byKey.isEmpty()) {
+            return;
+        }
+        for (SensorReading reading : saved) {
+            String location = reading.getLocation();
+            String status = statusOf(reading);
+            // Each subscription is filed under exactly one of these keys for a given reading
+            offer(byKey.get(FeedKey.ANY), reading);
+            if (location != null) {
+                offer(byKey.get(new FeedKey(location, null)), reading);
+            }
+            if (status != null) {
+                offer(byKey.get(new FeedKey(null, status)), reading);
+                if (location != null) {
+                    offer(byKey.get(new FeedKey(location, status)), reading);
+                }
+            }
+        }
+    }
+
+    private static void offer(Set<Subscriber> matching, SensorReading reading) {
+        if (matching != null) {
+            for (Subscriber subscriber : matching) {
+                subscriber.offer(reading);
+            }
+        }
+    }
+
+    /**
+     * Sends a comment line to every client so idle connections stay open and closed ones are dropped.
+     */
+    @Scheduled(fixedDelayString = "${sensors.live.heartbeat:PT15S}")
+    public void heartbeat() {
+        delivery.heartbeat();
+    }
+
+    /**
+     * Drops the clients whose write has been blocked for longer than {@code send-timeout}.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void dropStalledClients() {
+        delivery.dropStalled();
+    }
+
+    public int subscriberCount() {
+        return delivery.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delivery.shutdown();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        Map<FeedKey, Set<Subscriber>> byKey = index.get(subscriber.type);
+        for (FeedKey key : subscriber.keys) {
+            byKey.computeIfPresent(key, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private static void validateStatus(Settings.SettingType type, String status) {
+        Class<? extends Enum<?>> statusType = STATUS_TYPES.get(type);
+        for (Enum<?> constant : statusType.getEnumConstants()) {
+            if (constant.name().equals(status)) {
+                return;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "status must be one of " + Arrays.toString(statusType.getEnumConstants()));
+    }
+
+    private static String statusOf(SensorReading reading) {
+        Enum<?> status = switch (reading) {
+            case TrafficSensorData traffic -> traffic.getCongestionLevel();
+            case AirPollutionSensorData airPollution -> airPollution.getPollutionLevel();
+            case StreetLightSensorData streetLight -> streetLight.getStatus();
+            default -> null;
+        };
+        return status != null ? status.name() : null;
+    }
+
+    /**
+     * A location and status a subscription listens to; {@code null} matches any value.
+     */
+    record FeedKey(String location, String status) {
+        static final FeedKey ANY = new FeedKey(null, null);
+    }
+
+    private final class Subscriber extends SseDelivery.Client {
+
+        private final Settings.SettingType type;
+        private final List<FeedKey> keys;
+
+        // Guarded by this
+        private final ArrayDeque<SensorReading> buffer = new ArrayDeque<>();
+        private int dropped;
+
+        private Subscriber(SseEmitter emitter, Settings.SettingType type, List<FeedKey> keys) {
+            super(delivery, emitter);
+            this.type = type;
+            this.keys = keys;
+        }
+
+        void offer(SensorReading reading) {
+            synchronized (this) {
+                if (isClosed()) {
+                    return;
+                }
+                if (buffer.size() >= properties.getBufferSize()) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                buffer.addLast(reading);
+            }
+            deliver();
+        }
+
+        // Everything buffered goes out as one event, preceded by the number dropped since the last one
+        @Override
+        List<SseEmitter.SseEventBuilder> takePending() {
+            List<SseEmitter.SseEventBuilder> events = new ArrayList<>(2);
+            if (dropped > 0) {
+                events.add(SseEmitter.event().name(DROPPED_EVENT).data(dropped));
+            }
+            if (!buffer.isEmpty()) {
+                events.add(SseEmitter.event().name(READINGS_EVENT).data(new ArrayList<>(buffer)));
+            }
+            buffer.clear();
+            dropped = 0;
+            return events;
+        }
+
+        @Override
+        boolean hasPending() {
+            return !buffer.isEmpty() || dropped > 0;
+        }
+
+        @Override
+        void discardPending() {
+            buffer.clear();
+        }
+
+        @Override
+        void onClosed() {
+            unsubscribe(this);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.dxc.service;
+
+/**
+ * A single metric value taken from a sensor reading, used to check many
+ * readings against the alert thresholds in one call.
+ */
+public record MetricReading(String metric, float value, String location) {
+}
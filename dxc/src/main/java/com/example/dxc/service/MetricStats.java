@@ -0,0 +1,57 @@
+package com.example.dxc.service;
+
+import com.example.dxc.dto.SensorAggregateResponse;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running count, sum, min and max of one metric; two of them merge into the stats of the union.
+ */
+public final class MetricStats {
+
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public static MetricStats of(SensorAggregateResponse.Bucket bucket) {
+        MetricStats stats = new MetricStats();
+        stats.merge(bucket.getCount(), bucket.getAvg() * bucket.getCount(), bucket.getMin(), bucket.getMax());
+        return stats;
+    }
+
+    public void add(double value) {
+        merge(1, value, value, value);
+    }
+
+    public void merge(MetricStats other) {
+        merge(other.count, other.sum, other.min, other.max);
+    }
+
+    public void merge(long count, double sum, double min, double max) {
+        this.count += count;
+        this.sum += sum;
+        this.min = Math.min(this.min, min);
+        this.max = Math.max(this.max, max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public SensorAggregateResponse.Bucket toBucket(LocalDateTime start, String location) {
+        return new SensorAggregateResponse.Bucket(start, location, min, max, sum / count, count);
+    }
+}
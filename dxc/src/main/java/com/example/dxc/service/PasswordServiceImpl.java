@@ -1,5 +1,6 @@
 package com.example.dxc.service;
 
+import com.example.dxc.jwt.AuthenticationCache;
 import com.example.dxc.model.User;
 import com.example.dxc.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +21,9 @@ public class PasswordServiceImpl implements PasswordService {
     @Autowired
     private EmailService mailService;
 
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
     private final Map<String, String> otpStore = new HashMap<>();
 
     private final Random random = new Random();
@@ -56,6 +60,7 @@ public class PasswordServiceImpl implements PasswordService {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        authenticationCache.invalidate(email);
 
         otpStore.remove(email);
 
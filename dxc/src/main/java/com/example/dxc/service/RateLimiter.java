@@ -0,0 +1,154 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.RateLimitProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Token buckets per endpoint group and client, as configured in {@link RateLimitProperties}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again
+ * (the generic cell rate algorithm): taking a token is one compare-and-set that advances it by
+ * one refill interval, and the bucket is empty while that time lies more than {@code capacity}
+ * intervals ahead. Concurrent requests of the same client never block each other, and requests
+ * of different clients touch different buckets.
+ */
+@Component
+public class RateLimiter {
+
+    private static final String OVERFLOW_CLIENT = "*";
+
+    private final RateLimitProperties properties;
+    private final LongSupplier nanoClock;
+    private final List<Group> groups;
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.groups = new ArrayList<>();
+        properties.getGroups().forEach((name, group) -> groups.add(new Group(name, group)));
+    }
+
+    /**
+     * Takes a token for a request of {@code client}.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until the client's bucket has a token again
+     */
+    public long acquire(String method, String path, String client) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        Group group = match(method, path);
+        return group == null ? 0 : group.acquire(client, nanoClock.getAsLong());
+    }
+
+    /**
+     * @return the name of the group limiting this request, or {@code null} if none does
+     */
+    public String groupOf(String method, String path) {
+        Group group = match(method, path);
+        return group == null ? null : group.name;
+    }
+
+    /**
+     * Forgets buckets that have refilled completely; a new bucket starts full, so this changes nothing for their clients.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:PT1M}")
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        groups.forEach(group -> group.evictIdle(now));
+    }
+
+    public int trackedClients() {
+        return groups.stream().mapToInt(group -> group.buckets.size()).sum();
+    }
+
+    private Group match(String method, String path) {
+        PathContainer container = null;
+        for (Group group : groups) {
+            if (!group.methods.isEmpty() && !group.methods.contains(method)) {
+                continue;
+            }
+            if (container == null) {
+                container = PathContainer.parsePath(path);
+            }
+            for (PathPattern pattern : group.paths) {
+                if (pattern.matches(container)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private final class Group {
+
+        private final String name;
+        private final List<PathPattern> paths;
+        private final Set<String> methods;
+        // Nanoseconds to refill one token, and how far ahead a full burst may push a bucket
+        private final long interval;
+        private final long burst;
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+        private Group(String name, RateLimitProperties.Group config) {
+            this.name = name;
+            this.paths = config.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+            this.methods = config.getMethods().stream().map(String::toUpperCase).collect(Collectors.toUnmodifiableSet());
+            this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / config.getRefillPerSecond()));
+            this.burst = Math.max(1, config.getCapacity()) * interval;
+        }
+
+        long acquire(String client, long now) {
+            AtomicLong bucket = buckets.get(client);
+            if (bucket == null) {
+                bucket = newBucket(client, now);
+            }
+            while (true) {
+                long full = bucket.get();
+                long next = Math.max(full, now) + interval;
+                long wait = next - now - burst;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (bucket.compareAndSet(full, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        private AtomicLong newBucket(String client, long now) {
+            if (buckets.size() >= properties.getMaxClients()) {
+                evictIdle(now);
+                if (buckets.size() >= properties.getMaxClients()) {
+                    return buckets.computeIfAbsent(OVERFLOW_CLIENT, key -> new AtomicLong(now));
+                }
+            }
+            return buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+        }
+
+        // A request racing with the removal may take a token from the dropped bucket; it was full anyway
+        void evictIdle(long now) {
+            buckets.entrySet().removeIf(entry -> entry.getValue().get() <= now);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.dxc.service;
+
+import com.example.dxc.model.HourSensorRollup;
+import com.example.dxc.model.MinuteSensorRollup;
+import com.example.dxc.model.SensorRollup;
+
+import java.util.Optional;
+
+/**
+ * The rollup tables kept next to the raw sensor tables, finest first.
+ */
+public enum RollupGranularity {
+    MINUTE(new TimeBucket("1m", 60), MinuteSensorRollup.class, "sensor_rollup_minute"),
+    HOUR(new TimeBucket("1h", 3600), HourSensorRollup.class, "sensor_rollup_hour");
+
+    private final TimeBucket bucket;
+    private final Class<? extends SensorRollup> entityType;
+    private final String table;
+
+    RollupGranularity(TimeBucket bucket, Class<? extends SensorRollup> entityType, String table) {
+        this.bucket = bucket;
+        this.entityType = entityType;
+        this.table = table;
+    }
+
+    public TimeBucket bucket() {
+        return bucket;
+    }
+
+    public Class<? extends SensorRollup> entityType() {
+        return entityType;
+    }
+
+    public String table() {
+        return table;
+    }
+
+    /**
+     * The coarsest rollup whose buckets fit whole into {@code bucket}, if any.
+     */
+    public static Optional<RollupGranularity> coarsestFor(TimeBucket bucket) {
+        RollupGranularity[] granularities = values();
+        for (int i = granularities.length - 1; i >= 0; i--) {
+            if (bucket.seconds() % granularities[i].bucket.seconds() == 0) {
+                return Optional.of(granularities[i]);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.SensorQueryProperties;
+import com.example.dxc.model.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Row counts for {@code count=estimate} reads.
+ * <p>
+ * Unfiltered totals come from the table statistics (or a COUNT(*) where the database has none),
+ * read again at most once per {@code sensors.query.total-refresh-interval}. They are taken from the
+ * database rather than counted locally, so every replica reports the same total.
+ * Filtered counts are exact counts reused for {@code sensors.query.count-cache-ttl}.
+ */
+@Component
+public class SensorCountEstimator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorCountEstimator.class);
+
+    private static final String TABLE_STATS_SQL =
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SensorQueryProperties properties;
+
+    private final Map<Settings.SettingType, CachedCount> totals = new ConcurrentHashMap<>();
+    private final Map<Object, CachedCount> filteredCounts = new ConcurrentHashMap<>();
+
+    public SensorCountEstimator(JdbcTemplate jdbcTemplate, SensorQueryProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Approximate number of rows of a sensor table, looked up at most once per refresh interval.
+     */
+    public long estimateTotal(Settings.SettingType type, String table, LongSupplier exactCount) {
+        long now = System.nanoTime();
+        CachedCount cached = totals.get(type);
+        if (cached != null && now - cached.countedAtNanos() < properties.getTotalRefreshInterval().toNanos()) {
+            return cached.count();
+        }
+        long count = tableStatistics(table, exactCount);
+        totals.put(type, new CachedCount(count, now));
+        return count;
+    }
+
+    /**
+     * Count for one filter combination, recomputed at most once per TTL.
+     */
+    public long estimateFiltered(Object filterKey, LongSupplier exactCount) {
+        long now = System.nanoTime();
+        CachedCount cached = filteredCounts.get(filterKey);
+        if (cached != null && now - cached.countedAtNanos() < properties.getCountCacheTtl().toNanos()) {
+            return cached.count();
+        }
+        if (filteredCounts.size() >= properties.getCountCacheSize()) {
+            filteredCounts.clear();
+        }
+        long count = exactCount.getAsLong();
+        filteredCounts.put(filterKey, new CachedCount(count, now));
+        return count;
+    }
+
+    private long tableStatistics(String table, LongSupplier exactCount) {
+        try {
+            Long rows = jdbcTemplate.queryForObject(TABLE_STATS_SQL, Long.class, table);
+            if (rows != null) {
+                return rows;
+            }
+        } catch (RuntimeException e) {
+            logger.debug("No table statistics for {}, counting rows instead: {}", table, e.getMessage());
+        }
+        return exactCount.getAsLong();
+    }
+
+    private record CachedCount(long count, long countedAtNanos) {
+    }
+}
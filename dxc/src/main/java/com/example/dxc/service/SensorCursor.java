@@ -0,0 +1,55 @@
+package com.example.dxc.service;
+
+import com.example.dxc.model.SensorReading;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last reading a client has seen, in (timestamp, id) order.
+ * Travels as an opaque URL-safe token, so its layout can change without breaking clients.
+ */
+public record SensorCursor(LocalDateTime timestamp, UUID id) {
+
+    public static SensorCursor of(SensorReading reading) {
+        return new SensorCursor(reading.getTimestamp(), reading.getId());
+    }
+
+    /**
+     * @return the decoded cursor, or {@code null} for an empty token (first page)
+     */
+    public static SensorCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            return new SensorCursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /**
+     * Orders ids the way the database orders the stored {@code binary(16)} column: byte by byte,
+     * unsigned. {@link UUID#compareTo} compares the halves as signed longs and disagrees with it
+     * whenever the top bit of a half differs.
+     */
+    public static int compareIds(UUID a, UUID b) {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,10 +1,19 @@
 package com.example.dxc.service;
 
+import com.example.dxc.dto.BatchIngestResponse;
+import com.example.dxc.dto.CursorPage;
+import com.example.dxc.dto.RollupRebuildResponse;
+import com.example.dxc.dto.SensorAggregateResponse;
+import com.example.dxc.dto.StreamIngestResponse;
+import com.example.dxc.dto.WriteBehindStats;
 import com.example.dxc.model.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.List;
 
 public interface SensorDataService {
 
@@ -19,6 +28,21 @@ public interface SensorDataService {
     StreetLightSensorData  saveStreetLightData(StreetLightSensorData data);
 
 
+    // True when single-reading saves are queued and written later (sensors.ingest.write-behind)
+    boolean isWriteBehindEnabled();
+    WriteBehindStats getWriteBehindStats();
+
+
+    BatchIngestResponse saveTrafficDataBatch(List<TrafficSensorData> data);
+    BatchIngestResponse saveAirPollutionDataBatch(List<AirPollutionSensorData> data);
+    BatchIngestResponse saveStreetLightDataBatch(List<StreetLightSensorData> data);
+
+
+    StreamIngestResponse ingestTrafficDataStream(InputStream body);
+    StreamIngestResponse ingestAirPollutionDataStream(InputStream body);
+    StreamIngestResponse ingestStreetLightDataStream(InputStream body);
+
+
     Page<TrafficSensorData> getTrafficData(
             String location,
             TrafficSensorData.CongestionLevel congestionLevel,
@@ -27,6 +51,15 @@ public interface SensorDataService {
             Pageable pageable
     );
 
+    Slice<TrafficSensorData> getTrafficData(
+            String location,
+            TrafficSensorData.CongestionLevel congestionLevel,
+            LocalDateTime start,
+            LocalDateTime end,
+            Pageable pageable,
+            CountMode countMode
+    );
+
     Page<AirPollutionSensorData> getAirPollutionData(
             String location,
             AirPollutionSensorData.PollutionLevel pollutionLevel,
@@ -35,6 +68,15 @@ public interface SensorDataService {
             Pageable pageable
     );
 
+    Slice<AirPollutionSensorData> getAirPollutionData(
+            String location,
+            AirPollutionSensorData.PollutionLevel pollutionLevel,
+            LocalDateTime start,
+            LocalDateTime end,
+            Pageable pageable,
+            CountMode countMode
+    );
+
     Page<StreetLightSensorData> getStreetLightData(
             String location,
             StreetLightSensorData.LightStatus status,
@@ -43,4 +85,67 @@ public interface SensorDataService {
             Pageable pageable
     );
 
+    Slice<StreetLightSensorData> getStreetLightData(
+            String location,
+            StreetLightSensorData.LightStatus status,
+            LocalDateTime start,
+            LocalDateTime end,
+            Pageable pageable,
+            CountMode countMode
+    );
+
+
+    // Keyset pagination: pages follow (timestamp, id) from the opaque "after" cursor
+    CursorPage<TrafficSensorData> getTrafficDataAfter(
+            String location,
+            TrafficSensorData.CongestionLevel congestionLevel,
+            LocalDateTime start,
+            LocalDateTime end,
+            String after,
+            int size,
+            boolean descending
+    );
+
+    CursorPage<AirPollutionSensorData> getAirPollutionDataAfter(
+            String location,
+            AirPollutionSensorData.PollutionLevel pollutionLevel,
+            LocalDateTime start,
+            LocalDateTime end,
+            String after,
+            int size,
+            boolean descending
+    );
+
+    CursorPage<StreetLightSensorData> getStreetLightDataAfter(
+            String location,
+            StreetLightSensorData.LightStatus status,
+            LocalDateTime start,
+            LocalDateTime end,
+            String after,
+            int size,
+            boolean descending
+    );
+
+
+    // Min/max/avg/count of one metric per time bucket, grouped in the database
+    SensorAggregateResponse getAggregate(
+            Settings.SettingType type,
+            String metric,
+            String bucket,
+            String groupBy,
+            String location,
+            String status,
+            LocalDateTime start,
+            LocalDateTime end
+    );
+
+    // Newest reading of every location (or of just one), from memory
+    List<SensorReading> getLatest(Settings.SettingType type, String location);
+
+    // Recomputes the minute and hour rollups of [start, end] from the raw readings; null bounds mean all readings
+    RollupRebuildResponse rebuildRollups(Settings.SettingType type, LocalDateTime start, LocalDateTime end);
+
+    // Rebuilds the rollups of a sensor type if it has readings but no rollup rows yet
+    void backfillRollups(Settings.SettingType type);
+
 }
@@ -1,24 +1,81 @@
 package com.example.dxc.service;
 
+import com.example.dxc.config.ExecutorConfig;
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.config.RollupProperties;
+import com.example.dxc.config.SensorQueryProperties;
+import com.example.dxc.dto.BatchIngestResponse;
+import com.example.dxc.dto.CursorPage;
+import com.example.dxc.dto.RollupRebuildResponse;
+import com.example.dxc.dto.SensorAggregateResponse;
+import com.example.dxc.dto.StreamIngestResponse;
+import com.example.dxc.dto.WriteBehindStats;
 import com.example.dxc.model.*;
 import com.example.dxc.service.strategy.SensorDataStrategy;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntToLongFunction;
 import java.util.stream.Collectors;
 
 @Service
 public class SensorDataServiceImpl implements SensorDataService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SensorDataServiceImpl.class);
+
     private final Map<Class<?>, SensorDataStrategy<?>> strategies;
+    private final IngestProperties ingestProperties;
+    private final ObjectMapper objectMapper;
+    private final WriteBehindIngestor writeBehind;
+    private final SensorCountEstimator countEstimator;
+    private final SensorQueryProperties queryProperties;
+    private final SensorRollupStore rollupStore;
+    private final RollupProperties rollupProperties;
+    private final LatestReadingCache latestReadings;
+    // Runs the alert checks of stored batches and stream chunks; inline until the ingest executor is injected
+    private Executor ingestExecutor = Runnable::run;
 
     @Autowired
-    public SensorDataServiceImpl(List<SensorDataStrategy<?>> strategyList) {
+    public SensorDataServiceImpl(List<SensorDataStrategy<?>> strategyList,
+                                 IngestProperties ingestProperties,
+                                 ObjectMapper objectMapper,
+                                 WriteBehindIngestor writeBehind,
+                                 SensorCountEstimator countEstimator,
+                                 SensorQueryProperties queryProperties,
+                                 SensorRollupStore rollupStore,
+                                 RollupProperties rollupProperties,
+                                 LatestReadingCache latestReadings) {
+        this.latestReadings = latestReadings;
+        this.countEstimator = countEstimator;
+        this.queryProperties = queryProperties;
+        this.rollupStore = rollupStore;
+        this.rollupProperties = rollupProperties;
+        this.ingestProperties = ingestProperties;
+        this.objectMapper = objectMapper;
+        this.writeBehind = writeBehind;
         this.strategies = strategyList.stream()
                 .collect(Collectors.toMap(
                         this::extractGenericType,
@@ -26,6 +83,11 @@ public class SensorDataServiceImpl implements SensorDataService {
                 ));
     }
 
+    @Autowired(required = false)
+    public void setIngestExecutor(@Qualifier(ExecutorConfig.INGEST) Executor ingestExecutor) {
+        this.ingestExecutor = ingestExecutor;
+    }
+
     private Class<?> extractGenericType(SensorDataStrategy<?> strategy) {
         // Get the actual class of the strategy implementation
         Class<?> strategyClass = strategy.getClass();
@@ -61,6 +123,17 @@ public class SensorDataServiceImpl implements SensorDataService {
         return strategy;
     }
 
+    @PostConstruct
+    void warmLatestReadings() {
+        for (SensorDataStrategy<?> strategy : strategies.values()) {
+            @SuppressWarnings("unchecked")
+            List<? extends SensorReading> newest = (List<? extends SensorReading>) strategy.getLatestPerLocation();
+            latestReadings.onSaved(strategy.getSettingType(), newest);
+            logger.info("Latest-reading cache warmed for {}: {} locations", strategy.getSettingType(),
+                    latestReadings.size(strategy.getSettingType()));
+        }
+    }
+
     @Override
     public void generateTrafficData() {
         executeStrategy(TrafficSensorData.class, "TRAFFIC DATA INSERTED");
@@ -104,11 +177,236 @@ public class SensorDataServiceImpl implements SensorDataService {
         ensureIdAndTimestamp(data);
         SensorDataStrategy<T> strategy = getStrategy(type);
         strategy.validate(data);
+        if (writeBehind.isEnabled()) {
+            if (!writeBehind.enqueue(strategy, data)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Ingest queue for " + type.getSimpleName() + " is full or shutting down, retry later");
+            }
+            return data;
+        }
         T saved = strategy.save(data);
         strategy.checkAlerts(saved);
         return saved;
     }
 
+    @Override
+    public boolean isWriteBehindEnabled() {
+        return writeBehind.isEnabled();
+    }
+
+    @Override
+    public WriteBehindStats getWriteBehindStats() {
+        return writeBehind.getStats();
+    }
+
+    @Override
+    public BatchIngestResponse saveTrafficDataBatch(List<TrafficSensorData> data) {
+        return saveSensorDataBatch(TrafficSensorData.class, data);
+    }
+
+    @Override
+    public BatchIngestResponse saveAirPollutionDataBatch(List<AirPollutionSensorData> data) {
+        return saveSensorDataBatch(AirPollutionSensorData.class, data);
+    }
+
+    @Override
+    public BatchIngestResponse saveStreetLightDataBatch(List<StreetLightSensorData> data) {
+        return saveSensorDataBatch(StreetLightSensorData.class, data);
+    }
+
+    private <T> BatchIngestResponse saveSensorDataBatch(Class<T> type, List<T> batch) {
+        if (batch.size() > ingestProperties.getMaxBatchSize()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Batch size " + batch.size() + " exceeds the limit of " + ingestProperties.getMaxBatchSize());
+        }
+
+        SensorDataStrategy<T> strategy = getStrategy(type);
+        BatchIngestResponse response = new BatchIngestResponse();
+        response.setReceived(batch.size());
+        response.setSaved(ingestChunk(strategy, batch, i -> i, response.getErrors()::add));
+        response.setRejected(response.getErrors().size());
+        return response;
+    }
+
+    @Override
+    public StreamIngestResponse ingestTrafficDataStream(InputStream body) {
+        return ingestSensorDataStream(TrafficSensorData.class, body);
+    }
+
+    @Override
+    public StreamIngestResponse ingestAirPollutionDataStream(InputStream body) {
+        return ingestSensorDataStream(AirPollutionSensorData.class, body);
+    }
+
+    @Override
+    public StreamIngestResponse ingestStreetLightDataStream(InputStream body) {
+        return ingestSensorDataStream(StreetLightSensorData.class, body);
+    }
+
+    /**
+     * Reads newline-delimited JSON one reading at a time and commits it in chunks of
+     * {@code sensors.ingest.stream-chunk-size}, so memory use does not depend on the upload size.
+     */
+    private <T> StreamIngestResponse ingestSensorDataStream(Class<T> type, InputStream body) {
+        SensorDataStrategy<T> strategy = getStrategy(type);
+        int chunkSize = ingestProperties.getStreamChunkSize();
+        StreamIngestResponse response = new StreamIngestResponse();
+        long startNanos = System.nanoTime();
+
+        Consumer<BatchIngestResponse.ItemError> errorSink = error -> {
+            response.setRejected(response.getRejected() + 1);
+            if (response.getErrors().size() < ingestProperties.getMaxReportedErrors()) {
+                response.getErrors().add(error);
+            } else {
+                response.setErrorsTruncated(true);
+            }
+        };
+
+        List<T> chunk = new ArrayList<>(chunkSize);
+        long[] chunkIndexes = new long[chunkSize];
+        IntToLongFunction streamIndex = i -> chunkIndexes[i];
+        long index = 0;
+
+        try (MappingIterator<T> readings = objectMapper.readerFor(type).readValues(body)) {
+            while (true) {
+                T item;
+                try {
+                    if (!readings.hasNextValue()) {
+                        break;
+                    }
+                    item = readings.nextValue();
+                } catch (JsonParseException e) {
+                    // Broken JSON syntax: the rest of the stream can't be trusted
+                    errorSink.accept(new BatchIngestResponse.ItemError(index, "Malformed JSON, ingestion stopped: " + e.getOriginalMessage()));
+                    break;
+                } catch (JsonMappingException e) {
+                    // Well-formed record that doesn't fit the entity; the iterator skips past it
+                    errorSink.accept(new BatchIngestResponse.ItemError(index++, e.getOriginalMessage()));
+                    continue;
+                }
+
+                chunkIndexes[chunk.size()] = index++;
+                chunk.add(item);
+                if (chunk.size() == chunkSize && !commitStreamChunk(strategy, chunk, streamIndex, errorSink, response)) {
+                    break;
+                }
+            }
+            // Only a stream read to its end (or to broken syntax) commits its last, partial chunk
+            if (!chunk.isEmpty() && response.getFailure() == null) {
+                commitStreamChunk(strategy, chunk, streamIndex, errorSink, response);
+            }
+        } catch (IOException e) {
+            // The upload broke off: readings of the open chunk are not stored, committed chunks stay
+            logger.warn("Stream ingest of {} aborted after {} readings: {}", type.getSimpleName(), index, e.getMessage());
+            response.setFailure("Reading the stream failed, readings after the last committed chunk were not stored: " + e.getMessage());
+            response.setFailureStatus(HttpStatus.BAD_REQUEST);
+        }
+
+        response.setReceived(index);
+        response.setDurationMs((System.nanoTime() - startNanos) / 1_000_000);
+        logger.info("Stream ingest of {} finished: {} received, {} saved, {} rejected in {} chunks ({} ms)",
+                type.getSimpleName(), response.getReceived(), response.getSaved(), response.getRejected(),
+                response.getChunks(), response.getDurationMs());
+        return response;
+    }
+
+    /**
+     * Commits one chunk of a stream. The chunk is cleared whatever the outcome, so it is never committed twice.
+     *
+     * @return {@code false} if the chunk failed; the failure is recorded in the response and ingestion stops
+     */
+    private <T> boolean commitStreamChunk(SensorDataStrategy<T> strategy,
+                                          List<T> chunk,
+                                          IntToLongFunction streamIndex,
+                                          Consumer<BatchIngestResponse.ItemError> errorSink,
+                                          StreamIngestResponse response) {
+        try {
+            response.setSaved(response.getSaved() + ingestChunk(strategy, chunk, streamIndex, errorSink));
+            response.setChunks(response.getChunks() + 1);
+            logger.info("Stream ingest progress: chunk {} committed, {} saved, {} rejected so far",
+                    response.getChunks(), response.getSaved(), response.getRejected());
+            return true;
+        } catch (ResponseStatusException e) {
+            response.setFailure(e.getReason());
+            response.setFailureStatus(e.getStatusCode());
+            return false;
+        } catch (RuntimeException e) {
+            // The chunk's transaction rolled back; earlier chunks stay committed
+            logger.error("Stream ingest chunk {} failed", response.getChunks() + 1, e);
+            response.setFailure("Storing chunk " + (response.getChunks() + 1) + " failed, it and the rest of the stream were not stored");
+            response.setFailureStatus(HttpStatus.INTERNAL_SERVER_ERROR);
+            return false;
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    /**
+     * Validates a chunk, inserts the valid readings in one transaction and checks their alerts.
+     * Invalid readings are passed to {@code errors} with their position from {@code indexOf}.
+     *
+     * @return number of readings saved
+     */
+    private <T> int ingestChunk(SensorDataStrategy<T> strategy,
+                                List<T> chunk,
+                                IntToLongFunction indexOf,
+                                Consumer<BatchIngestResponse.ItemError> errors) {
+        List<T> valid = new ArrayList<>(chunk.size());
+        // Id -> position in the chunk, of the readings that passed validation
+        Map<UUID, Integer> ids = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            T item = chunk.get(i);
+            if (item == null) {
+                errors.accept(new BatchIngestResponse.ItemError(indexOf.applyAsLong(i), "Reading cannot be null"));
+                continue;
+            }
+            ensureIdAndTimestamp(item);
+            try {
+                strategy.validate(item);
+            } catch (IllegalArgumentException e) {
+                errors.accept(new BatchIngestResponse.ItemError(indexOf.applyAsLong(i), e.getMessage()));
+                continue;
+            }
+            if (ids.putIfAbsent(((SensorReading) item).getId(), i) != null) {
+                errors.accept(new BatchIngestResponse.ItemError(indexOf.applyAsLong(i),
+                        "Duplicate id " + ((SensorReading) item).getId() + " within the batch"));
+                continue;
+            }
+            valid.add(item);
+        }
+
+        // Inserts never overwrite: an id that is already stored fails that item, not the whole chunk
+        Set<UUID> existing = strategy.findExistingIds(ids.keySet());
+        if (!existing.isEmpty()) {
+            valid.removeIf(item -> existing.contains(((SensorReading) item).getId()));
+            existing.stream().map(ids::get).sorted().forEach(i -> errors.accept(new BatchIngestResponse.ItemError(
+                    indexOf.applyAsLong(i), "Reading with id " + ((SensorReading) chunk.get(i)).getId() + " already exists")));
+        }
+
+        if (valid.isEmpty()) {
+            return 0;
+        }
+        List<T> saved;
+        try {
+            saved = strategy.saveAll(valid);
+        } catch (DataIntegrityViolationException e) {
+            // Another request inserted one of these ids between the check and the insert
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A reading in the batch was stored concurrently, nothing of this chunk was saved", e);
+        }
+        // The readings are committed, so the response (or the next chunk) doesn't wait for their alert
+        // checks; when the ingest pool is full this thread runs the check, which slows the client down
+        ingestExecutor.execute(() -> {
+            try {
+                strategy.checkAlerts(saved);
+            } catch (RuntimeException e) {
+                // Reporting the stored readings as failed would invite a duplicate retry
+                logger.error("Alert check of {} stored {} readings failed", saved.size(), strategy.getSettingType(), e);
+            }
+        });
+        return saved.size();
+    }
+
     @Override
     public Page<TrafficSensorData> getTrafficData(
             String location,
@@ -116,8 +414,18 @@ public class SensorDataServiceImpl implements SensorDataService {
             LocalDateTime start,
             LocalDateTime end,
             Pageable pageable) {
-        return getStrategy(TrafficSensorData.class)
-                .getData(location, level, start, end, pageable);
+        return (Page<TrafficSensorData>) getData(TrafficSensorData.class, location, level, start, end, pageable, CountMode.EXACT);
+    }
+
+    @Override
+    public Slice<TrafficSensorData> getTrafficData(
+            String location,
+            TrafficSensorData.CongestionLevel level,
+            LocalDateTime start,
+            LocalDateTime end,
+            Pageable pageable,
+            CountMode countMode) {
+        return getData(TrafficSensorData.class, location, level, start, end, pageable, countMode);
     }
 
     @Override
@@ -127,8 +435,18 @@ public class SensorDataServiceImpl implements SensorDataService {
             LocalDateTime start,
             LocalDateTime end,
             Pageable pageable) {
-        return getStrategy(AirPollutionSensorData.class)
-                .getData(location, level, start, end, pageable);
+        return (Page<AirPollutionSensorData>) getData(AirPollutionSensorData.class, location, level, start, end, pageable, CountMode.EXACT);
+    }
+
+    @Override
+    public Slice<AirPollutionSensorData> getAirPollutionData(
+            String location,
+            AirPollutionSensorData.PollutionLevel level,
+            LocalDateTime start,
+            LocalDateTime end,
+            Pageable pageable,
+            CountMode countMode) {
+        return getData(AirPollutionSensorData.class, location, level, start, end, pageable, countMode);
     }
 
     @Override
@@ -138,25 +456,400 @@ public class SensorDataServiceImpl implements SensorDataService {
             LocalDateTime start,
             LocalDateTime end,
             Pageable pageable) {
-        return getStrategy(StreetLightSensorData.class)
-                .getData(location, status, start, end, pageable);
+        return (Page<StreetLightSensorData>) getData(StreetLightSensorData.class, location, status, start, end, pageable, CountMode.EXACT);
     }
 
-    private void ensureIdAndTimestamp(Object entity) {
-        if (entity instanceof BaseSensorData base) {
-            if (base.getId() == null) {
-                base.setId(UUID.randomUUID());
+    @Override
+    public Slice<StreetLightSensorData> getStreetLightData(
+            String location,
+            StreetLightSensorData.LightStatus status,
+            LocalDateTime start,
+            LocalDateTime end,
+            Pageable pageable,
+            CountMode countMode) {
+        return getData(StreetLightSensorData.class, location, status, start, end, pageable, countMode);
+    }
+
+    @Override
+    public CursorPage<TrafficSensorData> getTrafficDataAfter(
+            String location,
+            TrafficSensorData.CongestionLevel level,
+            LocalDateTime start,
+            LocalDateTime end,
+            String after,
+            int size,
+            boolean descending) {
+        return getDataAfter(TrafficSensorData.class, location, level, start, end, after, size, descending);
+    }
+
+    @Override
+    public CursorPage<AirPollutionSensorData> getAirPollutionDataAfter(
+            String location,
+            AirPollutionSensorData.PollutionLevel level,
+            LocalDateTime start,
+            LocalDateTime end,
+            String after,
+            int size,
+            boolean descending) {
+        return getDataAfter(AirPollutionSensorData.class, location, level, start, end, after, size, descending);
+    }
+
+    @Override
+    public CursorPage<StreetLightSensorData> getStreetLightDataAfter(
+            String location,
+            StreetLightSensorData.LightStatus status,
+            LocalDateTime start,
+            LocalDateTime end,
+            String after,
+            int size,
+            boolean descending) {
+        return getDataAfter(StreetLightSensorData.class, location, status, start, end, after, size, descending);
+    }
+
+    private <T> CursorPage<T> getDataAfter(Class<T> type,
+                                           String location,
+                                           Enum<?> status,
+                                           LocalDateTime start,
+                                           LocalDateTime end,
+                                           String after,
+                                           int size,
+                                           boolean descending) {
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be at least 1");
+        }
+        SensorCursor cursor = SensorCursor.decode(after);
+        SensorDataStrategy<T> strategy = getStrategy(type);
+
+        // One extra row tells whether another page follows
+        List<T> rows = strategy.getDataAfter(location, status, start, end, cursor, size + 1, descending);
+        if (writeBehind.isEnabled()) {
+            rows = withPendingAfter(strategy, rows, location, status, start, end, cursor, descending);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? SensorCursor.of((SensorReading) content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, content.size(), hasNext, nextCursor);
+    }
+
+    /**
+     * Merges queued readings that lie past the cursor into a keyset page from the database.
+     */
+    private <T> List<T> withPendingAfter(SensorDataStrategy<T> strategy,
+                                         List<T> rows,
+                                         String location,
+                                         Enum<?> status,
+                                         LocalDateTime start,
+                                         LocalDateTime end,
+                                         SensorCursor cursor,
+                                         boolean descending) {
+        Comparator<T> order = Comparator
+                .comparing((T item) -> ((SensorReading) item).getTimestamp())
+                .thenComparing(item -> ((SensorReading) item).getId(), SensorCursor::compareIds);
+        if (descending) {
+            order = order.reversed();
+        }
+
+        Set<Object> stored = new HashSet<>();
+        for (T item : rows) {
+            stored.add(((SensorReading) item).getId());
+        }
+        List<T> merged = new ArrayList<>(rows);
+        for (T item : writeBehind.pending(strategy)) {
+            SensorReading reading = (SensorReading) item;
+            boolean pastCursor = cursor == null || compareToCursor(reading, cursor, descending) > 0;
+            if (pastCursor && !stored.contains(reading.getId()) && strategy.matches(item, location, status, start, end)) {
+                merged.add(item);
+            }
+        }
+        if (merged.size() == rows.size()) {
+            return rows;
+        }
+        merged.sort(order);
+        return merged;
+    }
+
+    // > 0 when the reading comes after the cursor in the listing order
+    private static int compareToCursor(SensorReading reading, SensorCursor cursor, boolean descending) {
+        int cmp = reading.getTimestamp().compareTo(cursor.timestamp());
+        if (cmp == 0) {
+            cmp = SensorCursor.compareIds(reading.getId(), cursor.id());
+        }
+        return descending ? -cmp : cmp;
+    }
+
+    @Override
+    public SensorAggregateResponse getAggregate(Settings.SettingType type,
+                                                String metric,
+                                                String bucket,
+                                                String groupBy,
+                                                String location,
+                                                String status,
+                                                LocalDateTime start,
+                                                LocalDateTime end) {
+        SensorDataStrategy<?> strategy = getStrategy(type);
+        if (!strategy.getMetricNames().contains(metric)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "metric must be one of " + String.join(", ", new TreeSet<>(strategy.getMetricNames())));
+        }
+        TimeBucket timeBucket = TimeBucket.parse(bucket);
+        AggregateGrouping grouping = AggregateGrouping.from(groupBy);
+
+        Enum<?> statusFilter = strategy.parseStatus(status);
+        int maxRows = queryProperties.getAggregateMaxRows();
+        // Rollups carry no status, so status-filtered aggregates always read the raw rows
+        Optional<RollupGranularity> rollup = rollupStore.isEnabled() && statusFilter == null
+                ? RollupGranularity.coarsestFor(timeBucket)
+                : Optional.empty();
+        List<SensorAggregateResponse.Bucket> buckets = rollup.isPresent()
+                ? aggregateFromRollup(strategy, rollup.get(), metric, timeBucket, grouping, location, start, end, maxRows + 1)
+                : strategy.aggregate(metric, timeBucket, grouping, location, statusFilter, start, end, maxRows + 1);
+        if (buckets.size() > maxRows) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Aggregate exceeds " + maxRows + " buckets; narrow the time range or use a wider bucket");
+        }
+        return new SensorAggregateResponse(metric, timeBucket.label(), grouping.name().toLowerCase(Locale.ROOT), buckets);
+    }
+
+    /**
+     * Answers an aggregate from whole rollup buckets, reading raw rows only for the partial
+     * rollup buckets at either end of the requested range.
+     */
+    private List<SensorAggregateResponse.Bucket> aggregateFromRollup(SensorDataStrategy<?> strategy,
+                                                                     RollupGranularity granularity,
+                                                                     String metric,
+                                                                     TimeBucket bucket,
+                                                                     AggregateGrouping grouping,
+                                                                     String location,
+                                                                     LocalDateTime start,
+                                                                     LocalDateTime end,
+                                                                     int limit) {
+        TimeBucket rollupBucket = granularity.bucket();
+        LocalDateTime from = start == null ? null : rollupBucket.ceil(start);
+        LocalDateTime to = end == null ? null : rollupBucket.floor(end);
+        if (from != null && to != null && !from.isBefore(to)) {
+            // The range lies within one or two rollup buckets: nothing whole to read
+            return strategy.aggregate(metric, bucket, grouping, location, null, start, end, limit);
+        }
+
+        rollupStore.flush();
+        Map<List<Object>, MetricStats> merged = new HashMap<>();
+        addBuckets(merged, bucket, rollupStore.aggregate(granularity, strategy.getSettingType(), metric, bucket,
+                grouping, location, from, to, limit));
+        if (start != null && start.isBefore(from)) {
+            // Head: [start, from] read raw; the rollup bucket at "from" is already counted
+            List<SensorAggregateResponse.Bucket> head = strategy.aggregate(metric, rollupBucket, grouping, location,
+                    null, start, from, limit);
+            addBuckets(merged, bucket, head.stream().filter(b -> b.getStart().isBefore(from)).toList());
+        }
+        if (end != null) {
+            // Tail: [to, end] read raw, end inclusive as on the paged reads
+            addBuckets(merged, bucket, strategy.aggregate(metric, rollupBucket, grouping, location, null, to, end, limit));
+        }
+
+        Comparator<SensorAggregateResponse.Bucket> order = Comparator
+                .comparing(SensorAggregateResponse.Bucket::getStart)
+                .thenComparing(SensorAggregateResponse.Bucket::getLocation, Comparator.nullsFirst(Comparator.naturalOrder()));
+        List<SensorAggregateResponse.Bucket> buckets = new ArrayList<>(merged.size());
+        merged.forEach((key, stats) -> buckets.add(stats.toBucket((LocalDateTime) key.get(0), (String) key.get(1))));
+        buckets.sort(order);
+        return buckets;
+    }
+
+    // Folds finer buckets into the requested width, keyed by (bucket start, location)
+    private static void addBuckets(Map<List<Object>, MetricStats> merged, TimeBucket bucket,
+                                   List<SensorAggregateResponse.Bucket> finer) {
+        for (SensorAggregateResponse.Bucket b : finer) {
+            merged.computeIfAbsent(Arrays.asList(bucket.floor(b.getStart()), b.getLocation()), k -> new MetricStats())
+                    .merge(MetricStats.of(b));
+        }
+    }
+
+    @Override
+    public List<SensorReading> getLatest(Settings.SettingType type, String location) {
+        if (location == null) {
+            return latestReadings.getLatest(type);
+        }
+        SensorReading reading = latestReadings.getLatest(type, location);
+        return reading == null ? List.of() : List.of(reading);
+    }
+
+    @Override
+    public RollupRebuildResponse rebuildRollups(Settings.SettingType type, LocalDateTime start, LocalDateTime end) {
+        SensorDataStrategy<?> strategy = getStrategy(type);
+        long startNanos = System.nanoTime();
+        if (start == null || end == null) {
+            // Default to the whole range of stored readings
+            List<?> first = strategy.getDataAfter(null, null, null, null, null, 1, false);
+            List<?> last = strategy.getDataAfter(null, null, null, null, null, 1, true);
+            if (first.isEmpty()) {
+                return new RollupRebuildResponse(type, start, end, 0, 0);
             }
-            if (base.getTimestamp() == null) {
-                base.setTimestamp(LocalDateTime.now());
+            start = start != null ? start : ((SensorReading) first.get(0)).getTimestamp();
+            end = end != null ? end : ((SensorReading) last.get(0)).getTimestamp();
+        }
+        if (end.isBefore(start)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "end must not be before start");
+        }
+
+        // Whole hours, so every hour row is recomputed from all of its minutes
+        TimeBucket hour = RollupGranularity.HOUR.bucket();
+        LocalDateTime from = hour.floor(start);
+        LocalDateTime to = hour.floor(end).plusSeconds(hour.seconds());
+        long chunkHours = Math.max(1, rollupProperties.getRebuildChunk().toHours());
+
+        long rows = 0;
+        for (LocalDateTime chunkStart = from; chunkStart.isBefore(to); ) {
+            LocalDateTime chunkEnd = chunkStart.plusHours(chunkHours).isBefore(to) ? chunkStart.plusHours(chunkHours) : to;
+            LocalDateTime scanStart = chunkStart;
+            rows += rollupStore.replaceRange(type, chunkStart, chunkEnd, () -> minuteRows(strategy, scanStart, chunkEnd));
+            chunkStart = chunkEnd;
+        }
+
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        logger.info("Rebuilt {} rollups for {} .. {}: {} rows in {} ms", type, from, to, rows, durationMs);
+        return new RollupRebuildResponse(type, from, to, rows, durationMs);
+    }
+
+    // Minute rollup rows of [from, to) computed from the raw readings
+    private static Map<SensorRollupStore.RollupKey, MetricStats> minuteRows(SensorDataStrategy<?> strategy,
+                                                                            LocalDateTime from,
+                                                                            LocalDateTime to) {
+        Map<SensorRollupStore.RollupKey, MetricStats> minuteRows = new HashMap<>();
+        for (String metric : strategy.getMetricNames()) {
+            for (SensorAggregateResponse.Bucket b : strategy.aggregate(metric, RollupGranularity.MINUTE.bucket(),
+                    AggregateGrouping.LOCATION, null, null, from, to, Integer.MAX_VALUE)) {
+                // The raw end bound is inclusive; a reading exactly at the end belongs to the next chunk
+                if (b.getStart().isBefore(to)) {
+                    minuteRows.put(new SensorRollupStore.RollupKey(RollupGranularity.MINUTE, strategy.getSettingType(),
+                            metric, b.getLocation(), b.getStart()), MetricStats.of(b));
+                }
             }
         }
+        return minuteRows;
+    }
+
+    @Override
+    public void backfillRollups(Settings.SettingType type) {
+        if (rollupStore.isEnabled() && !rollupStore.hasRows(type)) {
+            rebuildRollups(type, null, null);
+        }
+    }
+
+    private SensorDataStrategy<?> getStrategy(Settings.SettingType type) {
+        return strategies.values().stream()
+                .filter(candidate -> candidate.getSettingType() == type)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No strategy found for type: " + type));
     }
 
-    private interface BaseSensorData {
-        UUID getId();
-        void setId(UUID id);
-        LocalDateTime getTimestamp();
-        void setTimestamp(LocalDateTime ts);
+    private <T> Slice<T> getData(Class<T> type,
+                                 String location,
+                                 Enum<?> status,
+                                 LocalDateTime start,
+                                 LocalDateTime end,
+                                 Pageable pageable,
+                                 CountMode countMode) {
+        SensorDataStrategy<T> strategy = getStrategy(type);
+        for (Sort.Order order : pageable.getSort()) {
+            if (!strategy.getSortableFields().contains(order.getProperty())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "sortBy must be one of " + String.join(", ", new TreeSet<>(strategy.getSortableFields())));
+            }
+        }
+        Slice<T> slice = switch (countMode) {
+            case EXACT -> strategy.getData(location, status, start, end, pageable);
+            case NONE -> strategy.getSlice(location, status, start, end, pageable);
+            case ESTIMATE -> withEstimatedTotal(type, strategy, strategy.getSlice(location, status, start, end, pageable),
+                    location, status, start, end);
+        };
+        return writeBehind.isEnabled() ? withPending(strategy, slice, location, status, start, end, pageable) : slice;
+    }
+
+    private <T> Page<T> withEstimatedTotal(Class<T> type,
+                                           SensorDataStrategy<T> strategy,
+                                           Slice<T> slice,
+                                           String location,
+                                           Enum<?> status,
+                                           LocalDateTime start,
+                                           LocalDateTime end) {
+        long estimate = location == null && status == null && start == null && end == null
+                ? countEstimator.estimateTotal(strategy.getSettingType(), type.getAnnotation(Table.class).name(),
+                        () -> strategy.count(null, null, null, null))
+                : countEstimator.estimateFiltered(List.of(type, Objects.toString(location), Objects.toString(status),
+                                Objects.toString(start), Objects.toString(end)),
+                        () -> strategy.count(location, status, start, end));
+
+        // Never report fewer rows than this slice proves to exist
+        Pageable pageable = slice.getPageable();
+        long seen = (pageable.isPaged() ? pageable.getOffset() : 0) + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        return new PageImpl<>(slice.getContent(), pageable, Math.max(estimate, seen));
+    }
+
+    /**
+     * Adds readings still waiting in the write-behind queue to a page read from the database.
+     * They are merged into the first page in sort order and counted in the total; later pages
+     * may be shifted by that many rows until the next flush.
+     */
+    private <T> Slice<T> withPending(SensorDataStrategy<T> strategy,
+                                     Slice<T> slice,
+                                     String location,
+                                     Enum<?> status,
+                                     LocalDateTime start,
+                                     LocalDateTime end,
+                                     Pageable pageable) {
+        Set<Object> stored = new HashSet<>();
+        for (T item : slice.getContent()) {
+            stored.add(((SensorReading) item).getId());
+        }
+        List<T> pending = new ArrayList<>();
+        for (T item : writeBehind.pending(strategy)) {
+            // A batch just committed can be both in the page and still marked in flight
+            if (!stored.contains(((SensorReading) item).getId()) && strategy.matches(item, location, status, start, end)) {
+                pending.add(item);
+            }
+        }
+        if (pending.isEmpty()) {
+            return slice;
+        }
+
+        List<T> content = slice.getContent();
+        boolean hasNext = slice.hasNext();
+        if (!pageable.isPaged() || pageable.getPageNumber() == 0) {
+            content = new ArrayList<>(content);
+            content.addAll(pending);
+            content.sort(comparatorFor(pageable.getSort()));
+            if (pageable.isPaged() && content.size() > pageable.getPageSize()) {
+                content = content.subList(0, pageable.getPageSize());
+                hasNext = true;
+            }
+        }
+        if (slice instanceof Page<T> page) {
+            return new PageImpl<>(content, pageable, page.getTotalElements() + pending.size());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Comparator<T> comparatorFor(Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<T> byProperty = Comparator.comparing(
+                    item -> (Comparable) new BeanWrapperImpl(item).getPropertyValue(order.getProperty()),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isDescending() ? byProperty.reversed() : byProperty);
+        }
+        return comparator;
+    }
+
+    private void ensureIdAndTimestamp(Object entity) {
+        if (entity instanceof SensorReading reading) {
+            if (reading.getId() == null) {
+                reading.setId(UUID.randomUUID());
+            }
+            if (reading.getTimestamp() == null) {
+                reading.setTimestamp(LocalDateTime.now());
+            }
+        }
     }
 }
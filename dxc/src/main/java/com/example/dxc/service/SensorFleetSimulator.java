@@ -0,0 +1,327 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.SimulatorProperties;
+import com.example.dxc.dto.SimulatorSettingsRequest;
+import com.example.dxc.dto.SimulatorStatus;
+import com.example.dxc.model.AirPollutionSensorData;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.StreetLightSensorData;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.service.strategy.SensorDataStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+
+/**
+ * Simulates a fleet of sensors feeding the ingestion pipeline ({@code simulator.enabled=true}).
+ * <p>
+ * Every sensor type has {@code sensors-per-type} sensors, sensor {@code i} always reporting from the
+ * same location. They are split over {@code threads-per-type} threads: thread {@code k} serves
+ * sensors {@code k, k + threads, ...} in turn, spacing readings evenly so each sensor reports at
+ * {@code rate-hz}. Readings go through the same service calls as a POSTed reading.
+ * <p>
+ * A thread that falls more than a second behind its schedule (the pipeline is saturated) drops the
+ * readings it missed instead of bursting to catch up, and counts them as skipped.
+ * <p>
+ * Each thread draws from its own {@link SplittableRandom}, seeded from {@code seed}, the sensor type
+ * and the thread number. The simulated clock that drives the daily patterns advances with the
+ * schedule, not the wall clock. With a fixed {@code start-time}, the same settings replay the same
+ * readings, apart from their ids, timestamps and any skipped ones.
+ * <p>
+ * Every start begins a new generation and its threads only run while it is current. A thread still
+ * inside a save when the simulator stops cannot come back to life on the next start; that start
+ * has its own threads. Stopping waits for the threads outside the lock, so a status request is not
+ * held up behind a slow save.
+ */
+@Component
+@ConditionalOnProperty(prefix = "simulator", name = "enabled", havingValue = "true")
+public class SensorFleetSimulator implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorFleetSimulator.class);
+
+    private static final long MAX_LAG_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final SimulatorProperties properties;
+    private final List<Lane<?>> lanes = new ArrayList<>();
+
+    private volatile int sensorsPerType;
+    private volatile double rateHz;
+    private volatile boolean emitting;
+    private volatile long generation;
+    private volatile boolean lifecycleRunning;
+    private final Lock lock = new ReentrantLock();
+    private final List<Thread> workers = new ArrayList<>();
+    private long startedNanos;
+    private LocalTime startTime;
+
+    @Autowired
+    public SensorFleetSimulator(List<SensorDataStrategy<?>> strategies,
+                                SensorDataService sensorDataService,
+                                SimulatorProperties properties) {
+        this.properties = properties;
+        this.sensorsPerType = properties.getSensorsPerType();
+        this.rateHz = properties.getRateHz();
+        for (SensorDataStrategy<?> strategy : strategies) {
+            lanes.add(lane(strategy, sensorDataService));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Lane<?> lane(SensorDataStrategy<?> strategy, SensorDataService service) {
+        return switch (strategy.getSettingType()) {
+            case Traffic -> new Lane<>((SensorDataStrategy<TrafficSensorData>) strategy,
+                    "Street ", service::saveTrafficData);
+            case Air_Pollution -> new Lane<>((SensorDataStrategy<AirPollutionSensorData>) strategy,
+                    "Zone ", service::saveAirPollutionData);
+            case Street_Light -> new Lane<>((SensorDataStrategy<StreetLightSensorData>) strategy,
+                    "LightPole-", service::saveStreetLightData);
+        };
+    }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        lanes.forEach(lane -> lane.bind(meterRegistry));
+    }
+
+    /**
+     * Applies the settings present in the request; running state last, so a start uses the new ones.
+     */
+    public SimulatorStatus update(SimulatorSettingsRequest request) {
+        List<Thread> stopped = List.of();
+        lock.lock();
+        try {
+            if (request.getSensorsPerType() != null) {
+                sensorsPerType = request.getSensorsPerType();
+            }
+            if (request.getRateHz() != null) {
+                rateHz = request.getRateHz();
+            }
+            if (Boolean.TRUE.equals(request.getRunning())) {
+                startEmitting();
+            } else if (Boolean.FALSE.equals(request.getRunning())) {
+                stopped = stopEmitting();
+            }
+            logger.info("Simulator {}: {} sensors per type at {} Hz", emitting ? "running" : "stopped", sensorsPerType, rateHz);
+        } finally {
+            lock.unlock();
+        }
+        awaitStopped(stopped);
+        return getStatus();
+    }
+
+    public SimulatorStatus getStatus() {
+        lock.lock();
+        try {
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SimulatorStatus status() {
+        SimulatorStatus status = new SimulatorStatus();
+        status.setRunning(emitting);
+        status.setSensorsPerType(sensorsPerType);
+        status.setRateHz(rateHz);
+        status.setThreadsPerType(properties.getThreadsPerType());
+        status.setSeed(properties.getSeed());
+        status.setTargetPerSecond(sensorsPerType * rateHz * lanes.size());
+
+        double seconds = emitting ? (System.nanoTime() - startedNanos) / 1e9 : 0;
+        if (emitting) {
+            status.setSimulatedTime(simulatedTime(System.nanoTime()));
+        }
+        Map<String, SimulatorStatus.TypeStats> types = new LinkedHashMap<>();
+        for (Lane<?> lane : lanes) {
+            long emitted = lane.emitted.sum();
+            types.put(lane.strategy.getSettingType().name(), new SimulatorStatus.TypeStats(
+                    emitted, lane.failed.sum(), lane.skipped.sum(),
+                    seconds > 0 ? (emitted - lane.emittedAtStart) / seconds : 0,
+                    lane.lagNanos.get() / 1e6));
+        }
+        status.setTypes(types);
+        return status;
+    }
+
+    private void startEmitting() {
+        if (emitting) {
+            return;
+        }
+        emitting = true;
+        long current = ++generation;
+        startedNanos = System.nanoTime();
+        startTime = properties.getStartTime() != null ? properties.getStartTime() : LocalTime.now();
+        int threads = Math.max(1, properties.getThreadsPerType());
+        for (Lane<?> lane : lanes) {
+            lane.emittedAtStart = lane.emitted.sum();
+            for (int shard = 0; shard < threads; shard++) {
+                int worker = shard;
+                Thread thread = new Thread(() -> emitLoop(lane, worker, threads, current),
+                        "simulator-" + lane.strategy.getSettingType().name().toLowerCase() + "-" + shard);
+                thread.setDaemon(true);
+                thread.start();
+                workers.add(thread);
+            }
+        }
+    }
+
+    // Retires the current threads and hands them over to be awaited once the lock is released
+    private List<Thread> stopEmitting() {
+        emitting = false;
+        generation++;
+        List<Thread> stopped = List.copyOf(workers);
+        workers.clear();
+        return stopped;
+    }
+
+    private static void awaitStopped(List<Thread> stopped) {
+        for (Thread worker : stopped) {
+            try {
+                worker.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private <T> void emitLoop(Lane<T> lane, int shard, int threads, long ownGeneration) {
+        Settings.SettingType type = lane.strategy.getSettingType();
+        RandomGenerator random = new SplittableRandom(
+                properties.getSeed() ^ (type.ordinal() + 1L) * 0x9E3779B97F4A7C15L ^ shard * 0xBF58476D1CE4E5B9L);
+        long next = startedNanos;
+        long turn = 0;
+
+        while (generation == ownGeneration) {
+            // Sensors of this thread: shard, shard + threads, ... below sensorsPerType
+            int sensors = (sensorsPerType - shard + threads - 1) / threads;
+            double rate = rateHz;
+            if (sensors <= 0 || rate <= 0) {
+                lane.lagNanos.set(0);
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                next = System.nanoTime();
+                continue;
+            }
+            long interval = Math.max(1, (long) (1e9 / (rate * sensors)));
+            long now = System.nanoTime();
+            if (next > now) {
+                // Re-read the settings after waking up, so a rate change takes effect at once
+                LockSupport.parkNanos(Math.min(next - now, IDLE_PARK_NANOS));
+                continue;
+            }
+            long lag = now - next;
+            lane.lagNanos.set(lag);
+            if (lag > MAX_LAG_NANOS) {
+                lane.skipped.add(lag / interval);
+                lane.skippedCounter.increment(lag / interval);
+                next = now;
+            }
+
+            int sensor = shard + (int) (turn++ % sensors) * threads;
+            LocalTime timeOfDay = properties.isDiurnal() ? simulatedTime(next) : null;
+            try {
+                T reading = lane.strategy.simulateData(lane.locationPrefix + (sensor + 1), LocalDateTime.now(), timeOfDay, random);
+                lane.sink.accept(reading);
+                lane.emitted.increment();
+                lane.emittedCounter.increment();
+            } catch (RuntimeException e) {
+                // Most likely a full write-behind queue; the next reading tries again
+                lane.failed.increment();
+                lane.failedCounter.increment();
+                if (lane.failed.sum() % 10_000 == 1) {
+                    logger.warn("Simulated {} reading rejected: {}", type, e.getMessage());
+                }
+            }
+            next += interval;
+        }
+    }
+
+    private LocalTime simulatedTime(long nanos) {
+        return startTime.plusNanos((long) ((nanos - startedNanos) * properties.getTimeScale()));
+    }
+
+    @Override
+    public void start() {
+        lock.lock();
+        try {
+            lifecycleRunning = true;
+            if (properties.isAutoStart()) {
+                startEmitting();
+                logger.info("Simulator started: {} sensors per type at {} Hz", sensorsPerType, rateHz);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        List<Thread> stopped;
+        lock.lock();
+        try {
+            stopped = stopEmitting();
+            lifecycleRunning = false;
+        } finally {
+            lock.unlock();
+        }
+        awaitStopped(stopped);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return lifecycleRunning;
+    }
+
+    private static final class Lane<T> {
+
+        private final SensorDataStrategy<T> strategy;
+        private final String locationPrefix;
+        private final Consumer<T> sink;
+        private final LongAdder emitted = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        // Lag of the thread that reported last; enough to see whether the schedule holds
+        private final AtomicLong lagNanos = new AtomicLong();
+        private long emittedAtStart;
+        private Counter emittedCounter;
+        private Counter failedCounter;
+        private Counter skippedCounter;
+
+        private Lane(SensorDataStrategy<T> strategy, String locationPrefix, Consumer<T> sink) {
+            this.strategy = strategy;
+            this.locationPrefix = locationPrefix;
+            this.sink = sink;
+            bind(Metrics.globalRegistry);
+        }
+
+        private void bind(MeterRegistry registry) {
+            String type = strategy.getSettingType().name();
+            emittedCounter = registry.counter("simulator.readings", "type", type, "outcome", "emitted");
+            failedCounter = registry.counter("simulator.readings", "type", type, "outcome", "failed");
+            skippedCounter = registry.counter("simulator.readings", "type", type, "outcome", "skipped");
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.RollupProperties;
+import com.example.dxc.dto.SensorAggregateResponse;
+import com.example.dxc.model.SensorReading;
+import com.example.dxc.model.SensorRollup;
+import com.example.dxc.model.Settings;
+import com.example.dxc.service.expression.MetricAccessor;
+import com.example.dxc.service.expression.SensorMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.sqm.TemporalUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Minute and hour rollup tables of every sensor metric, kept up to date from the ingest path.
+ * <p>
+ * Saved readings are folded into per-bucket deltas in memory; {@link #flush()} writes all pending
+ * deltas as one batched UPDATE plus one batched INSERT for buckets that did not exist yet, instead
+ * of one upsert per reading.
+ */
+@Component
+public class SensorRollupStore implements SensorWriteListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorRollupStore.class);
+
+    private static final String UPDATE_SQL = "UPDATE %s SET sample_count = sample_count + ?, value_sum = value_sum + ?, "
+            + "value_min = LEAST(value_min, ?), value_max = GREATEST(value_max, ?) "
+            + "WHERE sensor_type = ? AND metric = ? AND location = ? AND bucket_start = ?";
+    private static final String INSERT_SQL = "INSERT INTO %s (sample_count, value_sum, value_min, value_max, "
+            + "sensor_type, metric, location, bucket_start) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM %s WHERE sensor_type = ? AND bucket_start >= ? AND bucket_start < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RollupProperties properties;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<RollupKey, MetricStats> pending = new ConcurrentHashMap<>();
+    // One writer at a time, so a rebuild never interleaves with a flush. A ReentrantLock rather than
+    // synchronized, which would pin the carrier of a virtual thread for the whole JDBC round trip.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public SensorRollupStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             RollupProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void onSaved(Settings.SettingType type, List<? extends SensorReading> saved) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Map<String, MetricAccessor<SensorReading>> metrics = SensorMetrics.forType(type);
+        for (SensorReading reading : saved) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                LocalDateTime bucketStart = granularity.bucket().floor(reading.getTimestamp());
+                for (Map.Entry<String, MetricAccessor<SensorReading>> metric : metrics.entrySet()) {
+                    float value = metric.getValue().get(reading);
+                    pending.compute(new RollupKey(granularity, type, metric.getKey(), reading.getLocation(), bucketStart),
+                            (key, stats) -> {
+                                MetricStats merged = stats == null ? new MetricStats() : stats;
+                                merged.add(value);
+                                return merged;
+                            });
+                }
+            }
+        }
+    }
+
+    /**
+     * Upserts all pending deltas. On failure they are put back and retried by the next flush.
+     * Called every {@code flush-interval} by {@link com.example.dxc.scheduler.RollupFlushJob}.
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            Map<RollupKey, MetricStats> drained = new HashMap<>();
+            for (RollupKey key : pending.keySet()) {
+                MetricStats stats = pending.remove(key);
+                if (stats != null) {
+                    drained.put(key, stats);
+                }
+            }
+            if (drained.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (RollupGranularity granularity : RollupGranularity.values()) {
+                        upsert(granularity, drained);
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.warn("Rollup flush of {} buckets failed, retrying with the next flush: {}", drained.size(), e.getMessage());
+                drained.forEach((key, stats) -> pending.merge(key, stats, (queued, failed) -> {
+                    queued.merge(failed);
+                    return queued;
+                }));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void upsert(RollupGranularity granularity, Map<RollupKey, MetricStats> deltas) {
+        List<Object[]> rows = new ArrayList<>();
+        deltas.forEach((key, stats) -> {
+            if (key.granularity() == granularity) {
+                rows.add(row(key, stats));
+            }
+        });
+        if (rows.isEmpty()) {
+            return;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL.formatted(granularity.table()), rows);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            // Drivers that rewrite batches may only report SUCCESS_NO_INFO, which means the row existed
+            if (updated[i] == 0) {
+                inserts.add(rows.get(i));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            // A concurrent insert of the same bucket fails the transaction; the deltas then go through the UPDATE next time
+            jdbcTemplate.batchUpdate(INSERT_SQL.formatted(granularity.table()), inserts);
+        }
+    }
+
+    /**
+     * Replaces every rollup row of a type in {@code [from, to)} with the minute rows returned by
+     * {@code scan} and the hour rows folded from them. {@code from} and {@code to} must lie on hour
+     * boundaries.
+     * <p>
+     * The scan of the raw readings runs under the write lock, after pending deltas are flushed and in
+     * the same transaction as the replace. Deltas of readings saved meanwhile stay pending until the
+     * replace commits and are added on top, so they are neither lost nor counted twice. Only a reading
+     * the scan already sees but whose delta arrives after the flush, between its insert and the write
+     * listener call, can still be counted twice.
+     *
+     * @return number of rows written
+     */
+    public int replaceRange(Settings.SettingType type, LocalDateTime from, LocalDateTime to,
+                            Supplier<Map<RollupKey, MetricStats>> scan) {
+        writeLock.lock();
+        try {
+            flush();
+            return transactionTemplate.execute(status -> {
+                Map<RollupKey, MetricStats> minuteRows = scan.get();
+                Map<RollupKey, MetricStats> rows = new HashMap<>(minuteRows);
+                minuteRows.forEach((key, stats) -> rows.computeIfAbsent(key.in(RollupGranularity.HOUR), k -> new MetricStats()).merge(stats));
+                for (RollupGranularity granularity : RollupGranularity.values()) {
+                    jdbcTemplate.update(DELETE_SQL.formatted(granularity.table()),
+                            type.name(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+                    List<Object[]> inserts = new ArrayList<>();
+                    rows.forEach((key, stats) -> {
+                        if (key.granularity() == granularity) {
+                            inserts.add(row(key, stats));
+                        }
+                    });
+                    jdbcTemplate.batchUpdate(INSERT_SQL.formatted(granularity.table()), inserts);
+                }
+                return rows.size();
+            });
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean hasRows(Settings.SettingType type) {
+        return !entityManager.createQuery(
+                        "select r.metric from MinuteSensorRollup r where r.sensorType = :type", String.class)
+                .setParameter("type", type)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * Aggregates rollup rows with {@code from <= bucketStart < to} into buckets of {@code bucket},
+     * which must be a whole multiple of the granularity. Either bound may be {@code null}.
+     */
+    public List<SensorAggregateResponse.Bucket> aggregate(RollupGranularity granularity,
+                                                          Settings.SettingType type,
+                                                          String metric,
+                                                          TimeBucket bucket,
+                                                          AggregateGrouping groupBy,
+                                                          String location,
+                                                          LocalDateTime from,
+                                                          LocalDateTime to,
+                                                          int limit) {
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<? extends SensorRollup> root = query.from(granularity.entityType());
+
+        Expression<Long> seconds = cb.durationByUnit(TemporalUnit.SECOND,
+                cb.durationBetween(root.<LocalDateTime>get("bucketStart"), cb.literal(TimeBucket.EPOCH)));
+        Expression<Long> bucketNumber = cb.floor(cb.quot(seconds, cb.literal(bucket.seconds()))).as(Long.class);
+        Path<LocalDateTime> bucketStart = root.get("bucketStart");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("sensorType"), type));
+        predicates.add(cb.equal(root.get("metric"), metric));
+        if (location != null) predicates.add(cb.equal(root.get("location"), location));
+        if (from != null) predicates.add(cb.greaterThanOrEqualTo(bucketStart, from));
+        if (to != null) predicates.add(cb.lessThan(bucketStart, to));
+
+        List<Expression<?>> groups = new ArrayList<>(List.of(bucketNumber));
+        if (groupBy == AggregateGrouping.LOCATION) {
+            groups.add(root.get("location"));
+        }
+        List<Selection<?>> selections = new ArrayList<>(groups);
+        selections.addAll(List.of(
+                cb.min(root.<Double>get("valueMin")),
+                cb.max(root.<Double>get("valueMax")),
+                cb.sum(root.<Double>get("valueSum")),
+                cb.sum(root.<Long>get("sampleCount"))));
+
+        query.multiselect(selections)
+                .where(predicates.toArray(Predicate[]::new))
+                .groupBy(groups)
+                .orderBy(groups.stream().<Order>map(cb::asc).toList());
+
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(limit).getResultList();
+        int offset = groups.size();
+        List<SensorAggregateResponse.Bucket> buckets = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            MetricStats stats = new MetricStats();
+            stats.merge(((Number) row.get(offset + 3)).longValue(),
+                    ((Number) row.get(offset + 2)).doubleValue(),
+                    ((Number) row.get(offset)).doubleValue(),
+                    ((Number) row.get(offset + 1)).doubleValue());
+            buckets.add(stats.toBucket(bucket.start(((Number) row.get(0)).longValue()),
+                    groupBy == AggregateGrouping.LOCATION ? (String) row.get(1) : null));
+        }
+        return buckets;
+    }
+
+    private static Object[] row(RollupKey key, MetricStats stats) {
+        return new Object[]{stats.getCount(), stats.getSum(), stats.getMin(), stats.getMax(),
+                key.type().name(), key.metric(), key.location(), Timestamp.valueOf(key.bucketStart())};
+    }
+
+    /**
+     * One rollup row: a metric at a location over one bucket of a granularity.
+     */
+    public record RollupKey(RollupGranularity granularity, Settings.SettingType type, String metric,
+                            String location, LocalDateTime bucketStart) {
+
+        RollupKey in(RollupGranularity coarser) {
+            return new RollupKey(coarser, type, metric, location, coarser.bucket().floor(bucketStart));
+        }
+    }
+}
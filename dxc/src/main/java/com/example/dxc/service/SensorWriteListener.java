@@ -0,0 +1,14 @@
+package com.example.dxc.service;
+
+import com.example.dxc.model.SensorReading;
+import com.example.dxc.model.Settings;
+
+import java.util.List;
+
+/**
+ * Called by the sensor strategies after readings have been inserted, whichever path
+ * (single, batch, stream, write-behind or generator) inserted them.
+ */
+public interface SensorWriteListener {
+    void onSaved(Settings.SettingType type, List<? extends SensorReading> saved);
+}
@@ -0,0 +1,56 @@
+package com.example.dxc.service;
+
+import com.example.dxc.model.Settings;
+import com.example.dxc.repository.SettingsRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the alert thresholds, keyed by sensor type and metric.
+ * <p>
+ * Loaded once at start-up and replaced as a whole (copy-on-write) whenever a rule is saved,
+ * so readers never lock, never allocate and never hit the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class SettingsRuleIndex {
+
+    private final SettingsRepository repo;
+
+    private volatile Map<Settings.SettingType, Map<String, Settings>> rules = new EnumMap<>(Settings.SettingType.class);
+
+    @PostConstruct
+    public void load() {
+        replaceAll(repo.findAll());
+    }
+
+    /**
+     * @return the rule for this sensor type and metric, or {@code null} if there is none
+     */
+    public Settings find(Settings.SettingType type, String metric) {
+        Map<String, Settings> byMetric = rules.get(type);
+        return byMetric == null ? null : byMetric.get(metric);
+    }
+
+    public synchronized void replaceAll(List<Settings> settings) {
+        Map<Settings.SettingType, Map<String, Settings>> next = new EnumMap<>(Settings.SettingType.class);
+        for (Settings setting : settings) {
+            // First row wins if the table holds duplicates, as the old findAll().findFirst() did
+            next.computeIfAbsent(setting.getType(), t -> new HashMap<>()).putIfAbsent(setting.getMetric(), setting);
+        }
+        rules = next;
+    }
+
+    public synchronized void put(Settings setting) {
+        Map<Settings.SettingType, Map<String, Settings>> next = new EnumMap<>(Settings.SettingType.class);
+        rules.forEach((type, byMetric) -> next.put(type, new HashMap<>(byMetric)));
+        next.computeIfAbsent(setting.getType(), t -> new HashMap<>()).put(setting.getMetric(), setting);
+        rules = next;
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.dxc.service;
 
+import com.example.dxc.dto.CompoundRuleRequest;
 import com.example.dxc.dto.SettingsRequest;
 import com.example.dxc.model.Alert;
+import com.example.dxc.model.CompoundAlertRule;
 import com.example.dxc.model.Settings;
 
+import java.util.List;
+
 public interface SettingsService {
     Settings saveSettings(SettingsRequest request);
-    Alert checkAndTriggerAlert(String metric, float currentValue);
+    // The alert the reading opened or reopened, or null when it only updated an open one or raised nothing
+    Alert checkAndTriggerAlert(Settings.SettingType type, String metric, float currentValue, String location);
+    List<Alert> checkAndTriggerAlerts(Settings.SettingType type, List<MetricReading> readings);
+    CompoundAlertRule saveCompoundRule(CompoundRuleRequest request);
+    <T> List<Alert> checkCompoundRules(Settings.SettingType type, List<T> readings);
 }
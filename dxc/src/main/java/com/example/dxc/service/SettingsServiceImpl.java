@@ -1,98 +1,262 @@
 package com.example.dxc.service;
 
+import com.example.dxc.dto.CompoundRuleRequest;
 import com.example.dxc.dto.SettingsRequest;
 import com.example.dxc.model.Alert;
+import com.example.dxc.model.CompoundAlertRule;
+import com.example.dxc.model.SensorReading;
 import com.example.dxc.model.Settings;
 import com.example.dxc.model.User;
 import com.example.dxc.repository.AlertRepository;
+import com.example.dxc.repository.CompoundAlertRuleRepository;
 import com.example.dxc.repository.SettingsRepository;
-import com.example.dxc.repository.UserRepository;
+import com.example.dxc.service.expression.CompiledAlertExpression;
 import com.example.dxc.service.observer.AlertObserver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class SettingsServiceImpl implements SettingsService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SettingsServiceImpl.class);
+
     private final SettingsRepository repo;
     private final AlertRepository alertRepository;
-    @Autowired
-    private UserRepository userRepository;
     private final AlertObserver alertObserver;
+    private final AlertSubscriptionIndex subscriptionIndex;
+    private final SettingsRuleIndex ruleIndex;
+    private final AlertStateTracker alertStates;
+    private final CompoundAlertRuleRepository compoundRuleRepository;
+    private final CompoundRuleIndex compoundRuleIndex;
+    private final AlertStreamBroadcaster alertStream;
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     @Override
     public Settings saveSettings(SettingsRequest request) {
         validateRequest(request);
 
-        Optional<Settings> existingSetting = repo.findAll()
-                .stream()
-                .filter(s -> s.getMetric().equals(request.getMetric()) && s.getType().equals(request.getType()))
-                .findFirst();
-
-        Settings setting;
-
-        if (existingSetting.isPresent()) {
-            // Update existing
-            setting = existingSetting.get();
-            setting.setThresholdValue(request.getThresholdValue());
-            setting.setAlertType(request.getAlertType());
-            setting.setCreatedAt(LocalDateTime.now());
-        } else {
-            // Create new
-            setting = Settings.builder()
-                    .type(request.getType())
-                    .metric(request.getMetric())
-                    .thresholdValue(request.getThresholdValue())
-                    .alertType(request.getAlertType())
-                    .createdAt(LocalDateTime.now())
-                    .build();
+        Settings existingSetting = ruleIndex.find(request.getType(), request.getMetric());
+
+        // Always save a fresh instance: the indexed one is shared with concurrent alert checks
+        Settings setting = Settings.builder()
+                .id(existingSetting != null ? existingSetting.getId() : null)
+                .type(request.getType())
+                .metric(request.getMetric())
+                .thresholdValue(request.getThresholdValue())
+                .alertType(request.getAlertType())
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        Settings saved = repo.save(setting);
+        ruleIndex.put(saved);
+        return saved;
+    }
+
+    @Override
+    public Alert checkAndTriggerAlert(Settings.SettingType type, String metric, float currentValue, String location) {
+        Settings setting = ruleIndex.find(type, metric);
+        if (setting == null) {
+            return null;
+        }
+
+        AlertStateTracker.Change change = observe(setting, metric, currentValue, location, LocalDateTime.now());
+        if (change == null) {
+            return null;
+        }
+        List<Alert> raised = applyChanges(List.of(change), false);
+        return raised.isEmpty() ? null : raised.get(0);
+    }
+
+    @Override
+    public List<Alert> checkAndTriggerAlerts(Settings.SettingType type, List<MetricReading> readings) {
+        LocalDateTime now = LocalDateTime.now();
+        List<AlertStateTracker.Change> changes = new ArrayList<>();
+        for (MetricReading reading : readings) {
+            Settings setting = ruleIndex.find(type, reading.metric());
+            if (setting != null) {
+                AlertStateTracker.Change change = observe(setting, reading.metric(), reading.value(), reading.location(), now);
+                if (change != null) {
+                    changes.add(change);
+                }
+            }
+        }
+        return applyChanges(changes, false);
+    }
+
+    @Override
+    public CompoundAlertRule saveCompoundRule(CompoundRuleRequest request) {
+        if (request.getType() == null) {
+            throw new IllegalArgumentException("Sensor type is required");
+        }
+        // Parse and compile up front: an invalid expression is rejected before it is stored
+        CompiledAlertExpression<?> compiled = CompoundRuleIndex.compile(request.getType(), request.getExpression());
+        if (compiled.text().length() > 255) {
+            throw new IllegalArgumentException("Expression must not exceed 255 characters");
+        }
+        // Identical rules would share one alert state and count every reading twice
+        if (compoundRuleRepository.existsByTypeAndExpression(request.getType(), compiled.text())) {
+            throw new IllegalArgumentException("The same rule already exists for " + request.getType());
         }
 
-        return repo.save(setting);
+        CompoundAlertRule saved = compoundRuleRepository.save(CompoundAlertRule.builder()
+                .type(request.getType())
+                .expression(compiled.text())
+                .createdAt(LocalDateTime.now())
+                .build());
+        compoundRuleIndex.add(request.getType(), compiled);
+        return saved;
     }
 
     @Override
-    public Alert checkAndTriggerAlert(String metric, float currentValue) {
-        Optional<Settings> optionalSetting = repo.findAll()
-                .stream()
-                .filter(s -> s.getMetric().equals(metric))
-                .findFirst();
-
-        if (optionalSetting.isPresent()) {
-            Settings setting = optionalSetting.get();
-
-            boolean shouldTrigger = switch (setting.getAlertType()) {
-                case Above -> currentValue > setting.getThresholdValue();
-                case Below -> currentValue < setting.getThresholdValue();
-            };
-
-            if (shouldTrigger) {
-                Alert alert = Alert.builder()
-                        .metric(metric)
-                        .value(currentValue)
-                        .thresholdValue(setting.getThresholdValue())
-                        .type(setting.getType())
-                        .alertType(setting.getAlertType())
-                        .triggeredAt(LocalDateTime.now())
-                        .build();
-
-                Alert savedAlert = alertRepository.save(alert);
-
-                // Send to all users
-                List<User> users = userRepository.findAll();
-                for (User user : users) {
-                    alertObserver.notify(savedAlert, user);
+    public <T> List<Alert> checkCompoundRules(Settings.SettingType type, List<T> readings) {
+        List<CompiledAlertExpression<T>> rules = compoundRuleIndex.rulesFor(type);
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<AlertStateTracker.Change> changes = new ArrayList<>();
+        for (T reading : readings) {
+            String location = reading instanceof SensorReading sensorReading ? sensorReading.getLocation() : null;
+            for (CompiledAlertExpression<T> rule : rules) {
+                // A compound alert resolves once its whole expression stops matching, whichever clause recovered
+                AlertStateTracker.Change change = rule.matches(reading)
+                        ? alertStates.onBreach(Alert.builder()
+                                .metric(rule.text())
+                                .value(rule.primaryMetric().get(reading))
+                                .thresholdValue(rule.primaryThreshold())
+                                .type(type)
+                                .location(location)
+                                .alertType(rule.primaryAlertType())
+                                .triggeredAt(now)
+                                .build())
+                        : alertStates.onNoLongerMatching(type, rule.text(), location, now);
+                if (change != null) {
+                    changes.add(change);
                 }
-                return savedAlert;
             }
         }
-        return null;
+        return applyChanges(changes, true);
+    }
+
+    private AlertStateTracker.Change observe(Settings setting, String metric, float value, String location, LocalDateTime now) {
+        return shouldTrigger(setting, value)
+                ? alertStates.onBreach(buildAlert(setting, metric, value, location, now))
+                : alertStates.onClear(setting.getType(), metric, location, value, now);
+    }
+
+    /**
+     * Persists alert state changes: one insert batch for newly opened alerts, and one UPDATE per
+     * other alert carrying only its latest state. Users and connected dashboards are notified of the
+     * opened alerts only.
+     *
+     * @param compound whether the changes come from compound rules, whose metric is the whole expression
+     * @return the alerts these changes opened or reopened; further readings on an open alert aren't included
+     */
+    private List<Alert> applyChanges(List<AlertStateTracker.Change> changes, boolean compound) {
+        if (changes.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Alert> opened = new LinkedHashMap<>();
+        Map<UUID, Alert> updated = new LinkedHashMap<>();
+        Map<UUID, Alert> raised = new LinkedHashMap<>();
+        for (AlertStateTracker.Change change : changes) {
+            Alert alert = change.alert();
+            // Expressions are user-written text: one tag value for all of them keeps the series bounded
+            meterRegistry.counter("alerts.transitions", "type", alert.getType().name(),
+                    "metric", compound ? "compound" : alert.getMetric(), "transition", change.transition().name()).increment();
+            if (change.transition() == AlertStateTracker.Transition.OPENED || opened.containsKey(alert.getId())) {
+                // Not inserted yet: fold later changes into the row about to be inserted
+                opened.put(alert.getId(), alert);
+            } else {
+                updated.put(alert.getId(), alert);
+            }
+            if (change.transition() == AlertStateTracker.Transition.OPENED
+                    || change.transition() == AlertStateTracker.Transition.REOPENED) {
+                raised.put(alert.getId(), alert);
+            }
+        }
+
+        List<Alert> openedAlerts = new ArrayList<>(opened.values());
+        try {
+            if (!openedAlerts.isEmpty()) {
+                alertRepository.persistAll(openedAlerts);
+            }
+            for (Alert alert : updated.values()) {
+                if (alertRepository.updateState(alert) == 0) {
+                    // The row is gone, e.g. its insert failed earlier: the next breach opens a new alert
+                    logger.warn("Alert {} for {}/{} at {} is not stored, dropping its state",
+                            alert.getId(), alert.getType(), alert.getMetric(), alert.getLocation());
+                    alertStates.resync(alert);
+                }
+            }
+        } catch (RuntimeException e) {
+            // The tracker already moved on; bring every key touched here back in line with the table
+            changes.forEach(change -> alertStates.resync(change.alert()));
+            throw e;
+        }
+        alertStream.publish(openedAlerts);
+        notifyUsers(openedAlerts);
+        return new ArrayList<>(raised.values());
+    }
+
+    private boolean shouldTrigger(Settings setting, float currentValue) {
+        return switch (setting.getAlertType()) {
+            case Above -> currentValue > setting.getThresholdValue();
+            case Below -> currentValue < setting.getThresholdValue();
+        };
+    }
+
+    private Alert buildAlert(Settings setting, String metric, float currentValue, String location, LocalDateTime triggeredAt) {
+        return Alert.builder()
+                .metric(metric)
+                .value(currentValue)
+                .thresholdValue(setting.getThresholdValue())
+                .type(setting.getType())
+                .location(location)
+                .alertType(setting.getAlertType())
+                .triggeredAt(triggeredAt)
+                .build();
+    }
+
+    /**
+     * Sends each alert only to the users subscribed to its type, metric and location.
+     */
+    private void notifyUsers(List<Alert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        // Subscriber lookup and hand-off to the alerts executor; the SMTP time shows up under email.send
+        Timer.Sample fanOut = Timer.start(meterRegistry);
+        for (Alert alert : alerts) {
+            int recipients = 0;
+            for (User user : subscriptionIndex.subscribersFor(alert.getType(), alert.getMetric(), alert.getLocation())) {
+                alertObserver.notify(alert, user);
+                recipients++;
+            }
+            meterRegistry.counter("alerts.notifications", "type", alert.getType().name()).increment(recipients);
+        }
+        fanOut.stop(meterRegistry.timer("alerts.fanout"));
     }
 
     private void validateRequest(SettingsRequest request) {
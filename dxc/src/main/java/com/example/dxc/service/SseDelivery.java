@@ -0,0 +1,285 @@
+package com.example.dxc.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Writes server-sent events to the connected clients of one stream, for {@link AlertStreamBroadcaster}
+ * and {@link LiveSensorFeed}.
+ * <p>
+ * A small pool of delivery threads does the writing, at most one of them to a given client at a time,
+ * so every client gets its events in order and slow clients stay off the ingest path. What a client is
+ * sent, and what happens when it falls behind, is up to its {@link Client}. A client whose write stays
+ * blocked for longer than {@code sendTimeout} is dropped, and the pool gets a stand-in thread for as
+ * long as that write holds its own, so the other clients keep being served.
+ */
+final class SseDelivery<C extends SseDelivery.Client> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SseDelivery.class);
+
+    // For log messages, e.g. "alert stream"
+    private final String name;
+    private final Executor executor;
+    private final Supplier<Duration> sendTimeout;
+    private final Set<C> clients = ConcurrentHashMap.newKeySet();
+
+    SseDelivery(String name, Executor executor, Supplier<Duration> sendTimeout) {
+        this.name = name;
+        this.executor = executor;
+        this.sendTimeout = sendTimeout;
+    }
+
+    static ExecutorService pool(String threadPrefix, int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, threadPrefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void add(C client) {
+        clients.add(client);
+    }
+
+    Collection<C> clients() {
+        return Collections.unmodifiableSet(clients);
+    }
+
+    int size() {
+        return clients.size();
+    }
+
+    /**
+     * Sends a comment line to every client so idle connections stay open and closed ones are dropped.
+     */
+    void heartbeat() {
+        for (Client client : clients) {
+            executor.execute(client::ping);
+        }
+    }
+
+    /**
+     * Drops the clients whose write has been blocked for longer than {@code sendTimeout}.
+     */
+    void dropStalled() {
+        long now = System.nanoTime();
+        for (Client client : clients) {
+            client.dropIfStalled(now);
+        }
+    }
+
+    void shutdown() {
+        for (Client client : clients) {
+            client.emitter.complete();
+        }
+        clients.clear();
+        if (executor instanceof ExecutorService pool) {
+            pool.shutdown();
+        }
+    }
+
+    // Grows or shrinks a pool by one thread standing in for a delivery stuck in a write
+    private void resize(int delta) {
+        if (executor instanceof ThreadPoolExecutor pool) {
+            synchronized (pool) {
+                if (delta > 0) {
+                    pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+                    pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+                } else {
+                    pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+                    pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+                }
+            }
+        }
+    }
+
+    /**
+     * One connected client. Subclasses buffer what is to be sent, guarded by the client's own lock,
+     * and call {@link #deliver()} to have it written.
+     */
+    abstract static class Client {
+
+        private final SseDelivery<?> delivery;
+        private final SseEmitter emitter;
+
+        // Guarded by this
+        // A delivery is queued or writing; at most one thread writes to a client at a time
+        private boolean draining;
+        // System.nanoTime() when the write in progress started, 0 when none is
+        private long sendingSince;
+        private boolean closed;
+        private boolean stalled;
+
+        Client(SseDelivery<?> delivery, SseEmitter emitter) {
+            this.delivery = delivery;
+            this.emitter = emitter;
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(e -> close());
+        }
+
+        /**
+         * Takes what is buffered as the events of one write; empty when nothing is. Called holding the lock.
+         */
+        abstract List<SseEmitter.SseEventBuilder> takePending();
+
+        // Called holding the lock
+        abstract boolean hasPending();
+
+        // Forgets what is buffered once the client is closed; called holding the lock
+        abstract void discardPending();
+
+        // Called once the client is closed, without its lock held
+        void onClosed() {
+        }
+
+        // Caller holds the lock
+        final boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Has a delivery thread write what is buffered, unless one is already queued or writing.
+         */
+        final void deliver() {
+            synchronized (this) {
+                if (draining || closed) {
+                    return;
+                }
+                draining = true;
+            }
+            delivery.executor.execute(this::drain);
+        }
+
+        /**
+         * Closes the client and ends its request.
+         */
+        final void disconnect() {
+            close();
+            emitter.complete();
+        }
+
+        // Writes what is buffered, then yields the thread to other clients if more arrived meanwhile
+        private void drain() {
+            while (true) {
+                List<SseEmitter.SseEventBuilder> events;
+                synchronized (this) {
+                    events = closed ? List.of() : takePending();
+                    if (events.isEmpty()) {
+                        draining = false;
+                        return;
+                    }
+                }
+                if (!send(events) || endTurn()) {
+                    return;
+                }
+            }
+        }
+
+        private void ping() {
+            synchronized (this) {
+                // A write already queued or running keeps the connection busy anyway
+                if (draining || closed) {
+                    return;
+                }
+                draining = true;
+            }
+            if (send(List.of(SseEmitter.event().comment("heartbeat"))) && !endTurn()) {
+                drain();
+            }
+        }
+
+        /**
+         * Hands the thread back, queueing another turn if more arrived during the write.
+         *
+         * @return {@code false} when the pool refuses that turn, so the calling thread goes on writing
+         */
+        private boolean endTurn() {
+            synchronized (this) {
+                if (!hasPending()) {
+                    draining = false;
+                    return true;
+                }
+            }
+            try {
+                delivery.executor.execute(this::drain);
+                return true;
+            } catch (RejectedExecutionException e) {
+                // The pool is shutting down and only runs what it already queued
+                return false;
+            }
+        }
+
+        /**
+         * @return {@code false} when the client is gone, so nothing more is to be written
+         */
+        private boolean send(List<SseEmitter.SseEventBuilder> events) {
+            synchronized (this) {
+                sendingSince = System.nanoTime();
+            }
+            boolean sent = false;
+            try {
+                for (SseEmitter.SseEventBuilder event : events) {
+                    emitter.send(event);
+                }
+                sent = true;
+            } catch (IOException | IllegalStateException e) {
+                // The servlet container completes the request itself once a write has failed
+                logger.debug("Dropping {} client: {}", delivery.name, e.getMessage());
+                close();
+            } finally {
+                synchronized (this) {
+                    sendingSince = 0;
+                    if (stalled) {
+                        // The stand-in thread is no longer needed
+                        delivery.resize(-1);
+                    }
+                    sent = sent && !closed;
+                }
+            }
+            return sent;
+        }
+
+        private void dropIfStalled(long now) {
+            synchronized (this) {
+                if (stalled || sendingSince == 0 || now - sendingSince < delivery.sendTimeout.get().toNanos()) {
+                    return;
+                }
+                stalled = true;
+                delivery.resize(1);
+            }
+            logger.info("Dropping {} client blocked in a write for over {}", delivery.name, delivery.sendTimeout.get());
+            // Ends the async request; the blocked write itself fails once the container gives up on the socket
+            disconnect();
+        }
+
+        private void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                discardPending();
+            }
+            delivery.clients.remove(this);
+            onClosed();
+        }
+    }
+}
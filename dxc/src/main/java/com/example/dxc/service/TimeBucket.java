@@ -0,0 +1,56 @@
+package com.example.dxc.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Width of the time buckets an aggregate is grouped into, written as {@code 5m}, {@code 1h} or {@code 1d}.
+ * Buckets start at multiples of their width since midnight, so every day splits into whole buckets.
+ */
+public record TimeBucket(String label, long seconds) {
+
+    // Bucket numbers count whole buckets since this instant
+    public static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final Pattern FORMAT = Pattern.compile("(\\d{1,4})([mhd])");
+    private static final long DAY = Duration.ofDays(1).toSeconds();
+
+    public static TimeBucket parse(String value) {
+        Matcher matcher = FORMAT.matcher(value == null ? "" : value.trim());
+        if (!matcher.matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bucket must look like 5m, 1h or 1d");
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        long seconds = switch (matcher.group(2)) {
+            case "m" -> Duration.ofMinutes(amount).toSeconds();
+            case "h" -> Duration.ofHours(amount).toSeconds();
+            default -> Duration.ofDays(amount).toSeconds();
+        };
+        if (seconds < 60 || seconds > DAY || DAY % seconds != 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "bucket must be between 1m and 1d and divide a day evenly");
+        }
+        return new TimeBucket(amount + matcher.group(2), seconds);
+    }
+
+    public LocalDateTime start(long bucketNumber) {
+        return EPOCH.plusSeconds(bucketNumber * seconds);
+    }
+
+    // Start of the bucket holding the timestamp
+    public LocalDateTime floor(LocalDateTime timestamp) {
+        return start(Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), seconds));
+    }
+
+    // First bucket boundary at or after the timestamp
+    public LocalDateTime ceil(LocalDateTime timestamp) {
+        LocalDateTime floor = floor(timestamp);
+        return floor.isEqual(timestamp) ? floor : floor.plusSeconds(seconds);
+    }
+}
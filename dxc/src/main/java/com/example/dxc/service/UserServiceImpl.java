@@ -3,6 +3,7 @@ package com.example.dxc.service;
 import com.example.dxc.dto.SignupRequest;
 import com.example.dxc.dto.UpdateProfileRequest;
 import com.example.dxc.dto.UserProfileResponse;
+import com.example.dxc.jwt.AuthenticationCache;
 import com.example.dxc.model.User;
 import com.example.dxc.model.UserDetailsImpl;
 import com.example.dxc.repository.UserRepository;
@@ -24,6 +25,9 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
 
     @Autowired
     public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
@@ -106,6 +110,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         }
 
         User updatedUser = userRepository.save(user);
+        authenticationCache.invalidate(updatedUser.getEmail());
 
         // Convert to response DTO
         UserProfileResponse response = new UserProfileResponse();
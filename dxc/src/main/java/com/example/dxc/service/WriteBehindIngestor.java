@@ -0,0 +1,356 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.ExecutorConfig;
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.dto.WriteBehindStats;
+import com.example.dxc.model.SensorReading;
+import com.example.dxc.service.strategy.SensorDataStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind buffer for single sensor readings ({@code sensors.ingest.write-behind=true}).
+ * <p>
+ * Request threads put validated readings on a bounded lock-free queue per sensor type and return.
+ * One writer thread drains each queue into batched inserts, committing when
+ * {@code flush-size} readings are waiting or the oldest has waited {@code flush-interval},
+ * and then runs the alert checks for the batch. Remaining readings are flushed on shutdown.
+ * <p>
+ * A batch that fails to commit is retried, {@code flush-retries} times with a growing pause, ahead
+ * of newer readings and still visible to reads. After that, or at once when the failure is a
+ * constraint violation that retrying can't fix, its readings are lost: they are counted as failed
+ * and their ids logged. A 202 therefore means queued, not stored.
+ * <p>
+ * The writer starts before and stops after the web server, so requests still being served during
+ * shutdown are flushed; readings offered once stopping has begun are refused.
+ */
+@Component
+public class WriteBehindIngestor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindIngestor.class);
+
+    private final IngestProperties properties;
+    private final Map<SensorDataStrategy<?>, PendingQueue<?>> queues = new IdentityHashMap<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long maxFlushNanos;
+    private volatile long lastFlushNanos;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread writer;
+    // Runs the alert checks of flushed batches; inline until the ingest executor is injected
+    private Executor ingestExecutor = Runnable::run;
+
+    public WriteBehindIngestor(List<SensorDataStrategy<?>> strategies, IngestProperties properties) {
+        this.properties = properties;
+        for (SensorDataStrategy<?> strategy : strategies) {
+            queues.put(strategy, new PendingQueue<>(strategy));
+        }
+    }
+
+    @Autowired(required = false)
+    public void setIngestExecutor(@Qualifier(ExecutorConfig.INGEST) Executor ingestExecutor) {
+        this.ingestExecutor = ingestExecutor;
+    }
+
+    public boolean isEnabled() {
+        return properties.isWriteBehind();
+    }
+
+    /**
+     * @return {@code false} if the queue of this sensor type is full, or the writer has stopped
+     */
+    public <T> boolean enqueue(SensorDataStrategy<T> strategy, T reading) {
+        // After stop() nothing would write the reading any more
+        if (stopped || !queueOf(strategy).offer(reading, properties.getQueueCapacity())) {
+            rejected.increment();
+            return false;
+        }
+        accepted.increment();
+        if (queueOf(strategy).size.get() >= properties.getFlushSize()) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Readings of this type that are not committed yet, so reads can include them.
+     */
+    public <T> List<T> pending(SensorDataStrategy<T> strategy) {
+        PendingQueue<T> queue = queueOf(strategy);
+        // Queued first: drain publishes a batch as in flight before taking it off the queue
+        List<T> queued = new ArrayList<>(queue.items);
+        List<T> inFlight = queue.inFlight;
+        List<T> retry = queue.retry;
+        if (queued.isEmpty() && inFlight.isEmpty() && retry.isEmpty()) {
+            return List.of();
+        }
+        Set<T> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<T> pending = new ArrayList<>(queued.size() + inFlight.size() + retry.size());
+        for (List<T> part : List.of(inFlight, retry, queued)) {
+            for (T item : part) {
+                if (seen.add(item)) {
+                    pending.add(item);
+                }
+            }
+        }
+        return pending;
+    }
+
+    public WriteBehindStats getStats() {
+        Map<String, Integer> depth = new LinkedHashMap<>();
+        queues.forEach((strategy, queue) ->
+                depth.put(strategy.getSettingType().name(), queue.size.get() + queue.inFlight.size() + queue.retry.size()));
+        long count = flushes.get();
+        return new WriteBehindStats(
+                isEnabled(),
+                properties.getQueueCapacity(),
+                depth,
+                accepted.sum(),
+                rejected.sum(),
+                flushed.sum(),
+                failed.sum(),
+                retried.sum(),
+                count,
+                count == 0 ? 0 : totalFlushNanos.get() / 1e6 / count,
+                maxFlushNanos / 1e6,
+                lastFlushNanos / 1e6);
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled() || running) {
+            return;
+        }
+        stopped = false;
+        running = true;
+        writer = new Thread(this::writeLoop, "sensor-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Write-behind ingestion enabled: flush at {} readings or {} ms, capacity {} per type",
+                properties.getFlushSize(), properties.getFlushInterval().toMillis(), properties.getQueueCapacity());
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(30_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Below the web server's start/stop phase: up before requests arrive, down after the last one
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void writeLoop() {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        while (running) {
+            long now = System.nanoTime();
+            long nextDeadline = now + intervalNanos;
+            for (PendingQueue<?> queue : queues.values()) {
+                if (!queue.retry.isEmpty()) {
+                    long retryIn = queue.retryAtNanos - now;
+                    if (retryIn <= 0) {
+                        flush(queue);
+                    } else if (queue.retryAtNanos - nextDeadline < 0) {
+                        nextDeadline = queue.retryAtNanos;
+                    }
+                    // Newer readings wait until the failed batch is committed or given up
+                    continue;
+                }
+                int waiting = queue.size.get();
+                if (waiting == 0) {
+                    continue;
+                }
+                long deadline = queue.firstEnqueuedNanos + intervalNanos;
+                if (waiting >= properties.getFlushSize() || deadline - now <= 0) {
+                    flush(queue);
+                } else if (deadline - nextDeadline < 0) {
+                    nextDeadline = deadline;
+                }
+            }
+            LockSupport.parkNanos(this, Math.max(0, nextDeadline - System.nanoTime()));
+        }
+        // Shutting down: commit whatever is left, a failed batch gets one last attempt
+        for (PendingQueue<?> queue : queues.values()) {
+            queue.attempts = properties.getFlushRetries();
+            while (queue.size.get() > 0 || !queue.retry.isEmpty()) {
+                flush(queue);
+            }
+        }
+    }
+
+    /**
+     * Commits the batch waiting for a retry, or else up to {@code flush-size} readings of one queue.
+     * Only called from the writer thread.
+     */
+    <T> void flush(PendingQueue<T> queue) {
+        List<T> batch;
+        if (!queue.retry.isEmpty()) {
+            batch = queue.retry;
+            queue.inFlight = batch;
+            queue.retry = List.of();
+        } else {
+            batch = queue.drain(properties.getFlushSize());
+            if (batch.isEmpty()) {
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        List<T> saved = null;
+        try {
+            saved = queue.strategy.saveAll(batch);
+            flushed.add(saved.size());
+            queue.attempts = 0;
+        } catch (DataIntegrityViolationException e) {
+            // E.g. an id that is already stored: the same insert would fail again
+            lose(queue, batch, e);
+        } catch (RuntimeException e) {
+            if (queue.attempts < properties.getFlushRetries()) {
+                queue.attempts++;
+                queue.retryAtNanos = System.nanoTime() + (properties.getFlushInterval().toNanos() << queue.attempts);
+                // Set before in-flight is cleared, so reads keep seeing the batch
+                queue.retry = batch;
+                retried.add(batch.size());
+                logger.warn("Write-behind flush of {} {} readings failed, retry {} of {}: {}", batch.size(),
+                        queue.strategy.getSettingType(), queue.attempts, properties.getFlushRetries(), e.getMessage());
+            } else {
+                lose(queue, batch, e);
+            }
+        } finally {
+            queue.inFlight = List.of();
+        }
+
+        if (saved != null) {
+            // Off the writer thread, which goes on committing; a full ingest pool hands the check back to it
+            List<T> stored = saved;
+            ingestExecutor.execute(() -> {
+                try {
+                    queue.strategy.checkAlerts(stored);
+                } catch (RuntimeException e) {
+                    // The readings are stored; only their alert check is lost
+                    logger.error("Alert check of {} flushed {} readings failed", stored.size(), queue.strategy.getSettingType(), e);
+                }
+            });
+        }
+
+        long elapsed = System.nanoTime() - start;
+        flushes.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        lastFlushNanos = elapsed;
+        if (elapsed > maxFlushNanos) {
+            maxFlushNanos = elapsed;
+        }
+    }
+
+    private <T> void lose(PendingQueue<T> queue, List<T> batch, RuntimeException e) {
+        queue.attempts = 0;
+        failed.add(batch.size());
+        List<UUID> ids = new ArrayList<>(batch.size());
+        for (T reading : batch) {
+            ids.add(((SensorReading) reading).getId());
+        }
+        logger.error("Write-behind lost {} accepted {} readings, ids {}", batch.size(), queue.strategy.getSettingType(), ids, e);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> PendingQueue<T> queueOf(SensorDataStrategy<T> strategy) {
+        PendingQueue<T> queue = (PendingQueue<T>) queues.get(strategy);
+        if (queue == null) {
+            throw new IllegalArgumentException("No write-behind queue for " + strategy.getSettingType());
+        }
+        return queue;
+    }
+
+    /**
+     * Lock-free bounded queue: the size counter is reserved with a CAS before the item is added.
+     */
+    static final class PendingQueue<T> {
+        final SensorDataStrategy<T> strategy;
+        final ConcurrentLinkedQueue<T> items = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        // When the oldest waiting reading was queued (System.nanoTime)
+        volatile long firstEnqueuedNanos;
+        // Drained but not yet committed; still visible to reads
+        volatile List<T> inFlight = List.of();
+        // A batch whose commit failed, waiting for retryAtNanos; the writer alone changes these
+        volatile List<T> retry = List.of();
+        int attempts;
+        long retryAtNanos;
+
+        PendingQueue(SensorDataStrategy<T> strategy) {
+            this.strategy = strategy;
+        }
+
+        boolean offer(T item, int capacity) {
+            int current;
+            do {
+                current = size.get();
+                if (current >= capacity) {
+                    return false;
+                }
+            } while (!size.compareAndSet(current, current + 1));
+            if (current == 0) {
+                firstEnqueuedNanos = System.nanoTime();
+            }
+            items.offer(item);
+            return true;
+        }
+
+        /**
+         * Takes up to {@code max} readings off the queue as the new in-flight batch. The batch is
+         * published before the readings are removed, so a read always finds them in one of the two.
+         * Only the writer thread removes items, so the polls take exactly the readings copied.
+         */
+        List<T> drain(int max) {
+            List<T> batch = new ArrayList<>(Math.min(max, size.get()));
+            Iterator<T> queued = items.iterator();
+            while (batch.size() < max && queued.hasNext()) {
+                batch.add(queued.next());
+            }
+            inFlight = batch;
+            for (int i = 0; i < batch.size(); i++) {
+                items.poll();
+            }
+            // Readings left behind keep the old timestamp: they are already due
+            size.addAndGet(-batch.size());
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.dxc.service.expression;
+
+import com.example.dxc.model.Settings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Parses compound alert expressions and compiles them into lambdas.
+ * <p>
+ * Grammar (AND binds tighter than OR, keywords are case-insensitive):
+ * <pre>
+ *   expression := and ( ("OR" | "||") and )*
+ *   and        := term ( ("AND" | "&amp;&amp;") term )*
+ *   term       := "(" expression ")" | metric ( "&gt;" | "&gt;=" | "&lt;" | "&lt;=" ) number
+ * </pre>
+ * Metric names are resolved against the accessors of one sensor type at compile time,
+ * so evaluating a compiled expression needs no reflection or map lookups.
+ */
+public final class AlertExpressionCompiler {
+
+    private AlertExpressionCompiler() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression is malformed or names an unknown metric
+     */
+    public static <T> CompiledAlertExpression<T> compile(String expression, Map<String, MetricAccessor<T>> metrics) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Expression cannot be empty");
+        }
+        Parser<T> parser = new Parser<>(tokenize(expression), metrics);
+        Predicate<T> predicate = parser.parseExpression();
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.tokens.get(parser.position) + "' in expression");
+        }
+        return new CompiledAlertExpression<>(String.join(" ", parser.tokens),
+                predicate, parser.primaryMetric, parser.primaryThreshold, parser.primaryAlertType);
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '>' || c == '<') {
+                boolean orEqual = i + 1 < expression.length() && expression.charAt(i + 1) == '=';
+                tokens.add(orEqual ? c + "=" : String.valueOf(c));
+                i += orEqual ? 2 : 1;
+            } else if (expression.startsWith("&&", i)) {
+                tokens.add("AND");
+                i += 2;
+            } else if (expression.startsWith("||", i)) {
+                tokens.add("OR");
+                i += 2;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-') {
+                int start = i;
+                while (i < expression.length()
+                        && (Character.isLetterOrDigit(expression.charAt(i)) || "_.-".indexOf(expression.charAt(i)) >= 0)) {
+                    i++;
+                }
+                String word = expression.substring(start, i);
+                String upper = word.toUpperCase(Locale.ROOT);
+                tokens.add(upper.equals("AND") || upper.equals("OR") ? upper : word);
+            } else {
+                throw new IllegalArgumentException("Unexpected character '" + c + "' in expression");
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Parser<T> {
+        private final List<String> tokens;
+        private final Map<String, MetricAccessor<T>> metrics;
+        private int position;
+
+        private MetricAccessor<T> primaryMetric;
+        private float primaryThreshold;
+        private Settings.AlertType primaryAlertType;
+
+        private Parser(List<String> tokens, Map<String, MetricAccessor<T>> metrics) {
+            this.tokens = tokens;
+            this.metrics = metrics;
+        }
+
+        private Predicate<T> parseExpression() {
+            Predicate<T> left = parseAnd();
+            while (accept("OR")) {
+                Predicate<T> l = left;
+                Predicate<T> r = parseAnd();
+                left = data -> l.test(data) || r.test(data);
+            }
+            return left;
+        }
+
+        private Predicate<T> parseAnd() {
+            Predicate<T> left = parseTerm();
+            while (accept("AND")) {
+                Predicate<T> l = left;
+                Predicate<T> r = parseTerm();
+                left = data -> l.test(data) && r.test(data);
+            }
+            return left;
+        }
+
+        private Predicate<T> parseTerm() {
+            if (accept("(")) {
+                Predicate<T> inner = parseExpression();
+                if (!accept(")")) {
+                    throw new IllegalArgumentException("Missing ')' in expression");
+                }
+                return inner;
+            }
+
+            String metric = next("metric name");
+            MetricAccessor<T> accessor = metrics.get(metric);
+            if (accessor == null) {
+                throw new IllegalArgumentException("Unknown metric '" + metric + "', expected one of " + metrics.keySet());
+            }
+            String operator = next("comparison operator");
+            float threshold = parseNumber(next("threshold"));
+
+            if (primaryMetric == null) {
+                primaryMetric = accessor;
+                primaryThreshold = threshold;
+                primaryAlertType = operator.startsWith(">") ? Settings.AlertType.Above : Settings.AlertType.Below;
+            }
+
+            return switch (operator) {
+                case ">" -> data -> accessor.get(data) > threshold;
+                case ">=" -> data -> accessor.get(data) >= threshold;
+                case "<" -> data -> accessor.get(data) < threshold;
+                case "<=" -> data -> accessor.get(data) <= threshold;
+                default -> throw new IllegalArgumentException("Expected a comparison operator after '" + metric + "' but found '" + operator + "'");
+            };
+        }
+
+        private boolean accept(String token) {
+            if (position < tokens.size() && tokens.get(position).equals(token)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private String next(String expected) {
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("Expression ends where a " + expected + " was expected");
+            }
+            return tokens.get(position++);
+        }
+
+        private static float parseNumber(String token) {
+            try {
+                return Float.parseFloat(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Threshold '" + token + "' is not a number");
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.dxc.service.expression;
+
+import com.example.dxc.model.Settings;
+
+import java.util.function.Predicate;
+
+/**
+ * An alert expression turned into a tree of lambdas over primitive metric getters.
+ * <p>
+ * The first comparison of the expression is kept as the "primary" one; its metric
+ * value and threshold are what a triggered {@code Alert} row reports.
+ *
+ * @param text             the expression in normalised form, e.g. {@code pm2_5 > 55 AND pm10 > 150}
+ * @param predicate        evaluates the whole expression against one reading
+ * @param primaryMetric    reads the metric of the first comparison
+ * @param primaryThreshold threshold of the first comparison
+ * @param primaryAlertType direction of the first comparison
+ */
+public record CompiledAlertExpression<T>(String text,
+                                         Predicate<T> predicate,
+                                         MetricAccessor<T> primaryMetric,
+                                         float primaryThreshold,
+                                         Settings.AlertType primaryAlertType) {
+
+    public boolean matches(T data) {
+        return predicate.test(data);
+    }
+}
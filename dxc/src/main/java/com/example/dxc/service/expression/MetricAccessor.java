@@ -0,0 +1,9 @@
+package com.example.dxc.service.expression;
+
+/**
+ * Reads one numeric metric from a sensor reading without boxing.
+ */
+@FunctionalInterface
+public interface MetricAccessor<T> {
+    float get(T data);
+}
@@ -0,0 +1,46 @@
+package com.example.dxc.service.expression;
+
+import com.example.dxc.model.AirPollutionSensorData;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.StreetLightSensorData;
+import com.example.dxc.model.TrafficSensorData;
+
+import java.util.Map;
+
+/**
+ * The numeric metrics of each sensor type that alert expressions may refer to.
+ */
+public final class SensorMetrics {
+
+    public static final Map<String, MetricAccessor<TrafficSensorData>> TRAFFIC = Map.of(
+            "trafficDensity", TrafficSensorData::getTrafficDensity,
+            "avgSpeed", TrafficSensorData::getAvgSpeed
+    );
+
+    public static final Map<String, MetricAccessor<AirPollutionSensorData>> AIR_POLLUTION = Map.of(
+            "pm2_5", AirPollutionSensorData::getPm2_5,
+            "pm10", AirPollutionSensorData::getPm10,
+            "co", AirPollutionSensorData::getCo,
+            "no2", AirPollutionSensorData::getNo2,
+            "so2", AirPollutionSensorData::getSo2,
+            "ozone", AirPollutionSensorData::getOzone
+    );
+
+    public static final Map<String, MetricAccessor<StreetLightSensorData>> STREET_LIGHT = Map.of(
+            "brightnessLevel", StreetLightSensorData::getBrightnessLevel,
+            "powerConsumption", StreetLightSensorData::getPowerConsumption
+    );
+
+    private SensorMetrics() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Map<String, MetricAccessor<T>> forType(Settings.SettingType type) {
+        Map<String, ?> metrics = switch (type) {
+            case Traffic -> TRAFFIC;
+            case Air_Pollution -> AIR_POLLUTION;
+            case Street_Light -> STREET_LIGHT;
+        };
+        return (Map<String, MetricAccessor<T>>) metrics;
+    }
+}
@@ -1,4 +1,5 @@
 package com.example.dxc.service.observer;
+import com.example.dxc.config.ExecutorConfig;
 import com.example.dxc.model.Alert;
 import com.example.dxc.model.User;
 import com.example.dxc.service.EmailService;
@@ -12,7 +13,8 @@ public class EmailAlertObserver implements AlertObserver {
     private final EmailService emailService;
 
     @Override
-    @Async
+    // The only asynchronous hop of an alert e-mail, so a fan-out burst stays on the alerts executor
+    @Async(ExecutorConfig.ALERTS)
     public void notify(Alert alert, User user) {
         emailService.sendAlertEmail(alert, user.getEmail());
     }
@@ -1,18 +1,62 @@
 package com.example.dxc.service.strategy;
 
+import com.example.dxc.config.SensorLogProperties;
+import com.example.dxc.dto.SensorAggregateResponse;
+import com.example.dxc.model.Alert;
+import com.example.dxc.model.SensorReading;
+import com.example.dxc.repository.BatchInsertRepository;
+import com.example.dxc.service.AggregateGrouping;
+import com.example.dxc.service.MetricReading;
+import com.example.dxc.service.SensorCursor;
 import com.example.dxc.service.SensorDataValidator;
+import com.example.dxc.service.SensorWriteListener;
 import com.example.dxc.service.SettingsService;
+import com.example.dxc.service.TimeBucket;
+import com.example.dxc.service.expression.SensorMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.sqm.TemporalUnit;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.GenericTypeResolver;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
 
 
 @RequiredArgsConstructor
@@ -23,44 +67,291 @@ public abstract class AbstractSensorDataStrategy<T> implements SensorDataStrateg
     protected final SensorDataValidator validator;
     protected final SettingsService settingsService;
     protected final Random random = new Random();
-    private static final Logger logger = LoggerFactory.getLogger(AbstractSensorDataStrategy.class);
+    private List<SensorWriteListener> writeListeners = List.of();
+    @SuppressWarnings("unchecked")
+    private final Class<T> entityType = (Class<T>) GenericTypeResolver.resolveTypeArgument(getClass(), AbstractSensorDataStrategy.class);
+    @PersistenceContext
+    private EntityManager entityManager;
+    // One event per logged reading, under its own name so it can be routed or silenced on its own
+    private static final Logger readingLogger = LoggerFactory.getLogger("sensor.readings");
+    private SensorLogProperties logProperties = new SensorLogProperties();
+    private final AtomicLong logSequence = new AtomicLong();
+    // No-op until a registry is injected, e.g. when a strategy is built by hand in a test
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private volatile StageMeters meters;
 
 
+    @Autowired(required = false)
+    public void setWriteListeners(List<SensorWriteListener> writeListeners) {
+        this.writeListeners = List.copyOf(writeListeners);
+    }
+
+    @Autowired(required = false)
+    public void setLogProperties(SensorLogProperties logProperties) {
+        this.logProperties = logProperties;
+    }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.meters = null;
+    }
+
     // Template method for data generation
     @Override
     public final T generateData() {
-        T data = createSensorSpecificData();
-        ensureCommonFields(data);
-        return data;
+        return meters().generate.record(() -> {
+            T data = createSensorSpecificData(random);
+            ensureCommonFields(data);
+            return data;
+        });
+    }
+
+    // Template method for simulated sensors - a fixed location, the caller's random source and,
+    // unless timeOfDay is null, values shaped by the time of day. The same random stream gives the same values,
+    // but ids are always fresh: a restarted fleet replaying its seed must add rows, not collide with stored ones.
+    @Override
+    public final T simulateData(String location, LocalDateTime timestamp, LocalTime timeOfDay, RandomGenerator random) {
+        return meters().generate.record(() -> {
+            T data = createSensorSpecificData(random);
+            if (timeOfDay != null) {
+                applyTimeOfDay(data, timeOfDay, random);
+            }
+            SensorReading reading = (SensorReading) data;
+            reading.setId(UUID.randomUUID());
+            reading.setLocation(location);
+            reading.setTimestamp(timestamp);
+            return data;
+        });
     }
 
     // Template method for validation
     @Override
     public final void validate(T data) {
-        validateSensorSpecificData(data);
+        StageMeters stageMeters = meters();
+        try {
+            stageMeters.validate.record(() -> validateSensorSpecificData(data));
+        } catch (IllegalArgumentException e) {
+            stageMeters.rejected.increment();
+            throw e;
+        }
     }
 
     // Template method for saving
     @Override
     public final T save(T data) {
-        return repository.save(data);
+        StageMeters stageMeters = meters();
+        T saved = stageMeters.save.record(() -> repository.save(data));
+        stageMeters.saved.increment();
+        notifySaved(List.of(saved));
+        return saved;
+    }
+
+    // Template method for batch saving - plain inserts grouped into JDBC batches
+    @Override
+    public final List<T> saveAll(List<T> data) {
+        StageMeters stageMeters = meters();
+        List<T> saved = stageMeters.save.record(() -> {
+            if (repository instanceof BatchInsertRepository) {
+                @SuppressWarnings("unchecked")
+                BatchInsertRepository<T> batchRepository = (BatchInsertRepository<T>) repository;
+                return batchRepository.persistAll(data);
+            }
+            return repository.saveAll(data);
+        });
+        stageMeters.saved.increment(saved.size());
+        return notifySaved(saved);
+    }
+
+    // Ids already stored, one IN query by primary key, so a batch can reject them item by item
+    @Override
+    public final Set<UUID> findExistingIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        Set<UUID> existing = new HashSet<>();
+        for (T stored : repository.findAllById(ids)) {
+            existing.add(extractId(stored));
+        }
+        return existing;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> notifySaved(List<T> saved) {
+        for (SensorWriteListener listener : writeListeners) {
+            listener.onSaved(getSettingType(), (List<? extends SensorReading>) saved);
+        }
+        return saved;
     }
 
     // Template method for alerts
     @Override
     public final void checkAlerts(T data) {
-        checkSensorSpecificAlerts(data);
+        boolean alerted = meters().alerts.record(() -> checkSensorSpecificAlerts(data)
+                | !settingsService.checkCompoundRules(getSettingType(), List.of(data)).isEmpty());
+        if (alerted && logProperties.isAlerts() && readingLogger.isInfoEnabled()) {
+            logEvent(data, "ALERT RAISED", 1);
+        }
+    }
+
+    // Template method for batch alerts - all readings are checked in one call
+    @Override
+    public final void checkAlerts(List<T> data) {
+        List<Alert> raised = meters().alerts.record(() -> {
+            List<MetricReading> readings = new ArrayList<>(data.size() * 2);
+            for (T item : data) {
+                collectMetricReadings(item, readings);
+            }
+            List<Alert> alerts = new ArrayList<>();
+            if (!readings.isEmpty()) {
+                alerts.addAll(settingsService.checkAndTriggerAlerts(getSettingType(), readings));
+            }
+            alerts.addAll(settingsService.checkCompoundRules(getSettingType(), data));
+            return alerts;
+        });
+        if (!raised.isEmpty() && logProperties.isAlerts() && readingLogger.isInfoEnabled()) {
+            // Alerts carry the location, not the reading: log the batch's readings from those locations
+            Set<String> locations = new HashSet<>();
+            raised.forEach(alert -> locations.add(alert.getLocation()));
+            for (T item : data) {
+                if (locations.contains(extractLocation(item))) {
+                    logEvent(item, "ALERT RAISED", 1);
+                }
+            }
+        }
+    }
+
+    // Only columns that lead one of the entity's indexes, so sorting never falls back to a filesort
+    @Override
+    public final Set<String> getSortableFields() {
+        return Set.of("timestamp", "location", getStatusFieldName());
     }
 
     // Template method for querying - eliminates all duplication
     @Override
     public final Page<T> getData(String location, Enum<?> status, LocalDateTime start, LocalDateTime end, Pageable pageable) {
-        // Ensure repository supports JpaSpecificationExecutor
-        if (!(repository instanceof JpaSpecificationExecutor)) {
-            throw new IllegalStateException("Repository must implement JpaSpecificationExecutor for query operations");
+        return specExecutor().findAll(filterSpec(location, status, start, end), pageable);
+    }
+
+    // Template method for paging without a count query - one extra row tells whether a next page exists
+    @Override
+    public final Slice<T> getSlice(String location, Enum<?> status, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        Specification<T> spec = filterSpec(location, status, start, end);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(specExecutor().findAll(spec, pageable.getSort()));
         }
+        ScrollPosition position = pageable.getOffset() == 0
+                ? ScrollPosition.offset()
+                : ScrollPosition.offset(pageable.getOffset() - 1);
+        Window<T> window = specExecutor().findBy(spec, query -> query
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(position));
+        return new SliceImpl<>(window.getContent(), pageable, window.hasNext());
+    }
 
-        Specification<T> spec = (root, query, cb) -> {
+    @Override
+    public final long count(String location, Enum<?> status, LocalDateTime start, LocalDateTime end) {
+        return specExecutor().count(filterSpec(location, status, start, end));
+    }
+
+    // Template method for keyset paging - seeks past the cursor instead of skipping rows
+    @Override
+    public final List<T> getDataAfter(String location, Enum<?> status, LocalDateTime start, LocalDateTime end,
+                                      SensorCursor after, int limit, boolean descending) {
+        Specification<T> spec = filterSpec(location, status, start, end);
+        if (after != null) {
+            spec = spec.and((root, query, cb) -> {
+                Path<LocalDateTime> timestamp = root.get("timestamp");
+                Path<UUID> id = root.get("id");
+                return descending
+                        ? cb.or(cb.lessThan(timestamp, after.timestamp()),
+                                cb.and(cb.equal(timestamp, after.timestamp()), cb.lessThan(id, after.id())))
+                        : cb.or(cb.greaterThan(timestamp, after.timestamp()),
+                                cb.and(cb.equal(timestamp, after.timestamp()), cb.greaterThan(id, after.id())));
+            });
+        }
+        Sort sort = descending ? Sort.by("timestamp", "id").descending() : Sort.by("timestamp", "id").ascending();
+        // No offset and no count query: cost depends on the page size only
+        return specExecutor().findBy(spec, query -> query.sortBy(sort).limit(limit).all());
+    }
+
+    // Newest reading of every location in one query; the (location, timestamp) index answers each max()
+    @Override
+    public final List<T> getLatestPerLocation() {
+        return specExecutor().findAll((root, query, cb) -> {
+            Subquery<LocalDateTime> newest = query.subquery(LocalDateTime.class);
+            Root<T> other = newest.from(entityType);
+            newest.select(cb.greatest(other.<LocalDateTime>get("timestamp")))
+                    .where(cb.equal(other.get("location"), root.get("location")));
+            return cb.equal(root.get("timestamp"), newest);
+        });
+    }
+
+    @Override
+    public final Set<String> getMetricNames() {
+        return SensorMetrics.forType(getSettingType()).keySet();
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public final Enum<?> parseStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        Class<? extends Enum> statusType = (Class<? extends Enum>) BeanUtils.findPropertyType(getStatusFieldName(), entityType);
+        try {
+            return Enum.valueOf(statusType, status);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "status must be one of " + Arrays.toString(statusType.getEnumConstants()));
+        }
+    }
+
+    // Template method for aggregation - one GROUP BY query over the same filters as getData
+    @Override
+    public final List<SensorAggregateResponse.Bucket> aggregate(String metric, TimeBucket bucket, AggregateGrouping groupBy,
+                                                                String location, Enum<?> status,
+                                                                LocalDateTime start, LocalDateTime end, int limit) {
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityType);
+
+        // Bucket number = whole bucket widths since the epoch, so the same expression can be selected and grouped
+        Expression<Long> seconds = cb.durationByUnit(TemporalUnit.SECOND,
+                cb.durationBetween(root.<LocalDateTime>get("timestamp"), cb.literal(TimeBucket.EPOCH)));
+        Expression<Long> bucketNumber = cb.floor(cb.quot(seconds, cb.literal(bucket.seconds()))).as(Long.class);
+        Path<Number> value = root.get(metric);
+
+        List<Expression<?>> groups = new ArrayList<>(List.of(bucketNumber));
+        if (groupBy == AggregateGrouping.LOCATION) {
+            groups.add(root.get("location"));
+        }
+        List<Selection<?>> selections = new ArrayList<>(groups);
+        selections.addAll(List.of(cb.min(value), cb.max(value), cb.avg(value), cb.count(root)));
+
+        query.multiselect(selections)
+                .where(filterSpec(location, status, start, end).toPredicate(root, query, cb))
+                .groupBy(groups)
+                .orderBy(groups.stream().<Order>map(cb::asc).toList());
+
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(limit).getResultList();
+        int offset = groups.size();
+        List<SensorAggregateResponse.Bucket> buckets = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            buckets.add(new SensorAggregateResponse.Bucket(
+                    bucket.start(((Number) row.get(0)).longValue()),
+                    groupBy == AggregateGrouping.LOCATION ? (String) row.get(1) : null,
+                    ((Number) row.get(offset)).doubleValue(),
+                    ((Number) row.get(offset + 1)).doubleValue(),
+                    ((Number) row.get(offset + 2)).doubleValue(),
+                    ((Number) row.get(offset + 3)).longValue()));
+        }
+        return buckets;
+    }
+
+    private Specification<T> filterSpec(String location, Enum<?> status, LocalDateTime start, LocalDateTime end) {
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
             if (location != null) predicates.add(cb.equal(root.get("location"), location));
             if (status != null) predicates.add(cb.equal(root.get(getStatusFieldName()), status));
@@ -68,41 +359,113 @@ public abstract class AbstractSensorDataStrategy<T> implements SensorDataStrateg
             if (end != null) predicates.add(cb.lessThanOrEqualTo(root.get("timestamp"), end));
             return cb.and(predicates.toArray(Predicate[]::new));
         };
+    }
 
+    private JpaSpecificationExecutor<T> specExecutor() {
+        // Ensure repository supports JpaSpecificationExecutor
+        if (!(repository instanceof JpaSpecificationExecutor)) {
+            throw new IllegalStateException("Repository must implement JpaSpecificationExecutor for query operations");
+        }
         @SuppressWarnings("unchecked")
         JpaSpecificationExecutor<T> specExecutor = (JpaSpecificationExecutor<T>) repository;
-        return specExecutor.findAll(spec, pageable);
+        return specExecutor;
     }
 
-// Template method for logging
-@Override
-public final void log(T data, String header) {
-    logger.info("{}:", header);
+    // Same filters as getData, applied in memory (e.g. to readings not yet written)
+    @Override
+    public final boolean matches(T data, String location, Enum<?> status, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime timestamp = extractTimestamp(data);
+        return (location == null || location.equals(extractLocation(data)))
+                && (status == null || status.equals(new BeanWrapperImpl(data).getPropertyValue(getStatusFieldName())))
+                && (start == null || !timestamp.isBefore(start))
+                && (end == null || !timestamp.isAfter(end));
+    }
 
-    if (data != null) {
-        Object id = extractId(data);
-        Object location = extractLocation(data);
-        Object timestamp = extractTimestamp(data);
+    // Template method for logging - one event for every sample-every-th reading, built only if it is logged
+    @Override
+    public final void log(T data, String header) {
+        meters().log.record(() -> {
+            if (data == null || !readingLogger.isInfoEnabled()) {
+                return;
+            }
+            int sampleEvery = logProperties.sampleEvery(getSettingType());
+            if (sampleEvery > 0 && logSequence.getAndIncrement() % sampleEvery == 0) {
+                logEvent(data, header, sampleEvery);
+            }
+        });
+    }
 
-        if (id != null) logger.info("ID: {}", id);
-        if (location != null) logger.info("Location: {}", location);
-        if (timestamp != null) logger.info("Timestamp: {}", timestamp);
+    private void logEvent(T data, String header, int sampleEvery) {
+        LoggingEventBuilder event = readingLogger.atInfo()
+                .setMessage(header)
+                .addKeyValue("type", getSettingType())
+                .addKeyValue("id", extractId(data))
+                .addKeyValue("location", extractLocation(data))
+                .addKeyValue("timestamp", extractTimestamp(data));
+        addSensorSpecificFields(data, event);
+        // Lets a log pipeline scale counts of sampled events back up
+        event.addKeyValue("sampleEvery", sampleEvery).log();
+    }
 
-        logSensorSpecificData(data);
-    } else {
-        logger.warn("No data available to log.");
+    private StageMeters meters() {
+        StageMeters current = meters;
+        if (current == null) {
+            // Racing callers register the same meters; the registry hands both the same instances
+            current = new StageMeters(meterRegistry, getSettingType().name());
+            meters = current;
+        }
+        return current;
     }
 
-    logger.info("----------------------");
-}
+    /**
+     * Meters of one sensor type: a {@code sensor.pipeline} timer per stage, plus counts of saved and
+     * rejected readings. Built once, so recording does not look meters up by name.
+     */
+    private static final class StageMeters {
 
+        private final Timer generate;
+        private final Timer validate;
+        private final Timer save;
+        private final Timer alerts;
+        private final Timer log;
+        private final Counter saved;
+        private final Counter rejected;
 
+        private StageMeters(MeterRegistry registry, String type) {
+            generate = stageTimer(registry, type, "generate");
+            validate = stageTimer(registry, type, "validate");
+            save = stageTimer(registry, type, "save");
+            alerts = stageTimer(registry, type, "alerts");
+            log = stageTimer(registry, type, "log");
+            saved = Counter.builder("sensor.readings.saved")
+                    .description("Sensor readings written to the database")
+                    .tag("type", type)
+                    .register(registry);
+            rejected = Counter.builder("sensor.readings.rejected")
+                    .description("Sensor readings that failed validation")
+                    .tag("type", type)
+                    .register(registry);
+        }
+
+        private static Timer stageTimer(MeterRegistry registry, String type, String stage) {
+            return Timer.builder("sensor.pipeline")
+                    .description("Time spent in one stage of the sensor pipeline")
+                    .tags("type", type, "stage", stage)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+        }
+    }
 
     // Abstract methods that concrete strategies must implement
-    protected abstract T createSensorSpecificData();
+    protected abstract T createSensorSpecificData(RandomGenerator random);
+    protected abstract void applyTimeOfDay(T data, LocalTime timeOfDay, RandomGenerator random);
     protected abstract void validateSensorSpecificData(T data);
-    protected abstract void checkSensorSpecificAlerts(T data);
-    protected abstract void logSensorSpecificData(T data);
+    // Whether any of the reading's metrics raised an alert
+    protected abstract boolean checkSensorSpecificAlerts(T data);
+    protected abstract void collectMetricReadings(T data, List<MetricReading> readings);
+    protected abstract void addSensorSpecificFields(T data, LoggingEventBuilder event);
     protected abstract String getStatusFieldName();
 
     // Abstract helper methods for common fields (each strategy implements for its type)
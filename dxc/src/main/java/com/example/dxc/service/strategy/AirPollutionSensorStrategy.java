@@ -1,20 +1,23 @@
 package com.example.dxc.service.strategy;
 
+import com.example.dxc.model.Settings;
 import com.example.dxc.model.AirPollutionSensorData;
 import com.example.dxc.repository.AirPollutionSensorDataRepository;
+import com.example.dxc.service.MetricReading;
 import com.example.dxc.service.SensorDataValidator;
 import com.example.dxc.service.SettingsService;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.UUID;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.random.RandomGenerator;
+import org.slf4j.spi.LoggingEventBuilder;
 
 
 @Service
 public class AirPollutionSensorStrategy extends AbstractSensorDataStrategy<AirPollutionSensorData> {
-    private static final Logger logger = LoggerFactory.getLogger(AirPollutionSensorStrategy.class);
 
 
     public AirPollutionSensorStrategy(
@@ -25,7 +28,12 @@ public class AirPollutionSensorStrategy extends AbstractSensorDataStrategy<AirPo
     }
 
     @Override
-    protected AirPollutionSensorData createSensorSpecificData() {
+    public Settings.SettingType getSettingType() {
+        return Settings.SettingType.Air_Pollution;
+    }
+
+    @Override
+    protected AirPollutionSensorData createSensorSpecificData(RandomGenerator random) {
         return AirPollutionSensorData.builder()
                 .location("Zone " + (random.nextInt(30) + 1))
                 .pm2_5(random.nextFloat() * 100)
@@ -38,26 +46,45 @@ public class AirPollutionSensorStrategy extends AbstractSensorDataStrategy<AirPo
                 .build();
     }
 
+    @Override
+    protected void applyTimeOfDay(AirPollutionSensorData data, LocalTime timeOfDay, RandomGenerator random) {
+        // Exhaust builds up behind the traffic; ozone forms in sunlight
+        float exhaust = (float) (0.2 + 0.8 * DiurnalPattern.traffic(timeOfDay.minusHours(1)));
+        data.setPm2_5(data.getPm2_5() * exhaust);
+        data.setPm10(data.getPm10() * exhaust);
+        data.setCo(data.getCo() * exhaust);
+        data.setNo2(data.getNo2() * exhaust);
+        data.setOzone((float) (300 * DiurnalPattern.sunlight(timeOfDay) * (0.6 + 0.4 * random.nextDouble())));
+        data.setPollutionLevel(AirPollutionSensorData.PollutionLevel.values()[Math.min(4, (int) (data.getPm2_5() / 20))]);
+    }
+
     @Override
     protected void validateSensorSpecificData(AirPollutionSensorData data) {
         validator.validateAirPollutionData(data);
     }
 
     @Override
-    protected void checkSensorSpecificAlerts(AirPollutionSensorData data) {
-        settingsService.checkAndTriggerAlert("co", data.getCo());
-        settingsService.checkAndTriggerAlert("ozone", data.getOzone());
+    protected boolean checkSensorSpecificAlerts(AirPollutionSensorData data) {
+        // Non-short-circuit, so every metric is checked
+        return settingsService.checkAndTriggerAlert(Settings.SettingType.Air_Pollution, "co", data.getCo(), data.getLocation()) != null
+                | settingsService.checkAndTriggerAlert(Settings.SettingType.Air_Pollution, "ozone", data.getOzone(), data.getLocation()) != null;
+    }
+
+    @Override
+    protected void collectMetricReadings(AirPollutionSensorData data, List<MetricReading> readings) {
+        readings.add(new MetricReading("co", data.getCo(), data.getLocation()));
+        readings.add(new MetricReading("ozone", data.getOzone(), data.getLocation()));
     }
 
     @Override
-    protected void logSensorSpecificData(AirPollutionSensorData data) {
-        logger.info("PM2.5: {} μg/m³", String.format("%.2f", data.getPm2_5()));
-        logger.info("PM10: {} μg/m³", String.format("%.2f", data.getPm10()));
-        logger.info("CO: {} ppm", String.format("%.2f", data.getCo()));
-        logger.info("NO2: {}", String.format("%.2f", data.getNo2()));
-        logger.info("SO2: {}", String.format("%.2f", data.getSo2()));
-        logger.info("Ozone: {} ppb", String.format("%.2f", data.getOzone()));
-        logger.info("Pollution Level: {}", data.getPollutionLevel());
+    protected void addSensorSpecificFields(AirPollutionSensorData data, LoggingEventBuilder event) {
+        event.addKeyValue("pm2_5", data.getPm2_5());
+        event.addKeyValue("pm10", data.getPm10());
+        event.addKeyValue("co", data.getCo());
+        event.addKeyValue("no2", data.getNo2());
+        event.addKeyValue("so2", data.getSo2());
+        event.addKeyValue("ozone", data.getOzone());
+        event.addKeyValue("pollutionLevel", data.getPollutionLevel());
     }
 
 
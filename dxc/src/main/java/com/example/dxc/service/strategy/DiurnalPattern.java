@@ -0,0 +1,47 @@
+package com.example.dxc.service.strategy;
+
+import java.time.LocalTime;
+
+/**
+ * Daily curves the simulated sensors follow, as fractions between 0 and 1 of their peak.
+ */
+final class DiurnalPattern {
+
+    private DiurnalPattern() {
+    }
+
+    // A night-time floor, a daytime plateau and rush hours around 8:00 and 17:30
+    static double traffic(LocalTime time) {
+        double hour = hourOf(time);
+        double activity = 0.08
+                + 0.30 * rise(hour, 6.5, 2) * rise(21, hour, 2)
+                + 0.60 * peak(hour, 8, 1.2)
+                + 0.55 * peak(hour, 17.5, 1.5);
+        return Math.min(1, activity);
+    }
+
+    // 1 between dusk and dawn, 0 in full daylight, with a short twilight in between
+    static double darkness(LocalTime time) {
+        double hour = hourOf(time);
+        return 1 - rise(hour, 6.5, 3) * rise(19.5, hour, 3);
+    }
+
+    // Sunlight over the day, highest in the early afternoon
+    static double sunlight(LocalTime time) {
+        return (1 - darkness(time)) * (0.4 + 0.6 * peak(hourOf(time), 14, 3));
+    }
+
+    private static double hourOf(LocalTime time) {
+        return time.toSecondOfDay() / 3600.0;
+    }
+
+    // Smooth step from 0 to 1 as hour passes edge
+    private static double rise(double hour, double edge, double steepness) {
+        return 1 / (1 + Math.exp(-(hour - edge) * steepness));
+    }
+
+    private static double peak(double hour, double center, double width) {
+        double distance = (hour - center) / width;
+        return Math.exp(-distance * distance / 2);
+    }
+}
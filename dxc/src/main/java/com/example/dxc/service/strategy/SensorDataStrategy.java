@@ -1,15 +1,44 @@
 
 package com.example.dxc.service.strategy;
 
+import com.example.dxc.dto.SensorAggregateResponse;
+import com.example.dxc.model.Settings;
+import com.example.dxc.service.AggregateGrouping;
+import com.example.dxc.service.SensorCursor;
+import com.example.dxc.service.TimeBucket;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.random.RandomGenerator;
 
 public interface SensorDataStrategy<T> {
+    Settings.SettingType getSettingType();
     T generateData();
+    T simulateData(String location, LocalDateTime timestamp, LocalTime timeOfDay, RandomGenerator random);
     void validate(T data);
     T save(T data);
+    List<T> saveAll(List<T> data);
+    Set<UUID> findExistingIds(Collection<UUID> ids);
     void checkAlerts(T savedData);
+    void checkAlerts(List<T> savedData);
+    Set<String> getSortableFields();
     Page<T> getData(String location, Enum<?> status, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    Slice<T> getSlice(String location, Enum<?> status, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    long count(String location, Enum<?> status, LocalDateTime start, LocalDateTime end);
+    List<T> getDataAfter(String location, Enum<?> status, LocalDateTime start, LocalDateTime end,
+                         SensorCursor after, int limit, boolean descending);
+    List<T> getLatestPerLocation();
+    Set<String> getMetricNames();
+    Enum<?> parseStatus(String status);
+    List<SensorAggregateResponse.Bucket> aggregate(String metric, TimeBucket bucket, AggregateGrouping groupBy,
+                                                   String location, Enum<?> status, LocalDateTime start, LocalDateTime end,
+                                                   int limit);
+    boolean matches(T data, String location, Enum<?> status, LocalDateTime start, LocalDateTime end);
     void log(T data, String header);
 }
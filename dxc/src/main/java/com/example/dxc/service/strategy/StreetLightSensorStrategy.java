@@ -1,21 +1,24 @@
 package com.example.dxc.service.strategy;
 
+import com.example.dxc.model.Settings;
 import com.example.dxc.model.StreetLightSensorData;
 import com.example.dxc.repository.StreetLightSensorDataRepository;
+import com.example.dxc.service.MetricReading;
 import com.example.dxc.service.SensorDataValidator;
 import com.example.dxc.service.SettingsService;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.UUID;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.random.RandomGenerator;
+import org.slf4j.spi.LoggingEventBuilder;
 
 
 @Service
 public class StreetLightSensorStrategy extends AbstractSensorDataStrategy<StreetLightSensorData> {
 
-    private static final Logger logger = LoggerFactory.getLogger(StreetLightSensorStrategy.class);
 
     public StreetLightSensorStrategy(
             StreetLightSensorDataRepository repository,
@@ -25,7 +28,12 @@ public class StreetLightSensorStrategy extends AbstractSensorDataStrategy<Street
     }
 
     @Override
-    protected StreetLightSensorData createSensorSpecificData() {
+    public Settings.SettingType getSettingType() {
+        return Settings.SettingType.Street_Light;
+    }
+
+    @Override
+    protected StreetLightSensorData createSensorSpecificData(RandomGenerator random) {
         return StreetLightSensorData.builder()
                 .location("LightPole-" + random.nextInt(100))
                 .brightnessLevel(random.nextInt(101))
@@ -36,22 +44,39 @@ public class StreetLightSensorStrategy extends AbstractSensorDataStrategy<Street
                 .build();
     }
 
+    @Override
+    protected void applyTimeOfDay(StreetLightSensorData data, LocalTime timeOfDay, RandomGenerator random) {
+        // On after dusk, with each pole switching at its own moment through twilight
+        boolean on = random.nextDouble() < DiurnalPattern.darkness(timeOfDay);
+        int brightness = on ? 60 + random.nextInt(41) : random.nextInt(6);
+        data.setStatus(on ? StreetLightSensorData.LightStatus.ON : StreetLightSensorData.LightStatus.OFF);
+        data.setBrightnessLevel(brightness);
+        data.setPowerConsumption((float) Math.clamp(brightness * 45 + random.nextGaussian() * 100, 0, 5000));
+    }
+
     @Override
     protected void validateSensorSpecificData(StreetLightSensorData data) {
         validator.validateStreetLightData(data);
     }
 
     @Override
-    protected void checkSensorSpecificAlerts(StreetLightSensorData data) {
-        settingsService.checkAndTriggerAlert("brightnessLevel", data.getBrightnessLevel());
-        settingsService.checkAndTriggerAlert("powerConsumption", data.getPowerConsumption());
+    protected boolean checkSensorSpecificAlerts(StreetLightSensorData data) {
+        // Non-short-circuit, so every metric is checked
+        return settingsService.checkAndTriggerAlert(Settings.SettingType.Street_Light, "brightnessLevel", data.getBrightnessLevel(), data.getLocation()) != null
+                | settingsService.checkAndTriggerAlert(Settings.SettingType.Street_Light, "powerConsumption", data.getPowerConsumption(), data.getLocation()) != null;
+    }
+
+    @Override
+    protected void collectMetricReadings(StreetLightSensorData data, List<MetricReading> readings) {
+        readings.add(new MetricReading("brightnessLevel", data.getBrightnessLevel(), data.getLocation()));
+        readings.add(new MetricReading("powerConsumption", data.getPowerConsumption(), data.getLocation()));
     }
 
     @Override
-    protected void logSensorSpecificData(StreetLightSensorData data) {
-        logger.info("Brightness: {}%", data.getBrightnessLevel());
-        logger.info("Power: {} watts", String.format("%.2f", data.getPowerConsumption()));
-        logger.info("Status: {}", data.getStatus());
+    protected void addSensorSpecificFields(StreetLightSensorData data, LoggingEventBuilder event) {
+        event.addKeyValue("brightnessLevel", data.getBrightnessLevel());
+        event.addKeyValue("powerConsumption", data.getPowerConsumption());
+        event.addKeyValue("status", data.getStatus());
     }
 
 
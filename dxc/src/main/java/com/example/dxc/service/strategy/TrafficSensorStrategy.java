@@ -1,20 +1,23 @@
 package com.example.dxc.service.strategy;
 
+import com.example.dxc.model.Settings;
 import com.example.dxc.model.TrafficSensorData;
 import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.MetricReading;
 import com.example.dxc.service.SensorDataValidator;
 import com.example.dxc.service.SettingsService;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.UUID;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.random.RandomGenerator;
+import org.slf4j.spi.LoggingEventBuilder;
 
 
 @Service
 public class TrafficSensorStrategy extends AbstractSensorDataStrategy<TrafficSensorData> {
-    private static final Logger logger = LoggerFactory.getLogger(TrafficSensorStrategy.class);
 
 
     public TrafficSensorStrategy(
@@ -25,7 +28,12 @@ public class TrafficSensorStrategy extends AbstractSensorDataStrategy<TrafficSen
     }
 
     @Override
-    protected TrafficSensorData createSensorSpecificData() {
+    public Settings.SettingType getSettingType() {
+        return Settings.SettingType.Traffic;
+    }
+
+    @Override
+    protected TrafficSensorData createSensorSpecificData(RandomGenerator random) {
         return TrafficSensorData.builder()
                 .location("Street " + (random.nextInt(100) + 1))
                 .trafficDensity(random.nextInt(501))
@@ -34,22 +42,38 @@ public class TrafficSensorStrategy extends AbstractSensorDataStrategy<TrafficSen
                 .build();
     }
 
+    @Override
+    protected void applyTimeOfDay(TrafficSensorData data, LocalTime timeOfDay, RandomGenerator random) {
+        // Denser and slower in the rush hours
+        double activity = DiurnalPattern.traffic(timeOfDay);
+        data.setTrafficDensity(Math.clamp(Math.round(activity * 450 + random.nextGaussian() * 25), 0, 500));
+        data.setAvgSpeed((float) Math.clamp(110 - activity * 85 + random.nextGaussian() * 8, 0, 120));
+        data.setCongestionLevel(TrafficSensorData.CongestionLevel.values()[Math.min(3, data.getTrafficDensity() / 125)]);
+    }
+
     @Override
     protected void validateSensorSpecificData(TrafficSensorData data) {
         validator.validateTrafficData(data);
     }
 
     @Override
-    protected void checkSensorSpecificAlerts(TrafficSensorData data) {
-        settingsService.checkAndTriggerAlert("trafficDensity", data.getTrafficDensity());
-        settingsService.checkAndTriggerAlert("avgSpeed", data.getAvgSpeed());
+    protected boolean checkSensorSpecificAlerts(TrafficSensorData data) {
+        // Non-short-circuit, so every metric is checked
+        return settingsService.checkAndTriggerAlert(Settings.SettingType.Traffic, "trafficDensity", data.getTrafficDensity(), data.getLocation()) != null
+                | settingsService.checkAndTriggerAlert(Settings.SettingType.Traffic, "avgSpeed", data.getAvgSpeed(), data.getLocation()) != null;
+    }
+
+    @Override
+    protected void collectMetricReadings(TrafficSensorData data, List<MetricReading> readings) {
+        readings.add(new MetricReading("trafficDensity", data.getTrafficDensity(), data.getLocation()));
+        readings.add(new MetricReading("avgSpeed", data.getAvgSpeed(), data.getLocation()));
     }
 
     @Override
-    protected void logSensorSpecificData(TrafficSensorData data) {
-        logger.info("Traffic Density: {}", data.getTrafficDensity());
-        logger.info("Avg Speed: {:.2f}", data.getAvgSpeed());
-        logger.info("Congestion Level: {}", data.getCongestionLevel());
+    protected void addSensorSpecificFields(TrafficSensorData data, LoggingEventBuilder event) {
+        event.addKeyValue("trafficDensity", data.getTrafficDensity());
+        event.addKeyValue("avgSpeed", data.getAvgSpeed());
+        event.addKeyValue("congestionLevel", data.getCongestionLevel());
     }
 
 
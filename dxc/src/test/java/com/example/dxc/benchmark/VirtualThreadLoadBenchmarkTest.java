@@ -0,0 +1,286 @@
+package com.example.dxc.benchmark;
+
+import com.example.dxc.DxcApplication;
+import com.example.dxc.scheduler.SensorDataScheduler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.mail.internet.MimeMessage;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput, latency and carrier pinning of the application's own request paths on Tomcat's
+ * platform worker pool against the virtual-threads profile, at a concurrency well above the pool size.
+ * <p>
+ * Each run starts the whole application on an in-memory database, with a mail sender that spends
+ * {@code SMTP_MILLIS} on every message instead of talking to a server. Most requests POST a traffic
+ * reading from a new location above the configured threshold: it is stored, opens an alert and has
+ * {@code EmailAlertObserver} mail the subscribed user. The rest read the latest page back. The
+ * {@link SensorDataScheduler} job runs throughout. JFR pinning events are recorded from the warm-up
+ * until the last alert e-mail has gone out, and must stay at zero in the virtual run.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final int CONCURRENCY = 2000;
+    private static final int REQUESTS = 10_000;
+    // Every n-th request reads instead of posting a reading
+    private static final int READ_EVERY = 5;
+    private static final long SMTP_MILLIS = 100;
+    private static final String PASSWORD = "benchmark-password";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compareVirtualAndPlatformThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%-9s %10s %8s %8s %8s %7s %7s%n", "threads", "req/s", "p50 ms", "p99 ms", "max ms", "mails", "pinned");
+        System.out.println(platform.format("platform"));
+        System.out.println(virtual.format("virtual"));
+
+        assertEquals(0, platform.failures() + virtual.failures());
+        // Generated readings may open a few alerts of their own on top of the posted ones
+        assertTrue(platform.mails() >= platform.expectedMails(), platform.mails() + " mails");
+        assertTrue(virtual.mails() >= virtual.expectedMails(), virtual.mails() + " mails");
+        assertTrue(virtual.pinnedAt().isEmpty(), "pinned at " + virtual.pinnedAt());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        SlowMailSender mailSender = new SlowMailSender();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DxcApplication.class)
+                .initializers(applicationContext -> ((GenericApplicationContext) applicationContext)
+                        .registerBean(JavaMailSender.class, () -> mailSender))
+                // Arguments rather than default properties, so they win over any local application.properties
+                .run("--server.port=0",
+                        "--spring.profiles.active=" + (virtualThreads ? "virtual-threads" : "default"),
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER,VALUE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.hikari.maximum-pool-size=20",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--jwt.secretKey=" + randomKey(),
+                        "--jwt.expirationMs=3600000",
+                        "--spring.mail.username=benchmark@example.com",
+                        "--spring.mail.password=",
+                        "--spring.security.oauth2.client.registration.google.client-id=benchmark",
+                        "--spring.security.oauth2.client.registration.google.client-secret=benchmark",
+                        "--rate-limit.enabled=false",
+                        // Room for one mail per alert, so none is dropped and the run can wait for all of them
+                        "--executors.alerts.core-size=100",
+                        "--executors.alerts.max-size=100",
+                        "--executors.alerts.queue-capacity=" + (2 * REQUESTS),
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+             RecordingStream pinning = new RecordingStream();
+             ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(clientThreads)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build()) {
+            String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            String token = signUp(client, base);
+
+            Map<String, LongAdder> pinnedAt = new ConcurrentHashMap<>();
+            pinning.enable("jdk.VirtualThreadPinned").withStackTrace();
+            pinning.onEvent("jdk.VirtualThreadPinned", event ->
+                    pinnedAt.computeIfAbsent(site(event.getStackTrace()), site -> new LongAdder()).increment());
+            pinning.startAsync();
+
+            // Sensor generation as the scheduler runs it, far more often than its minute
+            SensorDataScheduler scheduler = context.getBean(SensorDataScheduler.class);
+            ScheduledExecutorService generation = Executors.newSingleThreadScheduledExecutor();
+            generation.scheduleAtFixedRate(scheduler::generateAllSensorData, 0, 100, TimeUnit.MILLISECONDS);
+
+            AtomicInteger location = new AtomicInteger();
+            IntFunction<HttpRequest> requests = i -> i % READ_EVERY == 0
+                    ? HttpRequest.newBuilder(URI.create(base + "/api/sensors/traffic?size=20"))
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofMinutes(2))
+                            .build()
+                    : post(base + "/api/sensors/traffic", token, """
+                            {"location": "Benchmark %d", "trafficDensity": 400, "avgSpeed": 10, "congestionLevel": "Severe"}
+                            """.formatted(location.incrementAndGet()));
+            // Warm up the connector, the pool and the JIT before measuring
+            send(client, requests, CONCURRENCY / 4, CONCURRENCY / 4);
+            Result result = send(client, requests, REQUESTS, CONCURRENCY);
+            generation.shutdownNow();
+
+            // Every new location opened one alert for the single subscriber
+            int expectedMails = location.get();
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+            while (mailSender.alertMails.sum() < expectedMails && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            return result.withMails(expectedMails, mailSender.alertMails.intValue(), Map.copyOf(pinnedAt));
+        }
+    }
+
+    /**
+     * Registers and signs in a user with a threshold every posted reading breaches and a subscription
+     * to all traffic alerts.
+     */
+    private String signUp(HttpClient client, String base) throws Exception {
+        expectOk(client, post(base + "/api/auth/signup", null, """
+                {"firstName": "Load", "lastName": "Test", "email": "load@example.com", "password": "%s"}
+                """.formatted(PASSWORD)));
+        String signIn = expectOk(client, post(base + "/api/auth/signin", null, """
+                {"email": "load@example.com", "password": "%s"}
+                """.formatted(PASSWORD)));
+        String token = objectMapper.readTree(signIn).get("token").asText();
+        expectOk(client, post(base + "/api/settings", token, """
+                {"type": "Traffic", "metric": "trafficDensity", "thresholdValue": 300, "alertType": "Above"}
+                """));
+        expectOk(client, post(base + "/api/alerts/subscriptions", token, """
+                {"type": "Traffic"}
+                """));
+        return token;
+    }
+
+    private static HttpRequest post(String uri, String token, String json) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    private static String expectOk(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), request.uri() + ": " + response.body());
+        return response.body();
+    }
+
+    // The innermost application frame, which is where a pin can be fixed
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("com.example.dxc.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        RecordedFrame top = stackTrace.getFrames().get(0);
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+
+    private static String randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    private static Result send(HttpClient client, IntFunction<HttpRequest> requests, int count, int concurrency) {
+        Semaphore inFlight = new Semaphore(concurrency);
+        long[] latencies = new long[count];
+        AtomicInteger failures = new AtomicInteger();
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[count];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            inFlight.acquireUninterruptibly();
+            int index = i;
+            long sent = System.nanoTime();
+            responses[i] = client.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(responses).exceptionally(error -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(count * 1e9 / elapsed, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e6, failures.get(), 0, 0, Map.of());
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))] / 1e6;
+    }
+
+    private record Result(double throughput, double p50, double p99, double max, int failures,
+                          int expectedMails, int mails, Map<String, LongAdder> pinnedAt) {
+
+        Result withMails(int expectedMails, int mails, Map<String, LongAdder> pinnedAt) {
+            return new Result(throughput, p50, p99, max, failures, expectedMails, mails, pinnedAt);
+        }
+
+        String format(String label) {
+            long pinned = pinnedAt.values().stream().mapToLong(LongAdder::sum).sum();
+            return String.format("%-9s %10.0f %8.1f %8.1f %8.1f %7d %7d", label, throughput, p50, p99, max, mails, pinned);
+        }
+    }
+
+    /**
+     * Stands in for the SMTP server: every message takes {@code SMTP_MILLIS}, and alert mails are counted.
+     */
+    private static final class SlowMailSender extends JavaMailSenderImpl {
+
+        private final LongAdder alertMails = new LongAdder();
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            try {
+                Thread.sleep(SMTP_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (originalMessages == null) {
+                return;
+            }
+            for (Object message : originalMessages) {
+                if (message instanceof SimpleMailMessage mail && mail.getSubject() != null
+                        && mail.getSubject().contains("Alert Triggered")) {
+                    alertMails.increment();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.dxc.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<BulkheadExecutor> executors = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executors.forEach(BulkheadExecutor::shutdown);
+    }
+
+    @Test
+    void testSaturatedExecutorDoesNotDelayOtherWorkloads() throws Exception {
+        BulkheadExecutor alerts = executor("alerts", new ExecutorProperties.Pool(2, 2, 10, ExecutorProperties.Rejection.DISCARD));
+        BulkheadExecutor account = executor("account", new ExecutorProperties.Pool(1, 1, 10, ExecutorProperties.Rejection.CALLER_RUNS));
+
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            alerts.execute(() -> {
+                started.countDown();
+                awaitRelease();
+                ran.incrementAndGet();
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        BulkheadExecutor.Stats stats = alerts.stats();
+        assertEquals("alerts", stats.name());
+        assertEquals(2, stats.active());
+        assertEquals(10, stats.queued());
+        assertEquals(10, stats.queueCapacity());
+        assertEquals(88, stats.rejected());
+
+        // The account workload has its own threads and queue
+        Future<String> welcome = account.submit(() -> Thread.currentThread().getName());
+        assertTrue(welcome.get(5, TimeUnit.SECONDS).startsWith("account-"));
+
+        release.countDown();
+        alerts.shutdown();
+        assertTrue(alerts.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(12, ran.get());
+        assertEquals(12, alerts.stats().completed());
+    }
+
+    @Test
+    void testRejectionPolicies() throws Exception {
+        BulkheadExecutor callerRuns = executor("ingest", new ExecutorProperties.Pool(1, 1, 0, ExecutorProperties.Rejection.CALLER_RUNS));
+        BulkheadExecutor abort = executor("strict", new ExecutorProperties.Pool(1, 1, 0, ExecutorProperties.Rejection.ABORT));
+        block(callerRuns);
+        block(abort);
+
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        callerRuns.execute(() -> ranOn.set(Thread.currentThread()));
+        assertSame(Thread.currentThread(), ranOn.get());
+        assertEquals(1, callerRuns.getRejectedCount());
+
+        assertThrows(TaskRejectedException.class, () -> abort.execute(() -> { }));
+        assertEquals(1, abort.getRejectedCount());
+    }
+
+    @Test
+    void testVirtualThreadsKeepTheBound() throws Exception {
+        BulkheadExecutor maintenance = new BulkheadExecutor("maintenance",
+                new ExecutorProperties.Pool(1, 1, 1, ExecutorProperties.Rejection.DISCARD), true);
+        maintenance.initialize();
+        executors.add(maintenance);
+
+        assertTrue(maintenance.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+
+        CountDownLatch started = block(maintenance);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        maintenance.execute(() -> { });
+        maintenance.execute(() -> { });
+
+        assertEquals(1, maintenance.stats().active());
+        assertEquals(1, maintenance.stats().queued());
+        assertEquals(1, maintenance.getRejectedCount());
+    }
+
+    private BulkheadExecutor executor(String name, ExecutorProperties.Pool pool) {
+        BulkheadExecutor executor = new BulkheadExecutor(name, pool, false);
+        executor.initialize();
+        executors.add(executor);
+        return executor;
+    }
+
+    private CountDownLatch block(BulkheadExecutor executor) {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        return started;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.dxc.jwt;
+
+import com.example.dxc.model.User;
+import com.example.dxc.model.UserDetailsImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AuthTokenFilterTest {
+
+    static final String SECRET = "c21hcnQtY2l0eS1zZWNyZXQta2V5LWZvci10ZXN0aW5nLW9ubHktMzItYnl0ZXM=";
+    private static final String EMAIL = "jane@example.com";
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private JwtConfig config;
+    private JwtUtils jwtUtils;
+    private UserDetailsService userDetailsService;
+    private AuthenticationCache cache;
+    private AuthTokenFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        config = new JwtConfig();
+        config.setSecretKey(SECRET);
+        config.setExpirationMs(3_600_000);
+        config.setCacheTtl(Duration.ofSeconds(60));
+        jwtUtils = spy(new JwtUtils(config));
+        userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(anyString()))
+                .thenAnswer(invocation -> new UserDetailsImpl(User.builder().email(invocation.getArgument(0)).build()));
+        cache = new AuthenticationCache(config, now::get);
+        filter = new AuthTokenFilter(jwtUtils, userDetailsService, cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testTokenIsParsedAndPrincipalLoadedOncePerTtl() throws Exception {
+        String token = token(EMAIL, 3_600_000);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(EMAIL, authenticate(token).getName());
+        }
+        verify(jwtUtils, times(1)).parseValidClaims(token);
+        verify(userDetailsService, times(1)).loadUserByUsername(EMAIL);
+
+        now.addAndGet(61_000);
+        assertEquals(EMAIL, authenticate(token).getName());
+        verify(jwtUtils, times(2)).parseValidClaims(token);
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void testProfileChangesEvictThePrincipal() throws Exception {
+        String token = token(EMAIL, 3_600_000);
+        authenticate(token);
+
+        cache.invalidate(EMAIL);
+        authenticate(token);
+
+        verify(jwtUtils, times(1)).parseValidClaims(token);
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void testPrincipalLoadedAcrossAnInvalidationIsNotCached() throws Exception {
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenAnswer(invocation -> {
+            // The profile changes while the old row is being read
+            cache.invalidate(EMAIL);
+            return new UserDetailsImpl(User.builder().email(EMAIL).build());
+        });
+        String token = token(EMAIL, 3_600_000);
+
+        authenticate(token);
+        authenticate(token);
+
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void testTokensAreNotReusedPastTheirOwnExpiry() {
+        cache.putSubject("short-lived", EMAIL, new Date(now.get() + 10_000));
+        assertEquals(EMAIL, cache.getSubject("short-lived"));
+
+        now.addAndGet(10_000);
+        assertNull(cache.getSubject("short-lived"));
+    }
+
+    @Test
+    void testInvalidTokensAreRejectedAndNotCached() throws Exception {
+        String forged = Jwts.builder()
+                .setSubject(EMAIL)
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(new byte[32]), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertNull(authenticate(forged));
+        assertNull(authenticate("not-a-token"));
+        assertNull(authenticate(token(EMAIL, -1_000)));
+        assertEquals(0, cache.size());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testCacheStaysWithinItsBound() throws Exception {
+        config.setCacheMaxEntries(3);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("user" + i + "@example.com", authenticate(token("user" + i + "@example.com", 3_600_000)).getName());
+        }
+        assertEquals(6, cache.size());
+
+        // Expired entries make room again
+        now.addAndGet(61_000);
+        authenticate(token("late@example.com", 3_600_000));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testZeroTtlDisablesCaching() throws Exception {
+        config.setCacheTtl(Duration.ZERO);
+        String token = token(EMAIL, 3_600_000);
+
+        authenticate(token);
+        authenticate(token);
+
+        verify(jwtUtils, times(2)).parseValidClaims(token);
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testEventStreamsTakeAStreamTicketButNotTheJwt() throws Exception {
+        String ticket = jwtUtils.generateStreamTicket(EMAIL);
+
+        assertEquals(EMAIL, openStream("/api/alerts/stream", "ticket", ticket).getName());
+        assertEquals(EMAIL, openStream("/api/sensors/traffic/live", "ticket", ticket).getName());
+        // The long-lived JWT is never accepted in the URL, and a ticket opens nothing but streams
+        assertNull(openStream("/api/alerts/stream", "token", token(EMAIL, 3_600_000)));
+        assertNull(openStream("/api/alerts/stream", "ticket", token(EMAIL, 3_600_000)));
+        assertNull(openStream("/api/sensors/traffic", "ticket", ticket));
+        assertNull(authenticate(ticket));
+        assertNull(cache.getSubject(ticket));
+    }
+
+    @Test
+    void testExpiredStreamTicketIsRejected() throws Exception {
+        config.setStreamTicketTtl(Duration.ofMillis(-1_000));
+
+        assertNull(openStream("/api/alerts/stream", "ticket", jwtUtils.generateStreamTicket(EMAIL)));
+    }
+
+    private Authentication openStream(String path, String parameter, String value) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setParameter(parameter, value);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sensors/traffic");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    static String token(String subject, long validForMs) {
+        return Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + validForMs))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -48,6 +48,15 @@ class UserDetailsImplTest {
         assertEquals("ROLE_USER", authorities.iterator().next().getAuthority());
     }
 
+    @Test
+    void testRoleIsGrantedAlongsideUser() {
+        user.setRole("ADMIN");
+
+        assertEquals(2, userDetails.getAuthorities().size());
+        assertTrue(userDetails.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN")));
+    }
+
     @Test
     void testIsAccountNonExpired() {
         assertTrue(userDetails.isAccountNonExpired());
@@ -0,0 +1,148 @@
+package com.example.dxc.scheduler;
+
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.config.SchedulingProperties;
+import com.example.dxc.model.SchedulerLease;
+import com.example.dxc.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({SchedulerLeaseRepository.class, IngestProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ScheduledJobCoordinatorTest {
+
+    private static final Duration TTL = Duration.ofMillis(600);
+    private static final List<String> SHARDS = List.of("Traffic", "Air_Pollution", "Street_Light");
+
+    @Autowired
+    private SchedulerLeaseRepository leases;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM scheduler_leases");
+    }
+
+    @Test
+    void testOneLeaderAndFailoverOnceItsLeaseExpires() throws InterruptedException {
+        ScheduledJobCoordinator first = coordinator("pod-a", SchedulingProperties.Mode.LEADER);
+        ScheduledJobCoordinator second = coordinator("pod-b", SchedulingProperties.Mode.LEADER);
+        first.start();
+        second.start();
+
+        assertTrue(first.owns("Traffic"));
+        assertFalse(second.owns("Traffic"));
+        second.renew();
+        assertFalse(second.owns("Traffic"));
+
+        // pod-a dies without releasing anything: its lease lapses, locally first
+        Thread.sleep(TTL.toMillis() + 100);
+        assertFalse(first.owns("Traffic"));
+        second.renew();
+        assertTrue(second.owns("Traffic"));
+
+        SchedulerLease leader = leases.findAll().get(0);
+        assertEquals("pod-b", leader.getOwner());
+        assertEquals(2, leader.getToken());
+
+        // The old leader comes back and finds the lease taken
+        first.renew();
+        assertFalse(first.owns("Traffic"));
+    }
+
+    @Test
+    void testCleanShutdownHandsLeadershipOverAtOnce() {
+        ScheduledJobCoordinator first = coordinator("pod-a", SchedulingProperties.Mode.LEADER);
+        ScheduledJobCoordinator second = coordinator("pod-b", SchedulingProperties.Mode.LEADER);
+        first.start();
+        second.start();
+
+        first.stop();
+        second.renew();
+
+        assertTrue(second.owns("Street_Light"));
+        assertFalse(first.owns("Street_Light"));
+    }
+
+    @Test
+    void testShardsAreSpreadOverLiveReplicasAndTakenOverWhenOneDies() throws InterruptedException {
+        ScheduledJobCoordinator first = coordinator("pod-a", SchedulingProperties.Mode.SHARDED);
+        ScheduledJobCoordinator second = coordinator("pod-b", SchedulingProperties.Mode.SHARDED);
+
+        first.start();
+        assertEquals(3, owned(first));
+
+        // A second replica joins: pod-a hands one shard back and pod-b picks it up
+        second.start();
+        first.renew();
+        second.renew();
+        assertEquals(2, owned(first));
+        assertEquals(1, owned(second));
+        for (String shard : SHARDS) {
+            assertTrue(first.owns(shard) ^ second.owns(shard), shard);
+        }
+
+        // pod-a dies; once its membership and shard leases expire pod-b runs everything
+        Thread.sleep(TTL.toMillis() + 100);
+        second.renew();
+        assertEquals(3, owned(second));
+    }
+
+    @Test
+    void testLeaseIsRenewedOnItsOwnThread() throws InterruptedException {
+        ScheduledJobCoordinator first = coordinator("pod-a", SchedulingProperties.Mode.LEADER, Duration.ofMillis(100));
+        ScheduledJobCoordinator second = coordinator("pod-b", SchedulingProperties.Mode.LEADER, Duration.ofMillis(100));
+        first.start();
+        second.start();
+
+        // Several lease lifetimes without a manual renew: pod-a keeps the lease throughout
+        Thread.sleep(3 * TTL.toMillis());
+        assertTrue(first.owns("Traffic"));
+        assertFalse(second.owns("Traffic"));
+
+        first.stop();
+        second.stop();
+    }
+
+    @Test
+    void testCoordinationOffRunsEverythingWithoutTouchingTheDatabase() {
+        ScheduledJobCoordinator coordinator = coordinator("pod-a", SchedulingProperties.Mode.NONE);
+        coordinator.start();
+
+        assertTrue(coordinator.owns("Traffic"));
+        assertTrue(leases.findAll().isEmpty());
+    }
+
+    private ScheduledJobCoordinator coordinator(String nodeId, SchedulingProperties.Mode mode) {
+        // Renewals are driven by the tests
+        return coordinator(nodeId, mode, Duration.ofHours(1));
+    }
+
+    private ScheduledJobCoordinator coordinator(String nodeId, SchedulingProperties.Mode mode, Duration renewInterval) {
+        SchedulingProperties properties = new SchedulingProperties();
+        properties.setMode(mode);
+        properties.setNodeId(nodeId);
+        properties.setLeaseTtl(TTL);
+        properties.setRenewInterval(renewInterval);
+        properties.setShards(SHARDS);
+        return new ScheduledJobCoordinator(leases, properties);
+    }
+
+    private static long owned(ScheduledJobCoordinator coordinator) {
+        return SHARDS.stream().filter(coordinator::owns).count();
+    }
+}
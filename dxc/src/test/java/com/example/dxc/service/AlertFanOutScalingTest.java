@@ -0,0 +1,218 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.AlertProperties;
+import com.example.dxc.dto.CompoundRuleRequest;
+import com.example.dxc.model.Alert;
+import com.example.dxc.model.AlertSubscription;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.model.User;
+import com.example.dxc.repository.AlertRepository;
+import com.example.dxc.repository.AlertSubscriptionRepository;
+import com.example.dxc.repository.CompoundAlertRuleRepository;
+import com.example.dxc.repository.SettingsRepository;
+import com.example.dxc.service.observer.AlertObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Fans alerts out to 10k users with a mix of narrow and wildcard subscriptions and checks that
+ * each alert reaches exactly the users who asked for it.
+ */
+class AlertFanOutScalingTest {
+
+    private static final int USERS = 10_000;
+    private static final int LOCATIONS = 50;
+    private static final int ALERTS = 2_000;
+    private static final String[] TRAFFIC_METRICS = {"trafficDensity", "avgSpeed"};
+
+    private final List<AlertSubscription> subscriptions = new ArrayList<>();
+    private final AtomicLong notifications = new AtomicLong();
+    private final CompoundAlertRuleRepository compoundRuleRepository = mock(CompoundAlertRuleRepository.class);
+    private final CompoundRuleIndex compoundRuleIndex = mock(CompoundRuleIndex.class);
+    private AlertRepository alertRepository;
+    private SettingsServiceImpl settingsService;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        for (long id = 1; id <= USERS; id++) {
+            User user = User.builder().id(id).email("user" + id + "@example.com").build();
+            int kind = random.nextInt(100);
+            // 80% follow one metric at one location, 15% one location, 4% a whole type, 1% other types only
+            String metric = kind < 80 ? TRAFFIC_METRICS[random.nextInt(2)] : null;
+            String location = kind < 95 ? "Zone-" + random.nextInt(LOCATIONS) : null;
+            Settings.SettingType type = kind < 99 ? Settings.SettingType.Traffic : Settings.SettingType.Street_Light;
+            subscriptions.add(subscription(user, type, metric, location));
+        }
+        // A user with two overlapping subscriptions must still be notified once
+        subscriptions.add(subscription(subscriptions.get(0).getUser(), Settings.SettingType.Traffic, null, null));
+
+        AlertSubscriptionRepository subscriptionRepository = mock(AlertSubscriptionRepository.class);
+        when(subscriptionRepository.findAllWithUser()).thenReturn(subscriptions);
+        AlertSubscriptionIndex subscriptionIndex = new AlertSubscriptionIndex(subscriptionRepository);
+        subscriptionIndex.load();
+
+        SettingsRepository settingsRepository = mock(SettingsRepository.class);
+        when(settingsRepository.findAll()).thenReturn(List.of(
+                threshold("trafficDensity", 100f),
+                threshold("avgSpeed", 30f)));
+        SettingsRuleIndex ruleIndex = new SettingsRuleIndex(settingsRepository);
+        ruleIndex.load();
+
+        alertRepository = mock(AlertRepository.class);
+        when(alertRepository.persistAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        AlertObserver countingObserver = (alert, user) -> notifications.incrementAndGet();
+
+        // No cooldown, so every breach that follows a recovery raises a new alert
+        AlertProperties alertProperties = new AlertProperties();
+        alertProperties.setCooldown(Duration.ZERO);
+        AlertStateTracker alertStates = new AlertStateTracker(alertRepository, alertProperties);
+
+        settingsService = new SettingsServiceImpl(settingsRepository, alertRepository, countingObserver,
+                subscriptionIndex, ruleIndex, alertStates, compoundRuleRepository,
+                compoundRuleIndex, mock(AlertStreamBroadcaster.class));
+    }
+
+    @Test
+    void testEachAlertReachesOnlyItsSubscribers() {
+        Random random = new Random(7);
+        List<MetricReading> readings = new ArrayList<>(ALERTS * 2);
+        long expected = 0;
+        for (int i = 0; i < ALERTS; i++) {
+            String metric = TRAFFIC_METRICS[random.nextInt(2)];
+            String location = "Zone-" + random.nextInt(LOCATIONS);
+            MetricReading breach = new MetricReading(metric, 500f, location);
+            readings.add(breach);
+            // Recover right away so the next breach at this location opens a fresh alert
+            readings.add(new MetricReading(metric, 0f, location));
+            expected += bruteForceRecipients(breach);
+        }
+
+        long start = System.nanoTime();
+        List<Alert> alerts = settingsService.checkAndTriggerAlerts(Settings.SettingType.Traffic, readings);
+        long elapsedNanos = System.nanoTime() - start;
+
+        assertEquals(ALERTS, alerts.size());
+        assertEquals(expected, notifications.get());
+        // Without the index every alert would be sent to all 10k users
+        assertTrue(notifications.get() < (long) ALERTS * USERS / 10);
+        System.out.printf("Fan-out: %d alerts -> %d notifications for %d users in %.1f ms (%.2f us/alert)%n",
+                ALERTS, notifications.get(), USERS, elapsedNanos / 1e6, elapsedNanos / 1e3 / ALERTS);
+    }
+
+    @Test
+    void testOnlyTheReadingThatOpensAnAlertReportsIt() {
+        when(alertRepository.updateState(any())).thenReturn(1);
+        Alert opened = settingsService.checkAndTriggerAlert(Settings.SettingType.Traffic, "trafficDensity", 500f, "Zone-1");
+        Alert stillCongested = settingsService.checkAndTriggerAlert(Settings.SettingType.Traffic, "trafficDensity", 520f, "Zone-1");
+        List<Alert> batch = settingsService.checkAndTriggerAlerts(Settings.SettingType.Traffic,
+                List.of(new MetricReading("trafficDensity", 540f, "Zone-1")));
+
+        assertNotNull(opened);
+        // Further readings on the open alert are not reported, alone or in a batch
+        assertNull(stillCongested);
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    void testCompoundAlertTransitionsShareOneMetricTag() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        settingsService.setMeterRegistry(registry);
+        when(compoundRuleIndex.rulesFor(Settings.SettingType.Traffic)).thenReturn(List.of(
+                CompoundRuleIndex.compile(Settings.SettingType.Traffic, "trafficDensity > 400 and avgSpeed < 10"),
+                CompoundRuleIndex.compile(Settings.SettingType.Traffic, "trafficDensity > 300 and avgSpeed < 20")));
+
+        List<Alert> alerts = settingsService.checkCompoundRules(Settings.SettingType.Traffic, List.of(traffic(450, 5)));
+
+        assertEquals(2, alerts.size());
+        assertEquals(2, registry.get("alerts.transitions").tag("metric", "compound").counter().count());
+        assertEquals(1, registry.find("alerts.transitions").counters().size());
+    }
+
+    @Test
+    void testCompoundAlertResolvesWhenAnyClauseRecovers() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        settingsService.setMeterRegistry(registry);
+        when(compoundRuleIndex.rulesFor(Settings.SettingType.Traffic)).thenReturn(List.of(
+                CompoundRuleIndex.compile(Settings.SettingType.Traffic, "trafficDensity > 300 and avgSpeed < 20")));
+
+        // Speed recovers while the density stays above its threshold
+        List<Alert> first = settingsService.checkCompoundRules(Settings.SettingType.Traffic,
+                List.of(traffic(350, 10), traffic(350, 40)));
+        List<Alert> second = settingsService.checkCompoundRules(Settings.SettingType.Traffic, List.of(traffic(350, 10)));
+
+        assertEquals(1, first.size());
+        assertEquals(1, registry.get("alerts.transitions").tag("transition", "RESOLVED").counter().count());
+        // Resolved without a cooldown, so the next breach opens a new alert and notifies again
+        assertEquals(1, second.size());
+        assertNotEquals(first.get(0).getId(), second.get(0).getId());
+    }
+
+    @Test
+    void testIdenticalCompoundRuleIsRejected() {
+        when(compoundRuleRepository.existsByTypeAndExpression(Settings.SettingType.Traffic, "trafficDensity > 300 AND avgSpeed < 20"))
+                .thenReturn(true);
+        CompoundRuleRequest request = new CompoundRuleRequest();
+        request.setType(Settings.SettingType.Traffic);
+        request.setExpression("trafficDensity>300 and avgSpeed<20");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> settingsService.saveCompoundRule(request));
+
+        assertEquals("The same rule already exists for Traffic", e.getMessage());
+        verify(compoundRuleRepository, never()).save(any());
+        verify(compoundRuleIndex, never()).add(any(), any());
+    }
+
+    private static TrafficSensorData traffic(int density, float speed) {
+        return TrafficSensorData.builder()
+                .location("Zone-1")
+                .timestamp(LocalDateTime.now())
+                .trafficDensity(density)
+                .avgSpeed(speed)
+                .congestionLevel(TrafficSensorData.CongestionLevel.High)
+                .build();
+    }
+
+    private long bruteForceRecipients(MetricReading reading) {
+        Set<Long> recipients = new HashSet<>();
+        for (AlertSubscription s : subscriptions) {
+            if (s.getType() == Settings.SettingType.Traffic
+                    && (s.getMetric() == null || s.getMetric().equals(reading.metric()))
+                    && (s.getLocation() == null || s.getLocation().equals(reading.location()))) {
+                recipients.add(s.getUser().getId());
+            }
+        }
+        return recipients.size();
+    }
+
+    private AlertSubscription subscription(User user, Settings.SettingType type, String metric, String location) {
+        return AlertSubscription.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .type(type)
+                .metric(metric)
+                .location(location)
+                .build();
+    }
+
+    private Settings threshold(String metric, float value) {
+        return Settings.builder()
+                .type(Settings.SettingType.Traffic)
+                .metric(metric)
+                .thresholdValue(value)
+                .alertType(Settings.AlertType.Above)
+                .build();
+    }
+}
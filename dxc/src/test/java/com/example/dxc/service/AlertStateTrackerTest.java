@@ -0,0 +1,180 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.AlertProperties;
+import com.example.dxc.model.Alert;
+import com.example.dxc.model.Settings;
+import com.example.dxc.repository.AlertRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AlertStateTrackerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    private AlertRepository repo;
+    private AlertStateTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(AlertRepository.class);
+        AlertProperties properties = new AlertProperties();
+        properties.setHysteresis(0.1f);
+        properties.setCooldown(Duration.ofMinutes(10));
+        tracker = new AlertStateTracker(repo, properties);
+        tracker.load();
+    }
+
+    @Test
+    void testRepeatedBreachesUpdateTheOpenAlert() {
+        AlertStateTracker.Change opened = tracker.onBreach(breach("Zone-1", 120f, T0));
+        AlertStateTracker.Change second = tracker.onBreach(breach("Zone-1", 150f, T0.plusMinutes(1)));
+        AlertStateTracker.Change third = tracker.onBreach(breach("Zone-1", 130f, T0.plusMinutes(2)));
+
+        assertEquals(AlertStateTracker.Transition.OPENED, opened.transition());
+        assertEquals(AlertStateTracker.Transition.UPDATED, second.transition());
+        assertEquals(AlertStateTracker.Transition.UPDATED, third.transition());
+        assertEquals(opened.alert().getId(), third.alert().getId());
+        assertEquals(3, third.alert().getOccurrences());
+        assertEquals(150f, third.alert().getPeakValue());
+        assertEquals(130f, third.alert().getValue());
+        assertEquals(T0, third.alert().getTriggeredAt());
+        assertEquals(T0.plusMinutes(2), third.alert().getLastTriggeredAt());
+        // Returned alerts are copies, so later transitions can't change what the caller persists
+        assertEquals(1, opened.alert().getOccurrences());
+    }
+
+    @Test
+    void testLocationsAreTrackedSeparately() {
+        tracker.onBreach(breach("Zone-1", 120f, T0));
+
+        assertEquals(AlertStateTracker.Transition.OPENED, tracker.onBreach(breach("Zone-2", 120f, T0)).transition());
+    }
+
+    @Test
+    void testResolvesOnlyBeyondHysteresisBand() {
+        tracker.onBreach(breach("Zone-1", 120f, T0));
+
+        // Threshold 100 with 10% hysteresis: 95 is inside the band
+        assertNull(tracker.onClear(Settings.SettingType.Traffic, "trafficDensity", "Zone-1", 95f, T0.plusMinutes(1)));
+
+        AlertStateTracker.Change resolved =
+                tracker.onClear(Settings.SettingType.Traffic, "trafficDensity", "Zone-1", 90f, T0.plusMinutes(2));
+        assertEquals(AlertStateTracker.Transition.RESOLVED, resolved.transition());
+        assertEquals(Alert.Status.RESOLVED, resolved.alert().getStatus());
+        assertEquals(T0.plusMinutes(2), resolved.alert().getResolvedAt());
+    }
+
+    @Test
+    void testBreachWithinCooldownReopensSameAlert() {
+        AlertStateTracker.Change opened = tracker.onBreach(breach("Zone-1", 120f, T0));
+        tracker.onClear(Settings.SettingType.Traffic, "trafficDensity", "Zone-1", 50f, T0.plusMinutes(1));
+
+        AlertStateTracker.Change reopened = tracker.onBreach(breach("Zone-1", 110f, T0.plusMinutes(5)));
+
+        assertEquals(AlertStateTracker.Transition.REOPENED, reopened.transition());
+        assertEquals(opened.alert().getId(), reopened.alert().getId());
+        assertEquals(Alert.Status.OPEN, reopened.alert().getStatus());
+        assertNull(reopened.alert().getResolvedAt());
+        assertEquals(2, reopened.alert().getOccurrences());
+    }
+
+    @Test
+    void testBreachAfterCooldownOpensNewAlert() {
+        AlertStateTracker.Change first = tracker.onBreach(breach("Zone-1", 120f, T0));
+        tracker.onClear(Settings.SettingType.Traffic, "trafficDensity", "Zone-1", 50f, T0.plusMinutes(1));
+
+        AlertStateTracker.Change second = tracker.onBreach(breach("Zone-1", 120f, T0.plusMinutes(11)));
+
+        assertEquals(AlertStateTracker.Transition.OPENED, second.transition());
+        assertNotEquals(first.alert().getId(), second.alert().getId());
+        assertEquals(1, second.alert().getOccurrences());
+    }
+
+    @Test
+    void testOpenAlertsAreRestoredOnLoad() {
+        Alert open = breach("Zone-3", 140f, T0).toBuilder()
+                .id(UUID.randomUUID())
+                .status(Alert.Status.OPEN)
+                .occurrences(7)
+                .peakValue(180f)
+                .build();
+        when(repo.findByStatus(Alert.Status.OPEN)).thenReturn(List.of(open));
+        tracker.load();
+
+        AlertStateTracker.Change change = tracker.onBreach(breach("Zone-3", 200f, T0.plusMinutes(1)));
+
+        assertEquals(AlertStateTracker.Transition.UPDATED, change.transition());
+        assertEquals(open.getId(), change.alert().getId());
+        assertEquals(8, change.alert().getOccurrences());
+        assertEquals(200f, change.alert().getPeakValue());
+    }
+
+    @Test
+    void testResyncDropsStateWhoseAlertWasNeverStored() {
+        AlertStateTracker.Change lost = tracker.onBreach(breach("Zone-4", 120f, T0));
+        tracker.resync(lost.alert());
+
+        AlertStateTracker.Change next = tracker.onBreach(breach("Zone-4", 130f, T0.plusMinutes(1)));
+
+        assertEquals(AlertStateTracker.Transition.OPENED, next.transition());
+        assertNotEquals(lost.alert().getId(), next.alert().getId());
+    }
+
+    @Test
+    void testResyncRestoresTheStoredOpenAlert() {
+        AlertStateTracker.Change opened = tracker.onBreach(breach("Zone-5", 120f, T0));
+        tracker.onBreach(breach("Zone-5", 150f, T0.plusMinutes(1)));
+        when(repo.findFirstByTypeAndMetricAndLocationAndStatusOrderByTriggeredAtDesc(
+                Settings.SettingType.Traffic, "trafficDensity", "Zone-5", Alert.Status.OPEN))
+                .thenReturn(Optional.of(opened.alert()));
+        tracker.resync(opened.alert());
+
+        AlertStateTracker.Change next = tracker.onBreach(breach("Zone-5", 130f, T0.plusMinutes(2)));
+
+        assertEquals(AlertStateTracker.Transition.UPDATED, next.transition());
+        assertEquals(2, next.alert().getOccurrences());
+    }
+
+    @Test
+    void testResyncQueriesWithoutBlockingTheKey() {
+        AlertStateTracker.Change lost = tracker.onBreach(breach("Zone-6", 120f, T0));
+        tracker.resync(lost.alert());
+        AlertStateTracker.Change[] during = new AlertStateTracker.Change[1];
+        // Inside compute() a reading for the same key would be a recursive update on the bin
+        when(repo.findFirstByTypeAndMetricAndLocationAndStatusOrderByTriggeredAtDesc(
+                Settings.SettingType.Traffic, "trafficDensity", "Zone-6", Alert.Status.OPEN))
+                .thenAnswer(invocation -> {
+                    during[0] = tracker.onBreach(breach("Zone-6", 130f, T0.plusMinutes(1)));
+                    return Optional.empty();
+                });
+        tracker.resync(lost.alert());
+
+        AlertStateTracker.Change next = tracker.onBreach(breach("Zone-6", 140f, T0.plusMinutes(2)));
+
+        // The alert opened during the lookup is newer than what the lookup saw, so it is kept
+        assertEquals(AlertStateTracker.Transition.OPENED, during[0].transition());
+        assertEquals(AlertStateTracker.Transition.UPDATED, next.transition());
+        assertEquals(during[0].alert().getId(), next.alert().getId());
+    }
+
+    private Alert breach(String location, float value, LocalDateTime at) {
+        return Alert.builder()
+                .type(Settings.SettingType.Traffic)
+                .metric("trafficDensity")
+                .location(location)
+                .value(value)
+                .thresholdValue(100f)
+                .alertType(Settings.AlertType.Above)
+                .triggeredAt(at)
+                .build();
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.AlertProperties;
+import com.example.dxc.model.Alert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertStreamBroadcasterTest {
+
+    private AlertProperties properties;
+    private AlertStreamBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AlertProperties();
+        properties.getStream().setBufferSize(8);
+        broadcaster = new AlertStreamBroadcaster(properties, Runnable::run);
+    }
+
+    @Test
+    void testConnectedClientsReceiveEveryAlert() {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        broadcaster.register(first, null);
+        broadcaster.register(second, null);
+
+        broadcaster.publish(alerts(3));
+        broadcaster.publish(alerts(2));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), first.ids);
+        assertEquals(first.ids, second.ids);
+    }
+
+    @Test
+    void testReconnectReplaysTheAlertsAfterLastEventId() {
+        broadcaster.publish(alerts(5));
+
+        RecordingEmitter fresh = new RecordingEmitter();
+        broadcaster.register(fresh, null);
+        assertTrue(fresh.ids.isEmpty());
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        broadcaster.register(resumed, 3L);
+        broadcaster.publish(alerts(1));
+        assertEquals(List.of(4L, 5L, 6L), resumed.ids);
+
+        RecordingEmitter upToDate = new RecordingEmitter();
+        broadcaster.register(upToDate, 6L);
+        assertTrue(upToDate.ids.isEmpty());
+    }
+
+    @Test
+    void testUnknownLastEventIdReplaysTheWholeBuffer() {
+        broadcaster.publish(alerts(20));
+
+        // Older than the buffer: everything still held is replayed
+        RecordingEmitter behind = new RecordingEmitter();
+        broadcaster.register(behind, 2L);
+        assertEquals(LongStream.rangeClosed(13, 20).boxed().toList(), behind.ids);
+
+        // Newer than anything sent: issued before a restart
+        RecordingEmitter restarted = new RecordingEmitter();
+        broadcaster.register(restarted, 500L);
+        assertEquals(behind.ids, restarted.ids);
+    }
+
+    @Test
+    void testFailedClientsAreDropped() {
+        RecordingEmitter gone = new RecordingEmitter();
+        RecordingEmitter alive = new RecordingEmitter();
+        broadcaster.register(gone, null);
+        broadcaster.register(alive, null);
+
+        gone.failing = true;
+        broadcaster.heartbeat();
+        assertEquals(1, broadcaster.clientCount());
+
+        broadcaster.publish(alerts(1));
+        assertEquals(List.of(1L), alive.ids);
+        assertEquals(1, alive.heartbeats);
+    }
+
+    @Test
+    void testClientBlockedInAWriteIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+        properties.getStream().setSendTimeout(Duration.ofMillis(50));
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        broadcaster = new AlertStreamBroadcaster(properties, pool);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        broadcaster.register(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    // A client that stopped reading: the socket write never returns on its own
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Broken pipe");
+            }
+        }, null);
+        // Connected second, so its delivery queues behind the blocked one on the only thread
+        broadcaster.register(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                delivered.countDown();
+            }
+        }, null);
+        try {
+            broadcaster.publish(alerts(1));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (broadcaster.clientCount() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+                broadcaster.dropStalledClients();
+            }
+            assertEquals(1, broadcaster.clientCount());
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+
+            release.countDown();
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (pool.getCorePoolSize() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(1, pool.getCorePoolSize());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testClientFallingAWholeBufferBehindIsDisconnected() {
+        List<Runnable> pendingDeliveries = new ArrayList<>();
+        broadcaster = new AlertStreamBroadcaster(properties, pendingDeliveries::add);
+        RecordingEmitter slow = new RecordingEmitter();
+        broadcaster.register(slow, null);
+
+        broadcaster.publish(alerts(8));
+        assertEquals(1, broadcaster.clientCount());
+        broadcaster.publish(alerts(1));
+        assertEquals(0, broadcaster.clientCount());
+
+        // Reconnecting replays what the buffer holds
+        RecordingEmitter resumed = new RecordingEmitter();
+        broadcaster.register(resumed, 0L);
+        pendingDeliveries.forEach(Runnable::run);
+        assertEquals(LongStream.rangeClosed(2, 9).boxed().toList(), resumed.ids);
+    }
+
+    @Test
+    void testRejectsClientsBeyondTheLimit() {
+        properties.getStream().setMaxClients(2);
+        broadcaster.register(new RecordingEmitter(), null);
+        broadcaster.register(new RecordingEmitter(), null);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> broadcaster.register(new RecordingEmitter(), null));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+    }
+
+    @Test
+    void testConcurrentRegistrationNeverSkipsOrRepeatsAnAlert() throws Exception {
+        ExecutorService delivery = Executors.newSingleThreadExecutor();
+        properties.getStream().setBufferSize(1024);
+        broadcaster = new AlertStreamBroadcaster(properties, delivery);
+
+        Thread publisher = new Thread(() -> IntStream.range(0, 500).forEach(i -> broadcaster.publish(alerts(1))));
+        publisher.start();
+        List<RecordingEmitter> emitters = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            RecordingEmitter emitter = new RecordingEmitter();
+            broadcaster.register(emitter, 0L);
+            emitters.add(emitter);
+        }
+        publisher.join();
+        delivery.shutdown();
+        assertTrue(delivery.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (RecordingEmitter emitter : emitters) {
+            assertEquals(LongStream.rangeClosed(1, 500).boxed().toList(), emitter.ids);
+        }
+    }
+
+    private static List<Alert> alerts(int count) {
+        List<Alert> alerts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            alerts.add(Alert.builder().id(UUID.randomUUID()).metric("trafficDensity").build());
+        }
+        return alerts;
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private static final Pattern ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+        final List<Long> ids = new ArrayList<>();
+        int heartbeats;
+        volatile boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String chunk) {
+                    text.append(chunk);
+                }
+            }
+            Matcher matcher = ID.matcher(text);
+            if (matcher.find()) {
+                ids.add(Long.parseLong(matcher.group(1)));
+            } else {
+                heartbeats++;
+            }
+        }
+    }
+}
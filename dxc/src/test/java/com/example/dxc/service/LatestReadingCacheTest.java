@@ -0,0 +1,109 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.config.JpaBatchConfig;
+import com.example.dxc.config.RollupProperties;
+import com.example.dxc.config.SensorQueryProperties;
+import com.example.dxc.model.SensorReading;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({TrafficSensorStrategy.class, SensorDataValidator.class, SensorDataServiceImpl.class, WriteBehindIngestor.class,
+        SensorCountEstimator.class, SensorQueryProperties.class, SensorRollupStore.class, RollupProperties.class,
+        LatestReadingCache.class, IngestProperties.class, JpaBatchConfig.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LatestReadingCacheTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @Autowired
+    private SensorDataService sensorDataService;
+
+    @Autowired
+    private TrafficSensorStrategy strategy;
+
+    @Autowired
+    private TrafficSensorDataRepository repository;
+
+    @MockitoBean
+    private SettingsService settingsService;
+
+    @Test
+    void testWarmUpQueryFindsTheNewestReadingOfEveryLocation() {
+        repository.deleteAllInBatch();
+        Random random = new Random(3);
+        List<TrafficSensorData> readings = new ArrayList<>();
+        Map<String, LocalDateTime> expected = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            TrafficSensorData reading = reading("Street " + random.nextInt(50), BASE.plusSeconds(random.nextInt(100_000)));
+            readings.add(reading);
+            expected.merge(reading.getLocation(), reading.getTimestamp(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+        // Stored without notifying the listeners, as if written before this instance started
+        repository.persistAll(readings);
+
+        LatestReadingCache cache = new LatestReadingCache();
+        cache.onSaved(Settings.SettingType.Traffic, strategy.getLatestPerLocation());
+
+        List<SensorReading> latest = cache.getLatest(Settings.SettingType.Traffic);
+        assertEquals(expected.size(), latest.size());
+        for (SensorReading reading : latest) {
+            assertEquals(expected.get(reading.getLocation()), reading.getTimestamp(), reading.getLocation());
+        }
+        assertEquals(new TreeSet<>(expected.keySet()).stream().toList(),
+                latest.stream().map(SensorReading::getLocation).toList());
+    }
+
+    @Test
+    void testSavesAdvanceTheCacheButNeverMoveItBack() {
+        String location = "Street " + UUID.randomUUID();
+
+        TrafficSensorData first = sensorDataService.saveTrafficData(reading(location, BASE.plusHours(1)));
+        assertEquals(first.getId(), latestAt(location).getId());
+
+        // A late reading is stored but does not replace the newer one
+        sensorDataService.saveTrafficData(reading(location, BASE));
+        assertEquals(first.getId(), latestAt(location).getId());
+
+        TrafficSensorData newer = reading(location, BASE.plusHours(2));
+        sensorDataService.saveTrafficDataBatch(List.of(reading(location, BASE.plusMinutes(90)), newer));
+        assertEquals(newer.getId(), latestAt(location).getId());
+
+        assertTrue(sensorDataService.getLatest(Settings.SettingType.Traffic, null).stream()
+                .anyMatch(reading -> reading.getId().equals(newer.getId())));
+        assertTrue(sensorDataService.getLatest(Settings.SettingType.Traffic, "Street nowhere").isEmpty());
+    }
+
+    private SensorReading latestAt(String location) {
+        List<SensorReading> latest = sensorDataService.getLatest(Settings.SettingType.Traffic, location);
+        assertEquals(1, latest.size());
+        return latest.get(0);
+    }
+
+    private static TrafficSensorData reading(String location, LocalDateTime timestamp) {
+        return TrafficSensorData.builder()
+                .id(UUID.randomUUID())
+                .location(location)
+                .timestamp(timestamp)
+                .trafficDensity(120)
+                .avgSpeed(45)
+                .congestionLevel(TrafficSensorData.CongestionLevel.Moderate)
+                .build();
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.LiveFeedProperties;
+import com.example.dxc.model.SensorReading;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.TrafficSensorData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveSensorFeedTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 12, 0);
+    private static final List<String> STATUSES = List.of("Low", "Moderate", "High", "Severe");
+
+    private LiveFeedProperties properties;
+    private Deque<Runnable> pendingDeliveries;
+    private LiveSensorFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LiveFeedProperties();
+        pendingDeliveries = new ArrayDeque<>();
+        feed = new LiveSensorFeed(properties, Runnable::run);
+    }
+
+    @Test
+    void testEveryClientReceivesExactlyTheReadingsMatchingItsFilter() {
+        Random random = new Random(11);
+        Map<RecordingEmitter, Set<String>> locationFilters = new HashMap<>();
+        Map<RecordingEmitter, Set<String>> statusFilters = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            Set<String> locations = randomSubset(random, IntStream.range(0, 20).mapToObj(n -> "Street " + n).toList());
+            Set<String> statuses = randomSubset(random, STATUSES);
+            RecordingEmitter emitter = new RecordingEmitter();
+            feed.subscribe(emitter, Settings.SettingType.Traffic, locations, statuses);
+            locationFilters.put(emitter, locations);
+            statusFilters.put(emitter, statuses);
+        }
+        RecordingEmitter otherType = new RecordingEmitter();
+        feed.subscribe(otherType, Settings.SettingType.Street_Light, List.of(), List.of());
+
+        List<TrafficSensorData> readings = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            readings.add(reading("Street " + random.nextInt(25), STATUSES.get(random.nextInt(STATUSES.size()))));
+        }
+        feed.onSaved(Settings.SettingType.Traffic, readings.subList(0, 250));
+        readings.subList(250, 500).forEach(reading -> feed.onSaved(Settings.SettingType.Traffic, List.of(reading)));
+
+        for (RecordingEmitter emitter : locationFilters.keySet()) {
+            Set<String> locations = locationFilters.get(emitter);
+            Set<String> statuses = statusFilters.get(emitter);
+            List<UUID> expected = readings.stream()
+                    .filter(r -> locations.isEmpty() || locations.contains(r.getLocation()))
+                    .filter(r -> statuses.isEmpty() || statuses.contains(r.getCongestionLevel().name()))
+                    .map(TrafficSensorData::getId)
+                    .toList();
+            assertEquals(expected, emitter.readingIds(), locations + " " + statuses);
+        }
+        assertTrue(otherType.readingIds().isEmpty());
+    }
+
+    @Test
+    void testSlowClientsDropTheOldestReadingsAndAreTold() {
+        properties.setBufferSize(10);
+        feed = new LiveSensorFeed(properties, pendingDeliveries::add);
+        RecordingEmitter slow = new RecordingEmitter();
+        feed.subscribe(slow, Settings.SettingType.Traffic, List.of("Main Street"), List.of());
+
+        List<TrafficSensorData> readings = IntStream.range(0, 300).mapToObj(i -> reading("Main Street", "Low")).toList();
+        feed.onSaved(Settings.SettingType.Traffic, readings);
+        // One delivery is scheduled however many readings are waiting
+        assertEquals(1, pendingDeliveries.size());
+        runDeliveries();
+
+        assertEquals(List.of(290), slow.dropped);
+        assertEquals(readings.subList(290, 300).stream().map(TrafficSensorData::getId).toList(), slow.readingIds());
+
+        feed.onSaved(Settings.SettingType.Traffic, List.of(readings.get(0)));
+        runDeliveries();
+        assertEquals(List.of(290), slow.dropped);
+        assertEquals(11, slow.readingIds().size());
+    }
+
+    @Test
+    void testFailedClientsAreUnsubscribed() {
+        RecordingEmitter gone = new RecordingEmitter();
+        RecordingEmitter alive = new RecordingEmitter();
+        feed.subscribe(gone, Settings.SettingType.Traffic, List.of("Main Street"), List.of("High"));
+        feed.subscribe(alive, Settings.SettingType.Traffic, List.of(), List.of());
+
+        gone.failing = true;
+        feed.onSaved(Settings.SettingType.Traffic, List.of(reading("Main Street", "High")));
+        assertEquals(1, feed.subscriberCount());
+
+        gone.failing = false;
+        feed.onSaved(Settings.SettingType.Traffic, List.of(reading("Main Street", "High")));
+        assertTrue(gone.readingIds().isEmpty());
+        assertEquals(2, alive.readingIds().size());
+    }
+
+    @Test
+    void testClientBlockedInAWriteIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+        properties.setSendTimeout(Duration.ofMillis(50));
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        feed = new LiveSensorFeed(properties, pool);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        SseEmitter blocked = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    // A client that stopped reading: the socket write never returns on its own
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Broken pipe");
+            }
+        };
+        SseEmitter alive = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                delivered.countDown();
+            }
+        };
+        feed.subscribe(blocked, Settings.SettingType.Traffic, List.of(), List.of());
+        feed.subscribe(alive, Settings.SettingType.Traffic, List.of("Main Street"), List.of());
+        try {
+            // Unfiltered feeds are offered a reading first, so the blocked client takes the only delivery thread
+            feed.onSaved(Settings.SettingType.Traffic, List.of(reading("Main Street", "Low")));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (feed.subscriberCount() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+                feed.dropStalledClients();
+            }
+            assertEquals(1, feed.subscriberCount());
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertEquals(2, pool.getCorePoolSize());
+
+            // The stuck write finally fails and the stand-in thread goes away
+            release.countDown();
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (pool.getCorePoolSize() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(1, pool.getCorePoolSize());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRejectsInvalidFilters() {
+        properties.setMaxLocations(3);
+        assertStatus(HttpStatus.BAD_REQUEST, () -> feed.subscribe(new RecordingEmitter(), Settings.SettingType.Traffic,
+                List.of(), List.of("Gridlock")));
+        assertStatus(HttpStatus.BAD_REQUEST, () -> feed.subscribe(new RecordingEmitter(), Settings.SettingType.Traffic,
+                List.of("a", "b", "c", "d"), List.of()));
+
+        properties.setMaxClients(1);
+        feed.subscribe(new RecordingEmitter(), Settings.SettingType.Air_Pollution, List.of(), List.of("Hazardous"));
+        assertStatus(HttpStatus.SERVICE_UNAVAILABLE, () -> feed.subscribe(new RecordingEmitter(),
+                Settings.SettingType.Traffic, List.of(), List.of()));
+    }
+
+    private void runDeliveries() {
+        while (!pendingDeliveries.isEmpty()) {
+            pendingDeliveries.poll().run();
+        }
+    }
+
+    private static void assertStatus(HttpStatus status, Runnable call) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, call::run);
+        assertEquals(status, e.getStatusCode());
+    }
+
+    private static Set<String> randomSubset(Random random, List<String> values) {
+        Set<String> subset = new HashSet<>();
+        // About one in four filters matches every value
+        if (random.nextInt(4) > 0) {
+            int size = 1 + random.nextInt(3);
+            while (subset.size() < size) {
+                subset.add(values.get(random.nextInt(values.size())));
+            }
+        }
+        return subset;
+    }
+
+    private static TrafficSensorData reading(String location, String status) {
+        return TrafficSensorData.builder()
+                .id(UUID.randomUUID())
+                .location(location)
+                .timestamp(BASE)
+                .trafficDensity(120)
+                .avgSpeed(45)
+                .congestionLevel(TrafficSensorData.CongestionLevel.valueOf(status))
+                .build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private static final Pattern EVENT = Pattern.compile("^event:(\\w+)$", Pattern.MULTILINE);
+
+        final List<List<SensorReading>> batches = new ArrayList<>();
+        final List<Integer> dropped = new ArrayList<>();
+        volatile boolean failing;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder text = new StringBuilder();
+            Object payload = null;
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String chunk) {
+                    text.append(chunk);
+                } else {
+                    payload = part.getData();
+                }
+            }
+            Matcher matcher = EVENT.matcher(text);
+            if (!matcher.find()) {
+                return;
+            }
+            switch (matcher.group(1)) {
+                case LiveSensorFeed.READINGS_EVENT -> batches.add((List<SensorReading>) payload);
+                case LiveSensorFeed.DROPPED_EVENT -> dropped.add((Integer) payload);
+                default -> fail("unexpected event " + matcher.group(1));
+            }
+        }
+
+        List<UUID> readingIds() {
+            return batches.stream().flatMap(List::stream).map(SensorReading::getId).toList();
+        }
+    }
+}
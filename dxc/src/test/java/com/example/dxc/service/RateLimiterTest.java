@@ -0,0 +1,167 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.RateLimitFilter;
+import com.example.dxc.config.RateLimitProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(42 * SECOND);
+    private RateLimitProperties properties;
+    private RateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setGroups(new LinkedHashMap<>(Map.of(
+                "generate", new RateLimitProperties.Group(List.of("/api/sensors/generate/**"), List.of("POST"), 5, 1),
+                "ingest", new RateLimitProperties.Group(List.of("/api/sensors/*/batch"), List.of("post"), 100, 50))));
+        limiter = new RateLimiter(properties, now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testBurstUpToCapacityThenRefillRate() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.acquire("POST", "/api/sensors/generate/traffic", "ip:1"));
+        }
+        long wait = limiter.acquire("POST", "/api/sensors/generate/traffic", "ip:1");
+        assertEquals(SECOND, wait);
+
+        now.addAndGet(SECOND / 2);
+        assertEquals(SECOND / 2, limiter.acquire("POST", "/api/sensors/generate/all", "ip:1"));
+
+        now.addAndGet(SECOND / 2);
+        assertEquals(0, limiter.acquire("POST", "/api/sensors/generate/all", "ip:1"));
+        assertTrue(limiter.acquire("POST", "/api/sensors/generate/all", "ip:1") > 0);
+
+        // A long pause refills the bucket to its capacity and no further
+        now.addAndGet(60 * SECOND);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.acquire("POST", "/api/sensors/generate/all", "ip:1"));
+        }
+        assertTrue(limiter.acquire("POST", "/api/sensors/generate/all", "ip:1") > 0);
+    }
+
+    @Test
+    void testClientsAndGroupsHaveTheirOwnBuckets() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("POST", "/api/sensors/generate/traffic", "ip:1");
+        }
+        assertTrue(limiter.acquire("POST", "/api/sensors/generate/traffic", "ip:1") > 0);
+        assertEquals(0, limiter.acquire("POST", "/api/sensors/generate/traffic", "ip:2"));
+        assertEquals(0, limiter.acquire("POST", "/api/sensors/traffic/batch", "ip:1"));
+
+        // Unmatched paths and methods are never limited
+        for (int i = 0; i < 50; i++) {
+            assertEquals(0, limiter.acquire("GET", "/api/sensors/generate/traffic", "ip:1"));
+            assertEquals(0, limiter.acquire("GET", "/api/sensors/traffic", "ip:1"));
+        }
+        assertEquals("ingest", limiter.groupOf("POST", "/api/sensors/street-light/batch"));
+        assertNull(limiter.groupOf("POST", "/api/sensors/traffic"));
+    }
+
+    @Test
+    void testConcurrentRequestsNeverTakeMoreThanCapacity() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int granted = 0;
+                for (int i = 0; i < 1_000; i++) {
+                    if (limiter.acquire("POST", "/api/sensors/traffic/batch", "user:jane") == 0) {
+                        granted++;
+                    }
+                }
+                return granted;
+            }));
+        }
+        start.countDown();
+        int granted = 0;
+        for (Future<Integer> result : results) {
+            granted += result.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // The clock does not move: exactly one burst is granted
+        assertEquals(100, granted);
+    }
+
+    @Test
+    void testIdleBucketsAreEvictedAndClientCountIsBounded() {
+        properties.setMaxClients(3);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("POST", "/api/sensors/generate/traffic", "ip:" + i);
+        }
+        // Clients beyond the bound share one overflow bucket
+        assertEquals(4, limiter.trackedClients());
+
+        now.addAndGet(10 * SECOND);
+        limiter.evictIdle();
+        assertEquals(0, limiter.trackedClients());
+    }
+
+    @Test
+    void testDisabledLimiterLetsEverythingThrough() {
+        properties.setEnabled(false);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(0, limiter.acquire("POST", "/api/sensors/generate/traffic", "ip:1"));
+        }
+    }
+
+    @Test
+    void testFilterAnswers429WithRetryAfterPerUser() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(limiter);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "jane@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, generate(filter, "10.0.0.1").getStatus());
+        }
+        MockHttpServletResponse limited = generate(filter, "10.0.0.2");
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+
+        // Anonymous clients are keyed by address
+        SecurityContextHolder.clearContext();
+        assertEquals(200, generate(filter, "10.0.0.2").getStatus());
+    }
+
+    private static MockHttpServletResponse generate(RateLimitFilter filter, String remoteAddress) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/sensors/generate/traffic");
+        request.setRemoteAddr(remoteAddress);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.SensorQueryProperties;
+import com.example.dxc.dto.SensorAggregateResponse;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SensorDataJpaTest
+class SensorAggregateTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 12, 0);
+    private static final List<String> LOCATIONS = List.of("Zone 1", "Zone 2", "Zone 3");
+
+    @Autowired
+    private SensorDataService sensorDataService;
+
+    @Autowired
+    private TrafficSensorDataRepository repository;
+
+    @Autowired
+    private TrafficSensorStrategy strategy;
+
+    @Autowired
+    private SensorRollupStore rollupStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SensorQueryProperties queryProperties;
+
+    @MockitoBean
+    private SettingsService settingsService;
+
+    private List<TrafficSensorData> readings;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        // Deltas left over from the previous test must not land on this test's rows
+        rollupStore.flush();
+        jdbcTemplate.update("DELETE FROM sensor_rollup_minute");
+        jdbcTemplate.update("DELETE FROM sensor_rollup_hour");
+        readings = new ArrayList<>();
+        Random random = new Random(7);
+        // One reading every 37 seconds for three hours, spread over three zones
+        for (int i = 0; i < 300; i++) {
+            readings.add(TrafficSensorData.builder()
+                    .id(UUID.randomUUID())
+                    .location(LOCATIONS.get(i % LOCATIONS.size()))
+                    .timestamp(BASE.plusSeconds(37L * i))
+                    .trafficDensity(random.nextInt(501))
+                    .avgSpeed(random.nextFloat() * 120)
+                    .congestionLevel(TrafficSensorData.CongestionLevel.values()[i % 4])
+                    .build());
+        }
+        strategy.saveAll(readings);
+        queryProperties.setAggregateMaxRows(10_000);
+    }
+
+    @Test
+    void testLocationBucketsMatchInMemoryAggregation() {
+        SensorAggregateResponse response = sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "trafficDensity", "5m", "location", null, null, null, null);
+
+        Map<String, List<TrafficSensorData>> expected = readings.stream().collect(Collectors.groupingBy(
+                r -> bucketStart(r.getTimestamp(), 5) + "|" + r.getLocation(), TreeMap::new, Collectors.toList()));
+
+        assertEquals("5m", response.getBucket());
+        assertEquals("location", response.getGroupBy());
+        assertEquals(expected.size(), response.getBuckets().size());
+        for (SensorAggregateResponse.Bucket bucket : response.getBuckets()) {
+            List<TrafficSensorData> rows = expected.get(bucket.getStart() + "|" + bucket.getLocation());
+            assertNotNull(rows, "unexpected bucket " + bucket);
+            assertBucket(rows, TrafficSensorData::getTrafficDensity, bucket);
+        }
+        assertSorted(response.getBuckets());
+    }
+
+    @Test
+    void testCityRollupCombinesAllLocations() {
+        SensorAggregateResponse response = sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "avgSpeed", "1h", "city", null, null, null, null);
+
+        Map<LocalDateTime, List<TrafficSensorData>> expected = readings.stream().collect(Collectors.groupingBy(
+                r -> bucketStart(r.getTimestamp(), 60), TreeMap::new, Collectors.toList()));
+
+        assertEquals(List.copyOf(expected.keySet()),
+                response.getBuckets().stream().map(SensorAggregateResponse.Bucket::getStart).toList());
+        for (SensorAggregateResponse.Bucket bucket : response.getBuckets()) {
+            assertNull(bucket.getLocation());
+            assertBucket(expected.get(bucket.getStart()), r -> (double) r.getAvgSpeed(), bucket);
+        }
+        assertEquals(readings.size(), response.getBuckets().stream().mapToLong(SensorAggregateResponse.Bucket::getCount).sum());
+    }
+
+    @Test
+    void testDayBucketHoldsTheWholeDay() {
+        SensorAggregateResponse response = sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "trafficDensity", "1d", "city", null, null, null, null);
+
+        assertEquals(1, response.getBuckets().size());
+        assertEquals(BASE.truncatedTo(ChronoUnit.DAYS), response.getBuckets().get(0).getStart());
+        assertEquals(readings.size(), response.getBuckets().get(0).getCount());
+    }
+
+    @Test
+    void testFiltersMatchThePagedReads() {
+        LocalDateTime start = BASE.plusMinutes(30);
+        LocalDateTime end = BASE.plusMinutes(90);
+        SensorAggregateResponse response = sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "trafficDensity", "15m", "location", "Zone 2", "High", start, end);
+
+        List<TrafficSensorData> matching = readings.stream()
+                .filter(r -> r.getLocation().equals("Zone 2"))
+                .filter(r -> r.getCongestionLevel() == TrafficSensorData.CongestionLevel.High)
+                .filter(r -> !r.getTimestamp().isBefore(start) && !r.getTimestamp().isAfter(end))
+                .toList();
+
+        assertFalse(response.getBuckets().isEmpty());
+        assertTrue(response.getBuckets().stream().allMatch(b -> b.getLocation().equals("Zone 2")));
+        assertEquals(matching.size(), response.getBuckets().stream().mapToLong(SensorAggregateResponse.Bucket::getCount).sum());
+    }
+
+    @Test
+    void testRejectsInvalidParameters() {
+        assertBadRequest(() -> sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "congestionLevel", "5m", "city", null, null, null, null));
+        assertBadRequest(() -> sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "avgSpeed", "30s", "city", null, null, null, null));
+        assertBadRequest(() -> sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "avgSpeed", "2d", "city", null, null, null, null));
+        assertBadRequest(() -> sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "avgSpeed", "7m", "city", null, null, null, null));
+        assertBadRequest(() -> sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "avgSpeed", "5m", "street", null, null, null, null));
+        assertBadRequest(() -> sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "avgSpeed", "5m", "city", null, "Gridlock", null, null));
+    }
+
+    @Test
+    void testRejectsTooManyBuckets() {
+        queryProperties.setAggregateMaxRows(20);
+
+        assertBadRequest(() -> sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "avgSpeed", "1m", "location", null, null, null, null));
+        assertEquals(4, sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "avgSpeed", "1h", "city", null, null, null, null).getBuckets().size());
+    }
+
+    private static LocalDateTime bucketStart(LocalDateTime timestamp, int minutes) {
+        LocalDateTime hour = timestamp.truncatedTo(ChronoUnit.HOURS);
+        return hour.plusMinutes(timestamp.getMinute() / minutes * minutes);
+    }
+
+    private static void assertBucket(List<TrafficSensorData> rows, Function<TrafficSensorData, Number> metric,
+                                     SensorAggregateResponse.Bucket bucket) {
+        DoubleSummaryStatistics stats = rows.stream().mapToDouble(r -> metric.apply(r).doubleValue()).summaryStatistics();
+        assertEquals(stats.getCount(), bucket.getCount());
+        assertEquals(stats.getMin(), bucket.getMin(), 1e-3);
+        assertEquals(stats.getMax(), bucket.getMax(), 1e-3);
+        assertEquals(stats.getAverage(), bucket.getAvg(), 1e-3);
+    }
+
+    private static void assertSorted(List<SensorAggregateResponse.Bucket> buckets) {
+        Comparator<SensorAggregateResponse.Bucket> order = Comparator
+                .comparing(SensorAggregateResponse.Bucket::getStart)
+                .thenComparing(SensorAggregateResponse.Bucket::getLocation);
+        List<SensorAggregateResponse.Bucket> sorted = new ArrayList<>(buckets);
+        sorted.sort(order);
+        assertEquals(sorted, buckets);
+    }
+
+    private static void assertBadRequest(Runnable call) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, call::run);
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.dxc.service;
+
+import com.example.dxc.dto.BatchIngestResponse;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares rows/sec of the single-item insert path against the /batch path on H2.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SensorDataJpaTest
+class SensorBatchIngestBenchmarkTest {
+
+    private static final int ROWS = 5000;
+    private static final int CHUNK = 500;
+
+    @Autowired
+    private SensorDataService sensorDataService;
+
+    @Autowired
+    private TrafficSensorDataRepository repository;
+
+    @MockitoBean
+    private SettingsService settingsService;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        // Warm up both paths so the comparison isn't dominated by JIT and pool start-up
+        readings(200).forEach(sensorDataService::saveTrafficData);
+        sensorDataService.saveTrafficDataBatch(readings(200));
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    void batchPathOutperformsSingleItemPath() {
+        List<TrafficSensorData> single = readings(ROWS);
+        long start = System.nanoTime();
+        for (TrafficSensorData data : single) {
+            sensorDataService.saveTrafficData(data);
+        }
+        double singleRowsPerSec = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        List<TrafficSensorData> batched = readings(ROWS);
+        int saved = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < ROWS; i += CHUNK) {
+            BatchIngestResponse response = sensorDataService.saveTrafficDataBatch(batched.subList(i, i + CHUNK));
+            saved += response.getSaved();
+        }
+        double batchRowsPerSec = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf("single-item: %.0f rows/sec, batch(%d): %.0f rows/sec, speed-up x%.1f%n",
+                singleRowsPerSec, CHUNK, batchRowsPerSec, batchRowsPerSec / singleRowsPerSec);
+
+        assertEquals(ROWS, saved);
+        assertEquals(2L * ROWS, repository.count());
+    }
+
+    private List<TrafficSensorData> readings(int count) {
+        List<TrafficSensorData> list = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.now().minusMinutes(1);
+        for (int i = 0; i < count; i++) {
+            list.add(TrafficSensorData.builder()
+                    .id(UUID.randomUUID())
+                    .location("Street " + (i % 100 + 1))
+                    .timestamp(now)
+                    .trafficDensity(i % 500)
+                    .avgSpeed(i % 120)
+                    .congestionLevel(TrafficSensorData.CongestionLevel.Low)
+                    .build());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.config.RollupProperties;
+import com.example.dxc.config.SensorQueryProperties;
+import com.example.dxc.dto.BatchIngestResponse;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class SensorBatchIngestTest {
+
+    private TrafficSensorDataRepository repository;
+    private SettingsService settingsService;
+    private SensorDataServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TrafficSensorDataRepository.class);
+        when(repository.persistAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        IngestProperties properties = new IngestProperties();
+        TrafficSensorStrategy strategy = new TrafficSensorStrategy(
+                repository, new SensorDataValidator(), settingsService = mock(SettingsService.class));
+        service = new SensorDataServiceImpl(List.of(strategy), properties, new ObjectMapper(),
+                new WriteBehindIngestor(List.of(strategy), properties), mock(SensorCountEstimator.class),
+                new SensorQueryProperties(), mock(SensorRollupStore.class), new RollupProperties(),
+                new LatestReadingCache());
+    }
+
+    @Test
+    void testRepeatedAndStoredIdsAreRejectedPerItem() {
+        TrafficSensorData stored = reading();
+        TrafficSensorData fresh = reading();
+        TrafficSensorData repeated = reading();
+        repeated.setId(fresh.getId());
+        when(repository.findAllById(anyCollection())).thenReturn(List.of(stored));
+
+        BatchIngestResponse response = service.saveTrafficDataBatch(List.of(stored, fresh, repeated));
+
+        assertEquals(3, response.getReceived());
+        assertEquals(1, response.getSaved());
+        assertEquals(2, response.getRejected());
+        assertEquals(2, response.getErrors().get(0).getIndex());
+        assertTrue(response.getErrors().get(0).getMessage().startsWith("Duplicate id"));
+        assertEquals(0, response.getErrors().get(1).getIndex());
+        assertTrue(response.getErrors().get(1).getMessage().endsWith("already exists"));
+        verify(repository).persistAll(List.of(fresh));
+    }
+
+    @Test
+    void testIdStoredConcurrentlyIsAConflict() {
+        when(repository.persistAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.saveTrafficDataBatch(List.of(reading())));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+    }
+
+    @Test
+    void testAlertCheckRunsOnTheIngestExecutorAfterTheBatchIsStored() {
+        List<Runnable> ingestTasks = new ArrayList<>();
+        service.setIngestExecutor(ingestTasks::add);
+
+        BatchIngestResponse response = service.saveTrafficDataBatch(List.of(reading(), reading()));
+
+        assertEquals(2, response.getSaved());
+        verify(settingsService, never()).checkAndTriggerAlerts(any(), anyList());
+        assertEquals(1, ingestTasks.size());
+        ingestTasks.get(0).run();
+        verify(settingsService).checkAndTriggerAlerts(any(), anyList());
+    }
+
+    private static TrafficSensorData reading() {
+        return TrafficSensorData.builder()
+                .id(UUID.randomUUID())
+                .location("Street 1")
+                .timestamp(LocalDateTime.now().minusMinutes(1))
+                .trafficDensity(100)
+                .avgSpeed(40)
+                .congestionLevel(TrafficSensorData.CongestionLevel.Low)
+                .build();
+    }
+}
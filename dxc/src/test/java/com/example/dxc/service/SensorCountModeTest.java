@@ -0,0 +1,134 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.SensorQueryProperties;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SensorDataJpaTest
+class SensorCountModeTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @Autowired
+    private SensorDataService sensorDataService;
+
+    @Autowired
+    private TrafficSensorDataRepository repository;
+
+    @Autowired
+    private TrafficSensorStrategy strategy;
+
+    @Autowired
+    private SensorQueryProperties properties;
+
+    @MockitoBean
+    private SettingsService settingsService;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        repository.persistAll(readings(0, 95));
+    }
+
+    @Test
+    void testNoneModeReturnsSameRowsAsExactWithoutTotal() {
+        for (int page = 0; page < 10; page++) {
+            Pageable pageable = PageRequest.of(page, 10, Sort.by("timestamp").descending());
+            Slice<TrafficSensorData> slice = sensorDataService.getTrafficData(null, null, null, null, pageable, CountMode.NONE);
+            Page<TrafficSensorData> exact = sensorDataService.getTrafficData(null, null, null, null, pageable);
+
+            assertFalse(slice instanceof Page);
+            assertEquals(ids(exact.getContent()), ids(slice.getContent()));
+            assertEquals(page < 9, slice.hasNext());
+        }
+    }
+
+    @Test
+    void testEstimatedTotalIsReadFromTheDatabaseAtMostOncePerRefreshInterval() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("timestamp").descending());
+        try {
+            properties.setTotalRefreshInterval(Duration.ZERO);
+            Page<TrafficSensorData> first = (Page<TrafficSensorData>)
+                    sensorDataService.getTrafficData(null, null, null, null, pageable, CountMode.ESTIMATE);
+            assertEquals(95, first.getTotalElements());
+
+            properties.setTotalRefreshInterval(Duration.ofHours(1));
+            repository.persistAll(readings(1000, 3));
+            strategy.saveAll(readings(2000, 5));
+            Page<TrafficSensorData> reused = (Page<TrafficSensorData>)
+                    sensorDataService.getTrafficData(null, null, null, null, pageable, CountMode.ESTIMATE);
+            // Inserts from this instance are not counted locally, like those from any other replica
+            assertEquals(95, reused.getTotalElements());
+
+            properties.setTotalRefreshInterval(Duration.ZERO);
+            Page<TrafficSensorData> refreshed = (Page<TrafficSensorData>)
+                    sensorDataService.getTrafficData(null, null, null, null, pageable, CountMode.ESTIMATE);
+            assertEquals(103, refreshed.getTotalElements());
+        } finally {
+            properties.setTotalRefreshInterval(new SensorQueryProperties().getTotalRefreshInterval());
+        }
+    }
+
+    @Test
+    void testFilteredEstimateIsCachedAndNeverBelowWhatThePageShows() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("timestamp").descending());
+        Page<TrafficSensorData> first = (Page<TrafficSensorData>)
+                sensorDataService.getTrafficData("Street 1", null, null, null, pageable, CountMode.ESTIMATE);
+        assertEquals(32, first.getTotalElements());
+
+        strategy.saveAll(readings(3000, 30));
+
+        Pageable last = PageRequest.of(4, 10, Sort.by("timestamp").descending());
+        Page<TrafficSensorData> cached = (Page<TrafficSensorData>)
+                sensorDataService.getTrafficData("Street 1", null, null, null, last, CountMode.ESTIMATE);
+        // Cached count is stale (32), but page 5 holds rows 41-42
+        assertEquals(42, cached.getTotalElements());
+        assertEquals(2, cached.getNumberOfElements());
+    }
+
+    @Test
+    void testRejectsSortByWithoutIndex() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("trafficDensity"));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> sensorDataService.getTrafficData(null, null, null, null, pageable, CountMode.NONE));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        assertEquals("sortBy must be one of congestionLevel, location, timestamp", e.getReason());
+    }
+
+    private List<TrafficSensorData> readings(int from, int count) {
+        List<TrafficSensorData> readings = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            readings.add(TrafficSensorData.builder()
+                    .id(UUID.randomUUID())
+                    .timestamp(BASE.plusSeconds(i))
+                    .location("Street " + i % 3)
+                    .trafficDensity(100)
+                    .avgSpeed(50f)
+                    .congestionLevel(TrafficSensorData.CongestionLevel.Low)
+                    .build());
+        }
+        return readings;
+    }
+
+    private List<UUID> ids(List<TrafficSensorData> readings) {
+        return readings.stream().map(TrafficSensorData::getId).toList();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.config.JpaBatchConfig;
+import com.example.dxc.config.RollupProperties;
+import com.example.dxc.config.SensorQueryProperties;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * JPA slice with the traffic strategy and the sensor data service on the embedded database.
+ * Test methods run outside a transaction, the way the service commits in production, so rows
+ * outlive each test. Classes using it share one cached context; {@link SettingsService} is left
+ * for each test to mock.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({TrafficSensorStrategy.class, SensorDataValidator.class, SensorDataServiceImpl.class, WriteBehindIngestor.class,
+        SensorCountEstimator.class, SensorQueryProperties.class, SensorRollupStore.class, RollupProperties.class,
+        LatestReadingCache.class, IngestProperties.class, JpaBatchConfig.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public @interface SensorDataJpaTest {
+}
@@ -1,5 +1,8 @@
 package com.example.dxc.service;
 
+import com.example.dxc.config.SchedulingProperties;
+import com.example.dxc.repository.SchedulerLeaseRepository;
+import com.example.dxc.scheduler.ScheduledJobCoordinator;
 import com.example.dxc.scheduler.SensorDataScheduler;
 import com.example.dxc.service.SensorDataService;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,7 +18,9 @@ class SensorDataSchedulerTest {
     @BeforeEach
     void setUp() {
         sensorDataService = mock(SensorDataService.class);
-        scheduler = new SensorDataScheduler(sensorDataService);
+        // Coordination off: a single replica generates every sensor type
+        scheduler = new SensorDataScheduler(sensorDataService,
+                new ScheduledJobCoordinator(mock(SchedulerLeaseRepository.class), new SchedulingProperties()));
     }
 
     @Test
@@ -28,4 +33,16 @@ class SensorDataSchedulerTest {
         verify(sensorDataService, times(1)).generateAirPollutionData();
         verify(sensorDataService, times(1)).generateStreetLightData();
     }
+
+    @Test
+    void testGenerateAllSensorData_shouldOnlyGenerateOwnedShards() {
+        ScheduledJobCoordinator coordinator = mock(ScheduledJobCoordinator.class);
+        when(coordinator.owns("Air_Pollution")).thenReturn(true);
+
+        new SensorDataScheduler(sensorDataService, coordinator).generateAllSensorData();
+
+        verify(sensorDataService, never()).generateTrafficData();
+        verify(sensorDataService, times(1)).generateAirPollutionData();
+        verify(sensorDataService, never()).generateStreetLightData();
+    }
 }
@@ -0,0 +1,148 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.config.RollupProperties;
+import com.example.dxc.config.SensorQueryProperties;
+import com.example.dxc.dto.StreamIngestResponse;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class SensorDataStreamIngestTest {
+
+    private TrafficSensorDataRepository repository;
+    private SettingsService settingsService;
+    private SensorDataService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TrafficSensorDataRepository.class);
+        when(repository.persistAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        IngestProperties properties = new IngestProperties();
+        properties.setStreamChunkSize(1000);
+
+        TrafficSensorStrategy strategy = new TrafficSensorStrategy(
+                repository, new SensorDataValidator(), settingsService = mock(SettingsService.class));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        service = new SensorDataServiceImpl(List.of(strategy), properties, objectMapper,
+                new WriteBehindIngestor(List.of(strategy), properties), mock(SensorCountEstimator.class),
+                new SensorQueryProperties(), mock(SensorRollupStore.class), new RollupProperties(),
+                new LatestReadingCache());
+    }
+
+    @Test
+    void testStreamIsCommittedInChunksAndReportsItemErrors() {
+        String timestamp = LocalDateTime.now().minusMinutes(5).toString();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            if (i == 10) {
+                body.append("{\"location\":\"Street 1\",\"congestionLevel\":\"Jammed\"}\n");
+            } else if (i == 20) {
+                body.append("{\"location\":\"Street 1\",\"timestamp\":\"").append(timestamp)
+                        .append("\",\"trafficDensity\":900,\"avgSpeed\":10,\"congestionLevel\":\"Low\"}\n");
+            } else {
+                body.append("{\"location\":\"Street ").append(i % 100).append("\",\"timestamp\":\"").append(timestamp)
+                        .append("\",\"trafficDensity\":120,\"avgSpeed\":42.5,\"congestionLevel\":\"High\"}\n");
+            }
+        }
+
+        StreamIngestResponse response = service.ingestTrafficDataStream(
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2500, response.getReceived());
+        assertEquals(2498, response.getSaved());
+        assertEquals(2, response.getRejected());
+        assertEquals(3, response.getChunks());
+        assertEquals(10, response.getErrors().get(0).getIndex());
+        assertEquals(20, response.getErrors().get(1).getIndex());
+        assertEquals("Traffic density must be between 0 and 500", response.getErrors().get(1).getMessage());
+        verify(repository, times(3)).persistAll(anyList());
+    }
+
+    @Test
+    void testMalformedJsonStopsTheStreamButKeepsEarlierReadings() {
+        String timestamp = LocalDateTime.now().minusMinutes(5).toString();
+        String body = "{\"location\":\"Street 7\",\"timestamp\":\"" + timestamp
+                + "\",\"trafficDensity\":50,\"avgSpeed\":60,\"congestionLevel\":\"Low\"}\n"
+                + "{\"location\": \"Street 8\", \"timestamp\n";
+
+        StreamIngestResponse response = service.ingestTrafficDataStream(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, response.getSaved());
+        assertEquals(1, response.getRejected());
+        assertTrue(response.getErrors().get(0).getMessage().startsWith("Malformed JSON"));
+        verify(repository).persistAll(argThat((List<TrafficSensorData> saved) -> saved.size() == 1));
+    }
+
+    @Test
+    void testFailedChunkStopsTheStreamWithCountsAndIsNotCommittedAgain() {
+        when(repository.persistAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        StreamIngestResponse response = service.ingestTrafficDataStream(readings(2500));
+
+        assertEquals(1000, response.getSaved());
+        assertEquals(1, response.getChunks());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getFailureStatus());
+        assertTrue(response.getFailure().startsWith("Storing chunk 2 failed"));
+        verify(repository, times(2)).persistAll(anyList());
+    }
+
+    @Test
+    void testBrokenUploadKeepsCommittedChunksAndDropsTheOpenOne() {
+        InputStream broken = new SequenceInputStream(readings(1500), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        StreamIngestResponse response = service.ingestTrafficDataStream(broken);
+
+        assertEquals(1500, response.getReceived());
+        assertEquals(1000, response.getSaved());
+        assertEquals(HttpStatus.BAD_REQUEST, response.getFailureStatus());
+        verify(repository, times(1)).persistAll(anyList());
+    }
+
+    @Test
+    void testFailingAlertCheckStillCountsTheStoredReadings() {
+        when(settingsService.checkAndTriggerAlerts(any(), anyList())).thenThrow(new IllegalStateException("smtp down"));
+
+        StreamIngestResponse response = service.ingestTrafficDataStream(readings(10));
+
+        assertEquals(10, response.getSaved());
+        assertNull(response.getFailure());
+    }
+
+    private static InputStream readings(int count) {
+        String timestamp = LocalDateTime.now().minusMinutes(5).toString();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append("{\"location\":\"Street 1\",\"timestamp\":\"").append(timestamp)
+                    .append("\",\"trafficDensity\":120,\"avgSpeed\":42.5,\"congestionLevel\":\"High\"}\n");
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.SimulatorProperties;
+import com.example.dxc.dto.SimulatorSettingsRequest;
+import com.example.dxc.dto.SimulatorStatus;
+import com.example.dxc.model.StreetLightSensorData;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.StreetLightSensorDataRepository;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.strategy.StreetLightSensorStrategy;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SensorFleetSimulatorTest {
+
+    private final SensorDataValidator validator = new SensorDataValidator();
+    private final TrafficSensorStrategy traffic = new TrafficSensorStrategy(
+            mock(TrafficSensorDataRepository.class), validator, mock(SettingsService.class));
+    private final StreetLightSensorStrategy streetLights = new StreetLightSensorStrategy(
+            mock(StreetLightSensorDataRepository.class), validator, mock(SettingsService.class));
+
+    @Test
+    void testSameSeedGivesSameReadings() {
+        SplittableRandom first = new SplittableRandom(7);
+        SplittableRandom second = new SplittableRandom(7);
+        LocalDateTime now = LocalDateTime.now().minusSeconds(1);
+        for (int i = 0; i < 100; i++) {
+            LocalTime timeOfDay = LocalTime.of(i % 24, 15);
+            TrafficSensorData a = traffic.simulateData("Street 3", now, timeOfDay, first);
+            TrafficSensorData b = traffic.simulateData("Street 3", now, timeOfDay, second);
+            assertNotEquals(a.getId(), b.getId());
+            b.setId(a.getId());
+            assertEquals(a, b);
+            assertEquals("Street 3", a.getLocation());
+            traffic.validate(a);
+        }
+    }
+
+    @Test
+    void testReadingsFollowTheTimeOfDay() {
+        SplittableRandom random = new SplittableRandom(1);
+        LocalDateTime now = LocalDateTime.now().minusSeconds(1);
+        double rushHour = 0;
+        double night = 0;
+        int lightsOnAtNight = 0;
+        int lightsOnAtNoon = 0;
+        for (int i = 0; i < 500; i++) {
+            rushHour += traffic.simulateData("Street 1", now, LocalTime.of(8, 0), random).getTrafficDensity();
+            night += traffic.simulateData("Street 1", now, LocalTime.of(3, 0), random).getTrafficDensity();
+            StreetLightSensorData midnight = streetLights.simulateData("LightPole-1", now, LocalTime.MIDNIGHT, random);
+            StreetLightSensorData noon = streetLights.simulateData("LightPole-1", now, LocalTime.NOON, random);
+            streetLights.validate(midnight);
+            streetLights.validate(noon);
+            lightsOnAtNight += midnight.getStatus() == StreetLightSensorData.LightStatus.ON ? 1 : 0;
+            lightsOnAtNoon += noon.getStatus() == StreetLightSensorData.LightStatus.ON ? 1 : 0;
+        }
+        assertTrue(rushHour > 3 * night, "rush hour " + rushHour / 500 + " vs night " + night / 500);
+        assertTrue(lightsOnAtNight > 490, "on at night: " + lightsOnAtNight);
+        assertTrue(lightsOnAtNoon < 10, "on at noon: " + lightsOnAtNoon);
+    }
+
+    @Test
+    void testFleetEmitsAtTheConfiguredRateAndReplaysWithTheSameSeed() throws Exception {
+        List<TrafficSensorData> firstRun = run();
+        List<TrafficSensorData> secondRun = run();
+
+        // 10 sensors at 20 Hz for one second
+        assertTrue(firstRun.size() > 120 && firstRun.size() < 260, "emitted " + firstRun.size());
+        Map<String, List<Integer>> first = densitiesByLocation(firstRun);
+        Map<String, List<Integer>> second = densitiesByLocation(secondRun);
+        assertEquals(10, first.size());
+        for (int sensor = 1; sensor <= 10; sensor++) {
+            String location = "Street " + sensor;
+            assertEquals(first.get(location).subList(0, 5), second.get(location).subList(0, 5), location);
+        }
+    }
+
+    @Test
+    void testRestartedFleetStoresNewRows() throws Exception {
+        // Stands in for the table: a repeated id would replace a row instead of adding one
+        Map<UUID, TrafficSensorData> stored = new ConcurrentHashMap<>();
+        SensorDataService service = mock(SensorDataService.class);
+        when(service.saveTrafficData(any())).thenAnswer(invocation -> {
+            TrafficSensorData reading = invocation.getArgument(0);
+            stored.put(reading.getId(), reading);
+            return reading;
+        });
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.setSensorsPerType(5);
+        properties.setRateHz(20);
+        properties.setStartTime(LocalTime.of(7, 30));
+
+        runFleet(new SensorFleetSimulator(List.of(traffic), service, properties));
+        int firstRun = stored.size();
+        // A new simulator with the same seed, as after an application restart
+        SimulatorStatus status = runFleet(new SensorFleetSimulator(List.of(traffic), service, properties));
+
+        assertTrue(firstRun > 0);
+        assertEquals(firstRun + status.getTypes().get("Traffic").getEmitted(), stored.size());
+    }
+
+    @Test
+    void testThreadStuckInASaveDoesNotResumeAfterARestart() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Queue<Thread> callers = new ConcurrentLinkedQueue<>();
+        SensorDataService service = mock(SensorDataService.class);
+        when(service.saveTrafficData(any())).thenAnswer(invocation -> {
+            callers.add(Thread.currentThread());
+            if (blocked.getCount() > 0) {
+                blocked.countDown();
+                release.await();
+            }
+            return invocation.getArgument(0);
+        });
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.setSensorsPerType(1);
+        properties.setRateHz(50);
+        properties.setThreadsPerType(1);
+        SensorFleetSimulator simulator = new SensorFleetSimulator(List.of(traffic), service, properties);
+        SimulatorSettingsRequest start = new SimulatorSettingsRequest();
+        start.setRunning(true);
+        SimulatorSettingsRequest stop = new SimulatorSettingsRequest();
+        stop.setRunning(false);
+
+        simulator.update(start);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        Thread stuck = callers.peek();
+        Thread stopping = new Thread(() -> simulator.update(stop));
+        stopping.start();
+        // Waiting for the stuck thread must not hold up the status or a new start
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (simulator.getStatus().isRunning() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(simulator.getStatus().isRunning());
+        simulator.update(start);
+        release.countDown();
+        stuck.join(1000);
+        stopping.join(1000);
+        Thread.sleep(200);
+        simulator.update(stop);
+
+        assertFalse(stuck.isAlive());
+        assertEquals(1, callers.stream().filter(caller -> caller == stuck).count());
+        assertTrue(callers.size() > 1);
+    }
+
+    private static SimulatorStatus runFleet(SensorFleetSimulator simulator) throws InterruptedException {
+        SimulatorSettingsRequest start = new SimulatorSettingsRequest();
+        start.setRunning(true);
+        simulator.update(start);
+        Thread.sleep(300);
+        SimulatorSettingsRequest stop = new SimulatorSettingsRequest();
+        stop.setRunning(false);
+        return simulator.update(stop);
+    }
+
+    private List<TrafficSensorData> run() throws InterruptedException {
+        Queue<TrafficSensorData> received = new ConcurrentLinkedQueue<>();
+        SensorDataService service = mock(SensorDataService.class);
+        when(service.saveTrafficData(any())).thenAnswer(invocation -> {
+            received.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.setSensorsPerType(5);
+        properties.setRateHz(20);
+        properties.setThreadsPerType(2);
+        properties.setStartTime(LocalTime.of(7, 30));
+        properties.setTimeScale(600);
+        SensorFleetSimulator simulator = new SensorFleetSimulator(List.of(traffic), service, properties);
+
+        SimulatorSettingsRequest start = new SimulatorSettingsRequest();
+        start.setSensorsPerType(10);
+        start.setRunning(true);
+        simulator.update(start);
+        Thread.sleep(1000);
+        SimulatorSettingsRequest stop = new SimulatorSettingsRequest();
+        stop.setRunning(false);
+        SimulatorStatus status = simulator.update(stop);
+
+        assertFalse(status.isRunning());
+        assertEquals(received.size(), status.getTypes().get("Traffic").getEmitted());
+        assertEquals(0, status.getTypes().get("Traffic").getFailed());
+        return new ArrayList<>(received);
+    }
+
+    private static Map<String, List<Integer>> densitiesByLocation(List<TrafficSensorData> readings) {
+        Map<String, List<Integer>> byLocation = new LinkedHashMap<>();
+        for (TrafficSensorData reading : readings) {
+            byLocation.computeIfAbsent(reading.getLocation(), location -> new ArrayList<>()).add(reading.getTrafficDensity());
+        }
+        return byLocation;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.dto.CursorPage;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SensorDataJpaTest
+class SensorKeysetPaginationTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @Autowired
+    private SensorDataService sensorDataService;
+
+    @Autowired
+    private TrafficSensorDataRepository repository;
+
+    @Autowired
+    private TrafficSensorStrategy strategy;
+
+    @Autowired
+    private WriteBehindIngestor writeBehind;
+
+    @Autowired
+    private IngestProperties ingestProperties;
+
+    @MockitoBean
+    private SettingsService settingsService;
+
+    private final List<TrafficSensorData> seeded = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        seeded.clear();
+        for (int i = 0; i < 600; i++) {
+            seeded.add(TrafficSensorData.builder()
+                    .id(UUID.randomUUID())
+                    // Groups of five readings share a timestamp, so the id has to break ties
+                    .timestamp(BASE.plusMinutes(i / 5))
+                    .location("Street " + i % 3)
+                    .trafficDensity(i % 500)
+                    .avgSpeed(50f)
+                    .congestionLevel(i % 2 == 0 ? TrafficSensorData.CongestionLevel.High : TrafficSensorData.CongestionLevel.Low)
+                    .build());
+        }
+        repository.persistAll(new ArrayList<>(seeded));
+    }
+
+    @Test
+    void testWalksEveryMatchingRowOnceInOrder() {
+        LocalDateTime start = BASE.plusMinutes(10);
+        List<UUID> walked = new ArrayList<>();
+        String after = "";
+        int pages = 0;
+        do {
+            CursorPage<TrafficSensorData> page = sensorDataService.getTrafficDataAfter(
+                    "Street 1", TrafficSensorData.CongestionLevel.High, start, null, after, 7, true);
+            page.getContent().forEach(reading -> walked.add(reading.getId()));
+            assertEquals(page.isHasNext(), page.getNextCursor() != null);
+            after = page.getNextCursor();
+            pages++;
+        } while (after != null);
+
+        List<TrafficSensorData> expected = seeded.stream()
+                .filter(r -> r.getLocation().equals("Street 1"))
+                .filter(r -> r.getCongestionLevel() == TrafficSensorData.CongestionLevel.High)
+                .filter(r -> !r.getTimestamp().isBefore(start))
+                .toList();
+        assertEquals(expected.size(), walked.size());
+        assertEquals(expected.size(), new HashSet<>(walked).size());
+        assertEquals((expected.size() + 6) / 7, pages);
+
+        List<TrafficSensorData> walkedRows = repository.findAllById(walked);
+        Map<UUID, LocalDateTime> timestamps = new HashMap<>();
+        walkedRows.forEach(r -> timestamps.put(r.getId(), r.getTimestamp()));
+        for (int i = 1; i < walked.size(); i++) {
+            assertFalse(timestamps.get(walked.get(i)).isAfter(timestamps.get(walked.get(i - 1))));
+        }
+    }
+
+    @Test
+    void testAscendingOrderWithTiesOnTimestamp() {
+        CursorPage<TrafficSensorData> first = sensorDataService.getTrafficDataAfter(null, null, null, null, "", 3, false);
+        CursorPage<TrafficSensorData> second = sensorDataService.getTrafficDataAfter(null, null, null, null, first.getNextCursor(), 3, false);
+
+        // Both pages cut through the first group of five readings sharing BASE
+        assertTrue(first.getContent().stream().allMatch(r -> r.getTimestamp().equals(BASE)));
+        assertEquals(BASE, second.getContent().get(0).getTimestamp());
+        assertEquals(BASE.plusMinutes(1), second.getContent().get(2).getTimestamp());
+        Set<UUID> ids = new HashSet<>();
+        first.getContent().forEach(r -> ids.add(r.getId()));
+        second.getContent().forEach(r -> ids.add(r.getId()));
+        assertEquals(6, ids.size());
+    }
+
+    @Test
+    @DirtiesContext
+    void testQueuedReadingsFollowTheDatabaseIdOrder() {
+        // Same timestamp, ids on both sides of the sign bit: the table orders them unsigned, stored first
+        LocalDateTime tied = BASE.minusDays(1);
+        TrafficSensorData stored = reading(new UUID(1L, 0L), tied);
+        TrafficSensorData queued = reading(new UUID(Long.MIN_VALUE, 0L), tied);
+        repository.persistAll(new ArrayList<>(List.of(stored)));
+        ingestProperties.setWriteBehind(true);
+        try {
+            writeBehind.enqueue(strategy, queued);
+
+            CursorPage<TrafficSensorData> first = sensorDataService.getTrafficDataAfter(null, null, null, null, "", 1, false);
+            CursorPage<TrafficSensorData> second = sensorDataService.getTrafficDataAfter(null, null, null, null, first.getNextCursor(), 1, false);
+
+            assertEquals(stored.getId(), first.getContent().get(0).getId());
+            assertEquals(queued.getId(), second.getContent().get(0).getId());
+        } finally {
+            ingestProperties.setWriteBehind(false);
+        }
+    }
+
+    @Test
+    void testRejectsTamperedCursor() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> sensorDataService.getTrafficDataAfter(null, null, null, null, "not-a-cursor", 10, true));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    private static TrafficSensorData reading(UUID id, LocalDateTime timestamp) {
+        return TrafficSensorData.builder()
+                .id(id)
+                .timestamp(timestamp)
+                .location("Street 0")
+                .trafficDensity(10)
+                .avgSpeed(50f)
+                .congestionLevel(TrafficSensorData.CongestionLevel.Low)
+                .build();
+    }
+}
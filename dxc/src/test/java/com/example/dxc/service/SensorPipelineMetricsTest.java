@@ -0,0 +1,93 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.config.RollupProperties;
+import com.example.dxc.config.SensorQueryProperties;
+import com.example.dxc.model.Alert;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class SensorPipelineMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private SensorDataService service;
+
+    @BeforeEach
+    void setUp() {
+        TrafficSensorDataRepository repository = mock(TrafficSensorDataRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.persistAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TrafficSensorStrategy strategy = new TrafficSensorStrategy(
+                repository, new SensorDataValidator(), mock(SettingsService.class));
+        strategy.setMeterRegistry(registry);
+        IngestProperties properties = new IngestProperties();
+        service = new SensorDataServiceImpl(List.of(strategy), properties, new ObjectMapper(),
+                new WriteBehindIngestor(List.of(strategy), properties), mock(SensorCountEstimator.class),
+                new SensorQueryProperties(), mock(SensorRollupStore.class), new RollupProperties(),
+                new LatestReadingCache());
+    }
+
+    @Test
+    void testEveryStageIsTimedPerSensorType() {
+        service.generateTrafficData();
+        service.generateTrafficData();
+
+        for (String stage : List.of("generate", "validate", "save", "alerts", "log")) {
+            assertEquals(2, registry.get("sensor.pipeline").tags("type", "Traffic", "stage", stage).timer().count(), stage);
+        }
+        assertEquals(2, registry.get("sensor.readings.saved").tag("type", "Traffic").counter().count());
+    }
+
+    @Test
+    void testBatchCountsSavedAndRejectedReadings() {
+        service.saveTrafficDataBatch(List.of(reading(120), reading(900), reading(80)));
+
+        assertEquals(1, registry.get("sensor.pipeline").tags("type", "Traffic", "stage", "save").timer().count());
+        assertEquals(3, registry.get("sensor.pipeline").tags("type", "Traffic", "stage", "validate").timer().count());
+        assertEquals(2, registry.get("sensor.readings.saved").tag("type", "Traffic").counter().count());
+        assertEquals(1, registry.get("sensor.readings.rejected").tag("type", "Traffic").counter().count());
+    }
+
+    @Test
+    void testEmailSendsAreTimedByOutcome() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        EmailServiceImpl emailService = new EmailServiceImpl(mailSender);
+        emailService.setMeterRegistry(registry);
+        Alert alert = Alert.builder().type(Settings.SettingType.Traffic).metric("trafficDensity").build();
+
+        emailService.sendAlertEmail(alert, "jane@example.com");
+        doThrow(new MailSendException("connection refused")).when(mailSender).send(any(SimpleMailMessage.class));
+        assertThrows(MailSendException.class, () -> emailService.sendAlertEmail(alert, "jane@example.com"));
+
+        assertEquals(1, registry.get("email.send").tags("kind", "alert", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("email.send").tags("kind", "alert", "outcome", "failure").timer().count());
+    }
+
+    private static TrafficSensorData reading(int density) {
+        return TrafficSensorData.builder()
+                .location("Street 1")
+                .timestamp(LocalDateTime.now().minusMinutes(1))
+                .trafficDensity(density)
+                .avgSpeed(40f)
+                .congestionLevel(TrafficSensorData.CongestionLevel.Moderate)
+                .build();
+    }
+}
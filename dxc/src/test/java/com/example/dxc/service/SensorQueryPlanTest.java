@@ -0,0 +1,265 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.service.strategy.AirPollutionSensorStrategy;
+import com.example.dxc.service.strategy.SensorDataStrategy;
+import com.example.dxc.service.strategy.StreetLightSensorStrategy;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seeds every sensor table, runs the strategies' dashboard reads and checks with EXPLAIN that the
+ * statements Hibernate sends for each filter combination, each allowed sortBy column and a keyset
+ * page are served by an index. The statements are recorded from the JDBC driver calls, parameters
+ * included, so the plans are those of the real queries.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({TrafficSensorStrategy.class, AirPollutionSensorStrategy.class, StreetLightSensorStrategy.class,
+        SensorDataValidator.class, IngestProperties.class, SensorQueryPlanTest.StatementRecorder.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SensorQueryPlanTest {
+
+    private static final int ROWS = 20_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    // Third page of ten, newest first, as the dashboard pages
+    private static final Pageable PAGE = PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "timestamp"));
+
+    private record SensorTable(String name, String[] statuses, String insertSql, SensorDataStrategy<?> strategy) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TrafficSensorStrategy trafficStrategy;
+
+    @Autowired
+    private AirPollutionSensorStrategy airPollutionStrategy;
+
+    @Autowired
+    private StreetLightSensorStrategy streetLightStrategy;
+
+    @MockitoBean
+    private SettingsService settingsService;
+
+    private List<SensorTable> tables;
+
+    @BeforeEach
+    void seed() {
+        tables = List.of(
+                new SensorTable("traffic_sensors_data",
+                        new String[]{"Low", "Moderate", "High", "Severe"},
+                        "insert into traffic_sensors_data (id, location, timestamp, congestion_level, traffic_density, avg_speed) "
+                                + "values (?, ?, ?, ?, 100, 40)",
+                        trafficStrategy),
+                new SensorTable("air_pollution_sensors_data",
+                        new String[]{"Good", "Moderate", "Unhealthy", "Very_Unhealthy", "Hazardous"},
+                        "insert into air_pollution_sensors_data (id, location, timestamp, pollution_level, pm2_5, pm10, co, no2, so2, ozone) "
+                                + "values (?, ?, ?, ?, 10, 20, 1, 5, 5, 30)",
+                        airPollutionStrategy),
+                new SensorTable("street_light_sensors_data",
+                        new String[]{"ON", "OFF"},
+                        "insert into street_light_sensors_data (id, location, timestamp, status, brightness_level, power_consumption) "
+                                + "values (?, ?, ?, ?, 50, 100)",
+                        streetLightStrategy));
+
+        for (SensorTable table : tables) {
+            Integer existing = jdbcTemplate.queryForObject("select count(*) from " + table.name(), Integer.class);
+            if (existing != null && existing == ROWS) {
+                continue;
+            }
+            jdbcTemplate.update("delete from " + table.name());
+            List<Object[]> rows = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                rows.add(new Object[]{UUID.randomUUID(), "Street " + i % 200,
+                        Timestamp.valueOf(BASE.plusSeconds(i * 30L)), table.statuses()[i % table.statuses().length]});
+            }
+            jdbcTemplate.batchUpdate(table.insertSql(), rows);
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void testEveryFilterCombinationUsesAnIndex() {
+        for (SensorTable table : tables) {
+            SensorDataStrategy<?> strategy = table.strategy();
+            // Bits: location, status, start, end - the filters of AbstractSensorDataStrategy.filterSpec
+            for (int filters = 1; filters < 16; filters++) {
+                String location = (filters & 1) != 0 ? "Street 7" : null;
+                Enum<?> status = (filters & 2) != 0 ? strategy.parseStatus(table.statuses()[1]) : null;
+                LocalDateTime start = (filters & 4) != 0 ? BASE.plusDays(2) : null;
+                LocalDateTime end = (filters & 8) != 0 ? BASE.plusDays(3) : null;
+
+                List<RecordedStatement> statements = record(() -> {
+                    strategy.getData(location, status, start, end, PAGE);
+                    strategy.count(location, status, start, end);
+                });
+                assertTrue(statements.size() >= 2, "Expected a page and a count query: " + statements);
+                for (RecordedStatement statement : statements) {
+                    assertIndexed(table, statement);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testEverySortableFieldIsIndexSorted() {
+        for (SensorTable table : tables) {
+            for (String field : table.strategy().getSortableFields()) {
+                for (Sort.Direction direction : Sort.Direction.values()) {
+                    RecordedStatement page = record(() -> table.strategy().getData(null, null, null, null,
+                            PageRequest.of(2, 10, Sort.by(direction, field)))).get(0);
+                    String plan = explain(page);
+                    assertTrue(plan.contains("index sorted"),
+                            table.name() + " sorted by " + field + " " + direction + " needs an index:\n" + plan);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testKeysetSeekUsesTimestampIndex() {
+        SensorCursor cursor = new SensorCursor(BASE.plusDays(4), new UUID(0, 0));
+        for (SensorTable table : tables) {
+            List<RecordedStatement> statements = record(() ->
+                    table.strategy().getDataAfter(null, null, null, null, cursor, 11, true));
+            assertEquals(1, statements.size(), statements.toString());
+            String plan = explain(statements.get(0));
+            assertTrue(plan.contains("index sorted"), table.name() + " keyset page needs an index:\n" + plan);
+        }
+    }
+
+    private static List<RecordedStatement> record(Runnable reads) {
+        StatementRecorder.statements.clear();
+        StatementRecorder.recording = true;
+        try {
+            reads.run();
+        } finally {
+            StatementRecorder.recording = false;
+        }
+        return List.copyOf(StatementRecorder.statements);
+    }
+
+    private void assertIndexed(SensorTable table, RecordedStatement statement) {
+        String plan = explain(statement);
+        assertFalse(plan.contains("tableScan"), "Full scan of " + table.name() + ":\n" + plan);
+        assertTrue(plan.contains("/* PUBLIC.IDX_"), "No index used on " + table.name() + ":\n" + plan);
+    }
+
+    // EXPLAIN of the recorded statement, bound to the same parameters
+    private String explain(RecordedStatement statement) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("explain " + statement.sql())) {
+                for (Binding binding : statement.bindings()) {
+                    binding.setter().invoke(explain, binding.args());
+                }
+                try (ResultSet plan = explain.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    record RecordedStatement(String sql, List<Binding> bindings) {
+    }
+
+    record Binding(Method setter, Object[] args) {
+    }
+
+    /**
+     * Wraps the data source so that, while recording, every query prepared through it is kept with
+     * its parameter setter calls.
+     */
+    @TestConfiguration
+    static class StatementRecorder {
+
+        static final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+        static volatile boolean recording;
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? recording(dataSource) : bean;
+                }
+            };
+        }
+
+        private static DataSource recording(DataSource dataSource) {
+            return proxy(DataSource.class, (proxy, method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? recording(connection) : result;
+            });
+        }
+
+        private static Connection recording(Connection connection) {
+            return proxy(Connection.class, (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (recording && result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                    return recording(statement, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement recording(PreparedStatement statement, String sql) {
+            List<Binding> bindings = new ArrayList<>();
+            return proxy(PreparedStatement.class, (proxy, method, args) -> {
+                if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bindings.add(new Binding(method, args.clone()));
+                } else if (method.getName().equals("executeQuery")) {
+                    statements.add(new RecordedStatement(sql, List.copyOf(bindings)));
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return type.cast(Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
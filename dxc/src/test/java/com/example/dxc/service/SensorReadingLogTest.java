@@ -0,0 +1,116 @@
+package com.example.dxc.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.dxc.config.SensorLogProperties;
+import com.example.dxc.model.Alert;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SensorReadingLogTest {
+
+    private final Logger readingLogger = (Logger) LoggerFactory.getLogger("sensor.readings");
+    private final ListAppender<ILoggingEvent> events = new ListAppender<>();
+    private final SettingsService settingsService = mock(SettingsService.class);
+    private final SensorLogProperties properties = new SensorLogProperties();
+    private TrafficSensorStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        events.start();
+        readingLogger.addAppender(events);
+        readingLogger.setLevel(Level.INFO);
+        strategy = new TrafficSensorStrategy(mock(TrafficSensorDataRepository.class), new SensorDataValidator(), settingsService);
+        strategy.setLogProperties(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readingLogger.detachAppender(events);
+        readingLogger.setLevel(null);
+    }
+
+    @Test
+    void testOneEventWithTheReadingsFieldsForEverySampledReading() {
+        properties.getTypes().put(Settings.SettingType.Traffic, 3);
+        TrafficSensorData first = reading("Street 1");
+        strategy.log(first, "TRAFFIC DATA INSERTED");
+        for (int i = 0; i < 8; i++) {
+            strategy.log(reading("Street 2"), "TRAFFIC DATA INSERTED");
+        }
+
+        assertEquals(3, events.list.size());
+        ILoggingEvent event = events.list.get(0);
+        assertEquals("TRAFFIC DATA INSERTED", event.getFormattedMessage());
+        Map<String, Object> fields = fields(event);
+        assertEquals(Settings.SettingType.Traffic, fields.get("type"));
+        assertEquals(first.getId(), fields.get("id"));
+        assertEquals("Street 1", fields.get("location"));
+        assertEquals(42, fields.get("trafficDensity"));
+        assertEquals(3, fields.get("sampleEvery"));
+    }
+
+    @Test
+    void testReadingsThatRaiseAnAlertAreLoggedWhateverTheSampling() {
+        properties.setSampleEvery(0);
+        when(settingsService.checkAndTriggerAlert(any(), eq("trafficDensity"), anyFloat(), any())).thenReturn(Alert.builder().build());
+        when(settingsService.checkAndTriggerAlerts(any(), anyList()))
+                .thenReturn(List.of(Alert.builder().location("Street 7").build()));
+
+        TrafficSensorData single = reading("Street 1");
+        strategy.checkAlerts(single);
+        strategy.log(single, "TRAFFIC DATA INSERTED");
+        strategy.checkAlerts(List.of(reading("Street 6"), reading("Street 7")));
+
+        assertEquals(List.of("Street 1", "Street 7"),
+                events.list.stream().map(event -> fields(event).get("location")).toList());
+        assertTrue(events.list.stream().allMatch(event -> event.getFormattedMessage().equals("ALERT RAISED")));
+    }
+
+    @Test
+    void testNothingIsLoggedOrSampledWhileTheLoggerIsOff() {
+        properties.setSampleEvery(2);
+        readingLogger.setLevel(Level.WARN);
+        strategy.log(reading("Street 1"), "TRAFFIC DATA INSERTED");
+
+        readingLogger.setLevel(Level.INFO);
+        strategy.log(reading("Street 2"), "TRAFFIC DATA INSERTED");
+
+        // The disabled call did not count towards the sample
+        assertEquals(1, events.list.size());
+        assertEquals("Street 2", fields(events.list.get(0)).get("location"));
+    }
+
+    private static TrafficSensorData reading(String location) {
+        return TrafficSensorData.builder()
+                .id(UUID.randomUUID())
+                .location(location)
+                .timestamp(LocalDateTime.now())
+                .trafficDensity(42)
+                .avgSpeed(30)
+                .congestionLevel(TrafficSensorData.CongestionLevel.Moderate)
+                .build();
+    }
+
+    private static Map<String, Object> fields(ILoggingEvent event) {
+        return event.getKeyValuePairs().stream().collect(Collectors.toMap(pair -> pair.key, pair -> pair.value));
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.RollupProperties;
+import com.example.dxc.dto.RollupRebuildResponse;
+import com.example.dxc.dto.SensorAggregateResponse;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SensorDataJpaTest
+class SensorRollupTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 12, 0);
+    private static final List<String> LOCATIONS = List.of("Zone 1", "Zone 2", "Zone 3");
+
+    @Autowired
+    private SensorDataService sensorDataService;
+
+    @Autowired
+    private TrafficSensorStrategy strategy;
+
+    @Autowired
+    private TrafficSensorDataRepository repository;
+
+    @Autowired
+    private SensorRollupStore rollupStore;
+
+    @Autowired
+    private RollupProperties rollupProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private SettingsService settingsService;
+
+    private List<TrafficSensorData> readings;
+
+    @BeforeEach
+    void setUp() {
+        rollupStore.flush();
+        repository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM sensor_rollup_minute");
+        jdbcTemplate.update("DELETE FROM sensor_rollup_hour");
+
+        readings = readings(0, 300);
+        // Batch, single and batch again: every ingest path feeds the rollups
+        strategy.saveAll(readings.subList(0, 100));
+        readings.subList(100, 120).forEach(strategy::save);
+        strategy.saveAll(readings.subList(120, 300));
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupProperties.setEnabled(true);
+    }
+
+    @Test
+    void testRollupAggregatesMatchRawAggregates() {
+        List<LocalDateTime[]> ranges = List.of(
+                new LocalDateTime[]{null, null},
+                new LocalDateTime[]{BASE, BASE.plusHours(2)},
+                // Ragged on both ends: the partial buckets come from the raw rows
+                new LocalDateTime[]{BASE.plusSeconds(1337), BASE.plusSeconds(8111)},
+                new LocalDateTime[]{BASE.plusSeconds(1337), null},
+                new LocalDateTime[]{null, BASE.plusSeconds(5000)},
+                // Inside a single minute
+                new LocalDateTime[]{BASE.plusSeconds(61), BASE.plusSeconds(100)});
+
+        for (String bucket : List.of("1m", "5m", "1h", "3h", "1d")) {
+            for (String groupBy : List.of("city", "location")) {
+                for (String location : Arrays.asList(null, "Zone 2")) {
+                    for (LocalDateTime[] range : ranges) {
+                        String label = bucket + " " + groupBy + " " + location + " " + Arrays.toString(range);
+                        rollupProperties.setEnabled(true);
+                        List<SensorAggregateResponse.Bucket> fromRollups = aggregate(bucket, groupBy, location, range);
+                        rollupProperties.setEnabled(false);
+                        List<SensorAggregateResponse.Bucket> fromRaw = aggregate(bucket, groupBy, location, range);
+                        assertSameBuckets(fromRaw, fromRollups, label);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testWholeBucketsAreReadFromTheRollups() {
+        rollupStore.flush();
+        // Raw rows gone: only the rollups can still answer
+        repository.deleteAllInBatch();
+
+        SensorAggregateResponse response = sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "avgSpeed", "1h", "city", null, null, null, null);
+        assertEquals(readings.size(), response.getBuckets().stream().mapToLong(SensorAggregateResponse.Bucket::getCount).sum());
+
+        // A status filter cannot be answered from the rollups
+        SensorAggregateResponse filtered = sensorDataService.getAggregate(Settings.SettingType.Traffic,
+                "avgSpeed", "1h", "city", null, "High", null, null);
+        assertTrue(filtered.getBuckets().isEmpty());
+    }
+
+    @Test
+    void testFlushWritesOneRowPerBucket() {
+        rollupStore.flush();
+
+        Set<String> minutes = new HashSet<>();
+        Set<String> hours = new HashSet<>();
+        for (TrafficSensorData reading : readings) {
+            minutes.add(reading.getLocation() + reading.getTimestamp().truncatedTo(ChronoUnit.MINUTES));
+            hours.add(reading.getLocation() + reading.getTimestamp().truncatedTo(ChronoUnit.HOURS));
+        }
+        // Two traffic metrics per bucket
+        assertEquals(2L * minutes.size(), rowCount("sensor_rollup_minute"));
+        assertEquals(2L * hours.size(), rowCount("sensor_rollup_hour"));
+
+        // Readings landing in existing buckets update them in place
+        strategy.saveAll(readings(0, 30));
+        rollupStore.flush();
+        assertEquals(2L * hours.size(), rowCount("sensor_rollup_hour"));
+        assertEquals(2L * (readings.size() + 30), jdbcTemplate.queryForObject(
+                "SELECT SUM(sample_count) FROM sensor_rollup_hour", Long.class));
+    }
+
+    @Test
+    void testRebuildRecomputesRollupsFromRawRows() {
+        // Stored behind the listener's back, and one hour row damaged
+        repository.persistAll(readings(1000, 50));
+        rollupStore.flush();
+        jdbcTemplate.update("UPDATE sensor_rollup_hour SET sample_count = 999 WHERE bucket_start = ?", BASE.plusHours(1));
+
+        RollupRebuildResponse response = sensorDataService.rebuildRollups(Settings.SettingType.Traffic, null, null);
+        assertEquals(BASE, response.getStart());
+        assertTrue(response.getRows() > 0);
+
+        rollupProperties.setEnabled(false);
+        List<SensorAggregateResponse.Bucket> fromRaw = aggregate("1h", "location", null, new LocalDateTime[]{null, null});
+        rollupProperties.setEnabled(true);
+        List<SensorAggregateResponse.Bucket> fromRollups = aggregate("1h", "location", null, new LocalDateTime[]{null, null});
+        assertSameBuckets(fromRaw, fromRollups, "after rebuild");
+    }
+
+    @Test
+    void testRebuildOfARangeLeavesOtherHoursAlone() {
+        rollupStore.flush();
+        jdbcTemplate.update("UPDATE sensor_rollup_hour SET sample_count = 999 WHERE bucket_start = ?", BASE);
+        jdbcTemplate.update("UPDATE sensor_rollup_hour SET sample_count = 777 WHERE bucket_start = ?", BASE.plusHours(2));
+
+        sensorDataService.rebuildRollups(Settings.SettingType.Traffic, BASE.plusMinutes(10), BASE.plusMinutes(20));
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sensor_rollup_hour WHERE sample_count = 999", Long.class));
+        assertEquals(2 * LOCATIONS.size(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sensor_rollup_hour WHERE sample_count = 777", Long.class));
+    }
+
+    @Test
+    void testReadingsSavedWhileARangeIsReplacedKeepTheirDeltas() throws Exception {
+        rollupStore.flush();
+        List<TrafficSensorData> late = readings(2000, 30);
+        Thread[] flusher = new Thread[1];
+
+        rollupStore.replaceRange(Settings.SettingType.Traffic, BASE, BASE.plusDays(1), () -> {
+            // Saved after the scan, which found nothing; a concurrent flush must wait for the replace
+            Thread writer = new Thread(() -> strategy.saveAll(late));
+            writer.start();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            flusher[0] = new Thread(rollupStore::flush);
+            flusher[0].start();
+            return Map.of();
+        });
+        flusher[0].join(5000);
+        rollupStore.flush();
+
+        // Two traffic metrics per reading, only the late ones survive the replace
+        assertEquals(2L * late.size(), jdbcTemplate.queryForObject(
+                "SELECT SUM(sample_count) FROM sensor_rollup_hour", Long.class));
+    }
+
+    private List<SensorAggregateResponse.Bucket> aggregate(String bucket, String groupBy, String location, LocalDateTime[] range) {
+        return sensorDataService.getAggregate(Settings.SettingType.Traffic, "trafficDensity", bucket, groupBy,
+                location, null, range[0], range[1]).getBuckets();
+    }
+
+    private long rowCount(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private static void assertSameBuckets(List<SensorAggregateResponse.Bucket> expected,
+                                          List<SensorAggregateResponse.Bucket> actual, String label) {
+        assertEquals(expected.size(), actual.size(), label);
+        for (int i = 0; i < expected.size(); i++) {
+            SensorAggregateResponse.Bucket e = expected.get(i);
+            SensorAggregateResponse.Bucket a = actual.get(i);
+            assertEquals(e.getStart(), a.getStart(), label);
+            assertEquals(e.getLocation(), a.getLocation(), label);
+            assertEquals(e.getCount(), a.getCount(), label);
+            assertEquals(e.getMin(), a.getMin(), 1e-3, label);
+            assertEquals(e.getMax(), a.getMax(), 1e-3, label);
+            assertEquals(e.getAvg(), a.getAvg(), 1e-3, label);
+        }
+    }
+
+    private static List<TrafficSensorData> readings(int seed, int count) {
+        Random random = new Random(seed);
+        List<TrafficSensorData> list = new ArrayList<>(count);
+        // One reading every 37 seconds, spread over three zones
+        for (int i = 0; i < count; i++) {
+            list.add(TrafficSensorData.builder()
+                    .id(UUID.randomUUID())
+                    .location(LOCATIONS.get(i % LOCATIONS.size()))
+                    .timestamp(BASE.plusSeconds(37L * i))
+                    .trafficDensity(random.nextInt(501))
+                    .avgSpeed(random.nextFloat() * 120)
+                    .congestionLevel(TrafficSensorData.CongestionLevel.values()[i % 4])
+                    .build());
+        }
+        return list;
+    }
+}
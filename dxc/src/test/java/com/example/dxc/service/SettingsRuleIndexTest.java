@@ -0,0 +1,60 @@
+package com.example.dxc.service;
+
+import com.example.dxc.model.Settings;
+import com.example.dxc.repository.SettingsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SettingsRuleIndexTest {
+
+    private SettingsRepository repo;
+    private SettingsRuleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(SettingsRepository.class);
+        when(repo.findAll()).thenReturn(List.of(
+                rule(Settings.SettingType.Traffic, "avgSpeed", 20f),
+                rule(Settings.SettingType.Traffic, "avgSpeed", 99f),
+                rule(Settings.SettingType.Air_Pollution, "co", 30f)));
+        index = new SettingsRuleIndex(repo);
+        index.load();
+    }
+
+    @Test
+    void testLookupIsScopedToSensorType() {
+        assertEquals(30f, index.find(Settings.SettingType.Air_Pollution, "co").getThresholdValue());
+        assertNull(index.find(Settings.SettingType.Traffic, "co"));
+        assertNull(index.find(Settings.SettingType.Street_Light, "brightnessLevel"));
+    }
+
+    @Test
+    void testFirstDuplicateWinsOnLoad() {
+        assertEquals(20f, index.find(Settings.SettingType.Traffic, "avgSpeed").getThresholdValue());
+    }
+
+    @Test
+    void testPutReplacesRuleWithoutTouchingRepository() {
+        index.put(rule(Settings.SettingType.Traffic, "avgSpeed", 45f));
+        index.put(rule(Settings.SettingType.Street_Light, "brightnessLevel", 10f));
+
+        assertEquals(45f, index.find(Settings.SettingType.Traffic, "avgSpeed").getThresholdValue());
+        assertEquals(10f, index.find(Settings.SettingType.Street_Light, "brightnessLevel").getThresholdValue());
+        assertEquals(30f, index.find(Settings.SettingType.Air_Pollution, "co").getThresholdValue());
+        verify(repo, times(1)).findAll();
+    }
+
+    private Settings rule(Settings.SettingType type, String metric, float threshold) {
+        return Settings.builder()
+                .type(type)
+                .metric(metric)
+                .thresholdValue(threshold)
+                .alertType(Settings.AlertType.Above)
+                .build();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.dxc.service;
+
+import com.example.dxc.config.IngestProperties;
+import com.example.dxc.config.RollupProperties;
+import com.example.dxc.config.SensorQueryProperties;
+import com.example.dxc.dto.WriteBehindStats;
+import com.example.dxc.model.TrafficSensorData;
+import com.example.dxc.repository.TrafficSensorDataRepository;
+import com.example.dxc.service.strategy.TrafficSensorStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class WriteBehindIngestTest {
+
+    private TrafficSensorDataRepository repository;
+    private IngestProperties properties;
+    private WriteBehindIngestor ingestor;
+    private SensorDataService service;
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final AtomicInteger persisted = new AtomicInteger();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(TrafficSensorDataRepository.class);
+        when(repository.persistAll(anyList())).thenAnswer(invocation -> {
+            List<TrafficSensorData> batch = invocation.getArgument(0);
+            synchronized (batchSizes) {
+                batchSizes.add(batch.size());
+            }
+            persisted.addAndGet(batch.size());
+            return batch;
+        });
+        when(repository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenAnswer(invocation -> Page.empty(invocation.getArgument(1)));
+
+        properties = new IngestProperties();
+        properties.setWriteBehind(true);
+        properties.setQueueCapacity(1000);
+        properties.setFlushSize(100);
+        properties.setFlushInterval(Duration.ofMillis(50));
+
+        TrafficSensorStrategy strategy = new TrafficSensorStrategy(
+                repository, new SensorDataValidator(), mock(SettingsService.class));
+        ingestor = new WriteBehindIngestor(List.of(strategy), properties);
+        service = new SensorDataServiceImpl(List.of(strategy), properties, new ObjectMapper(), ingestor,
+                mock(SensorCountEstimator.class), new SensorQueryProperties(), mock(SensorRollupStore.class),
+                new RollupProperties(), new LatestReadingCache());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestor.stop();
+    }
+
+    @Test
+    void testQueuedReadingsAreVisibleBeforeFlush() {
+        service.saveTrafficData(reading("Street 1", 10));
+        service.saveTrafficData(reading("Street 2", 20));
+        service.saveTrafficData(reading("Street 1", 30));
+
+        Page<TrafficSensorData> page = service.getTrafficData("Street 1", null, null, null,
+                PageRequest.of(0, 10, Sort.by("timestamp").descending()));
+
+        verify(repository, never()).persistAll(anyList());
+        verify(repository, never()).save(any());
+        assertEquals(2, page.getTotalElements());
+        // Denser readings are older, so the newest-first page starts with the lightest one
+        assertEquals(10, page.getContent().get(0).getTrafficDensity());
+        assertEquals(30, page.getContent().get(1).getTrafficDensity());
+        assertEquals(3, ingestor.getStats().getQueueDepth().get("Traffic"));
+    }
+
+    @Test
+    void testWriterCommitsInBatchesAndFlushesOnStop() {
+        ingestor.start();
+        for (int i = 0; i < 450; i++) {
+            service.saveTrafficData(reading("Street " + i % 10, i % 500));
+        }
+        ingestor.stop();
+
+        assertEquals(450, persisted.get());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 100));
+        WriteBehindStats stats = ingestor.getStats();
+        assertEquals(450, stats.getAccepted());
+        assertEquals(450, stats.getFlushed());
+        assertEquals(0, stats.getQueueDepth().get("Traffic"));
+        assertEquals(batchSizes.size(), stats.getFlushes());
+    }
+
+    @Test
+    void testPartialBatchIsFlushedAfterInterval() {
+        ingestor.start();
+        service.saveTrafficData(reading("Street 1", 10));
+        service.saveTrafficData(reading("Street 2", 20));
+
+        verify(repository, timeout(2000)).persistAll(argThat(batch -> batch.size() == 2));
+    }
+
+    @Test
+    void testFullQueueRejectsWithServiceUnavailable() {
+        properties.setQueueCapacity(5);
+        for (int i = 0; i < 5; i++) {
+            service.saveTrafficData(reading("Street 1", i));
+        }
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.saveTrafficData(reading("Street 1", 99)));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertEquals(1, ingestor.getStats().getRejected());
+    }
+
+    @Test
+    void testReadingsAreRejectedOnceStopped() {
+        ingestor.start();
+        ingestor.stop();
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.saveTrafficData(reading("Street 1", 10)));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertEquals(1, ingestor.getStats().getRejected());
+        verify(repository, never()).persistAll(anyList());
+    }
+
+    @Test
+    void testBatchIsVisibleWhileItsCommitIsRunning() throws InterruptedException {
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.persistAll(anyList())).thenAnswer(invocation -> {
+            committing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+        ingestor.start();
+        service.saveTrafficData(reading("Street 1", 10));
+        service.saveTrafficData(reading("Street 1", 20));
+
+        assertTrue(committing.await(2, TimeUnit.SECONDS));
+        Page<TrafficSensorData> page = service.getTrafficData("Street 1", null, null, null, PageRequest.of(0, 10));
+        release.countDown();
+
+        assertEquals(2, page.getTotalElements());
+    }
+
+    @Test
+    void testFailedFlushIsRetriedAndStaysVisible() {
+        when(repository.persistAll(anyList()))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenAnswer(invocation -> {
+                    persisted.addAndGet(invocation.<List<TrafficSensorData>>getArgument(0).size());
+                    return invocation.getArgument(0);
+                });
+        ingestor.start();
+        service.saveTrafficData(reading("Street 1", 10));
+        service.saveTrafficData(reading("Street 2", 20));
+
+        verify(repository, timeout(2000).times(2)).persistAll(anyList());
+        ingestor.stop();
+
+        assertEquals(2, persisted.get());
+        WriteBehindStats stats = ingestor.getStats();
+        assertEquals(2, stats.getRetried());
+        assertEquals(2, stats.getFlushed());
+        assertEquals(0, stats.getFailed());
+    }
+
+    @Test
+    void testBatchIsDroppedWhenRetriesRunOut() {
+        properties.setFlushRetries(1);
+        when(repository.persistAll(anyList())).thenThrow(new IllegalStateException("connection lost"));
+        ingestor.start();
+        service.saveTrafficData(reading("Street 1", 10));
+
+        verify(repository, timeout(2000).times(2)).persistAll(anyList());
+        ingestor.stop();
+
+        WriteBehindStats stats = ingestor.getStats();
+        assertEquals(1, stats.getRetried());
+        assertEquals(1, stats.getFailed());
+        assertEquals(0, stats.getQueueDepth().get("Traffic"));
+        assertTrue(service.getTrafficData("Street 1", null, null, null, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void testConstraintViolationIsNotRetried() {
+        when(repository.persistAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        ingestor.start();
+        service.saveTrafficData(reading("Street 1", 10));
+        ingestor.stop();
+
+        verify(repository, times(1)).persistAll(anyList());
+        assertEquals(0, ingestor.getStats().getRetried());
+        assertEquals(1, ingestor.getStats().getFailed());
+    }
+
+    private TrafficSensorData reading(String location, int density) {
+        return TrafficSensorData.builder()
+                .location(location)
+                .timestamp(LocalDateTime.now().minusSeconds(1 + density))
+                .trafficDensity(density)
+                .avgSpeed(40f)
+                .congestionLevel(TrafficSensorData.CongestionLevel.Moderate)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.dxc.service.expression;
+
+import com.example.dxc.model.AirPollutionSensorData;
+import com.example.dxc.model.Settings;
+import com.example.dxc.model.TrafficSensorData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertExpressionCompilerTest {
+
+    @Test
+    void testAndRequiresBothComparisons() {
+        CompiledAlertExpression<AirPollutionSensorData> rule =
+                AlertExpressionCompiler.compile("pm2_5 > 55 and pm10 > 150", SensorMetrics.AIR_POLLUTION);
+
+        assertTrue(rule.matches(air(60f, 160f)));
+        assertFalse(rule.matches(air(60f, 100f)));
+        assertFalse(rule.matches(air(40f, 160f)));
+        assertEquals("pm2_5 > 55 AND pm10 > 150", rule.text());
+    }
+
+    @Test
+    void testAndBindsTighterThanOrAndParenthesesOverride() {
+        TrafficSensorData slowAndDense = traffic(5f, 450);
+        TrafficSensorData slowOnly = traffic(5f, 100);
+
+        CompiledAlertExpression<TrafficSensorData> precedence = AlertExpressionCompiler.compile(
+                "trafficDensity > 1000 || avgSpeed < 10 && trafficDensity > 400", SensorMetrics.TRAFFIC);
+        assertTrue(precedence.matches(slowAndDense));
+        assertFalse(precedence.matches(slowOnly));
+
+        CompiledAlertExpression<TrafficSensorData> grouped = AlertExpressionCompiler.compile(
+                "(trafficDensity > 1000 OR avgSpeed < 10) AND trafficDensity >= 100", SensorMetrics.TRAFFIC);
+        assertTrue(grouped.matches(slowOnly));
+    }
+
+    @Test
+    void testPrimaryComparisonDescribesTheAlert() {
+        CompiledAlertExpression<TrafficSensorData> rule =
+                AlertExpressionCompiler.compile("avgSpeed <= 10 AND trafficDensity > 400", SensorMetrics.TRAFFIC);
+
+        assertEquals(10f, rule.primaryThreshold());
+        assertEquals(Settings.AlertType.Below, rule.primaryAlertType());
+        assertEquals(7.5f, rule.primaryMetric().get(traffic(7.5f, 420)));
+    }
+
+    @Test
+    void testInvalidExpressionsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> AlertExpressionCompiler.compile("ozone > 100", SensorMetrics.TRAFFIC));
+        assertThrows(IllegalArgumentException.class,
+                () -> AlertExpressionCompiler.compile("avgSpeed > ", SensorMetrics.TRAFFIC));
+        assertThrows(IllegalArgumentException.class,
+                () -> AlertExpressionCompiler.compile("(avgSpeed > 5", SensorMetrics.TRAFFIC));
+        assertThrows(IllegalArgumentException.class,
+                () -> AlertExpressionCompiler.compile("avgSpeed = 5", SensorMetrics.TRAFFIC));
+        assertThrows(IllegalArgumentException.class,
+                () -> AlertExpressionCompiler.compile("avgSpeed > fast", SensorMetrics.TRAFFIC));
+    }
+
+    private AirPollutionSensorData air(float pm25, float pm10) {
+        AirPollutionSensorData data = new AirPollutionSensorData();
+        data.setPm2_5(pm25);
+        data.setPm10(pm10);
+        return data;
+    }
+
+    private TrafficSensorData traffic(float avgSpeed, int density) {
+        TrafficSensorData data = new TrafficSensorData();
+        data.setAvgSpeed(avgSpeed);
+        data.setTrafficDensity(density);
+        return data;
+    }
+}
@@ -42,7 +42,7 @@ export class AlertComponent implements OnInit, OnDestroy {
   ngOnInit() {
     console.log('AlertComponent initialized');
     this.isDarkMode = this.themeService.currentTheme === 'dark';
-    this.alertService.startPolling();
+    this.alertService.connect();
   }
 
   ngOnDestroy() {
@@ -53,7 +53,7 @@ export class AlertComponent implements OnInit, OnDestroy {
     if (this.themeSubscription) {
       this.themeSubscription.unsubscribe();
     }
-    this.alertService.stopPolling();
+    this.alertService.disconnect();
   }
 
   removeAlert(id: string) {
@@ -9,6 +9,7 @@ import { AirPollutionDashboardComponent } from './air-pollution-dashboard.compon
 import { ThemeService } from '../../../services/theme.service';
 import { NavbarComponent } from '../../navbar/navbar.component';
 import { AuthService } from '../../../services/auth.service';
+import { StreamTicketService } from '../../../services/stream-ticket.service';
 import { ClickOutsideDirective } from '../../../directives/click-outside.directive';
 import { RouterTestingModule } from '@angular/router/testing';
 import { environment } from '../../../../environments/environment';
@@ -88,7 +89,8 @@ describe('AirPollutionDashboardComponent', () => {
       ],
       providers: [
         { provide: ThemeService, useValue: themeServiceSpy },
-        { provide: AuthService, useValue: authServiceSpy }
+        { provide: AuthService, useValue: authServiceSpy },
+        { provide: StreamTicketService, useValue: { ticket: () => of('test-ticket') } }
       ]
     }).compileComponents();
 
@@ -382,24 +384,28 @@ describe('AirPollutionDashboardComponent', () => {
     });
   });
 
-  describe('Auto Refresh', () => {
-    it('should set up auto refresh on init', fakeAsync(() => {
+  describe('Live Feed', () => {
+    it('should subscribe to the live feed instead of polling on init', fakeAsync(() => {
+      const feed = jasmine.createSpyObj<EventSource>('EventSource', ['addEventListener', 'close']);
+      spyOn(component as any, 'createEventSource').and.returnValue(feed);
       spyOn(component, 'loadData');
       component.refreshInterval = 1000; // 1 second for testing
       
       component.ngOnInit();
-      tick(1000);
+      tick(5000);
       
-      expect(component.loadData).toHaveBeenCalledTimes(2); // Once on init, once on interval
+      expect((component as any).createEventSource).toHaveBeenCalledWith(
+        jasmine.stringMatching('/api/sensors/air-pollution/live'));
+      expect(component.loadData).toHaveBeenCalledTimes(1); // Only on init: nothing changed since
     }));
 
-    it('should clean up auto refresh on destroy', () => {
+    it('should close the live feed on destroy', () => {
+      const feed = jasmine.createSpyObj<EventSource>('EventSource', ['addEventListener', 'close']);
+      spyOn(component as any, 'createEventSource').and.returnValue(feed);
       component.ngOnInit();
-      const subscription = (component as any).autoRefreshSubscription;
-      spyOn(subscription, 'unsubscribe');
       
       component.ngOnDestroy();
-      expect(subscription.unsubscribe).toHaveBeenCalled();
+      expect(feed.close).toHaveBeenCalled();
     });
   });
 
@@ -4,6 +4,8 @@ import { TestBed, ComponentFixture, fakeAsync, tick } from '@angular/core/testin
 import { HttpClientTestingModule, HttpTestingController } from '@angular/common/http/testing';
 import { environment } from '../../../../environments/environment';
 import { BaseDashboardComponent, BaseData, ChartConfig } from './base-dashboard.component';
+import { StreamTicketService } from '../../../services/stream-ticket.service';
+import { of } from 'rxjs';
 import * as Highcharts from 'highcharts';
 
 interface TestData extends BaseData {
@@ -13,6 +15,33 @@ interface TestData extends BaseData {
   humidity?: number;
 }
 
+class FakeEventSource {
+  closed = false;
+  readyState = 0;
+  onerror: (() => void) | null = null;
+  private readonly listeners: { [type: string]: ((event: MessageEvent) => void)[] } = {};
+
+  constructor(public url: string) {}
+
+  addEventListener(type: string, listener: (event: MessageEvent) => void) {
+    (this.listeners[type] ??= []).push(listener);
+  }
+
+  close() {
+    this.closed = true;
+  }
+
+  // The server refused a reconnect, so the browser gave up on this source
+  refuse() {
+    this.readyState = 2;
+    this.onerror?.();
+  }
+
+  emit(type: string, data: any) {
+    (this.listeners[type] ?? []).forEach(listener => listener(new MessageEvent(type, { data: JSON.stringify(data) })));
+  }
+}
+
 @Component({
   template: '<div>Test Component</div>',
   standalone: true
@@ -20,6 +49,17 @@ interface TestData extends BaseData {
 class TestDashboardComponent extends BaseDashboardComponent<TestData> {
   apiEndpoint = 'test-endpoint';
   chartConfigs: { [key: string]: ChartConfig } = {};
+  feeds: FakeEventSource[] = [];
+
+  protected override createEventSource(url: string): EventSource {
+    const feed = new FakeEventSource(url);
+    this.feeds.push(feed);
+    return feed as unknown as EventSource;
+  }
+
+  get feed(): FakeEventSource {
+    return this.feeds[this.feeds.length - 1];
+  }
   
   getDataType(): string {
     return 'TestData';
@@ -56,6 +96,7 @@ describe('BaseDashboardComponent', () => {
   let component: TestDashboardComponent;
   let fixture: ComponentFixture<TestDashboardComponent>;
   let httpMock: HttpTestingController;
+  let tickets = 0;
 
   const mockApiResponse = {
     content: [
@@ -70,10 +111,14 @@ describe('BaseDashboardComponent', () => {
   };
 
   beforeEach(async () => {
+    tickets = 0;
     await TestBed.configureTestingModule({
       imports: [
         HttpClientTestingModule,
         TestDashboardComponent
+      ],
+      providers: [
+        { provide: StreamTicketService, useValue: { ticket: () => of(`ticket-${++tickets}`) } }
       ]
     }).compileComponents();
 
@@ -453,33 +498,107 @@ describe('BaseDashboardComponent', () => {
     });
   });
 
-  // ==================== AUTO REFRESH TESTS ====================
-  describe('Auto Refresh', () => {
-    it('should auto refresh data at specified interval', fakeAsync(() => {
-      component.refreshInterval = 1000; // 1 second for testing
+  // ==================== LIVE FEED TESTS ====================
+  describe('Live Feed', () => {
+    const firstPageUrl = `${environment.apiUrl}/api/sensors/test-endpoint?page=0&size=10&sortBy=timestamp&order=desc`;
+    const newReading = { id: '4', location: 'LocationB', timestamp: '2023-01-04T09:00:00Z', value: 30, status: 'OK' } as TestData;
+
+    it('should subscribe to the live feed on init', () => {
       fixture.detectChanges();
-      httpMock.expectOne(`${environment.apiUrl}/api/sensors/test-endpoint?page=0&size=10&sortBy=timestamp&order=desc`)
-        .flush(mockApiResponse);
-      
+      httpMock.expectOne(firstPageUrl).flush(mockApiResponse);
+
+      expect(component.feeds.length).toBe(1);
+      expect(component.feed.url).toBe(`${environment.apiUrl}/api/sensors/test-endpoint/live?ticket=ticket-1`);
+    });
+
+    it('should reconnect with a fresh ticket once the browser gives up on the feed', fakeAsync(() => {
+      fixture.detectChanges();
+      httpMock.expectOne(firstPageUrl).flush(mockApiResponse);
+      const first = component.feed;
+
+      first.refuse();
+      tick(component['RECONNECT_DELAY']);
+
+      expect(first.closed).toBe(true);
+      expect(component.feeds.length).toBe(2);
+      expect(component.feed.url).toBe(`${environment.apiUrl}/api/sensors/test-endpoint/live?ticket=ticket-2`);
+      // Readings sent while the feed was down were missed, so the page is fetched again
+      tick(component.refreshInterval);
+      httpMock.expectOne(firstPageUrl).flush(mockApiResponse);
+    }));
+
+    it('should put live readings on the newest-first first page without re-fetching', fakeAsync(() => {
+      component.refreshInterval = 1000;
+      fixture.detectChanges();
+      httpMock.expectOne(firstPageUrl).flush(mockApiResponse);
+
+      component.feed.emit('readings', [newReading]);
+      tick(5000);
+
+      expect(component.data[0].id).toBe('4');
+      expect(component.data.length).toBe(4);
+      expect(component.totalElements).toBe(4);
+    }));
+
+    it('should re-fetch other pages once per interval after changes', fakeAsync(() => {
+      component.refreshInterval = 1000;
+      fixture.detectChanges();
+      httpMock.expectOne(firstPageUrl).flush(mockApiResponse);
+      component.sortDirection = 'asc';
+
+      component.feed.emit('readings', [newReading]);
+      component.feed.emit('readings', [newReading]);
       tick(1000);
-      httpMock.expectOne(`${environment.apiUrl}/api/sensors/test-endpoint?page=0&size=10&sortBy=timestamp&order=desc`)
-        .flush(mockApiResponse);
+      httpMock.expectOne(req => req.params.get('order') === 'asc').flush(mockApiResponse);
+
+      tick(5000);
     }));
 
-    it('should stop auto refresh on destroy', fakeAsync(() => {
+    it('should re-fetch after the server dropped readings', fakeAsync(() => {
       component.refreshInterval = 1000;
       fixture.detectChanges();
-      httpMock.expectOne(`${environment.apiUrl}/api/sensors/test-endpoint?page=0&size=10&sortBy=timestamp&order=desc`)
-        .flush(mockApiResponse);
-      
-      // Destroy the component
+      httpMock.expectOne(firstPageUrl).flush(mockApiResponse);
+
+      component.feed.emit('dropped', 42);
+      tick(1000);
+      httpMock.expectOne(firstPageUrl).flush(mockApiResponse);
+    }));
+
+    it('should not refresh while nothing changes', fakeAsync(() => {
+      component.refreshInterval = 1000;
+      fixture.detectChanges();
+      httpMock.expectOne(firstPageUrl).flush(mockApiResponse);
+
+      tick(5000);
+      // verify() in afterEach fails on any further request
+    }));
+
+    it('should resubscribe with the new filters', () => {
+      fixture.detectChanges();
+      httpMock.expectOne(firstPageUrl).flush(mockApiResponse);
+      const previous = component.feed;
+
+      component.locationFilter = 'LocationA';
+      component.statusFilter = 'OK';
+      component.onFilterChange();
+      httpMock.expectOne(req => req.params.get('location') === 'LocationA').flush(mockApiResponse);
+
+      expect(previous.closed).toBe(true);
+      expect(component.feed.url).toContain('location=LocationA');
+      expect(component.feed.url).toContain('status=OK');
+    });
+
+    it('should close the live feed on destroy', fakeAsync(() => {
+      component.refreshInterval = 1000;
+      fixture.detectChanges();
+      httpMock.expectOne(firstPageUrl).flush(mockApiResponse);
+      component.sortDirection = 'asc';
+      component.feed.emit('readings', [newReading]);
+
       fixture.destroy();
-      
-      // Verify no outstanding requests
-      httpMock.verify();
-      
       tick(1000);
-      // No expectation needed since verify() would fail if there were requests
+
+      expect(component.feeds[0].closed).toBe(true);
     }));
   });
 
@@ -1,8 +1,9 @@
 // base-dashboard.component.ts
-import { Component, OnInit, OnDestroy, Input } from '@angular/core';
+import { Component, OnInit, OnDestroy, Input, inject } from '@angular/core';
 import { HttpClient, HttpParams, HttpHeaders } from '@angular/common/http';
-import { Subscription, interval } from 'rxjs';
+import { Subscription } from 'rxjs';
 import { environment } from '../../../../environments/environment';
+import { StreamTicketService } from '../../../services/stream-ticket.service';
 import * as Highcharts from 'highcharts';
 
 export interface PageResponse<T> {
@@ -56,9 +57,15 @@ export abstract class BaseDashboardComponent<T extends BaseData> implements OnIn
   itemsPerPage: number = 10;
   totalElements: number = 0;
 
-  // Auto refresh
-  private autoRefreshSubscription: Subscription | undefined;
-  @Input() refreshInterval: number = 60000; // Default 20 seconds
+  // Live feed of new readings matching the filters; pages that cannot take them in place
+  // are re-fetched at most once per refreshInterval, and only after something changed
+  private liveFeed: EventSource | null = null;
+  private ticketRequest: Subscription | null = null;
+  private reconnectTimer: any = null;
+  private readonly streamTickets = inject(StreamTicketService);
+  private pendingReload: any = null;
+  protected readonly RECONNECT_DELAY = 5000;
+  @Input() refreshInterval: number = 60000; // Default 60 seconds
   
   // Chart visibility controls
   showAllCharts = true;
@@ -81,19 +88,110 @@ export abstract class BaseDashboardComponent<T extends BaseData> implements OnIn
 
   ngOnInit() {
     this.loadData();
-    
-    // Set up auto refresh
-    this.autoRefreshSubscription = interval(this.refreshInterval).subscribe(() => {
-      this.loadData();
-    });
+    this.connectLiveFeed();
   }
   
   ngOnDestroy() {
-    if (this.autoRefreshSubscription) {
-      this.autoRefreshSubscription.unsubscribe();
+    this.closeLiveFeed();
+    if (this.pendingReload) {
+      clearTimeout(this.pendingReload);
+      this.pendingReload = null;
     }
   }
 
+  // Subscribes to new readings matching the current location and status filters
+  protected connectLiveFeed(reconnecting = false) {
+    this.closeLiveFeed();
+    this.ticketRequest = this.streamTickets.ticket().subscribe({
+      next: ticket => this.openLiveFeed(ticket, reconnecting),
+      error: () => this.scheduleReconnect()
+    });
+  }
+
+  private openLiveFeed(ticket: string, reconnecting: boolean) {
+    let params = new HttpParams().set('ticket', ticket);
+    if (this.locationFilter?.trim()) {
+      params = params.set('location', this.locationFilter);
+    }
+    if (this.statusFilter?.trim()) {
+      params = params.set('status', this.statusFilter);
+    }
+
+    this.liveFeed = this.createEventSource(
+      `${environment.apiUrl}/api/sensors/${this.apiEndpoint}/live?${params.toString()}`);
+    this.liveFeed.addEventListener('readings', event => {
+      this.onLiveReadings(JSON.parse((event as MessageEvent).data) as T[]);
+    });
+    // The server dropped readings this client was too slow to take: the page may be incomplete
+    this.liveFeed.addEventListener('dropped', () => this.scheduleReload());
+    // The browser retries a dropped connection by itself, but gives up once the server refuses one,
+    // e.g. after the ticket expired: start over with a fresh ticket
+    this.liveFeed.onerror = () => {
+      if (this.liveFeed?.readyState === EventSource.CLOSED) {
+        this.scheduleReconnect();
+      }
+    };
+    if (reconnecting) {
+      // Readings sent while the feed was down were missed
+      this.scheduleReload();
+    }
+  }
+
+  private scheduleReconnect() {
+    this.closeLiveFeed();
+    this.reconnectTimer = setTimeout(() => this.connectLiveFeed(true), this.RECONNECT_DELAY);
+  }
+
+  protected closeLiveFeed() {
+    this.ticketRequest?.unsubscribe();
+    this.ticketRequest = null;
+    if (this.reconnectTimer) {
+      clearTimeout(this.reconnectTimer);
+      this.reconnectTimer = null;
+    }
+    if (this.liveFeed) {
+      this.liveFeed.close();
+      this.liveFeed = null;
+    }
+  }
+
+  protected createEventSource(url: string): EventSource {
+    return new EventSource(url);
+  }
+
+  protected onLiveReadings(readings: T[]) {
+    const start = this.startDate ? this.safeDate(this.startDate).getTime() : -Infinity;
+    const end = this.endDate ? this.safeDate(this.endDate).getTime() : Infinity;
+    const matching = readings.filter(item => {
+      const time = this.safeDate(item.timestamp).getTime();
+      return time >= start && time <= end;
+    });
+    if (matching.length === 0) {
+      return;
+    }
+
+    // The newest-first first page can take new readings in place; any other view is re-fetched
+    if (this.currentPage === 1 && this.sortField === 'timestamp' && this.sortDirection === 'desc') {
+      const newestFirst = [...matching].sort((a, b) =>
+        this.safeDate(b.timestamp).getTime() - this.safeDate(a.timestamp).getTime());
+      this.data = [...newestFirst, ...(this.data ?? [])].slice(0, this.itemsPerPage);
+      this.totalElements += matching.length;
+      this.updateCharts();
+    } else {
+      this.scheduleReload();
+    }
+  }
+
+  private scheduleReload() {
+    if (this.pendingReload) {
+      return;
+    }
+    this.pendingReload = setTimeout(() => {
+      this.pendingReload = null;
+      this.loadData();
+    }, this.refreshInterval);
+  }
+
   // Null-safe utility methods
   protected safeGet<K extends keyof T>(item: T | null | undefined, key: K, defaultValue: any = null): any {
     return item?.[key] ?? defaultValue;
@@ -208,6 +306,7 @@ export abstract class BaseDashboardComponent<T extends BaseData> implements OnIn
   onFilterChange() {
     this.currentPage = 1;
     this.loadData();
+    this.connectLiveFeed();
   }
   
   // Common pagination functionality
@@ -1,8 +1,7 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
-import { BehaviorSubject, Observable, interval, Subscription } from 'rxjs';
-import { switchMap, tap, catchError } from 'rxjs/operators';
+import { BehaviorSubject, Observable, Subscription } from 'rxjs';
 import { environment } from '../../environments/environment';
+import { StreamTicketService } from './stream-ticket.service';
 
 export interface Alert {
   id: string;
@@ -27,47 +26,104 @@ export class AlertService {
   private readonly baseUrl = `${environment.apiUrl}/api/alerts`;
   private readonly alerts = new BehaviorSubject<Alert[]>([]);
   private alertQueue: Alert[] = [];
-  private pollingSubscription: Subscription | null = null;
+  private eventSource: EventSource | null = null;
+  private ticketRequest: Subscription | null = null;
+  private reconnectTimer: any = null;
+  private lastEventId: string | null = null;
+  private readonly RECONNECT_DELAY = 5000;
   private displayTimeout: any;
-  private readonly POLLING_INTERVAL = 60000; // 1 minute
   private readonly DISPLAY_DURATION = 5000; // 5 seconds
   private isProcessingQueue = false;
 
-  constructor(private readonly http: HttpClient) {}
+  constructor(private readonly streamTickets: StreamTicketService) {}
 
   getAlerts(): Observable<Alert[]> {
     return this.alerts.asObservable();
   }
 
-  startPolling() {
-    console.log('Starting alert polling...');
-    if (!this.pollingSubscription) {
-      // Initial fetch
-      this.fetchAlerts().subscribe({
-        next: () => console.log('Initial fetch completed'),
-        error: (error) => console.error('Error in initial fetch:', error)
-      });
-      
-      // Setup polling every minute
-      this.pollingSubscription = interval(this.POLLING_INTERVAL).pipe(
-        switchMap(() => this.fetchAlerts())
-      ).subscribe({
-        error: (error) => console.error('Error in polling subscription:', error)
-      });
+  connect() {
+    if (this.eventSource || this.ticketRequest || this.reconnectTimer) {
+      return;
     }
+    console.log('Connecting to alert stream...');
+    const request = this.streamTickets.ticket().subscribe({
+      next: ticket => {
+        this.ticketRequest = null;
+        this.open(ticket);
+      },
+      error: () => {
+        this.ticketRequest = null;
+        this.scheduleReconnect();
+      }
+    });
+    if (!request.closed) {
+      this.ticketRequest = request;
+    }
+  }
+
+  private open(ticket: string) {
+    // EventSource cannot send headers, so a short-lived stream ticket goes in the query string. On a
+    // dropped connection the browser reconnects by itself and sends Last-Event-ID to catch up.
+    let url = `${this.baseUrl}/stream?ticket=${encodeURIComponent(ticket)}`;
+    if (this.lastEventId) {
+      // A new EventSource starts without Last-Event-ID: catch up on what was missed meanwhile
+      url += `&lastEventId=${encodeURIComponent(this.lastEventId)}`;
+    }
+    this.eventSource = new EventSource(url);
+    this.eventSource.addEventListener('alert', (event) => {
+      const message = event as MessageEvent;
+      this.lastEventId = message.lastEventId || this.lastEventId;
+      this.enqueue(JSON.parse(message.data) as Alert);
+    });
+    this.eventSource.onerror = () => {
+      if (this.eventSource?.readyState === EventSource.CLOSED) {
+        // The browser gives up once the server refuses a reconnect, e.g. after the ticket expired
+        console.warn('Alert stream closed, reconnecting with a new ticket...');
+        this.scheduleReconnect();
+      } else {
+        console.warn('Alert stream interrupted, reconnecting...');
+      }
+    };
   }
 
-  stopPolling() {
-    if (this.pollingSubscription) {
-      this.pollingSubscription.unsubscribe();
-      this.pollingSubscription = null;
+  private scheduleReconnect() {
+    this.eventSource?.close();
+    this.eventSource = null;
+    this.reconnectTimer = setTimeout(() => {
+      this.reconnectTimer = null;
+      this.connect();
+    }, this.RECONNECT_DELAY);
+  }
+
+  disconnect() {
+    this.ticketRequest?.unsubscribe();
+    this.ticketRequest = null;
+    if (this.reconnectTimer) {
+      clearTimeout(this.reconnectTimer);
+      this.reconnectTimer = null;
+    }
+    this.lastEventId = null;
+    if (this.eventSource) {
+      this.eventSource.close();
+      this.eventSource = null;
     }
     if (this.displayTimeout) {
       clearTimeout(this.displayTimeout);
     }
     this.alertQueue = [];
     this.alerts.next([]);
-    console.log('Alert polling stopped');
+    this.isProcessingQueue = false;
+    console.log('Alert stream closed');
+  }
+
+  private enqueue(alert: Alert) {
+    if (this.alertQueue.some(existing => existing.id === alert.id)) {
+      return;
+    }
+    this.alertQueue.push(alert);
+    if (!this.isProcessingQueue) {
+      this.processNextAlert();
+    }
   }
 
   private processNextAlert() {
@@ -89,40 +145,6 @@ export class AlertService {
     }
   }
 
-  private fetchAlerts(): Observable<Alert[]> {
-    console.log('Fetching alerts...');
-    return this.http.get<AlertResponse>(`${this.baseUrl}/recent`).pipe(
-      tap({
-        next: (response) => {
-          console.log('Received response:', response);
-          if (response.data?.length) {
-            const newAlerts = response.data.filter(newAlert => 
-              !this.alertQueue.some(existing => existing.id === newAlert.id)
-            );
-            
-            if (newAlerts.length > 0) {
-              console.log('New alerts to display:', newAlerts);
-              this.alertQueue.push(...newAlerts);
-              
-              // Start processing queue if not already processing
-              if (!this.isProcessingQueue) {
-                this.processNextAlert();
-              }
-            }
-          }
-        },
-        error: (error) => {
-          console.error('Error fetching alerts:', error);
-        }
-      }),
-      catchError(error => {
-        console.error('Error in fetchAlerts:', error);
-        return this.alerts;
-      }),
-      switchMap(() => this.alerts)
-    );
-  }
-
   removeAlert(id: string) {
     // Remove from queue if present
     this.alertQueue = this.alertQueue.filter(alert => alert.id !== id);
@@ -0,0 +1,19 @@
+import { Injectable } from '@angular/core';
+import { HttpClient } from '@angular/common/http';
+import { Observable, map } from 'rxjs';
+import { environment } from '../../environments/environment';
+
+// EventSource cannot send headers, so event streams are opened with a ticket in the URL. The ticket
+// expires within a minute and opens nothing but streams, unlike the JWT, which must stay out of
+// proxy access logs and the browser history.
+@Injectable({
+  providedIn: 'root'
+})
+export class StreamTicketService {
+  constructor(private readonly http: HttpClient) {}
+
+  ticket(): Observable<string> {
+    return this.http.post<{ ticket: string }>(`${environment.apiUrl}/api/auth/stream-ticket`, {})
+      .pipe(map(response => response.ticket));
+  }
+}